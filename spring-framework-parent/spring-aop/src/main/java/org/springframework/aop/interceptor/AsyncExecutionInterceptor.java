@@ -27,9 +27,12 @@ import org.aopalliance.intercept.MethodInvocation;
 import org.springframework.aop.support.AopUtils;
 import org.springframework.core.BridgeMethodResolver;
 import org.springframework.core.Ordered;
+import org.springframework.core.task.AsyncListenableTaskExecutor;
 import org.springframework.core.task.AsyncTaskExecutor;
 import org.springframework.util.ClassUtils;
 import org.springframework.util.ReflectionUtils;
+import org.springframework.util.concurrent.ListenableFuture;
+import org.springframework.util.concurrent.ListenableFutureTask;
 
 /**
  * AOP Alliance {@code MethodInterceptor} that processes method invocations
@@ -46,6 +49,11 @@ import org.springframework.util.ReflectionUtils;
  * (like Spring's {@link org.springframework.scheduling.annotation.AsyncResult}
  * or EJB 3.1's {@code javax.ejb.AsyncResult}).
  *
+ * <p>As of Spring 3.2.12, the return type may also be declared as
+ * {@link org.springframework.util.concurrent.ListenableFuture}, in which case
+ * the proxy returns a handle that accepts completion callbacks, allowing callers
+ * to compose asynchronous results without blocking on {@code Future.get()}.
+ *
  * <p>As of Spring 3.1.2 the {@code AnnotationAsyncExecutionInterceptor} subclass is
  * preferred for use due to its support for executor qualification in conjunction with
  * Spring's {@code @Async} annotation.
@@ -74,8 +82,8 @@ public class AsyncExecutionInterceptor extends AsyncExecutionAspectSupport
 	 * Intercept the given method invocation, submit the actual calling of the method to
 	 * the correct task executor and return immediately to the caller.
 	 * @param invocation the method to intercept and make asynchronous
-	 * @return {@link Future} if the original method returns {@code Future}; {@code null}
-	 * otherwise.
+	 * @return {@link Future} if the original method returns {@code Future}
+	 * ({@link ListenableFuture} if declared as such); {@code null} otherwise.
 	 */
 	public Object invoke(final MethodInvocation invocation) throws Throwable {
 		Class<?> targetClass = (invocation.getThis() != null ? AopUtils.getTargetClass(invocation.getThis()) : null);
@@ -88,30 +96,47 @@ public class AsyncExecutionInterceptor extends AsyncExecutionAspectSupport
 					"No executor specified and no default executor set on AsyncExecutionInterceptor either");
 		}
 
-		Future<?> result = executor.submit(
-				new Callable<Object>() {
-					public Object call() throws Exception {
-						try {
-							Object result = invocation.proceed();
-							if (result instanceof Future) {
-								return ((Future<?>) result).get();
-							}
-						}
-						catch (Throwable ex) {
-							ReflectionUtils.rethrowException(ex);
-						}
-						return null;
+		Callable<Object> task = new Callable<Object>() {
+			public Object call() throws Exception {
+				try {
+					Object result = invocation.proceed();
+					if (result instanceof Future) {
+						return ((Future<?>) result).get();
 					}
-				});
+				}
+				catch (Throwable ex) {
+					ReflectionUtils.rethrowException(ex);
+				}
+				return null;
+			}
+		};
 
-		if (Future.class.isAssignableFrom(invocation.getMethod().getReturnType())) {
-			return result;
+		Class<?> returnType = invocation.getMethod().getReturnType();
+		if (ListenableFuture.class.isAssignableFrom(returnType)) {
+			return submitListenable(executor, task);
+		}
+		else if (Future.class.isAssignableFrom(returnType)) {
+			return executor.submit(task);
 		}
 		else {
+			executor.submit(task);
 			return null;
 		}
 	}
 
+	/**
+	 * Submit the given task for a {@code ListenableFuture} result, using the
+	 * executor's native support if it is an {@link AsyncListenableTaskExecutor}.
+	 */
+	private ListenableFuture<Object> submitListenable(AsyncTaskExecutor executor, Callable<Object> task) {
+		if (executor instanceof AsyncListenableTaskExecutor) {
+			return ((AsyncListenableTaskExecutor) executor).submitListenable(task);
+		}
+		ListenableFutureTask<Object> future = new ListenableFutureTask<Object>(task);
+		executor.execute(future, AsyncTaskExecutor.TIMEOUT_INDEFINITE);
+		return future;
+	}
+
 	/**
 	 * This implementation is a no-op for compatibility in Spring 3.1.2.
 	 * Subclasses may override to provide support for extracting qualifier information,
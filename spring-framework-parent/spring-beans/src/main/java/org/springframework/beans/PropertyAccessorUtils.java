@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2012 the original author or authors.
+ * Copyright 2002-2014 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -193,6 +193,10 @@ public abstract class PropertyAccessorUtils {
 		if (propertyName == null) {
 			return "";
 		}
+		if (propertyName.indexOf(PropertyAccessor.PROPERTY_KEY_PREFIX_CHAR) == -1) {
+			// No keys to canonicalize
+			return propertyName;
+		}
 
 		StringBuilder sb = new StringBuilder(propertyName);
 		int searchIndex = 0;
@@ -0,0 +1,172 @@
+/*
+ * Copyright 2002-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.context.support;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+/**
+ * Background watcher for the properties files of a
+ * {@link ReloadableResourceBundleMessageSource}, based on the NIO
+ * {@link WatchService}. Registers the parent directory of each watched file
+ * and triggers a reload of the corresponding bundle file on every change,
+ * using a single daemon thread.
+ *
+ * <p>Requires Java 7 or higher; only to be used by
+ * {@link ReloadableResourceBundleMessageSource#setWatchForFileChanges}.
+ *
+ * @author agent
+ * @since 3.2.12
+ */
+class PropertiesFileWatcher implements Runnable {
+
+	private static final Log logger = LogFactory.getLog(PropertiesFileWatcher.class);
+
+	private final ReloadableResourceBundleMessageSource messageSource;
+
+	private final WatchService watchService;
+
+	/** Watched directories per WatchKey */
+	private final Map<WatchKey, File> watchedDirectories = new ConcurrentHashMap<WatchKey, File>();
+
+	/** Bundle filenames (without suffix) per watched file */
+	private final Map<File, String> watchedFiles = new ConcurrentHashMap<File, String>();
+
+	private final Thread watcherThread;
+
+	private volatile boolean running = true;
+
+
+	/**
+	 * Create a new PropertiesFileWatcher for the given message source,
+	 * immediately starting its watcher thread.
+	 * @param messageSource the message source to notify of file changes
+	 * @throws IOException if the WatchService could not be opened
+	 */
+	public PropertiesFileWatcher(ReloadableResourceBundleMessageSource messageSource) throws IOException {
+		this.messageSource = messageSource;
+		this.watchService = FileSystems.getDefault().newWatchService();
+		this.watcherThread = new Thread(this, "PropertiesFileWatcher-" + Integer.toHexString(messageSource.hashCode()));
+		this.watcherThread.setDaemon(true);
+		this.watcherThread.start();
+	}
+
+
+	/**
+	 * Watch the given file for changes, reloading the given bundle filename
+	 * whenever the file gets created, modified or deleted.
+	 * @param file the file to watch (which does not need to exist yet)
+	 * @param filename the bundle filename to reload
+	 * @throws IOException if the parent directory could not be registered
+	 */
+	public void watch(File file, String filename) throws IOException {
+		File absoluteFile = file.getAbsoluteFile();
+		if (this.watchedFiles.containsKey(absoluteFile)) {
+			return;
+		}
+		File directory = absoluteFile.getParentFile();
+		if (directory == null || !directory.isDirectory()) {
+			return;
+		}
+		if (!this.watchedDirectories.containsValue(directory)) {
+			WatchKey key = directory.toPath().register(this.watchService, StandardWatchEventKinds.ENTRY_CREATE,
+					StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+			this.watchedDirectories.put(key, directory);
+		}
+		this.watchedFiles.put(absoluteFile, filename);
+		if (logger.isDebugEnabled()) {
+			logger.debug("Watching properties file [" + absoluteFile + "] for changes");
+		}
+	}
+
+	public void run() {
+		while (this.running) {
+			WatchKey key;
+			try {
+				key = this.watchService.take();
+			}
+			catch (InterruptedException ex) {
+				Thread.currentThread().interrupt();
+				return;
+			}
+			catch (ClosedWatchServiceException ex) {
+				return;
+			}
+			File directory = this.watchedDirectories.get(key);
+			Set<String> changedFilenames = new LinkedHashSet<String>();
+			for (WatchEvent<?> event : key.pollEvents()) {
+				if (directory == null) {
+					continue;
+				}
+				if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+					// Events may have been lost: reload every file in this directory.
+					for (Map.Entry<File, String> entry : this.watchedFiles.entrySet()) {
+						if (directory.equals(entry.getKey().getParentFile())) {
+							changedFilenames.add(entry.getValue());
+						}
+					}
+				}
+				else {
+					File changedFile = new File(directory, ((Path) event.context()).toString());
+					String filename = this.watchedFiles.get(changedFile);
+					if (filename != null) {
+						changedFilenames.add(filename);
+					}
+				}
+			}
+			if (!key.reset()) {
+				this.watchedDirectories.remove(key);
+			}
+			for (String filename : changedFilenames) {
+				try {
+					this.messageSource.reloadWatchedProperties(filename);
+				}
+				catch (Throwable ex) {
+					logger.warn("Failed to reload properties for filename [" + filename + "]", ex);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Stop the watcher thread and close the underlying WatchService.
+	 */
+	public void close() {
+		this.running = false;
+		try {
+			this.watchService.close();
+		}
+		catch (IOException ex) {
+			logger.debug("Could not close WatchService", ex);
+		}
+	}
+
+}
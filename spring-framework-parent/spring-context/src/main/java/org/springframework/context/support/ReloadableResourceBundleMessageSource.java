@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2012 the original author or authors.
+ * Copyright 2002-2014 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,22 +16,30 @@
 
 package org.springframework.context.support;
 
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.text.MessageFormat;
 import java.util.ArrayList;
+import java.util.Enumeration;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
 
+import org.springframework.beans.factory.DisposableBean;
 import org.springframework.context.ResourceLoaderAware;
 import org.springframework.core.io.DefaultResourceLoader;
 import org.springframework.core.io.Resource;
 import org.springframework.core.io.ResourceLoader;
 import org.springframework.util.Assert;
+import org.springframework.util.ClassUtils;
 import org.springframework.util.DefaultPropertiesPersister;
 import org.springframework.util.PropertiesPersister;
 import org.springframework.util.StringUtils;
@@ -85,6 +93,9 @@ import org.springframework.util.StringUtils;
  * message lookup takes about twice as long - with the benefit that changes in
  * individual properties files are detected with a maximum delay of 1 second.
  * Higher "cacheSeconds" values usually <i>do not</i> make a significant difference.
+ * Alternatively, {@link #setWatchForFileChanges "watchForFileChanges"} lets a
+ * background thread reload changed files, keeping message lookup free of any
+ * file system access.
  * 
  * <p> 这个MessageSource实现通常比ResourceBundleMessageSource快一点，后者构建在
  * java.util.ResourceBundle上 - 在默认模式下，即永远缓存时。将“cacheSeconds”设置为1时，
@@ -119,12 +130,16 @@ import org.springframework.util.StringUtils;
  * @see java.util.ResourceBundle
  */
 public class ReloadableResourceBundleMessageSource extends AbstractMessageSource
-		implements ResourceLoaderAware {
+		implements ResourceLoaderAware, DisposableBean {
 
 	private static final String PROPERTIES_SUFFIX = ".properties";
 
 	private static final String XML_SUFFIX = ".xml";
 
+	/** Whether java.nio.file.WatchService is available, for watching properties files */
+	private static final boolean watchServiceAvailable = ClassUtils.isPresent(
+			"java.nio.file.WatchService", ReloadableResourceBundleMessageSource.class.getClassLoader());
+
 
 	private String[] basenames = new String[0];
 
@@ -134,7 +149,9 @@ public class ReloadableResourceBundleMessageSource extends AbstractMessageSource
 
 	private boolean fallbackToSystemLocale = true;
 
-	private long cacheMillis = -1;
+	private volatile long cacheMillis = -1;
+
+	private boolean watchForFileChanges = false;
 
 	private PropertiesPersister propertiesPersister = new DefaultPropertiesPersister();
 
@@ -142,16 +159,24 @@ public class ReloadableResourceBundleMessageSource extends AbstractMessageSource
 
 	/** Cache to hold filename lists per Locale */
 	/** 缓存以保存每个区域设置的文件名列表 */
-	private final Map<String, Map<Locale, List<String>>> cachedFilenames =
-			new HashMap<String, Map<Locale, List<String>>>();
+	private final ConcurrentMap<String, Map<Locale, List<String>>> cachedFilenames =
+			new ConcurrentHashMap<String, Map<Locale, List<String>>>();
 
 	/** Cache to hold already loaded properties per filename */
 	/** 缓存以保存每个文件名已加载的属性 */
-	private final Map<String, PropertiesHolder> cachedProperties = new HashMap<String, PropertiesHolder>();
+	private final ConcurrentMap<String, PropertiesHolder> cachedProperties =
+			new ConcurrentHashMap<String, PropertiesHolder>();
 
 	/** Cache to hold merged loaded properties per locale */
 	/** 缓存以保存每个区域设置的合并加载属性 */
-	private final Map<Locale, PropertiesHolder> cachedMergedProperties = new HashMap<Locale, PropertiesHolder>();
+	private final ConcurrentMap<Locale, PropertiesHolder> cachedMergedProperties =
+			new ConcurrentHashMap<Locale, PropertiesHolder>();
+
+	/** Number of properties reloads so far, for detecting outdated merged properties */
+	private final AtomicLong reloadCount = new AtomicLong();
+
+	/** Background watcher for changes in properties files, if activated */
+	private volatile PropertiesFileWatcher fileWatcher;
 
 
 	/**
@@ -320,6 +345,26 @@ public class ReloadableResourceBundleMessageSource extends AbstractMessageSource
 		this.cacheMillis = (cacheSeconds * 1000);
 	}
 
+	/**
+	 * Set whether to watch loaded properties files for changes, reloading them
+	 * in a background thread as soon as the file system reports a modification.
+	 * <p>Default is "false". If turned on, properties files are cached forever
+	 * from the perspective of message lookup, i.e. the
+	 * {@link #setCacheSeconds "cacheSeconds"} setting is ignored: Messages are
+	 * resolved against merged, per-Locale message tables without any timestamp
+	 * checks or locking, and replaced as a whole once a watched file changes.
+	 * <p>Requires Java 7 or higher, and only applies to properties files that
+	 * are resolvable in the file system. Files within jar files are simply
+	 * cached forever.
+	 * @see java.nio.file.WatchService
+	 */
+	public void setWatchForFileChanges(boolean watchForFileChanges) {
+		if (watchForFileChanges && !watchServiceAvailable) {
+			throw new IllegalStateException("Watching properties files for changes requires java.nio.file.WatchService (Java 7 or higher)");
+		}
+		this.watchForFileChanges = watchForFileChanges;
+	}
+
 	/**
 	 * Set the PropertiesPersister to use for parsing properties files.
 	 * 
@@ -365,7 +410,7 @@ public class ReloadableResourceBundleMessageSource extends AbstractMessageSource
 	 */
 	@Override
 	protected String resolveCodeWithoutArguments(String code, Locale locale) {
-		if (this.cacheMillis < 0) {
+		if (isCachingMergedProperties()) {
 			PropertiesHolder propHolder = getMergedProperties(locale);
 			String result = propHolder.getProperty(code);
 			if (result != null) {
@@ -396,7 +441,7 @@ public class ReloadableResourceBundleMessageSource extends AbstractMessageSource
 	 */
 	@Override
 	protected MessageFormat resolveCode(String code, Locale locale) {
-		if (this.cacheMillis < 0) {
+		if (isCachingMergedProperties()) {
 			PropertiesHolder propHolder = getMergedProperties(locale);
 			MessageFormat result = propHolder.getMessageFormat(code, locale);
 			if (result != null) {
@@ -418,6 +463,14 @@ public class ReloadableResourceBundleMessageSource extends AbstractMessageSource
 		return null;
 	}
 
+	/**
+	 * Return whether messages are resolved against merged properties per Locale,
+	 * i.e. when caching forever or when reloading through a file watcher.
+	 */
+	private boolean isCachingMergedProperties() {
+		return (this.cacheMillis < 0 || this.watchForFileChanges);
+	}
+
 
 	/**
 	 * Get a PropertiesHolder that contains the actually visible properties
@@ -434,26 +487,40 @@ public class ReloadableResourceBundleMessageSource extends AbstractMessageSource
 	 * 
 	 */
 	protected PropertiesHolder getMergedProperties(Locale locale) {
-		synchronized (this.cachedMergedProperties) {
-			PropertiesHolder mergedHolder = this.cachedMergedProperties.get(locale);
-			if (mergedHolder != null) {
-				return mergedHolder;
-			}
-			Properties mergedProps = new Properties();
-			mergedHolder = new PropertiesHolder(mergedProps, -1);
-			for (int i = this.basenames.length - 1; i >= 0; i--) {
-				List filenames = calculateAllFilenames(this.basenames[i], locale);
-				for (int j = filenames.size() - 1; j >= 0; j--) {
-					String filename = (String) filenames.get(j);
-					PropertiesHolder propHolder = getProperties(filename);
-					if (propHolder.getProperties() != null) {
-						mergedProps.putAll(propHolder.getProperties());
-					}
+		PropertiesHolder mergedHolder = this.cachedMergedProperties.get(locale);
+		if (mergedHolder != null) {
+			return mergedHolder;
+		}
+		long reloadCount = this.reloadCount.get();
+		mergedHolder = mergeProperties(locale);
+		PropertiesHolder existing = this.cachedMergedProperties.putIfAbsent(locale, mergedHolder);
+		if (existing != null) {
+			return existing;
+		}
+		if (this.reloadCount.get() != reloadCount) {
+			// A file has been reloaded in the meantime: let the next call merge again.
+			this.cachedMergedProperties.remove(locale, mergedHolder);
+		}
+		return mergedHolder;
+	}
+
+	/**
+	 * Merge the properties of all bundle files for the given Locale into
+	 * a new, effectively immutable PropertiesHolder.
+	 */
+	private PropertiesHolder mergeProperties(Locale locale) {
+		Properties mergedProps = new Properties();
+		for (int i = this.basenames.length - 1; i >= 0; i--) {
+			List<String> filenames = calculateAllFilenames(this.basenames[i], locale);
+			for (int j = filenames.size() - 1; j >= 0; j--) {
+				String filename = filenames.get(j);
+				PropertiesHolder propHolder = getProperties(filename);
+				if (propHolder.getProperties() != null) {
+					mergedProps.putAll(propHolder.getProperties());
 				}
 			}
-			this.cachedMergedProperties.put(locale, mergedHolder);
-			return mergedHolder;
 		}
+		return new PropertiesHolder(mergedProps, -1);
 	}
 
 	/**
@@ -471,36 +538,34 @@ public class ReloadableResourceBundleMessageSource extends AbstractMessageSource
 	 * @see #calculateFilenamesForLocale
 	 */
 	protected List<String> calculateAllFilenames(String basename, Locale locale) {
-		synchronized (this.cachedFilenames) {
-			Map<Locale, List<String>> localeMap = this.cachedFilenames.get(basename);
-			if (localeMap != null) {
-				List<String> filenames = localeMap.get(locale);
-				if (filenames != null) {
-					return filenames;
-				}
+		Map<Locale, List<String>> localeMap = this.cachedFilenames.get(basename);
+		if (localeMap != null) {
+			List<String> filenames = localeMap.get(locale);
+			if (filenames != null) {
+				return filenames;
 			}
-			List<String> filenames = new ArrayList<String>(7);
-			filenames.addAll(calculateFilenamesForLocale(basename, locale));
-			if (this.fallbackToSystemLocale && !locale.equals(Locale.getDefault())) {
-				List<String> fallbackFilenames = calculateFilenamesForLocale(basename, Locale.getDefault());
-				for (String fallbackFilename : fallbackFilenames) {
-					if (!filenames.contains(fallbackFilename)) {
-						// Entry for fallback locale that isn't already in filenames list.
-						filenames.add(fallbackFilename);
-					}
+		}
+		List<String> filenames = new ArrayList<String>(7);
+		filenames.addAll(calculateFilenamesForLocale(basename, locale));
+		if (this.fallbackToSystemLocale && !locale.equals(Locale.getDefault())) {
+			List<String> fallbackFilenames = calculateFilenamesForLocale(basename, Locale.getDefault());
+			for (String fallbackFilename : fallbackFilenames) {
+				if (!filenames.contains(fallbackFilename)) {
+					// Entry for fallback locale that isn't already in filenames list.
+					filenames.add(fallbackFilename);
 				}
 			}
-			filenames.add(basename);
-			if (localeMap != null) {
-				localeMap.put(locale, filenames);
-			}
-			else {
-				localeMap = new HashMap<Locale, List<String>>();
-				localeMap.put(locale, filenames);
-				this.cachedFilenames.put(basename, localeMap);
+		}
+		filenames.add(basename);
+		if (localeMap == null) {
+			localeMap = new ConcurrentHashMap<Locale, List<String>>();
+			Map<Locale, List<String>> existing = this.cachedFilenames.putIfAbsent(basename, localeMap);
+			if (existing != null) {
+				localeMap = existing;
 			}
-			return filenames;
 		}
+		localeMap.put(locale, filenames);
+		return filenames;
 	}
 
 	/**
@@ -558,16 +623,44 @@ public class ReloadableResourceBundleMessageSource extends AbstractMessageSource
 	 * @return the current PropertiesHolder for the bundle - 捆绑包的当前PropertiesHolder
 	 */
 	protected PropertiesHolder getProperties(String filename) {
-		synchronized (this.cachedProperties) {
-			PropertiesHolder propHolder = this.cachedProperties.get(filename);
-			if (propHolder != null &&
-					(propHolder.getRefreshTimestamp() < 0 ||
-					 propHolder.getRefreshTimestamp() > System.currentTimeMillis() - this.cacheMillis)) {
-				// up to date
+		PropertiesHolder propHolder = this.cachedProperties.get(filename);
+		long originalTimestamp = -2;
+
+		if (propHolder != null) {
+			originalTimestamp = propHolder.getRefreshTimestamp();
+			if (originalTimestamp == -1 || originalTimestamp > System.currentTimeMillis() - this.cacheMillis) {
+				// Up to date
+				return propHolder;
+			}
+		}
+		else {
+			propHolder = new PropertiesHolder();
+			PropertiesHolder existingHolder = this.cachedProperties.putIfAbsent(filename, propHolder);
+			if (existingHolder != null) {
+				propHolder = existingHolder;
+			}
+		}
+
+		// At this point, we need to refresh...
+		if (propHolder.getRefreshTimestamp() >= 0) {
+			// A populated but stale holder: keep serving it while another thread refreshes.
+			if (!propHolder.refreshLock.tryLock()) {
 				return propHolder;
 			}
+		}
+		else {
+			propHolder.refreshLock.lock();
+		}
+		try {
+			PropertiesHolder existingHolder = this.cachedProperties.get(filename);
+			if (existingHolder != null && existingHolder.getRefreshTimestamp() > originalTimestamp) {
+				return existingHolder;
+			}
 			return refreshProperties(filename, propHolder);
 		}
+		finally {
+			propHolder.refreshLock.unlock();
+		}
 	}
 
 	/**
@@ -582,16 +675,23 @@ public class ReloadableResourceBundleMessageSource extends AbstractMessageSource
 	 * @param propHolder the current PropertiesHolder for the bundle - 捆绑包的当前PropertiesHolder
 	 */
 	protected PropertiesHolder refreshProperties(String filename, PropertiesHolder propHolder) {
-		long refreshTimestamp = (this.cacheMillis < 0 ? -1 : System.currentTimeMillis());
+		boolean watching = this.watchForFileChanges;
+		long refreshTimestamp = (this.cacheMillis < 0 || watching ? -1 : System.currentTimeMillis());
 
 		Resource resource = this.resourceLoader.getResource(filename + PROPERTIES_SUFFIX);
+		if (watching) {
+			watchResource(resource, filename);
+		}
 		if (!resource.exists()) {
 			resource = this.resourceLoader.getResource(filename + XML_SUFFIX);
+			if (watching) {
+				watchResource(resource, filename);
+			}
 		}
 
 		if (resource.exists()) {
 			long fileTimestamp = -1;
-			if (this.cacheMillis >= 0) {
+			if (this.cacheMillis >= 0 && !watching) {
 				// Last-modified timestamp of file will just be read if caching with timeout.
 				try {
 					fileTimestamp = resource.lastModified();
@@ -697,12 +797,9 @@ public class ReloadableResourceBundleMessageSource extends AbstractMessageSource
 	 */
 	public void clearCache() {
 		logger.debug("Clearing entire resource bundle cache");
-		synchronized (this.cachedProperties) {
-			this.cachedProperties.clear();
-		}
-		synchronized (this.cachedMergedProperties) {
-			this.cachedMergedProperties.clear();
-		}
+		this.reloadCount.incrementAndGet();
+		this.cachedProperties.clear();
+		this.cachedMergedProperties.clear();
 	}
 
 	/**
@@ -720,6 +817,78 @@ public class ReloadableResourceBundleMessageSource extends AbstractMessageSource
 	}
 
 
+	/**
+	 * Register the given properties file resource with the file watcher,
+	 * provided that it is resolvable in the file system.
+	 */
+	private void watchResource(Resource resource, String filename) {
+		File file;
+		try {
+			file = resource.getFile();
+		}
+		catch (IOException ex) {
+			// Not in the file system, e.g. within a jar file: cache it forever.
+			return;
+		}
+		try {
+			PropertiesFileWatcher watcher = this.fileWatcher;
+			if (watcher == null) {
+				synchronized (this) {
+					watcher = this.fileWatcher;
+					if (watcher == null) {
+						watcher = new PropertiesFileWatcher(this);
+						this.fileWatcher = watcher;
+					}
+				}
+			}
+			watcher.watch(file, filename);
+		}
+		catch (IOException ex) {
+			if (logger.isWarnEnabled()) {
+				logger.warn("Could not watch properties file [" + file + "] for changes", ex);
+			}
+		}
+	}
+
+	/**
+	 * Reload the given bundle file after a change has been reported by the
+	 * file watcher, replacing all affected merged properties as a whole.
+	 * Called in the watcher thread.
+	 * @param filename the bundle filename (without suffix) that has changed
+	 */
+	void reloadWatchedProperties(String filename) {
+		if (logger.isDebugEnabled()) {
+			logger.debug("Reloading properties for filename [" + filename + "] after file change");
+		}
+		PropertiesHolder propHolder = this.cachedProperties.get(filename);
+		if (propHolder == null) {
+			return;
+		}
+		propHolder.refreshLock.lock();
+		try {
+			refreshProperties(filename, null);
+		}
+		finally {
+			propHolder.refreshLock.unlock();
+		}
+		this.reloadCount.incrementAndGet();
+		for (Locale locale : this.cachedMergedProperties.keySet()) {
+			this.cachedMergedProperties.put(locale, mergeProperties(locale));
+		}
+	}
+
+	/**
+	 * Stop watching properties files for changes, if applicable.
+	 */
+	public void destroy() {
+		PropertiesFileWatcher watcher = this.fileWatcher;
+		if (watcher != null) {
+			this.fileWatcher = null;
+			watcher.close();
+		}
+	}
+
+
 	@Override
 	public String toString() {
 		return getClass().getName() + ": basenames=[" + StringUtils.arrayToCommaDelimitedString(this.basenames) + "]";
@@ -738,23 +907,32 @@ public class ReloadableResourceBundleMessageSource extends AbstractMessageSource
 	 */
 	protected class PropertiesHolder {
 
-		private Properties properties;
+		private final Properties properties;
 
-		private long fileTimestamp = -1;
+		/** Immutable copy of the properties, for lookups without Hashtable locking */
+		private final Map<String, String> messages;
 
-		private long refreshTimestamp = -1;
+		private final long fileTimestamp;
+
+		private volatile long refreshTimestamp = -2;
+
+		private final ReentrantLock refreshLock = new ReentrantLock();
 
 		/** Cache to hold already generated MessageFormats per message code */
 		/** 缓存以保存每个消息代码已生成的MessageFormats */
-		private final Map<String, Map<Locale, MessageFormat>> cachedMessageFormats =
-				new HashMap<String, Map<Locale, MessageFormat>>();
+		private final ConcurrentMap<String, ConcurrentMap<Locale, MessageFormat>> cachedMessageFormats =
+				new ConcurrentHashMap<String, ConcurrentMap<Locale, MessageFormat>>();
 
 		public PropertiesHolder(Properties properties, long fileTimestamp) {
 			this.properties = properties;
+			this.messages = copyMessages(properties);
 			this.fileTimestamp = fileTimestamp;
 		}
 
 		public PropertiesHolder() {
+			this.properties = null;
+			this.messages = null;
+			this.fileTimestamp = -1;
 		}
 
 		public Properties getProperties() {
@@ -774,36 +952,64 @@ public class ReloadableResourceBundleMessageSource extends AbstractMessageSource
 		}
 
 		public String getProperty(String code) {
-			if (this.properties == null) {
+			if (this.messages == null) {
 				return null;
 			}
-			return this.properties.getProperty(code);
+			return this.messages.get(code);
+		}
+
+		/**
+		 * Copy all String entries of the given Properties, including their
+		 * defaults (which {@code entrySet()} does not expose).
+		 */
+		private Map<String, String> copyMessages(Properties properties) {
+			Map<String, String> messages = new HashMap<String, String>(properties.size());
+			try {
+				for (Enumeration<?> names = properties.propertyNames(); names.hasMoreElements();) {
+					Object name = names.nextElement();
+					String value = properties.getProperty((String) name);
+					if (value != null) {
+						messages.put((String) name, value);
+					}
+				}
+			}
+			catch (ClassCastException ex) {
+				// Non-String key encountered: copy the String entries only.
+				messages.clear();
+				for (Map.Entry<Object, Object> entry : properties.entrySet()) {
+					if (entry.getKey() instanceof String && entry.getValue() instanceof String) {
+						messages.put((String) entry.getKey(), (String) entry.getValue());
+					}
+				}
+			}
+			return messages;
 		}
 
 		public MessageFormat getMessageFormat(String code, Locale locale) {
-			if (this.properties == null) {
+			if (this.messages == null) {
 				return null;
 			}
-			synchronized (this.cachedMessageFormats) {
-				Map<Locale, MessageFormat> localeMap = this.cachedMessageFormats.get(code);
-				if (localeMap != null) {
-					MessageFormat result = localeMap.get(locale);
-					if (result != null) {
-						return result;
-					}
+			ConcurrentMap<Locale, MessageFormat> localeMap = this.cachedMessageFormats.get(code);
+			if (localeMap != null) {
+				MessageFormat result = localeMap.get(locale);
+				if (result != null) {
+					return result;
 				}
-				String msg = this.properties.getProperty(code);
-				if (msg != null) {
-					if (localeMap == null) {
-						localeMap = new HashMap<Locale, MessageFormat>();
-						this.cachedMessageFormats.put(code, localeMap);
+			}
+			String msg = this.messages.get(code);
+			if (msg != null) {
+				if (localeMap == null) {
+					localeMap = new ConcurrentHashMap<Locale, MessageFormat>();
+					ConcurrentMap<Locale, MessageFormat> existing = this.cachedMessageFormats.putIfAbsent(code, localeMap);
+					if (existing != null) {
+						localeMap = existing;
 					}
-					MessageFormat result = createMessageFormat(msg, locale);
-					localeMap.put(locale, result);
-					return result;
 				}
-				return null;
+				MessageFormat result = createMessageFormat(msg, locale);
+				MessageFormat existing = localeMap.putIfAbsent(locale, result);
+				return (existing != null ? existing : result);
 			}
+			return null;
 		}
 	}
 
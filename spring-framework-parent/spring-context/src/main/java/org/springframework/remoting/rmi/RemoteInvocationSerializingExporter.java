@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2012 the original author or authors.
+ * Copyright 2002-2014 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -26,6 +26,7 @@ import java.rmi.RemoteException;
 import org.springframework.beans.factory.InitializingBean;
 import org.springframework.remoting.support.RemoteInvocation;
 import org.springframework.remoting.support.RemoteInvocationBasedExporter;
+import org.springframework.remoting.support.RemoteInvocationCodec;
 import org.springframework.remoting.support.RemoteInvocationResult;
 import org.springframework.util.Assert;
 import org.springframework.util.ClassUtils;
@@ -59,6 +60,8 @@ public abstract class RemoteInvocationSerializingExporter extends RemoteInvocati
 
 	private boolean acceptProxyClasses = true;
 
+	private RemoteInvocationCodec codec;
+
 	private Object proxy;
 
 
@@ -93,6 +96,26 @@ public abstract class RemoteInvocationSerializingExporter extends RemoteInvocati
 		return this.acceptProxyClasses;
 	}
 
+	/**
+	 * Specify a codec to use instead of Java serialization for requests
+	 * that carry the codec's content type, e.g. a
+	 * {@link org.springframework.remoting.support.CompactRemoteInvocationCodec}.
+	 * <p>Such requests get answered in the codec's format as well. Requests
+	 * with any other content type keep using Java serialization, so clients
+	 * can be switched over to the codec one at a time.
+	 * @see #isCodecContentType
+	 */
+	public void setCodec(RemoteInvocationCodec codec) {
+		this.codec = codec;
+	}
+
+	/**
+	 * Return the codec to use for requests with the codec's content type, if any.
+	 */
+	public RemoteInvocationCodec getCodec() {
+		return this.codec;
+	}
+
 
 	public void afterPropertiesSet() {
 		prepare();
@@ -111,6 +134,54 @@ public abstract class RemoteInvocationSerializingExporter extends RemoteInvocati
 	}
 
 
+	/**
+	 * Determine whether the given request content type indicates
+	 * a message in the format of the configured {@link #setCodec codec}.
+	 * @param contentType the content type of the current request
+	 * (may be {@code null})
+	 */
+	protected boolean isCodecContentType(String contentType) {
+		return (this.codec != null && contentType != null && contentType.startsWith(this.codec.getContentType()));
+	}
+
+	/**
+	 * Read a RemoteInvocation from the given InputStream,
+	 * using the configured {@link #setCodec codec}.
+	 * <p>Content that the codec embeds in Java serialization form
+	 * is read through {@link #createObjectInputStream}.
+	 * @param is the InputStream to read from
+	 * @return the RemoteInvocation object
+	 * @throws java.io.IOException in case of I/O failure
+	 * @throws ClassNotFoundException if case of a transferred class not
+	 * being found in the local ClassLoader
+	 */
+	protected RemoteInvocation decodeRemoteInvocation(InputStream is) throws IOException, ClassNotFoundException {
+		Object obj = getCodec().decode(is, new RemoteInvocationCodec.ObjectInputStreamFactory() {
+			public ObjectInputStream createObjectInputStream(InputStream in) throws IOException {
+				return RemoteInvocationSerializingExporter.this.createObjectInputStream(in);
+			}
+			public Class<?> resolveClass(String className) throws ClassNotFoundException {
+				return ClassUtils.forName(className, getBeanClassLoader());
+			}
+		});
+		if (!(obj instanceof RemoteInvocation)) {
+			throw new RemoteException("Decoded object needs to be assignable to type [" +
+					RemoteInvocation.class.getName() + "]: " + obj);
+		}
+		return (RemoteInvocation) obj;
+	}
+
+	/**
+	 * Write the given RemoteInvocationResult to the given OutputStream,
+	 * using the configured {@link #setCodec codec}.
+	 * @param result the RemoteInvocationResult object
+	 * @param os the OutputStream to write to
+	 * @throws java.io.IOException in case of I/O failure
+	 */
+	protected void encodeRemoteInvocationResult(RemoteInvocationResult result, OutputStream os) throws IOException {
+		getCodec().encode(result, os);
+	}
+
 	/**
 	 * Create an ObjectInputStream for the given InputStream.
 	 * <p>The default implementation creates a Spring {@link CodebaseAwareObjectInputStream}.
@@ -0,0 +1,64 @@
+/*
+ * Copyright 2002-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.remoting.support;
+
+import java.util.Arrays;
+
+import org.springframework.util.Assert;
+
+/**
+ * Special {@link RemoteInvocation} that carries several invocations
+ * for the same target, to be executed in one round trip. The exporter
+ * responds with a {@link RemoteInvocationResult} whose value is an array
+ * of RemoteInvocationResults, one per invocation, in the same order.
+ *
+ * @author agent
+ * @since 3.2.12
+ * @see RemoteInvocationBasedExporter#invokeAndCreateResult
+ * @see org.springframework.remoting.httpinvoker.HttpInvokerClientInterceptor#executeRequests
+ */
+public class BatchRemoteInvocation extends RemoteInvocation {
+
+	private static final long serialVersionUID = -3617394561263853751L;
+
+
+	private final RemoteInvocation[] invocations;
+
+
+	/**
+	 * Create a new BatchRemoteInvocation for the given invocations.
+	 * @param invocations the invocations to execute, in order
+	 */
+	public BatchRemoteInvocation(RemoteInvocation[] invocations) {
+		Assert.notNull(invocations, "Invocations must not be null");
+		this.invocations = invocations;
+	}
+
+
+	/**
+	 * Return the invocations to execute, in order.
+	 */
+	public RemoteInvocation[] getInvocations() {
+		return this.invocations;
+	}
+
+	@Override
+	public String toString() {
+		return "BatchRemoteInvocation: " + Arrays.asList(this.invocations);
+	}
+
+}
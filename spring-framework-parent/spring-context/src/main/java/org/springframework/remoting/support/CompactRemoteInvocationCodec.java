@@ -0,0 +1,1010 @@
+/*
+ * Copyright 2002-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.remoting.support;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InvalidClassException;
+import java.io.InvalidObjectException;
+import java.io.NotSerializableException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.io.Serializable;
+import java.io.StreamCorruptedException;
+import java.lang.reflect.Array;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.SortedSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+import org.springframework.core.ConfigurableObjectInputStream;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ReflectionUtils;
+
+/**
+ * {@link RemoteInvocationCodec} implementation with a compact binary format,
+ * considerably smaller and cheaper to produce than Java serialization for
+ * typical service invocations.
+ *
+ * <p>Strings, primitive wrappers, dates, enums, big numbers, arrays and the
+ * common {@code java.util} collection types are written with dedicated tags
+ * and variable-length integers. Each class name is written once per message
+ * and referenced by index from then on. Shared and circular references are
+ * preserved.
+ *
+ * <p>Plain serializable objects of the {@link #setCompactClasses compact classes}
+ * are written field by field, with their field names sent along with the first
+ * occurrence of their class. Such objects are instantiated through their no-arg
+ * constructor, so transient fields keep the values assigned there (in contrast
+ * to Java serialization). All other objects - as well as compact classes that
+ * customize their serialized form (custom {@code writeObject} / {@code readObject}
+ * methods, {@code writeReplace} / {@code readResolve}, {@link Externalizable}),
+ * declare final fields or do not have a non-private no-arg constructor - fall
+ * back to standard Java serialization, embedded into the compact message.
+ * Non-serializable objects are rejected just like with Java serialization.
+ *
+ * <p>Decoding only instantiates and populates compact classes field by field,
+ * rejecting field-based content for any other class. Embedded Java serialization
+ * content is read through the caller's {@link ObjectInputStreamFactory}, i.e. with
+ * the same settings as plain serialized requests. Lengths read from the message are
+ * checked against the {@link #setMaxLength maximum length}, buffers grow with the
+ * data actually received rather than being allocated upfront for the announced
+ * length, and nesting is limited to the {@link #setMaxDepth maximum depth}.
+ *
+ * <p>Reflective class metadata is cached per codec instance, so a codec
+ * is meant to be shared, e.g. as a bean reference between an exporter
+ * and its request executor. Optionally deflates the message body.
+ *
+ * @author agent
+ * @since 3.2.12
+ * @see #setCompactClasses
+ * @see #setMaxLength
+ * @see #setMaxDepth
+ * @see #setCompress
+ */
+public class CompactRemoteInvocationCodec implements RemoteInvocationCodec {
+
+	/**
+	 * Content type for compact invocation messages:
+	 * "application/x-spring-compact-invocation"
+	 */
+	public static final String CONTENT_TYPE_COMPACT_INVOCATION = "application/x-spring-compact-invocation";
+
+	private static final int FORMAT_VERSION = 1;
+
+	private static final int FLAG_DEFLATE = 1;
+
+	private static final int BUFFER_SIZE = 8192;
+
+	/** Number of array elements allocated upfront, before any elements have been read */
+	private static final int INITIAL_ARRAY_LENGTH = 1024;
+
+	private static final int TAG_NULL = 0;
+	private static final int TAG_TRUE = 1;
+	private static final int TAG_FALSE = 2;
+	private static final int TAG_INT = 3;
+	private static final int TAG_LONG = 4;
+	private static final int TAG_DOUBLE = 5;
+	private static final int TAG_FLOAT = 6;
+	private static final int TAG_SHORT = 7;
+	private static final int TAG_BYTE = 8;
+	private static final int TAG_CHAR = 9;
+	private static final int TAG_STRING = 10;
+	private static final int TAG_BIG_DECIMAL = 11;
+	private static final int TAG_BIG_INTEGER = 12;
+	private static final int TAG_DATE = 13;
+	private static final int TAG_CLASS = 14;
+	private static final int TAG_ENUM = 15;
+	private static final int TAG_REFERENCE = 16;
+	private static final int TAG_BYTE_ARRAY = 17;
+	private static final int TAG_ARRAY = 18;
+	private static final int TAG_COLLECTION = 19;
+	private static final int TAG_MAP = 20;
+	private static final int TAG_OBJECT = 21;
+	private static final int TAG_SERIALIZED = 22;
+	private static final int TAG_INVOCATION = 23;
+	private static final int TAG_BATCH_INVOCATION = 24;
+	private static final int TAG_RESULT = 25;
+
+	private static final Set<Class<?>> collectionTypes = new HashSet<Class<?>>(8);
+
+	static {
+		collectionTypes.add(ArrayList.class);
+		collectionTypes.add(LinkedList.class);
+		collectionTypes.add(HashSet.class);
+		collectionTypes.add(LinkedHashSet.class);
+		collectionTypes.add(TreeSet.class);
+		collectionTypes.add(HashMap.class);
+		collectionTypes.add(LinkedHashMap.class);
+		collectionTypes.add(TreeMap.class);
+	}
+
+
+	private final Set<Class<?>> compactClasses = new HashSet<Class<?>>();
+
+	private int maxLength = 16 * 1024 * 1024;
+
+	private int maxDepth = 256;
+
+	private boolean compress = false;
+
+	private int compressionLevel = Deflater.BEST_SPEED;
+
+	private final Map<Class<?>, ObjectDescriptor> descriptorCache = new ConcurrentHashMap<Class<?>, ObjectDescriptor>(64);
+
+
+	/**
+	 * Specify the classes to write and read field by field. Default is none,
+	 * i.e. Java serialization for all objects other than the built-in types.
+	 * <p>Field-based decoding instantiates a class through its no-arg constructor
+	 * and assigns its fields reflectively, so only list classes whose content
+	 * is safe to be assigned from a remote message. Both sides of a remote
+	 * connection need to be configured with the same compact classes, typically
+	 * through a shared codec definition.
+	 */
+	public void setCompactClasses(Class<?>... compactClasses) {
+		this.compactClasses.clear();
+		this.compactClasses.addAll(Arrays.asList(compactClasses));
+		this.descriptorCache.clear();
+	}
+
+	/**
+	 * Set the maximum number of bytes of a single string or byte array and the
+	 * maximum number of elements of a single array, collection or map in a
+	 * decoded message. Default is 16M.
+	 * <p>Longer content is rejected with a {@link StreamCorruptedException}.
+	 */
+	public void setMaxLength(int maxLength) {
+		if (maxLength < 0) {
+			throw new IllegalArgumentException("'maxLength' must not be negative");
+		}
+		this.maxLength = maxLength;
+	}
+
+	/**
+	 * Set the maximum nesting depth of values in a decoded message, e.g. of
+	 * collections within collections. Default is 256.
+	 * <p>Deeper messages are rejected with a {@link StreamCorruptedException}
+	 * instead of exhausting the stack of the decoding thread.
+	 */
+	public void setMaxDepth(int maxDepth) {
+		if (maxDepth < 1) {
+			throw new IllegalArgumentException("'maxDepth' must be at least 1");
+		}
+		this.maxDepth = maxDepth;
+	}
+
+	/**
+	 * Set whether to deflate the message body. Default is "false".
+	 * <p>Worth switching on for large payloads over slow networks; decoding
+	 * detects compressed messages automatically, regardless of this setting.
+	 */
+	public void setCompress(boolean compress) {
+		this.compress = compress;
+	}
+
+	/**
+	 * Set the compression level (0-9) to use when {@link #setCompress compressing}.
+	 * Default is {@link Deflater#BEST_SPEED}.
+	 */
+	public void setCompressionLevel(int compressionLevel) {
+		this.compressionLevel = compressionLevel;
+	}
+
+	public String getContentType() {
+		return CONTENT_TYPE_COMPACT_INVOCATION;
+	}
+
+
+	public void encode(Object message, OutputStream os) throws IOException {
+		os.write(FORMAT_VERSION);
+		os.write(this.compress ? FLAG_DEFLATE : 0);
+		Deflater deflater = null;
+		OutputStream target = os;
+		if (this.compress) {
+			deflater = new Deflater(this.compressionLevel);
+			target = new DeflaterOutputStream(os, deflater, BUFFER_SIZE);
+		}
+		try {
+			DataOutputStream out = new DataOutputStream(new BufferedOutputStream(target, BUFFER_SIZE));
+			new Encoder(out).writeValue(message);
+			out.flush();
+			if (deflater != null) {
+				((DeflaterOutputStream) target).finish();
+			}
+		}
+		finally {
+			if (deflater != null) {
+				deflater.end();
+			}
+		}
+	}
+
+	/**
+	 * Read a message from the given stream, resolving transferred classes against
+	 * the given ClassLoader and reading embedded Java serialization content
+	 * through a {@link ConfigurableObjectInputStream}.
+	 * @param is the InputStream to read from
+	 * @param classLoader the ClassLoader to resolve transferred classes against
+	 * (may be {@code null} for the default ClassLoader)
+	 * @return the RemoteInvocation or RemoteInvocationResult object
+	 * @throws IOException if thrown by I/O methods or in case of a corrupted message
+	 * @throws ClassNotFoundException if a transferred class cannot be resolved
+	 * @see #decode(InputStream, ObjectInputStreamFactory)
+	 */
+	public Object decode(InputStream is, final ClassLoader classLoader) throws IOException, ClassNotFoundException {
+		return decode(is, new ObjectInputStreamFactory() {
+			public ObjectInputStream createObjectInputStream(InputStream in) throws IOException {
+				return new ConfigurableObjectInputStream(in, classLoader);
+			}
+			public Class<?> resolveClass(String className) throws ClassNotFoundException {
+				return ClassUtils.forName(className, classLoader);
+			}
+		});
+	}
+
+	public Object decode(InputStream is, ObjectInputStreamFactory objectInputStreamFactory)
+			throws IOException, ClassNotFoundException {
+
+		int version = is.read();
+		if (version != FORMAT_VERSION) {
+			throw new StreamCorruptedException("Unsupported compact invocation format version: " + version);
+		}
+		int flags = is.read();
+		if (flags < 0) {
+			throw new StreamCorruptedException("Premature end of compact invocation message");
+		}
+		Inflater inflater = null;
+		InputStream source = is;
+		if ((flags & FLAG_DEFLATE) != 0) {
+			inflater = new Inflater();
+			source = new InflaterInputStream(is, inflater, BUFFER_SIZE);
+		}
+		try {
+			DataInputStream in = new DataInputStream(new BufferedInputStream(source, BUFFER_SIZE));
+			return new Decoder(in, objectInputStreamFactory).readValue();
+		}
+		finally {
+			if (inflater != null) {
+				inflater.end();
+			}
+		}
+	}
+
+	private ObjectDescriptor getObjectDescriptor(Class<?> clazz) {
+		ObjectDescriptor descriptor = this.descriptorCache.get(clazz);
+		if (descriptor == null) {
+			descriptor = new ObjectDescriptor(clazz, this.compactClasses.contains(clazz));
+			this.descriptorCache.put(clazz, descriptor);
+		}
+		return descriptor;
+	}
+
+	private static boolean isCollectionType(Class<?> clazz, Object value) {
+		if (!collectionTypes.contains(clazz)) {
+			return false;
+		}
+		if (value instanceof SortedSet) {
+			return (((SortedSet<?>) value).comparator() == null);
+		}
+		if (value instanceof SortedMap) {
+			return (((SortedMap<?, ?>) value).comparator() == null);
+		}
+		return true;
+	}
+
+
+	/**
+	 * Writes a single message, keeping track of the classes and
+	 * object references that have been written already.
+	 */
+	private class Encoder {
+
+		private final DataOutputStream out;
+
+		private final Map<Class<?>, Integer> classIds = new HashMap<Class<?>, Integer>();
+
+		private final Set<Class<?>> schemasWritten = new HashSet<Class<?>>();
+
+		private final Map<Object, Integer> handles = new IdentityHashMap<Object, Integer>();
+
+		public Encoder(DataOutputStream out) {
+			this.out = out;
+		}
+
+		public void writeValue(Object value) throws IOException {
+			if (value == null) {
+				this.out.write(TAG_NULL);
+				return;
+			}
+			Class<?> clazz = value.getClass();
+			if (clazz == String.class) {
+				this.out.write(TAG_STRING);
+				writeString((String) value);
+			}
+			else if (clazz == Integer.class) {
+				this.out.write(TAG_INT);
+				writeVarLong(zigZag((Integer) value));
+			}
+			else if (clazz == Long.class) {
+				this.out.write(TAG_LONG);
+				writeVarLong(zigZag((Long) value));
+			}
+			else if (clazz == Boolean.class) {
+				this.out.write((Boolean) value ? TAG_TRUE : TAG_FALSE);
+			}
+			else if (clazz == Double.class) {
+				this.out.write(TAG_DOUBLE);
+				this.out.writeDouble((Double) value);
+			}
+			else if (clazz == Float.class) {
+				this.out.write(TAG_FLOAT);
+				this.out.writeFloat((Float) value);
+			}
+			else if (clazz == Short.class) {
+				this.out.write(TAG_SHORT);
+				this.out.writeShort((Short) value);
+			}
+			else if (clazz == Byte.class) {
+				this.out.write(TAG_BYTE);
+				this.out.writeByte((Byte) value);
+			}
+			else if (clazz == Character.class) {
+				this.out.write(TAG_CHAR);
+				this.out.writeChar((Character) value);
+			}
+			else if (clazz == BigDecimal.class) {
+				this.out.write(TAG_BIG_DECIMAL);
+				writeString(value.toString());
+			}
+			else if (clazz == BigInteger.class) {
+				this.out.write(TAG_BIG_INTEGER);
+				writeBytes(((BigInteger) value).toByteArray());
+			}
+			else if (clazz == Date.class) {
+				this.out.write(TAG_DATE);
+				this.out.writeLong(((Date) value).getTime());
+			}
+			else if (clazz == Class.class) {
+				this.out.write(TAG_CLASS);
+				writeClass((Class<?>) value);
+			}
+			else if (value instanceof Enum) {
+				this.out.write(TAG_ENUM);
+				writeClass(((Enum<?>) value).getDeclaringClass());
+				writeString(((Enum<?>) value).name());
+			}
+			else {
+				Integer handle = this.handles.get(value);
+				if (handle != null) {
+					this.out.write(TAG_REFERENCE);
+					writeVarLong(handle);
+				}
+				else {
+					this.handles.put(value, this.handles.size());
+					writeReferenceable(value, clazz);
+				}
+			}
+		}
+
+		private void writeReferenceable(Object value, Class<?> clazz) throws IOException {
+			if (clazz == byte[].class) {
+				this.out.write(TAG_BYTE_ARRAY);
+				writeBytes((byte[]) value);
+			}
+			else if (clazz.isArray()) {
+				this.out.write(TAG_ARRAY);
+				writeClass(clazz.getComponentType());
+				int length = Array.getLength(value);
+				writeVarLong(length);
+				for (int i = 0; i < length; i++) {
+					writeValue(Array.get(value, i));
+				}
+			}
+			else if (clazz == RemoteInvocation.class) {
+				RemoteInvocation invocation = (RemoteInvocation) value;
+				this.out.write(TAG_INVOCATION);
+				writeValue(invocation.getMethodName());
+				writeValue(invocation.getParameterTypes());
+				writeValue(invocation.getArguments());
+				writeValue(invocation.getAttributes());
+			}
+			else if (clazz == BatchRemoteInvocation.class) {
+				this.out.write(TAG_BATCH_INVOCATION);
+				writeValue(((BatchRemoteInvocation) value).getInvocations());
+			}
+			else if (clazz == RemoteInvocationResult.class) {
+				RemoteInvocationResult result = (RemoteInvocationResult) value;
+				this.out.write(TAG_RESULT);
+				writeValue(result.getValue());
+				writeValue(result.getException());
+			}
+			else if (isCollectionType(clazz, value)) {
+				if (value instanceof Map) {
+					Map<?, ?> map = (Map<?, ?>) value;
+					this.out.write(TAG_MAP);
+					writeClass(clazz);
+					writeVarLong(map.size());
+					for (Map.Entry<?, ?> entry : map.entrySet()) {
+						writeValue(entry.getKey());
+						writeValue(entry.getValue());
+					}
+				}
+				else {
+					Collection<?> collection = (Collection<?>) value;
+					this.out.write(TAG_COLLECTION);
+					writeClass(clazz);
+					writeVarLong(collection.size());
+					for (Object element : collection) {
+						writeValue(element);
+					}
+				}
+			}
+			else if (value instanceof Serializable) {
+				ObjectDescriptor descriptor = getObjectDescriptor(clazz);
+				if (descriptor.isCompact()) {
+					this.out.write(TAG_OBJECT);
+					writeClass(clazz);
+					if (this.schemasWritten.add(clazz)) {
+						writeVarLong(descriptor.fields.length + 1);
+						for (Field field : descriptor.fields) {
+							writeString(field.getName());
+						}
+					}
+					else {
+						writeVarLong(0);
+					}
+					for (Field field : descriptor.fields) {
+						writeValue(ReflectionUtils.getField(field, value));
+					}
+				}
+				else {
+					this.out.write(TAG_SERIALIZED);
+					ByteArrayOutputStream baos = new ByteArrayOutputStream(256);
+					ObjectOutputStream oos = new ObjectOutputStream(baos);
+					oos.writeObject(value);
+					oos.close();
+					writeBytes(baos.toByteArray());
+				}
+			}
+			else {
+				throw new NotSerializableException(clazz.getName());
+			}
+		}
+
+		private void writeClass(Class<?> clazz) throws IOException {
+			Integer id = this.classIds.get(clazz);
+			if (id != null) {
+				writeVarLong(id + 1);
+			}
+			else {
+				this.classIds.put(clazz, this.classIds.size());
+				writeVarLong(0);
+				writeString(clazz.getName());
+			}
+		}
+
+		private void writeString(String value) throws IOException {
+			writeBytes(value.getBytes("UTF-8"));
+		}
+
+		private void writeBytes(byte[] bytes) throws IOException {
+			writeVarLong(bytes.length);
+			this.out.write(bytes);
+		}
+
+		private void writeVarLong(long value) throws IOException {
+			while ((value & ~0x7FL) != 0) {
+				this.out.write((int) ((value & 0x7F) | 0x80));
+				value >>>= 7;
+			}
+			this.out.write((int) value);
+		}
+
+		private long zigZag(long value) {
+			return (value << 1) ^ (value >> 63);
+		}
+	}
+
+
+	/**
+	 * Reads a single message, resolving class and object references
+	 * against the ones read before.
+	 */
+	private class Decoder {
+
+		private final DataInputStream in;
+
+		private final ObjectInputStreamFactory objectInputStreamFactory;
+
+		private final List<Class<?>> classes = new ArrayList<Class<?>>();
+
+		private final Map<Class<?>, Field[]> schemas = new HashMap<Class<?>, Field[]>();
+
+		private final List<Object> handles = new ArrayList<Object>();
+
+		private int depth;
+
+		public Decoder(DataInputStream in, ObjectInputStreamFactory objectInputStreamFactory) {
+			this.in = in;
+			this.objectInputStreamFactory = objectInputStreamFactory;
+		}
+
+		public Object readValue() throws IOException, ClassNotFoundException {
+			if (this.depth == maxDepth) {
+				throw new StreamCorruptedException("Maximum nesting depth of " + maxDepth + " exceeded");
+			}
+			this.depth++;
+			try {
+				return readTaggedValue();
+			}
+			finally {
+				this.depth--;
+			}
+		}
+
+		private Object readTaggedValue() throws IOException, ClassNotFoundException {
+			int tag = this.in.read();
+			switch (tag) {
+				case TAG_NULL:
+					return null;
+				case TAG_TRUE:
+					return Boolean.TRUE;
+				case TAG_FALSE:
+					return Boolean.FALSE;
+				case TAG_INT:
+					return (int) unZigZag(readVarLong());
+				case TAG_LONG:
+					return unZigZag(readVarLong());
+				case TAG_DOUBLE:
+					return this.in.readDouble();
+				case TAG_FLOAT:
+					return this.in.readFloat();
+				case TAG_SHORT:
+					return this.in.readShort();
+				case TAG_BYTE:
+					return this.in.readByte();
+				case TAG_CHAR:
+					return this.in.readChar();
+				case TAG_STRING:
+					return readString();
+				case TAG_BIG_DECIMAL:
+					return new BigDecimal(readString());
+				case TAG_BIG_INTEGER:
+					return new BigInteger(readBytes());
+				case TAG_DATE:
+					return new Date(this.in.readLong());
+				case TAG_CLASS:
+					return readClass();
+				case TAG_ENUM:
+					return readEnum();
+				case TAG_REFERENCE:
+					int handle = readVarInt();
+					if (handle >= this.handles.size() || this.handles.get(handle) == null) {
+						throw new StreamCorruptedException("Invalid object reference: " + handle);
+					}
+					return this.handles.get(handle);
+				case TAG_BYTE_ARRAY:
+					return register(readBytes());
+				case TAG_ARRAY:
+					return readArray();
+				case TAG_INVOCATION:
+					return readInvocation();
+				case TAG_BATCH_INVOCATION:
+					return readBatchInvocation();
+				case TAG_RESULT:
+					return readResult();
+				case TAG_COLLECTION:
+					return readCollection();
+				case TAG_MAP:
+					return readMap();
+				case TAG_OBJECT:
+					return readObject();
+				case TAG_SERIALIZED:
+					int index = reserveHandle();
+					ObjectInputStream ois = this.objectInputStreamFactory.createObjectInputStream(
+							new ByteArrayInputStream(readBytes()));
+					try {
+						this.handles.set(index, ois.readObject());
+					}
+					finally {
+						ois.close();
+					}
+					return this.handles.get(index);
+				case -1:
+					throw new StreamCorruptedException("Premature end of compact invocation message");
+				default:
+					throw new StreamCorruptedException("Unknown compact invocation tag: " + tag);
+			}
+		}
+
+		@SuppressWarnings({"unchecked", "rawtypes"})
+		private Object readEnum() throws IOException, ClassNotFoundException {
+			Class enumClass = readClass();
+			String name = readString();
+			if (!enumClass.isEnum()) {
+				throw new InvalidClassException(enumClass.getName(), "Not an enum type");
+			}
+			try {
+				return Enum.valueOf(enumClass, name);
+			}
+			catch (IllegalArgumentException ex) {
+				throw new InvalidObjectException("Unknown constant '" + name + "' for enum " + enumClass.getName());
+			}
+		}
+
+		private Object readArray() throws IOException, ClassNotFoundException {
+			Class<?> componentType = readClass();
+			int length = readLength();
+			if (length <= INITIAL_ARRAY_LENGTH) {
+				// Registered upfront: may be referenced from its own elements
+				Object array = register(Array.newInstance(componentType, length));
+				readArrayElements(array, 0, length);
+				return array;
+			}
+			// Large array: grow along with the elements actually read, registering
+			// the complete array in the end (not referenceable from its own elements)
+			int index = reserveHandle();
+			Object array = Array.newInstance(componentType, INITIAL_ARRAY_LENGTH);
+			int count = 0;
+			while (count < length) {
+				int capacity = Array.getLength(array);
+				if (count == capacity) {
+					Object newArray = Array.newInstance(componentType, (int) Math.min((long) capacity * 2, length));
+					System.arraycopy(array, 0, newArray, 0, count);
+					array = newArray;
+					capacity = Array.getLength(array);
+				}
+				readArrayElements(array, count, capacity);
+				count = capacity;
+			}
+			this.handles.set(index, array);
+			return array;
+		}
+
+		private void readArrayElements(Object array, int from, int to) throws IOException, ClassNotFoundException {
+			for (int i = from; i < to; i++) {
+				Object element = readValue();
+				try {
+					Array.set(array, i, element);
+				}
+				catch (IllegalArgumentException ex) {
+					throw new InvalidObjectException("Cannot store " + element + " in array of type " +
+							array.getClass().getComponentType().getName());
+				}
+			}
+		}
+
+		@SuppressWarnings("unchecked")
+		private Object readInvocation() throws IOException, ClassNotFoundException {
+			RemoteInvocation invocation = (RemoteInvocation) register(new RemoteInvocation());
+			invocation.setMethodName((String) readValue());
+			invocation.setParameterTypes((Class[]) readValue());
+			invocation.setArguments((Object[]) readValue());
+			invocation.setAttributes((Map<String, Serializable>) readValue());
+			return invocation;
+		}
+
+		private Object readBatchInvocation() throws IOException, ClassNotFoundException {
+			int index = reserveHandle();
+			this.handles.set(index, new BatchRemoteInvocation((RemoteInvocation[]) readValue()));
+			return this.handles.get(index);
+		}
+
+		private Object readResult() throws IOException, ClassNotFoundException {
+			int index = reserveHandle();
+			Object value = readValue();
+			Throwable exception = (Throwable) readValue();
+			this.handles.set(index,
+					(exception != null ? new RemoteInvocationResult(exception) : new RemoteInvocationResult(value)));
+			return this.handles.get(index);
+		}
+
+		@SuppressWarnings("unchecked")
+		private Object readCollection() throws IOException, ClassNotFoundException {
+			Collection<Object> collection = (Collection<Object>) register(instantiateCollection(readClass()));
+			int size = readLength();
+			for (int i = 0; i < size; i++) {
+				collection.add(readValue());
+			}
+			return collection;
+		}
+
+		@SuppressWarnings("unchecked")
+		private Object readMap() throws IOException, ClassNotFoundException {
+			Map<Object, Object> map = (Map<Object, Object>) register(instantiateCollection(readClass()));
+			int size = readLength();
+			for (int i = 0; i < size; i++) {
+				Object key = readValue();
+				map.put(key, readValue());
+			}
+			return map;
+		}
+
+		private Object instantiateCollection(Class<?> clazz) throws IOException {
+			if (!collectionTypes.contains(clazz)) {
+				throw new InvalidClassException(clazz.getName(), "Not a supported collection type");
+			}
+			try {
+				return clazz.getDeclaredConstructor().newInstance();
+			}
+			catch (Exception ex) {
+				throw new InvalidClassException(clazz.getName(), "Cannot instantiate collection: " + ex);
+			}
+		}
+
+		private Object readObject() throws IOException, ClassNotFoundException {
+			Class<?> clazz = readClass();
+			ObjectDescriptor descriptor = getObjectDescriptor(clazz);
+			if (!descriptor.isCompact()) {
+				throw new InvalidClassException(clazz.getName(), "Not eligible for field-based decoding");
+			}
+			Field[] fields;
+			int schemaLength = readVarInt();
+			if (schemaLength > descriptor.fields.length + 1) {
+				throw new StreamCorruptedException("Invalid field schema for " + clazz.getName());
+			}
+			if (schemaLength > 0) {
+				fields = new Field[schemaLength - 1];
+				for (int i = 0; i < fields.length; i++) {
+					fields[i] = descriptor.getField(readString());
+				}
+				this.schemas.put(clazz, fields);
+			}
+			else {
+				fields = this.schemas.get(clazz);
+				if (fields == null) {
+					throw new StreamCorruptedException("Missing field schema for " + clazz.getName());
+				}
+			}
+			Object object = register(descriptor.newInstance());
+			for (Field field : fields) {
+				Object value = readValue();
+				if (field != null) {
+					try {
+						field.set(object, value);
+					}
+					catch (IllegalArgumentException ex) {
+						throw new InvalidObjectException("Cannot assign " + value + " to field " + field);
+					}
+					catch (IllegalAccessException ex) {
+						throw new InvalidClassException(clazz.getName(), "Cannot access field " + field.getName());
+					}
+				}
+			}
+			return object;
+		}
+
+		private Class<?> readClass() throws IOException, ClassNotFoundException {
+			int id = readVarInt();
+			if (id > 0) {
+				if (id > this.classes.size()) {
+					throw new StreamCorruptedException("Invalid class reference: " + id);
+				}
+				return this.classes.get(id - 1);
+			}
+			Class<?> clazz = this.objectInputStreamFactory.resolveClass(readString());
+			this.classes.add(clazz);
+			return clazz;
+		}
+
+		private Object register(Object value) {
+			this.handles.add(value);
+			return value;
+		}
+
+		private int reserveHandle() {
+			this.handles.add(null);
+			return this.handles.size() - 1;
+		}
+
+		private String readString() throws IOException {
+			return new String(readBytes(), "UTF-8");
+		}
+
+		private byte[] readBytes() throws IOException {
+			int length = readLength();
+			byte[] bytes = new byte[Math.min(length, BUFFER_SIZE)];
+			int count = 0;
+			while (count < length) {
+				if (count == bytes.length) {
+					// Grow along with the data actually received
+					byte[] newBytes = new byte[(int) Math.min((long) bytes.length * 2, length)];
+					System.arraycopy(bytes, 0, newBytes, 0, count);
+					bytes = newBytes;
+				}
+				this.in.readFully(bytes, count, bytes.length - count);
+				count = bytes.length;
+			}
+			return bytes;
+		}
+
+		private int readLength() throws IOException {
+			int length = readVarInt();
+			if (length > maxLength) {
+				throw new StreamCorruptedException("Length " + length + " exceeds maximum of " + maxLength);
+			}
+			return length;
+		}
+
+		private int readVarInt() throws IOException {
+			long value = readVarLong();
+			if (value < 0 || value > Integer.MAX_VALUE) {
+				throw new StreamCorruptedException("Invalid length or reference: " + value);
+			}
+			return (int) value;
+		}
+
+		private long readVarLong() throws IOException {
+			long value = 0;
+			for (int shift = 0; shift < 64; shift += 7) {
+				int b = this.in.readUnsignedByte();
+				value |= (long) (b & 0x7F) << shift;
+				if ((b & 0x80) == 0) {
+					return value;
+				}
+			}
+			throw new StreamCorruptedException("Malformed variable-length integer");
+		}
+
+		private long unZigZag(long value) {
+			return (value >>> 1) ^ -(value & 1);
+		}
+	}
+
+
+	/**
+	 * Cached reflective metadata for writing and reading plain
+	 * serializable objects field by field.
+	 */
+	private static class ObjectDescriptor {
+
+		private final Constructor<?> constructor;
+
+		private final Field[] fields;
+
+		private final Map<String, Field> fieldMap = new HashMap<String, Field>();
+
+		public ObjectDescriptor(Class<?> clazz, boolean compactClass) {
+			Constructor<?> ctor = null;
+			if (compactClass && isCompactCandidate(clazz)) {
+				try {
+					ctor = clazz.getDeclaredConstructor();
+					if (Modifier.isPrivate(ctor.getModifiers())) {
+						ctor = null;
+					}
+					else {
+						ReflectionUtils.makeAccessible(ctor);
+					}
+				}
+				catch (NoSuchMethodException ex) {
+					// No default constructor: falling back to Java serialization
+				}
+			}
+			List<Field> fieldList = new ArrayList<Field>();
+			for (Class<?> current = clazz; ctor != null && current != null &&
+					Serializable.class.isAssignableFrom(current); current = current.getSuperclass()) {
+				if (hasCustomSerialization(current)) {
+					ctor = null;
+					break;
+				}
+				for (Field field : current.getDeclaredFields()) {
+					int modifiers = field.getModifiers();
+					if (!Modifier.isStatic(modifiers) && !Modifier.isTransient(modifiers)) {
+						if (Modifier.isFinal(modifiers) || this.fieldMap.containsKey(field.getName())) {
+							// Final fields: not to be assigned reflectively.
+							// Shadowed field names: not expressible in a flat schema.
+							ctor = null;
+							break;
+						}
+						ReflectionUtils.makeAccessible(field);
+						fieldList.add(field);
+						this.fieldMap.put(field.getName(), field);
+					}
+				}
+			}
+			this.constructor = ctor;
+			this.fields = fieldList.toArray(new Field[fieldList.size()]);
+		}
+
+		private static boolean isCompactCandidate(Class<?> clazz) {
+			return (Serializable.class.isAssignableFrom(clazz) && !Externalizable.class.isAssignableFrom(clazz) &&
+					!Throwable.class.isAssignableFrom(clazz) && !Proxy.isProxyClass(clazz) &&
+					!clazz.getName().startsWith("java."));
+		}
+
+		private static boolean hasCustomSerialization(Class<?> clazz) {
+			return (hasDeclaredMethod(clazz, "writeObject", ObjectOutputStream.class) ||
+					hasDeclaredMethod(clazz, "readObject", ObjectInputStream.class) ||
+					hasDeclaredMethod(clazz, "readObjectNoData") ||
+					hasDeclaredMethod(clazz, "writeReplace") ||
+					hasDeclaredMethod(clazz, "readResolve") ||
+					hasDeclaredField(clazz, "serialPersistentFields"));
+		}
+
+		private static boolean hasDeclaredMethod(Class<?> clazz, String name, Class<?>... paramTypes) {
+			try {
+				clazz.getDeclaredMethod(name, paramTypes);
+				return true;
+			}
+			catch (NoSuchMethodException ex) {
+				return false;
+			}
+		}
+
+		private static boolean hasDeclaredField(Class<?> clazz, String name) {
+			try {
+				clazz.getDeclaredField(name);
+				return true;
+			}
+			catch (NoSuchFieldException ex) {
+				return false;
+			}
+		}
+
+		public boolean isCompact() {
+			return (this.constructor != null);
+		}
+
+		public Field getField(String name) {
+			return this.fieldMap.get(name);
+		}
+
+		public Object newInstance() throws IOException {
+			try {
+				return this.constructor.newInstance();
+			}
+			catch (Exception ex) {
+				throw new InvalidClassException(this.constructor.getDeclaringClass().getName(),
+						"Cannot instantiate: " + ex);
+			}
+		}
+	}
+
+}
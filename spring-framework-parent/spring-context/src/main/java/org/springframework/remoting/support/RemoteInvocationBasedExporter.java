@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2007 the original author or authors.
+ * Copyright 2002-2014 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -104,12 +104,22 @@ public abstract class RemoteInvocationBasedExporter extends RemoteExporter {
 	 * <p>Can be overridden in subclasses for custom invocation behavior,
 	 * for example to return additional context information. Note that this
 	 * is not covered by the RemoteInvocationExecutor strategy!
+	 * <p>A {@link BatchRemoteInvocation} is answered with a result holding
+	 * an array of results, one per contained invocation.
 	 * @param invocation the remote invocation
 	 * @param targetObject the target object to apply the invocation to
 	 * @return the invocation result
 	 * @see #invoke
 	 */
 	protected RemoteInvocationResult invokeAndCreateResult(RemoteInvocation invocation, Object targetObject) {
+		if (invocation instanceof BatchRemoteInvocation) {
+			RemoteInvocation[] invocations = ((BatchRemoteInvocation) invocation).getInvocations();
+			RemoteInvocationResult[] results = new RemoteInvocationResult[invocations.length];
+			for (int i = 0; i < invocations.length; i++) {
+				results[i] = invokeAndCreateResult(invocations[i], targetObject);
+			}
+			return new RemoteInvocationResult((Object) results);
+		}
 		try {
 			Object value = invoke(invocation, targetObject);
 			return new RemoteInvocationResult(value);
@@ -0,0 +1,94 @@
+/*
+ * Copyright 2002-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.remoting.support;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.OutputStream;
+
+/**
+ * Strategy interface for encoding {@link RemoteInvocation} and
+ * {@link RemoteInvocationResult} objects into a binary message format,
+ * as an alternative to standard Java serialization.
+ *
+ * <p>Used by {@link org.springframework.remoting.rmi.RemoteInvocationSerializingExporter}
+ * subclasses such as the HTTP invoker service exporter as well as by
+ * the HTTP invoker request executors.
+ *
+ * @author agent
+ * @since 3.2.12
+ * @see CompactRemoteInvocationCodec
+ * @see org.springframework.remoting.rmi.RemoteInvocationSerializingExporter#setCodec
+ * @see org.springframework.remoting.httpinvoker.AbstractHttpInvokerRequestExecutor#setCodec
+ */
+public interface RemoteInvocationCodec {
+
+	/**
+	 * Return the content type that identifies messages written by this codec.
+	 */
+	String getContentType();
+
+	/**
+	 * Write the given message to the given stream.
+	 * <p>Implementations are not supposed to close the stream.
+	 * @param message the RemoteInvocation or RemoteInvocationResult to write
+	 * @param os the OutputStream to write to
+	 * @throws IOException if thrown by I/O methods or if the message
+	 * contains objects that cannot be encoded
+	 */
+	void encode(Object message, OutputStream os) throws IOException;
+
+	/**
+	 * Read a message from the given stream.
+	 * @param is the InputStream to read from
+	 * @param objectInputStreamFactory the factory for the ObjectInputStreams
+	 * that read any content embedded in Java serialization form, also used
+	 * for resolving transferred classes against the caller's ClassLoader
+	 * @return the RemoteInvocation or RemoteInvocationResult object
+	 * @throws IOException if thrown by I/O methods or in case of a corrupted message
+	 * @throws ClassNotFoundException if a transferred class cannot be resolved
+	 */
+	Object decode(InputStream is, ObjectInputStreamFactory objectInputStreamFactory)
+			throws IOException, ClassNotFoundException;
+
+
+	/**
+	 * Callback for creating ObjectInputStreams with the caller's settings,
+	 * typically delegating to the {@code createObjectInputStream} method
+	 * of an exporter or request executor.
+	 */
+	interface ObjectInputStreamFactory {
+
+		/**
+		 * Create an ObjectInputStream for the given InputStream.
+		 * @param is the InputStream to read from
+		 * @return the new ObjectInputStream instance to use
+		 * @throws IOException if creation of the ObjectInputStream failed
+		 */
+		ObjectInputStream createObjectInputStream(InputStream is) throws IOException;
+
+		/**
+		 * Resolve the given class name, as transferred in a codec message.
+		 * @param className the fully qualified name of the class
+		 * @return the resolved class
+		 * @throws ClassNotFoundException if the class cannot be resolved
+		 */
+		Class<?> resolveClass(String className) throws ClassNotFoundException;
+	}
+
+}
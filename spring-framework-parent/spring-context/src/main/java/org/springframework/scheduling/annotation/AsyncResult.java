@@ -16,18 +16,24 @@
 
 package org.springframework.scheduling.annotation;
 
-import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 
+import org.springframework.util.concurrent.ListenableFuture;
+import org.springframework.util.concurrent.ListenableFutureCallback;
+
 /**
  * A pass-through {@code Future} handle that can be used for method signatures
  * which are declared with a Future return type for asynchronous execution.
  *
+ * <p>As of Spring 3.2.12, this class implements {@link ListenableFuture}, so that
+ * {@code @Async} methods may declare a {@code ListenableFuture} return type as well,
+ * with the proxy returning an actual listenable handle for the asynchronous result.
+ *
  * @author Juergen Hoeller
  * @since 3.0
  * @see Async
  */
-public class AsyncResult<V> implements Future<V> {
+public class AsyncResult<V> implements ListenableFuture<V> {
 
 	private final V value;
 
@@ -60,4 +66,8 @@ public class AsyncResult<V> implements Future<V> {
 		return this.value;
 	}
 
+	public void addCallback(ListenableFutureCallback<? super V> callback) {
+		callback.onSuccess(this.value);
+	}
+
 }
@@ -18,11 +18,14 @@ package org.springframework.scheduling.annotation;
 
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.LinkedHashSet;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.ScheduledExecutorService;
 
 import org.apache.commons.logging.LogFactory;
@@ -42,6 +45,8 @@ import org.springframework.scheduling.Trigger;
 import org.springframework.scheduling.config.CronTask;
 import org.springframework.scheduling.config.IntervalTask;
 import org.springframework.scheduling.config.ScheduledTaskRegistrar;
+import org.springframework.scheduling.support.CronTrigger;
+import org.springframework.scheduling.support.PeriodicTrigger;
 import org.springframework.scheduling.support.ScheduledMethodRunnable;
 import org.springframework.util.Assert;
 import org.springframework.util.ReflectionUtils;
@@ -63,6 +68,11 @@ import org.springframework.util.StringValueResolver;
  * over task registration (e.g. registration of {@link Trigger} tasks.
  * See the @{@link EnableScheduling} javadocs for complete usage details.
  *
+ * <p>The registered {@link ScheduledMethodRunnable ScheduledMethodRunnables} are
+ * available through {@link #getScheduledMethodRunnables()}, exposing execution
+ * metrics per scheduled method. Measuring the lag between scheduled and actual
+ * start of each execution needs to be turned on via {@link #setMeasureLag}.
+ *
  * @author Mark Fisher
  * @author Juergen Hoeller
  * @author Chris Beams
@@ -83,10 +93,15 @@ public class ScheduledAnnotationBeanPostProcessor
 
 	private ApplicationContext applicationContext;
 
+	private boolean measureLag = false;
+
 	private final ScheduledTaskRegistrar registrar = new ScheduledTaskRegistrar();
 
 	private final Map<Class<?>, Boolean> nonAnnotatedClasses = new ConcurrentHashMap<Class<?>, Boolean>(64);
 
+	private final Collection<ScheduledMethodRunnable> scheduledMethodRunnables =
+			new CopyOnWriteArrayList<ScheduledMethodRunnable>();
+
 
 	@Override
 	public int getOrder() {
@@ -102,6 +117,20 @@ public class ScheduledAnnotationBeanPostProcessor
 		this.scheduler = scheduler;
 	}
 
+	/**
+	 * Specify whether to measure the lag between scheduled and actual start
+	 * of each execution of a scheduled method.
+	 * <p>Default is "false". Turning this on lets each scheduled method's trigger
+	 * calculate the next execution time once more after every execution, which
+	 * is not negligible for cron expressions.
+	 * @since 3.2.12
+	 * @see ScheduledMethodRunnable#setTrigger
+	 * @see ScheduledMethodRunnable#getMaxLag()
+	 */
+	public void setMeasureLag(boolean measureLag) {
+		this.measureLag = measureLag;
+	}
+
 	public void setEmbeddedValueResolver(StringValueResolver resolver) {
 		this.embeddedValueResolver = resolver;
 	}
@@ -110,6 +139,17 @@ public class ScheduledAnnotationBeanPostProcessor
 		this.applicationContext = applicationContext;
 	}
 
+	/**
+	 * Return the Runnables for all scheduled methods registered so far,
+	 * giving access to their execution metrics.
+	 * @since 3.2.12
+	 * @see ScheduledMethodRunnable#getExecutionCount()
+	 * @see ScheduledMethodRunnable#getMaxLag()
+	 */
+	public Collection<ScheduledMethodRunnable> getScheduledMethodRunnables() {
+		return Collections.unmodifiableCollection(this.scheduledMethodRunnables);
+	}
+
 
 	public void onApplicationEvent(ContextRefreshedEvent event) {
 		if (event.getApplicationContext() != this.applicationContext) {
@@ -208,7 +248,8 @@ public class ScheduledAnnotationBeanPostProcessor
 				}
 			}
 
-			Runnable runnable = new ScheduledMethodRunnable(bean, method);
+			ScheduledMethodRunnable runnable = new ScheduledMethodRunnable(bean, method);
+			Trigger lagTrigger = null;
 			boolean processedSchedule = false;
 			String errorMessage =
 					"Exactly one of the 'cron', 'fixedDelay(String)', or 'fixedRate(String)' attributes is required";
@@ -238,7 +279,9 @@ public class ScheduledAnnotationBeanPostProcessor
 				if (this.embeddedValueResolver != null) {
 					cron = this.embeddedValueResolver.resolveStringValue(cron);
 				}
-				this.registrar.addCronTask(new CronTask(runnable, cron));
+				CronTrigger trigger = new CronTrigger(cron);
+				lagTrigger = trigger;
+				this.registrar.addCronTask(new CronTask(runnable, trigger));
 			}
 			// At this point we don't need to differentiate between initial delay set or not anymore
 			if (initialDelay < 0) {
@@ -250,6 +293,7 @@ public class ScheduledAnnotationBeanPostProcessor
 			if (fixedDelay >= 0) {
 				Assert.isTrue(!processedSchedule, errorMessage);
 				processedSchedule = true;
+				lagTrigger = new PeriodicTrigger(fixedDelay);
 				this.registrar.addFixedDelayTask(new IntervalTask(runnable, fixedDelay, initialDelay));
 			}
 			String fixedDelayString = scheduled.fixedDelayString();
@@ -266,6 +310,7 @@ public class ScheduledAnnotationBeanPostProcessor
 					throw new IllegalArgumentException(
 							"Invalid fixedDelayString value \"" + fixedDelayString + "\" - cannot parse into integer");
 				}
+				lagTrigger = new PeriodicTrigger(fixedDelay);
 				this.registrar.addFixedDelayTask(new IntervalTask(runnable, fixedDelay, initialDelay));
 			}
 
@@ -274,6 +319,7 @@ public class ScheduledAnnotationBeanPostProcessor
 			if (fixedRate >= 0) {
 				Assert.isTrue(!processedSchedule, errorMessage);
 				processedSchedule = true;
+				lagTrigger = fixedRateTrigger(fixedRate);
 				this.registrar.addFixedRateTask(new IntervalTask(runnable, fixedRate, initialDelay));
 			}
 			String fixedRateString = scheduled.fixedRateString();
@@ -290,11 +336,16 @@ public class ScheduledAnnotationBeanPostProcessor
 					throw new IllegalArgumentException(
 							"Invalid fixedRateString value \"" + fixedRateString + "\" - cannot parse into integer");
 				}
+				lagTrigger = fixedRateTrigger(fixedRate);
 				this.registrar.addFixedRateTask(new IntervalTask(runnable, fixedRate, initialDelay));
 			}
 
 			// Check whether we had any attribute set
 			Assert.isTrue(processedSchedule, errorMessage);
+			if (this.measureLag) {
+				runnable.setTrigger(lagTrigger);
+			}
+			this.scheduledMethodRunnables.add(runnable);
 		}
 		catch (IllegalArgumentException ex) {
 			throw new IllegalStateException(
@@ -303,6 +354,13 @@ public class ScheduledAnnotationBeanPostProcessor
 	}
 
 
+	private static Trigger fixedRateTrigger(long fixedRate) {
+		PeriodicTrigger trigger = new PeriodicTrigger(fixedRate);
+		trigger.setFixedRate(true);
+		return trigger;
+	}
+
+
 	public void destroy() throws Exception {
 		this.registrar.destroy();
 	}
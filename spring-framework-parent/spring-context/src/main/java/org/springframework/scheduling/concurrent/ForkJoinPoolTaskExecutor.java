@@ -0,0 +1,264 @@
+/*
+ * Copyright 2002-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.scheduling.concurrent;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.core.task.AsyncListenableTaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.SchedulingTaskExecutor;
+import org.springframework.util.Assert;
+import org.springframework.util.concurrent.ListenableFuture;
+import org.springframework.util.concurrent.ListenableFutureTask;
+
+/**
+ * {@link org.springframework.core.task.TaskExecutor} implementation on top of a
+ * work-stealing {@link ForkJoinPool}, either a locally built pool or an externally
+ * provided one. May be used on Java 7 as well as on Java 6 with {@code jsr166.jar}
+ * on the classpath.
+ *
+ * <p>In contrast to a {@link ThreadPoolTaskExecutor}, worker threads do not
+ * contend on a single shared queue: each worker has its own task deque, with
+ * idle workers stealing tasks from busy ones. Tasks submitted from within a
+ * worker thread are pushed onto that worker's local deque. This makes it a good
+ * fit for large numbers of short-lived, non-blocking tasks.
+ *
+ * <p>By default, the local pool operates in "asyncMode", i.e. first-in-first-out
+ * scheduling for tasks that are never joined, as appropriate for event-style
+ * asynchronous tasks such as {@code @Async} methods or async MVC request processing.
+ *
+ * <p>Can be used wherever an {@code AsyncTaskExecutor} is expected, e.g. for
+ * {@code <task:annotation-driven executor="..."/>} or as the task executor of
+ * a {@code WebAsyncManager} (through MVC's async support configuration).
+ *
+ * @author agent
+ * @since 3.2.12
+ * @see ForkJoinPoolFactoryBean
+ * @see ThreadPoolTaskExecutor
+ */
+public class ForkJoinPoolTaskExecutor implements AsyncListenableTaskExecutor, SchedulingTaskExecutor,
+		InitializingBean, DisposableBean {
+
+	protected final Log logger = LogFactory.getLog(getClass());
+
+	private int parallelism = Runtime.getRuntime().availableProcessors();
+
+	private ForkJoinPool.ForkJoinWorkerThreadFactory threadFactory = ForkJoinPool.defaultForkJoinWorkerThreadFactory;
+
+	private Thread.UncaughtExceptionHandler uncaughtExceptionHandler;
+
+	private boolean asyncMode = true;
+
+	private int awaitTerminationSeconds = 0;
+
+	private ForkJoinPool forkJoinPool;
+
+	private boolean localPool;
+
+
+	/**
+	 * Create a new ForkJoinPoolTaskExecutor, building a local ForkJoinPool
+	 * on {@link #afterPropertiesSet()}.
+	 */
+	public ForkJoinPoolTaskExecutor() {
+	}
+
+	/**
+	 * Create a new ForkJoinPoolTaskExecutor for the given external ForkJoinPool.
+	 * The pool will not be shut down by this executor.
+	 * @param forkJoinPool the ForkJoinPool to delegate to
+	 */
+	public ForkJoinPoolTaskExecutor(ForkJoinPool forkJoinPool) {
+		setForkJoinPool(forkJoinPool);
+	}
+
+
+	/**
+	 * Specify the parallelism level of the local pool.
+	 * Default is {@link Runtime#availableProcessors()}.
+	 */
+	public void setParallelism(int parallelism) {
+		this.parallelism = parallelism;
+	}
+
+	/**
+	 * Set the factory for creating new ForkJoinWorkerThreads in the local pool.
+	 * Default is {@link ForkJoinPool#defaultForkJoinWorkerThreadFactory}.
+	 */
+	public void setThreadFactory(ForkJoinPool.ForkJoinWorkerThreadFactory threadFactory) {
+		this.threadFactory = threadFactory;
+	}
+
+	/**
+	 * Set the handler for internal worker threads that terminate due to unrecoverable errors
+	 * encountered while executing tasks. Default is none.
+	 */
+	public void setUncaughtExceptionHandler(Thread.UncaughtExceptionHandler uncaughtExceptionHandler) {
+		this.uncaughtExceptionHandler = uncaughtExceptionHandler;
+	}
+
+	/**
+	 * Specify whether the local pool should use first-in-first-out scheduling
+	 * for tasks that are never joined. Default is {@code true}, as appropriate
+	 * for a TaskExecutor processing independent event-style tasks. Switch this
+	 * to {@code false} for the locally stack-based mode of a regular ForkJoinPool.
+	 */
+	public void setAsyncMode(boolean asyncMode) {
+		this.asyncMode = asyncMode;
+	}
+
+	/**
+	 * Set the maximum number of seconds that this executor is supposed to block
+	 * on shutdown in order to wait for remaining tasks to complete their execution.
+	 * Default is 0, not waiting at all. Only applies to a local pool.
+	 */
+	public void setAwaitTerminationSeconds(int awaitTerminationSeconds) {
+		this.awaitTerminationSeconds = awaitTerminationSeconds;
+	}
+
+	/**
+	 * Specify an external ForkJoinPool to delegate to, instead of building
+	 * a local pool. The given pool will not be shut down by this executor.
+	 */
+	public void setForkJoinPool(ForkJoinPool forkJoinPool) {
+		Assert.notNull(forkJoinPool, "ForkJoinPool must not be null");
+		this.forkJoinPool = forkJoinPool;
+		this.localPool = false;
+	}
+
+	/**
+	 * Return the underlying ForkJoinPool.
+	 * @throws IllegalStateException if the executor has not been initialized yet
+	 */
+	public ForkJoinPool getForkJoinPool() throws IllegalStateException {
+		Assert.state(this.forkJoinPool != null, "ForkJoinPoolTaskExecutor not initialized");
+		return this.forkJoinPool;
+	}
+
+	/**
+	 * Return the number of tasks currently queued in the underlying pool
+	 * (an estimate, summing up all worker queues).
+	 */
+	public long getQueuedTaskCount() {
+		return (this.forkJoinPool != null ? this.forkJoinPool.getQueuedTaskCount() : 0);
+	}
+
+	/**
+	 * Return the number of tasks that have been stolen between workers so far
+	 * (an estimate).
+	 */
+	public long getStealCount() {
+		return (this.forkJoinPool != null ? this.forkJoinPool.getStealCount() : 0);
+	}
+
+
+	public void afterPropertiesSet() {
+		if (this.forkJoinPool == null) {
+			this.forkJoinPool = new ForkJoinPool(
+					this.parallelism, this.threadFactory, this.uncaughtExceptionHandler, this.asyncMode);
+			this.localPool = true;
+		}
+	}
+
+
+	public void execute(Runnable task) {
+		ForkJoinPool pool = getForkJoinPool();
+		try {
+			pool.execute(task);
+		}
+		catch (RejectedExecutionException ex) {
+			throw new TaskRejectedException("Executor [" + pool + "] did not accept task: " + task, ex);
+		}
+	}
+
+	public void execute(Runnable task, long startTimeout) {
+		execute(task);
+	}
+
+	public Future<?> submit(Runnable task) {
+		ForkJoinPool pool = getForkJoinPool();
+		try {
+			return pool.submit(task);
+		}
+		catch (RejectedExecutionException ex) {
+			throw new TaskRejectedException("Executor [" + pool + "] did not accept task: " + task, ex);
+		}
+	}
+
+	public <T> Future<T> submit(Callable<T> task) {
+		ForkJoinPool pool = getForkJoinPool();
+		try {
+			return pool.submit(task);
+		}
+		catch (RejectedExecutionException ex) {
+			throw new TaskRejectedException("Executor [" + pool + "] did not accept task: " + task, ex);
+		}
+	}
+
+	public ListenableFuture<?> submitListenable(Runnable task) {
+		ListenableFutureTask<Object> future = new ListenableFutureTask<Object>(task, null);
+		execute(future);
+		return future;
+	}
+
+	public <T> ListenableFuture<T> submitListenable(Callable<T> task) {
+		ListenableFutureTask<T> future = new ListenableFutureTask<T>(task);
+		execute(future);
+		return future;
+	}
+
+	/**
+	 * This task executor prefers short-lived work units.
+	 */
+	public boolean prefersShortLivedTasks() {
+		return true;
+	}
+
+
+	/**
+	 * Shut down a local ForkJoinPool, if any.
+	 */
+	public void destroy() {
+		if (this.localPool && this.forkJoinPool != null) {
+			if (logger.isInfoEnabled()) {
+				logger.info("Shutting down ForkJoinPool");
+			}
+			this.forkJoinPool.shutdown();
+			if (this.awaitTerminationSeconds > 0) {
+				try {
+					if (!this.forkJoinPool.awaitTermination(this.awaitTerminationSeconds, TimeUnit.SECONDS)) {
+						logger.warn("Timed out while waiting for ForkJoinPool to terminate");
+					}
+				}
+				catch (InterruptedException ex) {
+					logger.warn("Interrupted while waiting for ForkJoinPool to terminate");
+					Thread.currentThread().interrupt();
+				}
+			}
+		}
+	}
+
+}
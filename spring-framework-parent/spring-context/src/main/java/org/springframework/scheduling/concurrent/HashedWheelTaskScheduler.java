@@ -0,0 +1,645 @@
+/*
+ * Copyright 2002-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.scheduling.concurrent;
+
+import java.util.Date;
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.core.task.AsyncListenableTaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.SchedulingTaskExecutor;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.Trigger;
+import org.springframework.scheduling.support.SimpleTriggerContext;
+import org.springframework.scheduling.support.TaskUtils;
+import org.springframework.util.Assert;
+import org.springframework.util.ErrorHandler;
+import org.springframework.util.concurrent.ListenableFuture;
+import org.springframework.util.concurrent.ListenableFutureTask;
+
+/**
+ * Implementation of Spring's {@link TaskScheduler} interface on top of a hashed
+ * timing wheel, suitable for very large numbers of concurrently scheduled tasks
+ * that mostly get cancelled before they are due, e.g. per-request timeouts.
+ *
+ * <p>In contrast to {@link ThreadPoolTaskScheduler}, which keeps its tasks in the
+ * single-lock binary heap of a {@link java.util.concurrent.ScheduledThreadPoolExecutor},
+ * scheduling and cancelling a task are O(1) operations here: new tasks are handed
+ * to a single timer thread through a lock-free queue and get placed into one of
+ * {@link #setTicksPerWheel "ticksPerWheel"} buckets; a cancelled task is merely
+ * marked and gets unlinked by the timer thread on its next tick. The timer thread
+ * does not run any tasks itself: due tasks are dispatched to a separate pool of
+ * {@link #setPoolSize "poolSize"} worker threads.
+ *
+ * <p>Each scheduled task is represented by a single object, serving as wheel entry,
+ * worker task and returned {@link ScheduledFuture} at the same time.
+ *
+ * <p>The trade-off is precision: execution times are rounded up to the next tick,
+ * so a task may run up to one {@link #setTickDuration "tickDuration"} late. Tasks
+ * that are not due yet will be cancelled on shutdown.
+ *
+ * <p>Can be used as a drop-in replacement for {@link ThreadPoolTaskScheduler},
+ * e.g. through {@code <task:scheduler id="..." tick-duration="10"/>}.
+ *
+ * @author agent
+ * @since 3.2.12
+ * @see #setTickDuration
+ * @see #setTicksPerWheel
+ * @see #setPoolSize
+ * @see ThreadPoolTaskScheduler
+ */
+@SuppressWarnings("serial")
+public class HashedWheelTaskScheduler extends ExecutorConfigurationSupport
+		implements AsyncListenableTaskExecutor, SchedulingTaskExecutor, TaskScheduler {
+
+	private static final int MAX_TRANSFERS_PER_TICK = 100000;
+
+
+	private volatile int poolSize = 1;
+
+	private volatile long tickDuration = 10;
+
+	private volatile int ticksPerWheel = 512;
+
+	private volatile ErrorHandler errorHandler;
+
+	private volatile ExecutorService workerExecutor;
+
+	private volatile Wheel wheel;
+
+
+	/**
+	 * Set the size of the worker thread pool that due tasks get dispatched to.
+	 * Default is 1.
+	 */
+	public void setPoolSize(int poolSize) {
+		Assert.isTrue(poolSize > 0, "'poolSize' must be 1 or higher");
+		this.poolSize = poolSize;
+	}
+
+	/**
+	 * Set the duration of a single tick of the timing wheel, in milliseconds,
+	 * i.e. the precision of scheduled execution times. Default is 10.
+	 * <p>Shorter ticks mean more precise execution at the expense of the timer
+	 * thread waking up more often.
+	 */
+	public void setTickDuration(long tickDuration) {
+		Assert.isTrue(tickDuration > 0, "'tickDuration' must be positive");
+		this.tickDuration = tickDuration;
+	}
+
+	/**
+	 * Set the number of buckets in the timing wheel. Will be rounded up to the
+	 * next power of two. Default is 512.
+	 * <p>Tasks scheduled further ahead than {@code ticksPerWheel * tickDuration}
+	 * remain in their bucket for several rounds of the wheel; a larger wheel
+	 * reduces the number of tasks to be visited per tick.
+	 */
+	public void setTicksPerWheel(int ticksPerWheel) {
+		Assert.isTrue(ticksPerWheel > 0 && ticksPerWheel <= (1 << 30), "'ticksPerWheel' must be between 1 and 2^30");
+		this.ticksPerWheel = ticksPerWheel;
+	}
+
+	/**
+	 * Provide an {@link ErrorHandler} strategy.
+	 */
+	public void setErrorHandler(ErrorHandler errorHandler) {
+		Assert.notNull(errorHandler, "'errorHandler' must not be null");
+		this.errorHandler = errorHandler;
+	}
+
+	protected ExecutorService initializeExecutor(
+			ThreadFactory threadFactory, RejectedExecutionHandler rejectedExecutionHandler) {
+
+		this.workerExecutor = createWorkerExecutor(this.poolSize, threadFactory, rejectedExecutionHandler);
+		this.wheel = new Wheel(this.tickDuration, this.ticksPerWheel, threadFactory);
+		return this.workerExecutor;
+	}
+
+	/**
+	 * Create a new {@link ExecutorService} instance for running due tasks.
+	 * <p>The default implementation creates a fixed-size {@link ThreadPoolExecutor}.
+	 * Can be overridden in subclasses to provide custom ExecutorService instances.
+	 * @param poolSize the specified pool size
+	 * @param threadFactory the ThreadFactory to use
+	 * @param rejectedExecutionHandler the RejectedExecutionHandler to use
+	 * @return a new ExecutorService instance
+	 * @see #afterPropertiesSet()
+	 */
+	protected ExecutorService createWorkerExecutor(
+			int poolSize, ThreadFactory threadFactory, RejectedExecutionHandler rejectedExecutionHandler) {
+
+		return new ThreadPoolExecutor(poolSize, poolSize, 0, TimeUnit.MILLISECONDS,
+				new LinkedBlockingQueue<Runnable>(), threadFactory, rejectedExecutionHandler);
+	}
+
+	/**
+	 * Return the underlying ExecutorService that due tasks get dispatched to.
+	 * @return the worker ExecutorService (never {@code null})
+	 * @throws IllegalStateException if the HashedWheelTaskScheduler hasn't been initialized yet
+	 */
+	public ExecutorService getWorkerExecutor() throws IllegalStateException {
+		Assert.state(this.workerExecutor != null, "HashedWheelTaskScheduler not initialized");
+		return this.workerExecutor;
+	}
+
+	/**
+	 * Return the number of tasks currently waiting in the timing wheel
+	 * (not counting tasks that have been dispatched to the worker pool).
+	 */
+	public int getScheduledTaskCount() {
+		Wheel wheel = this.wheel;
+		return (wheel != null ? wheel.scheduledTaskCount.get() : 0);
+	}
+
+	/**
+	 * Stop the timer thread, cancelling all tasks that are not due yet,
+	 * before shutting down the worker pool.
+	 */
+	@Override
+	public void shutdown() {
+		if (this.wheel != null) {
+			this.wheel.stop();
+		}
+		super.shutdown();
+	}
+
+	private Wheel getWheel() {
+		Assert.state(this.wheel != null, "HashedWheelTaskScheduler not initialized");
+		return this.wheel;
+	}
+
+
+	// SchedulingTaskExecutor implementation
+
+	public void execute(Runnable task) {
+		dispatch(errorHandlingTask(task, false), task);
+	}
+
+	public void execute(Runnable task, long startTimeout) {
+		execute(task);
+	}
+
+	public Future<?> submit(Runnable task) {
+		return submitListenable(task);
+	}
+
+	public <T> Future<T> submit(Callable<T> task) {
+		return submitListenable(task);
+	}
+
+	public ListenableFuture<?> submitListenable(Runnable task) {
+		ListenableFutureTask<Object> future = new ListenableFutureTask<Object>(errorHandlingTask(task, false), null);
+		dispatch(future, task);
+		return future;
+	}
+
+	public <T> ListenableFuture<T> submitListenable(Callable<T> task) {
+		Callable<T> taskToUse = task;
+		if (this.errorHandler != null) {
+			taskToUse = new ThreadPoolTaskScheduler.DelegatingErrorHandlingCallable<T>(task, this.errorHandler);
+		}
+		ListenableFutureTask<T> future = new ListenableFutureTask<T>(taskToUse);
+		dispatch(future, task);
+		return future;
+	}
+
+	public boolean prefersShortLivedTasks() {
+		return true;
+	}
+
+
+	// TaskScheduler implementation
+
+	public ScheduledFuture<?> schedule(Runnable task, Trigger trigger) {
+		ErrorHandler errorHandler =
+				(this.errorHandler != null ? this.errorHandler : TaskUtils.getDefaultErrorHandler(true));
+		WheelTask wheelTask = new WheelTask(getWheel(),
+				TaskUtils.decorateTaskWithErrorHandler(task, errorHandler, true), trigger);
+		Date startTime = trigger.nextExecutionTime(wheelTask.triggerContext);
+		if (startTime == null) {
+			return null;
+		}
+		wheelTask.scheduledExecutionTime = startTime;
+		wheelTask.deadline = deadlineFor(startTime);
+		return schedule(wheelTask, task);
+	}
+
+	public ScheduledFuture<?> schedule(Runnable task, Date startTime) {
+		return schedule(new WheelTask(getWheel(), errorHandlingTask(task, false), deadlineFor(startTime), 0), task);
+	}
+
+	public ScheduledFuture<?> scheduleAtFixedRate(Runnable task, Date startTime, long period) {
+		Assert.isTrue(period > 0, "'period' must be positive");
+		return schedule(new WheelTask(getWheel(), errorHandlingTask(task, true), deadlineFor(startTime),
+				TimeUnit.MILLISECONDS.toNanos(period)), task);
+	}
+
+	public ScheduledFuture<?> scheduleAtFixedRate(Runnable task, long period) {
+		Assert.isTrue(period > 0, "'period' must be positive");
+		return schedule(new WheelTask(getWheel(), errorHandlingTask(task, true), System.nanoTime(),
+				TimeUnit.MILLISECONDS.toNanos(period)), task);
+	}
+
+	public ScheduledFuture<?> scheduleWithFixedDelay(Runnable task, Date startTime, long delay) {
+		Assert.isTrue(delay > 0, "'delay' must be positive");
+		return schedule(new WheelTask(getWheel(), errorHandlingTask(task, true), deadlineFor(startTime),
+				-TimeUnit.MILLISECONDS.toNanos(delay)), task);
+	}
+
+	public ScheduledFuture<?> scheduleWithFixedDelay(Runnable task, long delay) {
+		Assert.isTrue(delay > 0, "'delay' must be positive");
+		return schedule(new WheelTask(getWheel(), errorHandlingTask(task, true), System.nanoTime(),
+				-TimeUnit.MILLISECONDS.toNanos(delay)), task);
+	}
+
+
+	/**
+	 * Hand the given task to the timing wheel, or straight to the worker pool
+	 * if it is due already.
+	 */
+	private ScheduledFuture<?> schedule(WheelTask wheelTask, Runnable task) {
+		if (wheelTask.deadline - System.nanoTime() <= 0) {
+			dispatch(wheelTask, task);
+		}
+		else {
+			try {
+				wheelTask.wheel.add(wheelTask);
+			}
+			catch (RejectedExecutionException ex) {
+				throw new TaskRejectedException("Executor [" + this + "] did not accept task: " + task, ex);
+			}
+		}
+		return wheelTask;
+	}
+
+	private void dispatch(Runnable runnable, Object task) {
+		ExecutorService executor = getWorkerExecutor();
+		try {
+			executor.execute(runnable);
+		}
+		catch (RejectedExecutionException ex) {
+			throw new TaskRejectedException("Executor [" + executor + "] did not accept task: " + task, ex);
+		}
+	}
+
+	private Runnable errorHandlingTask(Runnable task, boolean isRepeatingTask) {
+		return TaskUtils.decorateTaskWithErrorHandler(task, this.errorHandler, isRepeatingTask);
+	}
+
+	private static long deadlineFor(Date executionTime) {
+		return System.nanoTime() +
+				TimeUnit.MILLISECONDS.toNanos(executionTime.getTime() - System.currentTimeMillis());
+	}
+
+
+	/**
+	 * The timing wheel, driven by a single timer thread. Apart from the
+	 * pending/cancelled queues, all wheel state is confined to that thread.
+	 */
+	private class Wheel implements Runnable {
+
+		private final long tickNanos;
+
+		private final Bucket[] buckets;
+
+		private final int mask;
+
+		private final Queue<WheelTask> pendingTasks = new ConcurrentLinkedQueue<WheelTask>();
+
+		private final Queue<WheelTask> cancelledTasks = new ConcurrentLinkedQueue<WheelTask>();
+
+		private final AtomicInteger scheduledTaskCount = new AtomicInteger();
+
+		private final Thread timerThread;
+
+		private final long startTime;
+
+		private long tick;
+
+		private volatile boolean running = true;
+
+		public Wheel(long tickDuration, int ticksPerWheel, ThreadFactory threadFactory) {
+			int wheelSize = 1;
+			while (wheelSize < ticksPerWheel) {
+				wheelSize <<= 1;
+			}
+			this.tickNanos = TimeUnit.MILLISECONDS.toNanos(tickDuration);
+			this.buckets = new Bucket[wheelSize];
+			for (int i = 0; i < wheelSize; i++) {
+				this.buckets[i] = new Bucket();
+			}
+			this.mask = wheelSize - 1;
+			this.startTime = System.nanoTime();
+			this.timerThread = threadFactory.newThread(this);
+			this.timerThread.start();
+		}
+
+		public void add(WheelTask task) {
+			if (!this.running) {
+				throw new RejectedExecutionException("Timing wheel has been shut down");
+			}
+			this.scheduledTaskCount.incrementAndGet();
+			this.pendingTasks.add(task);
+			if (!this.running && this.pendingTasks.remove(task)) {
+				// Raced with stop(): the timer thread may not see this task anymore
+				task.cancel(false);
+			}
+		}
+
+		public void cancelled(WheelTask task) {
+			if (this.running) {
+				this.cancelledTasks.add(task);
+			}
+		}
+
+		public void stop() {
+			this.running = false;
+			this.timerThread.interrupt();
+			try {
+				this.timerThread.join();
+			}
+			catch (InterruptedException ex) {
+				Thread.currentThread().interrupt();
+			}
+		}
+
+		public void run() {
+			while (this.running) {
+				if (waitForNextTick()) {
+					removeCancelledTasks();
+					transferPendingTasks();
+					expireTasks(this.buckets[(int) (this.tick & this.mask)]);
+					this.tick++;
+				}
+			}
+			cancelRemainingTasks();
+		}
+
+		private boolean waitForNextTick() {
+			long deadline = this.tickNanos * (this.tick + 1);
+			while (true) {
+				long sleepMillis = TimeUnit.NANOSECONDS.toMillis(
+						deadline - (System.nanoTime() - this.startTime) + 999999);
+				if (sleepMillis <= 0) {
+					return true;
+				}
+				try {
+					Thread.sleep(sleepMillis);
+				}
+				catch (InterruptedException ex) {
+					if (!this.running) {
+						return false;
+					}
+				}
+			}
+		}
+
+		private void removeCancelledTasks() {
+			WheelTask task;
+			while ((task = this.cancelledTasks.poll()) != null) {
+				if (task.bucket != null) {
+					task.bucket.remove(task);
+					this.scheduledTaskCount.decrementAndGet();
+				}
+			}
+		}
+
+		private void transferPendingTasks() {
+			for (int i = 0; i < MAX_TRANSFERS_PER_TICK; i++) {
+				WheelTask task = this.pendingTasks.poll();
+				if (task == null) {
+					break;
+				}
+				if (task.isCancelled()) {
+					this.scheduledTaskCount.decrementAndGet();
+					continue;
+				}
+				long calculatedTick = (task.deadline - this.startTime) / this.tickNanos;
+				task.remainingRounds = (calculatedTick - this.tick) / this.buckets.length;
+				long targetTick = Math.max(calculatedTick, this.tick);
+				this.buckets[(int) (targetTick & this.mask)].add(task);
+			}
+		}
+
+		private void expireTasks(Bucket bucket) {
+			WheelTask task = bucket.head;
+			while (task != null) {
+				if (task.isCancelled()) {
+					task = bucket.remove(task);
+					this.scheduledTaskCount.decrementAndGet();
+				}
+				else if (task.remainingRounds <= 0) {
+					WheelTask next = bucket.remove(task);
+					this.scheduledTaskCount.decrementAndGet();
+					try {
+						workerExecutor.execute(task);
+					}
+					catch (RejectedExecutionException ex) {
+						logger.warn("Worker executor did not accept due task - cancelling it", ex);
+						task.cancel(false);
+					}
+					task = next;
+				}
+				else {
+					task.remainingRounds--;
+					task = task.next;
+				}
+			}
+		}
+
+		private void cancelRemainingTasks() {
+			for (Bucket bucket : this.buckets) {
+				WheelTask task = bucket.head;
+				while (task != null) {
+					WheelTask next = bucket.remove(task);
+					task.cancel(false);
+					task = next;
+				}
+			}
+			WheelTask task;
+			while ((task = this.pendingTasks.poll()) != null) {
+				task.cancel(false);
+			}
+			this.cancelledTasks.clear();
+			this.scheduledTaskCount.set(0);
+		}
+	}
+
+
+	/**
+	 * A bucket of the timing wheel: a doubly-linked list of tasks,
+	 * only to be accessed by the timer thread.
+	 */
+	private static class Bucket {
+
+		private WheelTask head;
+
+		private WheelTask tail;
+
+		public void add(WheelTask task) {
+			task.bucket = this;
+			if (this.head == null) {
+				this.head = task;
+				this.tail = task;
+			}
+			else {
+				this.tail.next = task;
+				task.prev = this.tail;
+				this.tail = task;
+			}
+		}
+
+		public WheelTask remove(WheelTask task) {
+			WheelTask next = task.next;
+			if (task.prev != null) {
+				task.prev.next = next;
+			}
+			if (next != null) {
+				next.prev = task.prev;
+			}
+			if (task == this.head) {
+				this.head = next;
+			}
+			if (task == this.tail) {
+				this.tail = task.prev;
+			}
+			task.prev = null;
+			task.next = null;
+			task.bucket = null;
+			return next;
+		}
+	}
+
+
+	/**
+	 * A scheduled task: wheel entry, worker task and ScheduledFuture in one.
+	 * Re-enters the wheel after each execution in case of a periodic task.
+	 */
+	private static class WheelTask extends FutureTask<Object> implements ScheduledFuture<Object> {
+
+		private final Wheel wheel;
+
+		/** 0 for one-time tasks, positive for fixed rate, negative for fixed delay */
+		private final long period;
+
+		private final Trigger trigger;
+
+		private final SimpleTriggerContext triggerContext;
+
+		private Date scheduledExecutionTime;
+
+		private volatile long deadline;
+
+		// Wheel state, confined to the timer thread
+
+		private Bucket bucket;
+
+		private WheelTask prev;
+
+		private WheelTask next;
+
+		private long remainingRounds;
+
+		public WheelTask(Wheel wheel, Runnable task, long deadline, long period) {
+			super(task, null);
+			this.wheel = wheel;
+			this.deadline = deadline;
+			this.period = period;
+			this.trigger = null;
+			this.triggerContext = null;
+		}
+
+		public WheelTask(Wheel wheel, Runnable task, Trigger trigger) {
+			super(task, null);
+			this.wheel = wheel;
+			this.period = 0;
+			this.trigger = trigger;
+			this.triggerContext = new SimpleTriggerContext();
+		}
+
+		@Override
+		public void run() {
+			if (this.trigger == null && this.period == 0) {
+				super.run();
+				return;
+			}
+			Date actualExecutionTime = (this.trigger != null ? new Date() : null);
+			if (!runAndReset()) {
+				return;
+			}
+			if (this.trigger != null) {
+				this.triggerContext.update(this.scheduledExecutionTime, actualExecutionTime, new Date());
+				Date nextExecutionTime = this.trigger.nextExecutionTime(this.triggerContext);
+				if (nextExecutionTime == null) {
+					set(null);
+					return;
+				}
+				this.scheduledExecutionTime = nextExecutionTime;
+				this.deadline = deadlineFor(nextExecutionTime);
+			}
+			else if (this.period > 0) {
+				this.deadline += this.period;
+			}
+			else {
+				this.deadline = System.nanoTime() - this.period;
+			}
+			try {
+				this.wheel.add(this);
+			}
+			catch (RejectedExecutionException ex) {
+				cancel(false);
+			}
+		}
+
+		@Override
+		public boolean cancel(boolean mayInterruptIfRunning) {
+			boolean cancelled = super.cancel(mayInterruptIfRunning);
+			if (cancelled) {
+				this.wheel.cancelled(this);
+			}
+			return cancelled;
+		}
+
+		public long getDelay(TimeUnit unit) {
+			return unit.convert(this.deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+		}
+
+		public int compareTo(Delayed other) {
+			if (this == other) {
+				return 0;
+			}
+			long diff = getDelay(TimeUnit.NANOSECONDS) - other.getDelay(TimeUnit.NANOSECONDS);
+			return (diff == 0 ? 0 : ((diff < 0) ? -1 : 1));
+		}
+	}
+
+}
@@ -25,6 +25,10 @@ import org.springframework.util.StringUtils;
 /**
  * Parser for the 'scheduler' element of the 'task' namespace.
  *
+ * <p>Sets up a {@code ThreadPoolTaskScheduler} by default, or a
+ * {@code HashedWheelTaskScheduler} if a 'tick-duration' or 'ticks-per-wheel'
+ * attribute has been specified.
+ *
  * @author Mark Fisher
  * @since 3.0
  */
@@ -32,6 +36,9 @@ public class SchedulerBeanDefinitionParser extends AbstractSingleBeanDefinitionP
 
 	@Override
 	protected String getBeanClassName(Element element) {
+		if (element.hasAttribute("tick-duration") || element.hasAttribute("ticks-per-wheel")) {
+			return "org.springframework.scheduling.concurrent.HashedWheelTaskScheduler";
+		}
 		return "org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler";
 	}
 
@@ -41,6 +48,14 @@ public class SchedulerBeanDefinitionParser extends AbstractSingleBeanDefinitionP
 		if (StringUtils.hasText(poolSize)) {
 			builder.addPropertyValue("poolSize", poolSize);
 		}
+		String tickDuration = element.getAttribute("tick-duration");
+		if (StringUtils.hasText(tickDuration)) {
+			builder.addPropertyValue("tickDuration", tickDuration);
+		}
+		String ticksPerWheel = element.getAttribute("ticks-per-wheel");
+		if (StringUtils.hasText(ticksPerWheel)) {
+			builder.addPropertyValue("ticksPerWheel", ticksPerWheel);
+		}
 	}
 
 }
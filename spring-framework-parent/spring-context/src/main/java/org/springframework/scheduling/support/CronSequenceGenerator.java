@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2013 the original author or authors.
+ * Copyright 2002-2014 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,14 +16,8 @@
 
 package org.springframework.scheduling.support;
 
-import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.BitSet;
-import java.util.Calendar;
-import java.util.Collections;
 import java.util.Date;
-import java.util.GregorianCalendar;
-import java.util.List;
 import java.util.TimeZone;
 
 import org.springframework.util.StringUtils;
@@ -53,6 +47,12 @@ import org.springframework.util.StringUtils;
  */
 public class CronSequenceGenerator {
 
+	private static final long MILLIS_PER_DAY = 24 * 60 * 60 * 1000L;
+
+	/** Maximum number of years to search ahead before giving up on an expression */
+	private static final int MAX_SEARCH_YEARS = 4;
+
+
 	private final BitSet seconds = new BitSet(60);
 
 	private final BitSet minutes = new BitSet(60);
@@ -69,6 +69,20 @@ public class CronSequenceGenerator {
 
 	private final TimeZone timeZone;
 
+	// Parsed fields as bit masks, for allocation-free computation of next fire times
+
+	private final long secondsMask;
+
+	private final long minutesMask;
+
+	private final long hoursMask;
+
+	private final long daysOfWeekMask;
+
+	private final long daysOfMonthMask;
+
+	private final long monthsMask;
+
 
 	/**
 	 * Construct a {@link CronSequenceGenerator} from the pattern provided,
@@ -92,6 +106,12 @@ public class CronSequenceGenerator {
 		this.expression = expression;
 		this.timeZone = timeZone;
 		parse(expression);
+		this.secondsMask = toMask(this.seconds);
+		this.minutesMask = toMask(this.minutes);
+		this.hoursMask = toMask(this.hours);
+		this.daysOfWeekMask = toMask(this.daysOfWeek);
+		this.daysOfMonthMask = toMask(this.daysOfMonth);
+		this.monthsMask = toMask(this.months);
 	}
 
 
@@ -103,146 +123,243 @@ public class CronSequenceGenerator {
 	 * @return the next value matching the pattern
 	 */
 	public Date next(Date date) {
-		/*
-		The plan:
+		return new Date(next(date.getTime()));
+	}
 
-		1 Round up to the next whole second
+	/**
+	 * Get the next timestamp in the sequence matching the Cron pattern and
+	 * after the timestamp provided. The return value will have a whole number
+	 * of seconds, and will be after the input value.
+	 * <p>In contrast to {@link #next(Date)}, this variant does not allocate
+	 * any objects: the computation is based on primitive field arithmetic,
+	 * with the time zone only consulted for its offsets. Local times within a
+	 * daylight saving gap are skipped; local times repeated after clocks have
+	 * been set back match on both of their occurrences.
+	 * @param timestamp a seed value (milliseconds since the epoch)
+	 * @return the next value matching the pattern (milliseconds since the epoch)
+	 * @since 3.2.12
+	 */
+	public long next(long timestamp) {
+		// Round down to the whole second, then search from the second after it
+		long start = timestamp - floorMod(timestamp, 1000) + 1000;
+		int maxYear = yearOf(start + this.timeZone.getOffset(start)) + MAX_SEARCH_YEARS;
+		while (true) {
+			// Search the local time line with the offset in effect at the start...
+			int offset = this.timeZone.getOffset(start);
+			long utc = nextLocalMatch(start + offset, maxYear) - offset;
+			// ... which is only valid up to the next offset transition, if any
+			long transition = nextOffsetTransition(start, utc, offset);
+			if (transition == -1) {
+				return utc;
+			}
+			// Daylight saving gap or repeated local times: search again from the
+			// transition, with local time continuing from the new offset
+			start = transition;
+		}
+	}
 
-		2 If seconds match move on, otherwise find the next match:
-		2.1 If next match is in the next minute then roll forwards
+	/**
+	 * Get the next {@code count} timestamps in the sequence matching the Cron
+	 * pattern, each after the previous one, starting after the timestamp provided.
+	 * @param timestamp a seed value (milliseconds since the epoch)
+	 * @param count the number of timestamps to compute
+	 * @return the next matching values (milliseconds since the epoch), in ascending order
+	 * @since 3.2.12
+	 * @see #next(long)
+	 */
+	public long[] next(long timestamp, int count) {
+		long[] result = new long[count];
+		long current = timestamp;
+		for (int i = 0; i < count; i++) {
+			current = next(current);
+			result[i] = current;
+		}
+		return result;
+	}
 
-		3 If minute matches move on, otherwise find the next match
-		3.1 If next match is in the next hour then roll forwards
-		3.2 Reset the seconds and go to 2
+	/**
+	 * Find the next local time (milliseconds since the epoch, shifted by the
+	 * time zone offset) at or after the given one that matches all fields.
+	 * Each field is only advanced once all higher-order fields match, with
+	 * lower-order fields reset to their minimum whenever a field rolls forward.
+	 */
+	private long nextLocalMatch(long local, int maxYear) {
+		long dayNumber = floorDiv(local, MILLIS_PER_DAY);
+		int secondOfDay = (int) ((local - dayNumber * MILLIS_PER_DAY) / 1000);
+		int date = civilFromDays(dayNumber);
+		int year = date / 10000;
+		int month = date / 100 % 100;
+		int day = date % 100;
+		int hour = secondOfDay / 3600;
+		int minute = secondOfDay / 60 % 60;
+		int second = secondOfDay % 60;
+
+		while (true) {
+			if (year > maxYear) {
+				throw new IllegalArgumentException("Invalid cron expression \"" + this.expression +
+						"\" led to runaway search for next trigger");
+			}
 
-		4 If hour matches move on, otherwise find the next match
-		4.1 If next match is in the next day then roll forwards,
-		4.2 Reset the minutes and seconds and go to 2
+			int nextMonth = nextSetBit(this.monthsMask, month - 1);
+			if (nextMonth == -1) {
+				year++;
+				month = 1;
+				day = 1;
+				hour = minute = second = 0;
+				continue;
+			}
+			if (nextMonth != month - 1) {
+				month = nextMonth + 1;
+				day = 1;
+				hour = minute = second = 0;
+			}
 
-		...
-		*/
+			int daysInMonth = daysInMonth(year, month);
+			dayNumber = daysFromCivil(year, month, day);
+			while (day <= daysInMonth && !(isSet(this.daysOfMonthMask, day) &&
+					isSet(this.daysOfWeekMask, (int) floorMod(dayNumber + 4, 7)))) {
+				// 1970-01-01 was a Thursday, i.e. day of week 4 with Sunday as 0
+				day++;
+				dayNumber++;
+				hour = minute = second = 0;
+			}
+			if (day > daysInMonth) {
+				if (++month > 12) {
+					year++;
+					month = 1;
+				}
+				day = 1;
+				hour = minute = second = 0;
+				continue;
+			}
 
-		Calendar calendar = new GregorianCalendar();
-		calendar.setTimeZone(this.timeZone);
-		calendar.setTime(date);
+			int nextHour = nextSetBit(this.hoursMask, hour);
+			if (nextHour == -1) {
+				day++;
+				hour = minute = second = 0;
+				continue;
+			}
+			if (nextHour != hour) {
+				hour = nextHour;
+				minute = second = 0;
+			}
 
-		// First, just reset the milliseconds and try to calculate from there...
-		calendar.set(Calendar.MILLISECOND, 0);
-		long originalTimestamp = calendar.getTimeInMillis();
-		doNext(calendar, calendar.get(Calendar.YEAR));
+			int nextMinute = nextSetBit(this.minutesMask, minute);
+			if (nextMinute == -1) {
+				hour++;
+				minute = second = 0;
+				continue;
+			}
+			if (nextMinute != minute) {
+				minute = nextMinute;
+				second = 0;
+			}
 
-		if (calendar.getTimeInMillis() == originalTimestamp) {
-			// We arrived at the original timestamp - round up to the next whole second and try again...
-			calendar.add(Calendar.SECOND, 1);
-			doNext(calendar, calendar.get(Calendar.YEAR));
+			int nextSecond = nextSetBit(this.secondsMask, second);
+			if (nextSecond == -1) {
+				minute++;
+				second = 0;
+				continue;
+			}
+			return dayNumber * MILLIS_PER_DAY + (hour * 3600 + minute * 60 + nextSecond) * 1000L;
 		}
-
-		return calendar.getTime();
 	}
 
-	private void doNext(Calendar calendar, int dot) {
-		List<Integer> resets = new ArrayList<Integer>();
-
-		int second = calendar.get(Calendar.SECOND);
-		List<Integer> emptyList = Collections.emptyList();
-		int updateSecond = findNext(this.seconds, second, calendar, Calendar.SECOND, Calendar.MINUTE, emptyList);
-		if (second == updateSecond) {
-			resets.add(Calendar.SECOND);
-		}
-
-		int minute = calendar.get(Calendar.MINUTE);
-		int updateMinute = findNext(this.minutes, minute, calendar, Calendar.MINUTE, Calendar.HOUR_OF_DAY, resets);
-		if (minute == updateMinute) {
-			resets.add(Calendar.MINUTE);
-		}
-		else {
-			doNext(calendar, dot);
+	/**
+	 * Determine the first point in time after {@code from} and not after
+	 * {@code to} at which the time zone offset differs from the given one.
+	 * @return the offset transition, or -1 if the offset does not change
+	 */
+	private long nextOffsetTransition(long from, long to, int offset) {
+		long before = from;
+		while (before < to) {
+			// Offset transitions are months apart: checking once per day is sufficient
+			long after = Math.min(before + MILLIS_PER_DAY, to);
+			if (this.timeZone.getOffset(after) != offset) {
+				while (after - before > 1000) {
+					long middle = before + Math.max((after - before) / 2000 * 1000, 1000);
+					if (this.timeZone.getOffset(middle) == offset) {
+						before = middle;
+					}
+					else {
+						after = middle;
+					}
+				}
+				return after;
+			}
+			before = after;
 		}
+		return -1;
+	}
 
-		int hour = calendar.get(Calendar.HOUR_OF_DAY);
-		int updateHour = findNext(this.hours, hour, calendar, Calendar.HOUR_OF_DAY, Calendar.DAY_OF_WEEK, resets);
-		if (hour == updateHour) {
-			resets.add(Calendar.HOUR_OF_DAY);
-		}
-		else {
-			doNext(calendar, dot);
+	private static long toMask(BitSet bits) {
+		long mask = 0;
+		for (int i = bits.nextSetBit(0); i >= 0; i = bits.nextSetBit(i + 1)) {
+			mask |= (1L << i);
 		}
+		return mask;
+	}
 
-		int dayOfWeek = calendar.get(Calendar.DAY_OF_WEEK);
-		int dayOfMonth = calendar.get(Calendar.DAY_OF_MONTH);
-		int updateDayOfMonth = findNextDay(calendar, this.daysOfMonth, dayOfMonth, daysOfWeek, dayOfWeek, resets);
-		if (dayOfMonth == updateDayOfMonth) {
-			resets.add(Calendar.DAY_OF_MONTH);
-		}
-		else {
-			doNext(calendar, dot);
-		}
+	private static boolean isSet(long mask, int index) {
+		return ((mask >>> index) & 1L) != 0;
+	}
 
-		int month = calendar.get(Calendar.MONTH);
-		int updateMonth = findNext(this.months, month, calendar, Calendar.MONTH, Calendar.YEAR, resets);
-		if (month != updateMonth) {
-			if (calendar.get(Calendar.YEAR) - dot > 4) {
-				throw new IllegalArgumentException("Invalid cron expression \"" + this.expression +
-						"\" led to runaway search for next trigger");
-			}
-			doNext(calendar, dot);
+	private static int nextSetBit(long mask, int fromIndex) {
+		if (fromIndex >= 64) {
+			return -1;
 		}
+		long remaining = mask & (-1L << fromIndex);
+		return (remaining != 0 ? Long.numberOfTrailingZeros(remaining) : -1);
+	}
 
+	private static int yearOf(long local) {
+		return civilFromDays(floorDiv(local, MILLIS_PER_DAY)) / 10000;
 	}
 
-	private int findNextDay(Calendar calendar, BitSet daysOfMonth, int dayOfMonth, BitSet daysOfWeek, int dayOfWeek,
-			List<Integer> resets) {
-
-		int count = 0;
-		int max = 366;
-		// the DAY_OF_WEEK values in java.util.Calendar start with 1 (Sunday),
-		// but in the cron pattern, they start with 0, so we subtract 1 here
-		while ((!daysOfMonth.get(dayOfMonth) || !daysOfWeek.get(dayOfWeek - 1)) && count++ < max) {
-			calendar.add(Calendar.DAY_OF_MONTH, 1);
-			dayOfMonth = calendar.get(Calendar.DAY_OF_MONTH);
-			dayOfWeek = calendar.get(Calendar.DAY_OF_WEEK);
-			reset(calendar, resets);
+	private static int daysInMonth(int year, int month) {
+		if (month == 2) {
+			return ((year % 4 == 0 && year % 100 != 0) || year % 400 == 0 ? 29 : 28);
 		}
-		if (count >= max) {
-			throw new IllegalArgumentException("Overflow in day for expression \"" + this.expression + "\"");
-		}
-		return dayOfMonth;
+		return (month == 4 || month == 6 || month == 9 || month == 11 ? 30 : 31);
 	}
 
 	/**
-	 * Search the bits provided for the next set bit after the value provided,
-	 * and reset the calendar.
-	 * @param bits a {@link BitSet} representing the allowed values of the field
-	 * @param value the current value of the field
-	 * @param calendar the calendar to increment as we move through the bits
-	 * @param field the field to increment in the calendar (@see
-	 * {@link Calendar} for the static constants defining valid fields)
-	 * @param lowerOrders the Calendar field ids that should be reset (i.e. the
-	 * ones of lower significance than the field of interest)
-	 * @return the value of the calendar field that is next in the sequence
+	 * Return the number of days since 1970-01-01 for the given proleptic
+	 * Gregorian date (month from 1 to 12).
 	 */
-	private int findNext(BitSet bits, int value, Calendar calendar, int field, int nextField, List<Integer> lowerOrders) {
-		int nextValue = bits.nextSetBit(value);
-		// roll over if needed
-		if (nextValue == -1) {
-			calendar.add(nextField, 1);
-			reset(calendar, Arrays.asList(field));
-			nextValue = bits.nextSetBit(0);
-		}
-		if (nextValue != value) {
-			calendar.set(field, nextValue);
-			reset(calendar, lowerOrders);
-		}
-		return nextValue;
+	private static long daysFromCivil(int year, int month, int day) {
+		int y = (month <= 2 ? year - 1 : year);
+		int era = (y >= 0 ? y : y - 399) / 400;
+		int yearOfEra = y - era * 400;
+		int dayOfYear = (153 * (month > 2 ? month - 3 : month + 9) + 2) / 5 + day - 1;
+		int dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+		return era * 146097L + dayOfEra - 719468;
 	}
 
 	/**
-	 * Reset the calendar setting all the fields provided to zero.
+	 * Return the proleptic Gregorian date for the given number of days since
+	 * 1970-01-01, encoded as {@code year * 10000 + month * 100 + day}.
 	 */
-	private void reset(Calendar calendar, List<Integer> fields) {
-		for (int field : fields) {
-			calendar.set(field, field == Calendar.DAY_OF_MONTH ? 1 : 0);
-		}
+	private static int civilFromDays(long dayNumber) {
+		long z = dayNumber + 719468;
+		long era = (z >= 0 ? z : z - 146096) / 146097;
+		int dayOfEra = (int) (z - era * 146097);
+		int yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / 146096) / 365;
+		int dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+		int mp = (5 * dayOfYear + 2) / 153;
+		int day = dayOfYear - (153 * mp + 2) / 5 + 1;
+		int month = (mp < 10 ? mp + 3 : mp - 9);
+		int year = (int) (yearOfEra + era * 400) + (month <= 2 ? 1 : 0);
+		return year * 10000 + month * 100 + day;
+	}
+
+	private static long floorDiv(long x, long y) {
+		long result = x / y;
+		return ((x % y != 0 && ((x ^ y) < 0)) ? result - 1 : result);
+	}
+
+	private static long floorMod(long x, long y) {
+		return x - floorDiv(x, y) * y;
 	}
 
 
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2011 the original author or authors.
+ * Copyright 2002-2014 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -19,7 +19,11 @@ package org.springframework.scheduling.support;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.lang.reflect.UndeclaredThrowableException;
+import java.util.Date;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
+import org.springframework.scheduling.Trigger;
 import org.springframework.util.ReflectionUtils;
 
 /**
@@ -27,6 +31,12 @@ import org.springframework.util.ReflectionUtils;
  * of no-arg scheduled methods. Propagates user exceptions to the caller,
  * assuming that an error strategy for Runnables is in place.
  *
+ * <p>Keeps execution metrics for the scheduled method: the number of executions,
+ * their duration and overlapping executions. The lag between scheduled and actual
+ * start of each execution is only measured if a {@link #setTrigger trigger} has
+ * been specified, since this requires an additional calculation of the next
+ * execution time after each execution.
+ *
  * @author Juergen Hoeller
  * @since 3.0.6
  * @see org.springframework.scheduling.annotation.ScheduledAnnotationBeanPostProcessor
@@ -37,6 +47,26 @@ public class ScheduledMethodRunnable implements Runnable {
 
 	private final Method method;
 
+	private volatile Trigger trigger;
+
+	private volatile long expectedStartTime = -1;
+
+	private final AtomicInteger activeCount = new AtomicInteger();
+
+	private final AtomicLong executionCount = new AtomicLong();
+
+	private final AtomicLong overlapCount = new AtomicLong();
+
+	private final AtomicLong totalExecutionTime = new AtomicLong();
+
+	private final AtomicLong maxExecutionTime = new AtomicLong();
+
+	private final AtomicLong totalLag = new AtomicLong();
+
+	private final AtomicLong maxLag = new AtomicLong();
+
+	private volatile long lastStartTime = -1;
+
 
 	public ScheduledMethodRunnable(Object target, Method method) {
 		this.target = target;
@@ -57,8 +87,31 @@ public class ScheduledMethodRunnable implements Runnable {
 		return this.method;
 	}
 
+	/**
+	 * Specify the trigger that this method has been scheduled with, e.g. a
+	 * {@link CronTrigger} or a {@link PeriodicTrigger}, in order to measure
+	 * the lag between scheduled and actual start of the method.
+	 * <p>Default is none, not measuring any lag. Note that a trigger specified
+	 * here gets asked for the next execution time after every execution, in
+	 * addition to the scheduler's own calculation.
+	 */
+	public void setTrigger(Trigger trigger) {
+		this.trigger = trigger;
+	}
+
 
 	public void run() {
+		if (this.activeCount.incrementAndGet() > 1) {
+			this.overlapCount.incrementAndGet();
+		}
+		long startTime = System.currentTimeMillis();
+		long expectedStartTime = this.expectedStartTime;
+		if (expectedStartTime >= 0 && startTime > expectedStartTime) {
+			long lag = startTime - expectedStartTime;
+			this.totalLag.addAndGet(lag);
+			updateMax(this.maxLag, lag);
+		}
+		this.lastStartTime = startTime;
 		try {
 			ReflectionUtils.makeAccessible(this.method);
 			this.method.invoke(this.target);
@@ -69,6 +122,93 @@ public class ScheduledMethodRunnable implements Runnable {
 		catch (IllegalAccessException ex) {
 			throw new UndeclaredThrowableException(ex);
 		}
+		finally {
+			long completionTime = System.currentTimeMillis();
+			long executionTime = completionTime - startTime;
+			this.executionCount.incrementAndGet();
+			this.totalExecutionTime.addAndGet(executionTime);
+			updateMax(this.maxExecutionTime, executionTime);
+			Trigger trigger = this.trigger;
+			if (trigger != null) {
+				// Mirror the scheduler's calculation of the next execution time, with a
+				// context of its own since overlapping executions may complete concurrently
+				SimpleTriggerContext triggerContext = new SimpleTriggerContext();
+				triggerContext.update(new Date(expectedStartTime >= 0 ? expectedStartTime : startTime),
+						new Date(startTime), new Date(completionTime));
+				Date next = trigger.nextExecutionTime(triggerContext);
+				this.expectedStartTime = (next != null ? next.getTime() : -1);
+			}
+			this.activeCount.decrementAndGet();
+		}
+	}
+
+	private static void updateMax(AtomicLong max, long value) {
+		long current = max.get();
+		while (value > current && !max.compareAndSet(current, value)) {
+			current = max.get();
+		}
+	}
+
+
+	/**
+	 * Return the number of completed executions of the scheduled method
+	 * (whether successful or not).
+	 */
+	public long getExecutionCount() {
+		return this.executionCount.get();
+	}
+
+	/**
+	 * Return the number of executions that started while a previous
+	 * execution was still in progress.
+	 */
+	public long getOverlapCount() {
+		return this.overlapCount.get();
+	}
+
+	/**
+	 * Return the total execution time of all completed executions (in milliseconds).
+	 */
+	public long getTotalExecutionTime() {
+		return this.totalExecutionTime.get();
+	}
+
+	/**
+	 * Return the longest execution time so far (in milliseconds).
+	 */
+	public long getMaxExecutionTime() {
+		return this.maxExecutionTime.get();
+	}
+
+	/**
+	 * Return the total lag between scheduled and actual start of all executions
+	 * (in milliseconds). Only measured once a {@link #setTrigger trigger} has been
+	 * specified, and only from the second execution onwards.
+	 */
+	public long getTotalLag() {
+		return this.totalLag.get();
+	}
+
+	/**
+	 * Return the largest lag between scheduled and actual start so far (in milliseconds).
+	 * @see #getTotalLag()
+	 */
+	public long getMaxLag() {
+		return this.maxLag.get();
+	}
+
+	/**
+	 * Return the start time of the most recent execution (in milliseconds
+	 * since the epoch), or -1 if the method has not been executed yet.
+	 */
+	public long getLastStartTime() {
+		return this.lastStartTime;
+	}
+
+
+	@Override
+	public String toString() {
+		return this.method.getDeclaringClass().getName() + "." + this.method.getName();
 	}
 
 }
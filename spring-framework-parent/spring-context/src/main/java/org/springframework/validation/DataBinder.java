@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2012 the original author or authors.
+ * Copyright 2002-2014 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,21 +16,36 @@
 
 package org.springframework.validation;
 
+import java.beans.PropertyChangeEvent;
+import java.beans.PropertyDescriptor;
 import java.beans.PropertyEditor;
 import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
+import org.springframework.beans.BeanWrapper;
+import org.springframework.beans.BeanWrapperImpl;
 import org.springframework.beans.ConfigurablePropertyAccessor;
+import org.springframework.beans.MethodInvocationException;
 import org.springframework.beans.MutablePropertyValues;
+import org.springframework.beans.NotWritablePropertyException;
+import org.springframework.beans.NullValueInNestedPathException;
 import org.springframework.beans.PropertyAccessException;
+import org.springframework.beans.PropertyAccessor;
 import org.springframework.beans.PropertyAccessorUtils;
 import org.springframework.beans.PropertyBatchUpdateException;
 import org.springframework.beans.PropertyEditorRegistry;
@@ -39,11 +54,17 @@ import org.springframework.beans.PropertyValues;
 import org.springframework.beans.SimpleTypeConverter;
 import org.springframework.beans.TypeConverter;
 import org.springframework.beans.TypeMismatchException;
+import org.springframework.cglib.reflect.FastClass;
 import org.springframework.core.MethodParameter;
 import org.springframework.core.convert.ConversionService;
+import org.springframework.core.convert.Property;
+import org.springframework.core.convert.TypeDescriptor;
 import org.springframework.util.Assert;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ConcurrentReferenceHashMap;
 import org.springframework.util.ObjectUtils;
 import org.springframework.util.PatternMatchUtils;
+import org.springframework.util.ReflectionUtils;
 import org.springframework.util.StringUtils;
 
 /**
@@ -150,6 +171,10 @@ public class DataBinder implements PropertyEditorRegistry, TypeConverter {
 	 */
 	protected static final Log logger = LogFactory.getLog(DataBinder.class);
 
+	/** Cache of binding plans per target class */
+	private static final Map<Class<?>, BindingPlan> bindingPlanCache =
+			new ConcurrentReferenceHashMap<Class<?>, BindingPlan>(64);
+
 	private final Object target;
 
 	private final String objectName;
@@ -172,6 +197,10 @@ public class DataBinder implements PropertyEditorRegistry, TypeConverter {
 
 	private String[] disallowedFields;
 
+	private FieldMatcher allowedFieldMatcher;
+
+	private FieldMatcher disallowedFieldMatcher;
+
 	private String[] requiredFields;
 
 	private BindingErrorProcessor bindingErrorProcessor = new DefaultBindingErrorProcessor();
@@ -427,6 +456,7 @@ public class DataBinder implements PropertyEditorRegistry, TypeConverter {
 	 */
 	public void setAllowedFields(String... allowedFields) {
 		this.allowedFields = PropertyAccessorUtils.canonicalPropertyNames(allowedFields);
+		this.allowedFieldMatcher = (this.allowedFields != null ? new FieldMatcher(this.allowedFields) : null);
 	}
 
 	/**
@@ -451,6 +481,7 @@ public class DataBinder implements PropertyEditorRegistry, TypeConverter {
 	 */
 	public void setDisallowedFields(String... disallowedFields) {
 		this.disallowedFields = PropertyAccessorUtils.canonicalPropertyNames(disallowedFields);
+		this.disallowedFieldMatcher = (this.disallowedFields != null ? new FieldMatcher(this.disallowedFields) : null);
 	}
 
 	/**
@@ -706,8 +737,15 @@ public class DataBinder implements PropertyEditorRegistry, TypeConverter {
 	protected boolean isAllowed(String field) {
 		String[] allowed = getAllowedFields();
 		String[] disallowed = getDisallowedFields();
-		return ((ObjectUtils.isEmpty(allowed) || PatternMatchUtils.simpleMatch(allowed, field)) &&
-				(ObjectUtils.isEmpty(disallowed) || !PatternMatchUtils.simpleMatch(disallowed, field)));
+		return ((ObjectUtils.isEmpty(allowed) || matches(allowed, this.allowedFieldMatcher, field)) &&
+				(ObjectUtils.isEmpty(disallowed) || !matches(disallowed, this.disallowedFieldMatcher, field)));
+	}
+
+	private boolean matches(String[] patterns, FieldMatcher matcher, String field) {
+		if (matcher != null && matcher.isFor(patterns)) {
+			return matcher.matches(field);
+		}
+		return PatternMatchUtils.simpleMatch(patterns, field);
 	}
 
 	/**
@@ -758,6 +796,13 @@ public class DataBinder implements PropertyEditorRegistry, TypeConverter {
 	 * <p>Default implementation applies all of the supplied property
 	 * values as bean property values. By default, unknown fields will
 	 * be ignored.
+	 * <p>With standard bean property access, values for simple properties are
+	 * applied through a binding plan that is compiled once per target class:
+	 * the setter gets invoked through generated bytecode where accessible,
+	 * with the value converted by the binder's ConversionService against a
+	 * cached type descriptor. Values that need a custom editor or any other
+	 * conversion, as well as nested and indexed properties, go through the
+	 * property accessor as usual, so binding errors stay the same.
 	 * @param mpvs the property values to be bound (can be modified)
 	 * @see #getTarget
 	 * @see #getPropertyAccessor
@@ -766,9 +811,19 @@ public class DataBinder implements PropertyEditorRegistry, TypeConverter {
 	 * @see BindingErrorProcessor#processPropertyAccessException
 	 */
 	protected void applyPropertyValues(MutablePropertyValues mpvs) {
+		ConfigurablePropertyAccessor accessor = getPropertyAccessor();
+		BindingPlan plan = (accessor instanceof BeanWrapper ? getBindingPlan((BeanWrapper) accessor) : null);
+		if (plan != null && isIgnoreUnknownFields()) {
+			removeUnknownFields(mpvs, plan);
+		}
 		try {
 			// Bind request parameters onto target object.
-			getPropertyAccessor().setPropertyValues(mpvs, isIgnoreUnknownFields(), isIgnoreInvalidFields());
+			if (plan != null && plan.isApplicableTo(accessor)) {
+				applyPropertyValues(mpvs, (BeanWrapper) accessor, plan);
+			}
+			else {
+				accessor.setPropertyValues(mpvs, isIgnoreUnknownFields(), isIgnoreInvalidFields());
+			}
 		}
 		catch (PropertyBatchUpdateException ex) {
 			// Use bind error processor to create FieldErrors.
@@ -779,6 +834,80 @@ public class DataBinder implements PropertyEditorRegistry, TypeConverter {
 	}
 
 
+	/**
+	 * Remove values for simple (non-nested, non-indexed) fields that the target
+	 * bean does not have a writable property for. The property accessor would
+	 * ignore those anyway, but only after building an exception with suggestions
+	 * for each of them.
+	 */
+	private void removeUnknownFields(MutablePropertyValues mpvs, BindingPlan plan) {
+		for (Iterator<PropertyValue> it = mpvs.getPropertyValueList().iterator(); it.hasNext();) {
+			String name = it.next().getName();
+			if (name.length() > 0 && isSimpleProperty(name) &&
+					!plan.hasWritableProperty(name) &&
+					!plan.hasWritableProperty(name.substring(0, 1).toLowerCase() + name.substring(1)) &&
+					!plan.hasWritableProperty(name.substring(0, 1).toUpperCase() + name.substring(1))) {
+				it.remove();
+			}
+		}
+	}
+
+	/**
+	 * Apply the given property values in the same way as
+	 * {@link org.springframework.beans.AbstractPropertyAccessor#setPropertyValues(PropertyValues, boolean, boolean)},
+	 * using the binding plan's setters for simple properties where possible.
+	 */
+	private void applyPropertyValues(MutablePropertyValues mpvs, BeanWrapper beanWrapper, BindingPlan plan) {
+		List<PropertyAccessException> propertyAccessExceptions = null;
+		for (PropertyValue pv : mpvs.getPropertyValueList()) {
+			try {
+				PropertySetter setter = plan.getSetter(pv.getName());
+				if (setter == null || !setter.setValue(beanWrapper, pv)) {
+					beanWrapper.setPropertyValue(pv);
+				}
+			}
+			catch (NotWritablePropertyException ex) {
+				if (!isIgnoreUnknownFields()) {
+					throw ex;
+				}
+			}
+			catch (NullValueInNestedPathException ex) {
+				if (!isIgnoreInvalidFields()) {
+					throw ex;
+				}
+			}
+			catch (PropertyAccessException ex) {
+				if (propertyAccessExceptions == null) {
+					propertyAccessExceptions = new ArrayList<PropertyAccessException>();
+				}
+				propertyAccessExceptions.add(ex);
+			}
+		}
+		if (propertyAccessExceptions != null) {
+			throw new PropertyBatchUpdateException(
+					propertyAccessExceptions.toArray(new PropertyAccessException[propertyAccessExceptions.size()]));
+		}
+	}
+
+	private static boolean isSimpleProperty(String name) {
+		return (name.indexOf(PropertyAccessor.NESTED_PROPERTY_SEPARATOR_CHAR) == -1 &&
+				name.indexOf(PropertyAccessor.PROPERTY_KEY_PREFIX_CHAR) == -1);
+	}
+
+	private static BindingPlan getBindingPlan(BeanWrapper beanWrapper) {
+		Class<?> beanClass = beanWrapper.getWrappedClass();
+		if (beanClass == null) {
+			return null;
+		}
+		BindingPlan plan = bindingPlanCache.get(beanClass);
+		if (plan == null) {
+			plan = new BindingPlan(beanClass, beanWrapper.getPropertyDescriptors());
+			bindingPlanCache.put(beanClass, plan);
+		}
+		return plan;
+	}
+
+
 	/**
 	 * Invoke the specified Validators, if any.
 	 * @see #setValidator(Validator)
@@ -822,4 +951,201 @@ public class DataBinder implements PropertyEditorRegistry, TypeConverter {
 		return getBindingResult().getModel();
 	}
 
+
+	/**
+	 * Precompiled form of a list of field names and "xxx*", "*xxx" and "*xxx*"
+	 * patterns: plain field names are looked up in a hash set, with only the
+	 * actual patterns going through {@link PatternMatchUtils#simpleMatch}.
+	 */
+	private static class FieldMatcher {
+
+		private final String[] source;
+
+		private final Set<String> names = new HashSet<String>();
+
+		private final String[] patterns;
+
+		public FieldMatcher(String[] source) {
+			this.source = source;
+			List<String> patterns = new ArrayList<String>();
+			for (String field : source) {
+				if (field != null && field.indexOf('*') != -1) {
+					patterns.add(field);
+				}
+				else if (field != null) {
+					this.names.add(field);
+				}
+			}
+			this.patterns = patterns.toArray(new String[patterns.size()]);
+		}
+
+		public boolean isFor(String[] source) {
+			return (this.source == source);
+		}
+
+		public boolean matches(String field) {
+			if (field == null) {
+				return false;
+			}
+			return (this.names.contains(field) ||
+					(this.patterns.length > 0 && PatternMatchUtils.simpleMatch(this.patterns, field)));
+		}
+	}
+
+
+	/**
+	 * Binding plan for a target class: the names of its writable properties
+	 * and a {@link PropertySetter} for each of them.
+	 */
+	private static class BindingPlan {
+
+		private final Map<String, PropertySetter> setters = new HashMap<String, PropertySetter>();
+
+		public BindingPlan(Class<?> beanClass, PropertyDescriptor[] pds) {
+			FastClass fastClass = null;
+			if (Modifier.isPublic(beanClass.getModifiers())) {
+				try {
+					fastClass = FastClass.create(beanClass);
+				}
+				catch (Throwable ex) {
+					if (logger.isDebugEnabled()) {
+						logger.debug("Could not generate setter invoker for class [" + beanClass.getName() +
+								"] - falling back to reflection: " + ex);
+					}
+				}
+			}
+			for (PropertyDescriptor pd : pds) {
+				if (pd.getWriteMethod() != null) {
+					this.setters.put(pd.getName(), new PropertySetter(beanClass, pd, fastClass));
+				}
+			}
+		}
+
+		public boolean hasWritableProperty(String name) {
+			return this.setters.containsKey(name);
+		}
+
+		public PropertySetter getSetter(String name) {
+			return this.setters.get(name);
+		}
+
+		/**
+		 * Only apply the plan to plain bean property access, leaving custom
+		 * accessors and security manager checks to the property accessor itself.
+		 */
+		public boolean isApplicableTo(ConfigurablePropertyAccessor accessor) {
+			return (accessor.getClass() == BeanWrapperImpl.class && System.getSecurityManager() == null);
+		}
+	}
+
+
+	/**
+	 * Sets a simple bean property, converting the value through the bean wrapper's
+	 * ConversionService only. Values that would need any other conversion are
+	 * left to the bean wrapper.
+	 */
+	private static class PropertySetter {
+
+		private final String name;
+
+		private final Class<?> propertyType;
+
+		private final TypeDescriptor typeDescriptor;
+
+		private final Method readMethod;
+
+		private final Method writeMethod;
+
+		private final FastClass fastClass;
+
+		private final int fastMethodIndex;
+
+		public PropertySetter(Class<?> beanClass, PropertyDescriptor pd, FastClass fastClass) {
+			this.name = pd.getName();
+			this.propertyType = pd.getPropertyType();
+			this.typeDescriptor = new TypeDescriptor(
+					new Property(beanClass, pd.getReadMethod(), pd.getWriteMethod(), pd.getName()));
+			this.readMethod = pd.getReadMethod();
+			this.writeMethod = pd.getWriteMethod();
+			int fastMethodIndex = -1;
+			if (fastClass != null && Modifier.isPublic(this.writeMethod.getModifiers()) &&
+					Modifier.isPublic(this.writeMethod.getDeclaringClass().getModifiers())) {
+				fastMethodIndex = fastClass.getIndex(this.writeMethod.getName(), this.writeMethod.getParameterTypes());
+			}
+			this.fastClass = (fastMethodIndex >= 0 ? fastClass : null);
+			this.fastMethodIndex = fastMethodIndex;
+		}
+
+		/**
+		 * Set the given property value on the bean wrapper's target object.
+		 * @return {@code true} if the value has been set, {@code false} if it
+		 * has to be set through the bean wrapper instead
+		 * @throws PropertyAccessException if the setter threw an exception
+		 */
+		public boolean setValue(BeanWrapper beanWrapper, PropertyValue pv) throws PropertyAccessException {
+			Object value = pv.getValue();
+			if (value == null || pv.isConverted() || beanWrapper.findCustomEditor(this.propertyType, this.name) != null) {
+				return false;
+			}
+			Object valueToApply = value;
+			ConversionService conversionService = beanWrapper.getConversionService();
+			TypeDescriptor sourceType = (conversionService != null ? TypeDescriptor.forObject(value) : null);
+			if (sourceType != null && conversionService.canConvert(sourceType, this.typeDescriptor)) {
+				try {
+					valueToApply = conversionService.convert(value, sourceType, this.typeDescriptor);
+				}
+				catch (RuntimeException ex) {
+					// Let the bean wrapper try its fallbacks and report the failure
+					return false;
+				}
+			}
+			else if (this.propertyType.isArray() || value.getClass().isArray() || value instanceof Collection ||
+					value instanceof Map || !ClassUtils.isAssignableValue(this.propertyType, value)) {
+				return false;
+			}
+			Object target = beanWrapper.getWrappedInstance();
+			try {
+				if (this.fastClass != null) {
+					this.fastClass.invoke(this.fastMethodIndex, target, new Object[] {valueToApply});
+				}
+				else {
+					ReflectionUtils.makeAccessible(this.writeMethod);
+					this.writeMethod.invoke(target, valueToApply);
+				}
+				return true;
+			}
+			catch (InvocationTargetException ex) {
+				PropertyChangeEvent event = createPropertyChangeEvent(beanWrapper, value);
+				if (ex.getTargetException() instanceof ClassCastException) {
+					throw new TypeMismatchException(event, this.propertyType, ex.getTargetException());
+				}
+				throw new MethodInvocationException(event, ex.getTargetException());
+			}
+			catch (Exception ex) {
+				throw new MethodInvocationException(createPropertyChangeEvent(beanWrapper, value), ex);
+			}
+		}
+
+		/**
+		 * Create the event for a failed setter invocation. Unlike the bean wrapper,
+		 * this only reads the old value (if requested) once the setter has failed.
+		 */
+		private PropertyChangeEvent createPropertyChangeEvent(BeanWrapper beanWrapper, Object value) {
+			Object target = beanWrapper.getWrappedInstance();
+			Object oldValue = null;
+			if (beanWrapper.isExtractOldValueForEditor() && this.readMethod != null) {
+				try {
+					ReflectionUtils.makeAccessible(this.readMethod);
+					oldValue = this.readMethod.invoke(target);
+				}
+				catch (Exception ex) {
+					if (logger.isDebugEnabled()) {
+						logger.debug("Could not read previous value of property '" + this.name + "'", ex);
+					}
+				}
+			}
+			return new PropertyChangeEvent(target, this.name, oldValue, value);
+		}
+	}
+
 }
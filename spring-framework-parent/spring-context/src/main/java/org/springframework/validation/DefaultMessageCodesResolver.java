@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2012 the original author or authors.
+ * Copyright 2002-2014 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -21,8 +21,11 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
+import org.springframework.util.ObjectUtils;
 import org.springframework.util.StringUtils;
 
 /**
@@ -82,6 +85,14 @@ import org.springframework.util.StringUtils;
  * e.g. "validation.typeMismatch.name" instead of the default "typeMismatch.name",
  * consider specifying a {@link #setPrefix prefix} to be applied.
  *
+ * <p>As of 3.2.12, the codes resolved for the built-in {@link Format formats} are
+ * cached in a cache shared by all resolvers, keyed by prefix, format, error code,
+ * object name, field and field type name, up to a fixed number of entries. This
+ * lets the many resolvers created along with binding results reuse each other's
+ * codes. Fields with keys or indexes (e.g. "items[3]") are not cached since their
+ * variety is unbounded. Subclasses and custom {@link MessageCodeFormatter formatters}
+ * always build their codes from scratch.
+ *
  * @author Juergen Hoeller
  * @author Phillip Webb
  * @author Chris Beams
@@ -97,6 +108,13 @@ public class DefaultMessageCodesResolver implements MessageCodesResolver, Serial
 
 	private static final MessageCodeFormatter DEFAULT_FORMATTER = Format.PREFIX_ERROR_CODE;
 
+	/** Maximum number of entries in the message codes cache */
+	private static final int MESSAGE_CODES_CACHE_LIMIT = 4096;
+
+	/** Cache of resolved message codes, shared by all resolvers */
+	private static final Map<MessageCodesKey, String[]> messageCodesCache =
+			new ConcurrentHashMap<MessageCodesKey, String[]>(256);
+
 
 	private String prefix = "";
 
@@ -145,6 +163,33 @@ public class DefaultMessageCodesResolver implements MessageCodesResolver, Serial
 	 * @return the list of codes
 	 */
 	public String[] resolveMessageCodes(String errorCode, String objectName, String field, Class<?> fieldType) {
+		if (!isMessageCodesCacheable(field)) {
+			return buildMessageCodes(errorCode, objectName, field, fieldType);
+		}
+		MessageCodesKey key = new MessageCodesKey(this.prefix, this.formatter, errorCode, objectName, field,
+				(fieldType != null ? fieldType.getName() : null));
+		String[] codes = messageCodesCache.get(key);
+		if (codes == null) {
+			codes = buildMessageCodes(errorCode, objectName, field, fieldType);
+			if (messageCodesCache.size() < MESSAGE_CODES_CACHE_LIMIT) {
+				messageCodesCache.put(key, codes);
+			}
+		}
+		return codes.clone();
+	}
+
+	/**
+	 * Determine whether resolved codes for the given field may be cached:
+	 * only for this exact class (no overridden code building), the built-in
+	 * stateless {@link Format} implementations and fields without keys or
+	 * indexes.
+	 */
+	private boolean isMessageCodesCacheable(String field) {
+		return (getClass() == DefaultMessageCodesResolver.class && this.formatter instanceof Format &&
+				field != null && field.indexOf('[') == -1);
+	}
+
+	private String[] buildMessageCodes(String errorCode, String objectName, String field, Class<?> fieldType) {
 		Set<String> codeList = new LinkedHashSet<String>();
 		List<String> fieldList = new ArrayList<String>();
 		buildFieldList(field, fieldList);
@@ -204,6 +249,67 @@ public class DefaultMessageCodesResolver implements MessageCodesResolver, Serial
 	}
 
 
+	/**
+	 * Key for the message codes cache. Refers to the field type by name,
+	 * not holding on to the class itself.
+	 */
+	private static final class MessageCodesKey {
+
+		private final String prefix;
+
+		private final MessageCodeFormatter formatter;
+
+		private final String errorCode;
+
+		private final String objectName;
+
+		private final String field;
+
+		private final String fieldType;
+
+		private final int hashCode;
+
+		public MessageCodesKey(String prefix, MessageCodeFormatter formatter,
+				String errorCode, String objectName, String field, String fieldType) {
+
+			this.prefix = prefix;
+			this.formatter = formatter;
+			this.errorCode = errorCode;
+			this.objectName = objectName;
+			this.field = field;
+			this.fieldType = fieldType;
+			int hash = prefix.hashCode();
+			hash = 29 * hash + formatter.hashCode();
+			hash = 29 * hash + ObjectUtils.nullSafeHashCode(errorCode);
+			hash = 29 * hash + ObjectUtils.nullSafeHashCode(objectName);
+			hash = 29 * hash + ObjectUtils.nullSafeHashCode(field);
+			hash = 29 * hash + ObjectUtils.nullSafeHashCode(fieldType);
+			this.hashCode = hash;
+		}
+
+		@Override
+		public boolean equals(Object other) {
+			if (this == other) {
+				return true;
+			}
+			if (!(other instanceof MessageCodesKey)) {
+				return false;
+			}
+			MessageCodesKey otherKey = (MessageCodesKey) other;
+			return (this.prefix.equals(otherKey.prefix) && this.formatter == otherKey.formatter &&
+					ObjectUtils.nullSafeEquals(this.errorCode, otherKey.errorCode) &&
+					ObjectUtils.nullSafeEquals(this.objectName, otherKey.objectName) &&
+					ObjectUtils.nullSafeEquals(this.field, otherKey.field) &&
+					ObjectUtils.nullSafeEquals(this.fieldType, otherKey.fieldType));
+		}
+
+		@Override
+		public int hashCode() {
+			return this.hashCode;
+		}
+	}
+
+
 	/**
 	 * Common message code formats.
 	 *
@@ -0,0 +1,228 @@
+/*
+ * Copyright 2002-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.validation.beanvalidation;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.core.Conventions;
+import org.springframework.util.Assert;
+import org.springframework.validation.BeanPropertyBindingResult;
+import org.springframework.validation.BindingResult;
+import org.springframework.validation.MessageCodesResolver;
+import org.springframework.validation.SmartValidator;
+import org.springframework.validation.Validator;
+
+/**
+ * Validates collections of objects in bulk, splitting the work across the
+ * worker threads of a {@link ForkJoinPool}. Each object is validated against
+ * the given Spring {@link Validator} - typically a {@link SpringValidatorAdapter}
+ * or {@link LocalValidatorFactoryBean} - into its own {@link BindingResult}.
+ *
+ * <p>The target validator needs to be thread-safe, as is the case for all
+ * JSR-303 based validators as well as for Spring's adapters around them.
+ *
+ * <p>Uses a dedicated pool created on first use and shut down on {@link #destroy()},
+ * unless an externally managed pool has been specified through
+ * {@link #setForkJoinPool}. Requires Java 7, or Java 6 with {@code jsr166.jar}
+ * on the classpath.
+ *
+ * @author agent
+ * @since 3.2.12
+ * @see org.springframework.scheduling.concurrent.ForkJoinPoolFactoryBean
+ */
+public class BulkValidator implements DisposableBean {
+
+	/**
+	 * Default number of objects below which a chunk gets validated
+	 * sequentially instead of being split further: 64.
+	 */
+	public static final int DEFAULT_SEQUENTIAL_THRESHOLD = 64;
+
+
+	private final Validator validator;
+
+	private ForkJoinPool forkJoinPool;
+
+	private boolean forkJoinPoolCreated;
+
+	private int sequentialThreshold = DEFAULT_SEQUENTIAL_THRESHOLD;
+
+	private MessageCodesResolver messageCodesResolver;
+
+
+	/**
+	 * Create a new BulkValidator for the given Spring Validator.
+	 * @param validator the Validator to apply to each object
+	 */
+	public BulkValidator(Validator validator) {
+		Assert.notNull(validator, "Validator must not be null");
+		this.validator = validator;
+	}
+
+
+	/**
+	 * Specify the ForkJoinPool to validate on, e.g. as built by a
+	 * {@link org.springframework.scheduling.concurrent.ForkJoinPoolFactoryBean}.
+	 * <p>Default is a dedicated pool with a parallelism level matching the
+	 * number of available processors.
+	 */
+	public synchronized void setForkJoinPool(ForkJoinPool forkJoinPool) {
+		Assert.notNull(forkJoinPool, "ForkJoinPool must not be null");
+		shutdownCreatedPool();
+		this.forkJoinPool = forkJoinPool;
+	}
+
+	/**
+	 * Specify the number of objects below which a chunk of the given collection
+	 * gets validated sequentially on a single worker thread.
+	 * <p>Default is {@link #DEFAULT_SEQUENTIAL_THRESHOLD}.
+	 */
+	public void setSequentialThreshold(int sequentialThreshold) {
+		Assert.isTrue(sequentialThreshold > 0, "Sequential threshold must be greater than 0");
+		this.sequentialThreshold = sequentialThreshold;
+	}
+
+	/**
+	 * Set the strategy to use for resolving errors into message codes
+	 * for each {@link BindingResult}.
+	 * <p>Default is the BindingResult's default, a DefaultMessageCodesResolver.
+	 * @see BeanPropertyBindingResult#setMessageCodesResolver
+	 */
+	public void setMessageCodesResolver(MessageCodesResolver messageCodesResolver) {
+		this.messageCodesResolver = messageCodesResolver;
+	}
+
+
+	/**
+	 * Validate all of the given objects in parallel.
+	 * <p>The object name of each BindingResult is derived from the object's
+	 * type, following {@link Conventions#getVariableName} rules.
+	 * @param targets the objects to validate (must not contain {@code null} elements)
+	 * @param validationHints one or more hint objects to be passed to the validation
+	 * engine, if the target validator is a {@link SmartValidator}
+	 * @return the BindingResults for the given objects, in iteration order
+	 * of the given collection
+	 */
+	public List<BindingResult> validateAll(Collection<?> targets, Object... validationHints) {
+		Assert.notNull(targets, "Target collection must not be null");
+		Object[] targetArray = targets.toArray();
+		for (Object target : targetArray) {
+			Assert.notNull(target, "Target collection must not contain null elements");
+		}
+		BindingResult[] results = new BindingResult[targetArray.length];
+		if (targetArray.length > 0) {
+			getForkJoinPool().invoke(new ValidationAction(targetArray, results, 0, targetArray.length, validationHints));
+		}
+		return Arrays.asList(results);
+	}
+
+	/**
+	 * Validate a single object into a new BindingResult.
+	 * Called on the worker threads of the ForkJoinPool.
+	 * @param target the object to validate
+	 * @param validationHints the hints to pass on to a SmartValidator
+	 * @return the BindingResult holding the validation errors, if any
+	 */
+	protected BindingResult validate(Object target, Object[] validationHints) {
+		BeanPropertyBindingResult result = new BeanPropertyBindingResult(target, Conventions.getVariableName(target));
+		if (this.messageCodesResolver != null) {
+			result.setMessageCodesResolver(this.messageCodesResolver);
+		}
+		if (this.validator instanceof SmartValidator && validationHints != null && validationHints.length > 0) {
+			((SmartValidator) this.validator).validate(target, result, validationHints);
+		}
+		else {
+			this.validator.validate(target, result);
+		}
+		return result;
+	}
+
+	/**
+	 * Obtain the ForkJoinPool to validate on, lazily creating a dedicated one
+	 * if none has been specified.
+	 */
+	protected synchronized ForkJoinPool getForkJoinPool() {
+		if (this.forkJoinPool == null) {
+			this.forkJoinPool = new ForkJoinPool();
+			this.forkJoinPoolCreated = true;
+		}
+		return this.forkJoinPool;
+	}
+
+	/**
+	 * Shut down the dedicated ForkJoinPool, if one has been created.
+	 * An externally specified pool is left untouched.
+	 */
+	public synchronized void destroy() {
+		shutdownCreatedPool();
+		this.forkJoinPool = null;
+	}
+
+	private void shutdownCreatedPool() {
+		if (this.forkJoinPoolCreated) {
+			this.forkJoinPool.shutdown();
+			this.forkJoinPoolCreated = false;
+		}
+	}
+
+
+	/**
+	 * RecursiveAction that validates a range of the target array,
+	 * splitting it in halves down to the sequential threshold.
+	 */
+	@SuppressWarnings("serial")
+	private class ValidationAction extends RecursiveAction {
+
+		private final Object[] targets;
+
+		private final BindingResult[] results;
+
+		private final int from;
+
+		private final int to;
+
+		private final Object[] validationHints;
+
+		public ValidationAction(Object[] targets, BindingResult[] results, int from, int to, Object[] validationHints) {
+			this.targets = targets;
+			this.results = results;
+			this.from = from;
+			this.to = to;
+			this.validationHints = validationHints;
+		}
+
+		@Override
+		protected void compute() {
+			if (this.to - this.from <= sequentialThreshold) {
+				for (int i = this.from; i < this.to; i++) {
+					this.results[i] = validate(this.targets[i], this.validationHints);
+				}
+			}
+			else {
+				int middle = (this.from + this.to) >>> 1;
+				invokeAll(new ValidationAction(this.targets, this.results, this.from, middle, this.validationHints),
+						new ValidationAction(this.targets, this.results, middle, this.to, this.validationHints));
+			}
+		}
+	}
+
+}
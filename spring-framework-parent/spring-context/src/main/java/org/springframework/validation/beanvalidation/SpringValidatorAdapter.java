@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2013 the original author or authors.
+ * Copyright 2002-2014 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -18,8 +18,6 @@ package org.springframework.validation.beanvalidation;
 
 import java.util.HashSet;
 import java.util.LinkedHashSet;
-import java.util.LinkedList;
-import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.TreeMap;
@@ -30,6 +28,7 @@ import javax.validation.metadata.ConstraintDescriptor;
 import org.springframework.beans.NotReadablePropertyException;
 import org.springframework.context.support.DefaultMessageSourceResolvable;
 import org.springframework.util.Assert;
+import org.springframework.util.ConcurrentReferenceHashMap;
 import org.springframework.validation.BindingResult;
 import org.springframework.validation.Errors;
 import org.springframework.validation.FieldError;
@@ -59,6 +58,10 @@ public class SpringValidatorAdapter implements SmartValidator, javax.validation.
 
 	private javax.validation.Validator targetValidator;
 
+	/** Cache of error code and exposed attributes per constraint descriptor */
+	private final Map<ConstraintDescriptor<?>, ConstraintMetadata> constraintMetadataCache =
+			new ConcurrentReferenceHashMap<ConstraintDescriptor<?>, ConstraintMetadata>(64);
+
 
 	/**
 	 * Create a new SpringValidatorAdapter for the given JSR-303 Validator.
@@ -74,6 +77,7 @@ public class SpringValidatorAdapter implements SmartValidator, javax.validation.
 
 	void setTargetValidator(javax.validation.Validator targetValidator) {
 		this.targetValidator = targetValidator;
+		this.constraintMetadataCache.clear();
 	}
 
 
@@ -116,7 +120,7 @@ public class SpringValidatorAdapter implements SmartValidator, javax.validation.
 			if (fieldError == null || !fieldError.isBindingFailure()) {
 				try {
 					ConstraintDescriptor<?> cd = violation.getConstraintDescriptor();
-					String errorCode = cd.getAnnotation().annotationType().getSimpleName();
+					String errorCode = getConstraintMetadata(cd).getErrorCode();
 					Object[] errorArgs = getArgumentsForConstraint(errors.getObjectName(), field, cd);
 					if (errors instanceof BindingResult) {
 						// Can do custom FieldError registration with invalid value from ConstraintViolation,
@@ -174,20 +178,25 @@ public class SpringValidatorAdapter implements SmartValidator, javax.validation.
 	 * @see org.springframework.validation.DefaultBindingErrorProcessor#getArgumentsForBindError
 	 */
 	protected Object[] getArgumentsForConstraint(String objectName, String field, ConstraintDescriptor<?> descriptor) {
-		List<Object> arguments = new LinkedList<Object>();
+		Object[] attributeValues = getConstraintMetadata(descriptor).getAttributeValues();
+		Object[] arguments = new Object[attributeValues.length + 1];
 		String[] codes = new String[] {objectName + Errors.NESTED_PATH_SEPARATOR + field, field};
-		arguments.add(new DefaultMessageSourceResolvable(codes, field));
-		// Using a TreeMap for alphabetical ordering of attribute names
-		Map<String, Object> attributesToExpose = new TreeMap<String, Object>();
-		for (Map.Entry<String, Object> entry : descriptor.getAttributes().entrySet()) {
-			String attributeName = entry.getKey();
-			Object attributeValue = entry.getValue();
-			if (!internalAnnotationAttributes.contains(attributeName)) {
-				attributesToExpose.put(attributeName, attributeValue);
-			}
+		arguments[0] = new DefaultMessageSourceResolvable(codes, field);
+		System.arraycopy(attributeValues, 0, arguments, 1, attributeValues.length);
+		return arguments;
+	}
+
+	/**
+	 * Obtain the error code and exposed attribute values for the given constraint,
+	 * computed once per constraint descriptor.
+	 */
+	private ConstraintMetadata getConstraintMetadata(ConstraintDescriptor<?> descriptor) {
+		ConstraintMetadata metadata = this.constraintMetadataCache.get(descriptor);
+		if (metadata == null) {
+			metadata = new ConstraintMetadata(descriptor);
+			this.constraintMetadataCache.put(descriptor, metadata);
 		}
-		arguments.addAll(attributesToExpose.values());
-		return arguments.toArray(new Object[arguments.size()]);
+		return metadata;
 	}
 
 
@@ -217,4 +226,39 @@ public class SpringValidatorAdapter implements SmartValidator, javax.validation.
 		return this.targetValidator.unwrap(type);
 	}
 
+
+	/**
+	 * Precomputed information about a constraint: the error code derived from the
+	 * annotation type and the actual constraint attribute values (i.e. excluding
+	 * "message", "groups" and "payload") in alphabetical order of their names.
+	 */
+	private static class ConstraintMetadata {
+
+		private final String errorCode;
+
+		private final Object[] attributeValues;
+
+		public ConstraintMetadata(ConstraintDescriptor<?> descriptor) {
+			this.errorCode = descriptor.getAnnotation().annotationType().getSimpleName();
+			// Using a TreeMap for alphabetical ordering of attribute names
+			Map<String, Object> attributesToExpose = new TreeMap<String, Object>();
+			for (Map.Entry<String, Object> entry : descriptor.getAttributes().entrySet()) {
+				String attributeName = entry.getKey();
+				Object attributeValue = entry.getValue();
+				if (!internalAnnotationAttributes.contains(attributeName)) {
+					attributesToExpose.put(attributeName, attributeValue);
+				}
+			}
+			this.attributeValues = attributesToExpose.values().toArray();
+		}
+
+		public String getErrorCode() {
+			return this.errorCode;
+		}
+
+		public Object[] getAttributeValues() {
+			return this.attributeValues;
+		}
+	}
+
 }
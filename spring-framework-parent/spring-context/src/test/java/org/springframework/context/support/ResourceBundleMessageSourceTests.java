@@ -16,6 +16,9 @@
 
 package org.springframework.context.support;
 
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
 import java.util.List;
 import java.util.Locale;
 import java.util.Properties;
@@ -28,6 +31,9 @@ import org.springframework.context.MessageSourceResolvable;
 import org.springframework.context.NoSuchMessageException;
 import org.springframework.context.i18n.LocaleContextHolder;
 import org.springframework.core.JdkVersion;
+import org.springframework.core.io.Resource;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.FileCopyUtils;
 
 /**
  * @author Juergen Hoeller
@@ -320,6 +326,57 @@ public class ResourceBundleMessageSourceTests extends TestCase {
 		assertEquals("message2", ms.getMessage("code2", null, Locale.GERMAN));
 	}
 
+	public void testReloadableResourceBundleMessageSourceWithFileWatcher() throws Exception {
+		if (!ClassUtils.isPresent("java.nio.file.WatchService", getClass().getClassLoader())) {
+			return;
+		}
+		File dir = File.createTempFile("messages", "");
+		dir.delete();
+		dir.mkdir();
+		File file = new File(dir, "messages.properties");
+		FileCopyUtils.copy("code1=message1", new FileWriter(file));
+
+		ReloadableResourceBundleMessageSource ms = new ReloadableResourceBundleMessageSource();
+		ms.setBasename("file:" + dir.getAbsolutePath() + "/messages");
+		ms.setWatchForFileChanges(true);
+		try {
+			assertEquals("message1", ms.getMessage("code1", null, Locale.ENGLISH));
+			assertEquals("message1", ms.getMessage("code1", null, Locale.GERMAN));
+
+			FileCopyUtils.copy("code1=message1b", new FileWriter(file));
+			String message = null;
+			for (int i = 0; i < 100 && !"message1b".equals(message); i++) {
+				Thread.sleep(100);
+				message = ms.getMessage("code1", null, Locale.ENGLISH);
+			}
+			assertEquals("message1b", message);
+			assertEquals("message1b", ms.getMessage("code1", null, Locale.GERMAN));
+		}
+		finally {
+			ms.destroy();
+			file.delete();
+			dir.delete();
+		}
+	}
+
+	public void testReloadableResourceBundleMessageSourceWithDefaultProperties() {
+		ReloadableResourceBundleMessageSource ms = new ReloadableResourceBundleMessageSource() {
+			@Override
+			protected Properties loadProperties(Resource resource, String filename) throws IOException {
+				Properties defaults = new Properties();
+				defaults.setProperty("code1", "default1");
+				defaults.setProperty("defaultCode", "defaultMessage");
+				Properties props = new Properties(defaults);
+				props.putAll(super.loadProperties(resource, filename));
+				return props;
+			}
+		};
+		ms.setBasename("org/springframework/context/support/messages");
+		ms.setCacheSeconds(10);
+		assertEquals("message1", ms.getMessage("code1", null, Locale.ENGLISH));
+		assertEquals("defaultMessage", ms.getMessage("defaultCode", null, Locale.ENGLISH));
+	}
+
 	public void testReloadableResourceBundleMessageSourceFileNameCalculation() {
 		ReloadableResourceBundleMessageSource ms = new ReloadableResourceBundleMessageSource();
 
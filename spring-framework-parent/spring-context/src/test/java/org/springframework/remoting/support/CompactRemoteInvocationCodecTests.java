@@ -0,0 +1,350 @@
+/*
+ * Copyright 2002-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.remoting.support;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InvalidClassException;
+import java.io.NotSerializableException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.io.StreamCorruptedException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import org.springframework.core.ConfigurableObjectInputStream;
+import org.springframework.util.ClassUtils;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for {@link CompactRemoteInvocationCodec}.
+ *
+ * @author agent
+ */
+public class CompactRemoteInvocationCodecTests {
+
+	private final CompactRemoteInvocationCodec codec = new CompactRemoteInvocationCodec();
+
+
+	@Before
+	public void setUp() {
+		this.codec.setCompactClasses(Person.class);
+	}
+
+	@Test
+	public void invocationRoundTrip() throws Exception {
+		Map<String, Object> map = new HashMap<String, Object>();
+		map.put("key", Arrays.asList("a", "b"));
+		map.put("set", new TreeSet<Integer>(Arrays.asList(3, 1, 2)));
+		Object[] args = new Object[] {"text", 42, -7L, 1.5d, true, 'c', new BigDecimal("12.50"),
+				new Date(1000L), TimeUnit.SECONDS, new byte[] {1, 2}, new int[] {1, 2, 3}, map, String.class, null};
+		RemoteInvocation invocation = new RemoteInvocation("doIt", new Class[] {String.class, int.class}, args);
+		invocation.addAttribute("attr", "value");
+
+		RemoteInvocation decoded = (RemoteInvocation) roundTrip(invocation);
+		assertEquals("doIt", decoded.getMethodName());
+		assertArrayEquals(new Class[] {String.class, int.class}, decoded.getParameterTypes());
+		assertEquals("value", decoded.getAttribute("attr"));
+		Object[] decodedArgs = decoded.getArguments();
+		assertEquals(args.length, decodedArgs.length);
+		for (int i = 0; i < args.length; i++) {
+			if (args[i] instanceof byte[]) {
+				assertArrayEquals((byte[]) args[i], (byte[]) decodedArgs[i]);
+			}
+			else if (args[i] instanceof int[]) {
+				assertArrayEquals((int[]) args[i], (int[]) decodedArgs[i]);
+			}
+			else {
+				assertEquals(args[i], decodedArgs[i]);
+			}
+		}
+	}
+
+	@Test
+	public void plainObjectsWithSharedAndCircularReferences() throws Exception {
+		Person parent = new Person("parent", 60);
+		parent.transientValue = "changed";
+		Person child = new Person("child", 30);
+		child.parent = parent;
+		parent.children.add(child);
+		List<Person> people = new ArrayList<Person>();
+		people.add(parent);
+		people.add(child);
+
+		@SuppressWarnings("unchecked")
+		List<Person> decoded = (List<Person>) ((RemoteInvocationResult) roundTrip(new RemoteInvocationResult(people))).getValue();
+		assertEquals(2, decoded.size());
+		Person decodedParent = decoded.get(0);
+		Person decodedChild = decoded.get(1);
+		assertEquals("parent", decodedParent.name);
+		assertEquals(60, decodedParent.age);
+		assertEquals("initial", decodedParent.transientValue);
+		assertSame(decodedParent, decodedChild.parent);
+		assertSame(decodedChild, decodedParent.children.get(0));
+	}
+
+	@Test
+	public void fallbackToJavaSerialization() throws Exception {
+		RemoteInvocationResult result = new RemoteInvocationResult(new IllegalStateException("failure"));
+		RemoteInvocationResult decoded = (RemoteInvocationResult) roundTrip(result);
+		assertTrue(decoded.getException() instanceof IllegalStateException);
+		assertEquals("failure", decoded.getException().getMessage());
+
+		Object value = Collections.unmodifiableList(Arrays.asList(new Immutable("x")));
+		decoded = (RemoteInvocationResult) roundTrip(new RemoteInvocationResult(value));
+		assertEquals("x", ((List<?>) decoded.getValue()).get(0).toString());
+	}
+
+	@Test
+	public void classNotListedAsCompact() throws Exception {
+		byte[] compact = encode(new RemoteInvocationResult(new Person("name", 1)));
+		this.codec.setCompactClasses();
+		byte[] serialized = encode(new RemoteInvocationResult(new Person("name", 1)));
+		assertTrue(serialized.length > compact.length);
+		Person decoded = (Person) ((RemoteInvocationResult) decode(serialized)).getValue();
+		assertEquals("name", decoded.name);
+
+		try {
+			decode(compact);
+			fail("Should have thrown InvalidClassException");
+		}
+		catch (InvalidClassException ex) {
+			assertEquals(Person.class.getName(), ex.classname);
+		}
+	}
+
+	@Test
+	public void compactClassesNotEligibleForFieldAccess() throws Exception {
+		this.codec.setCompactClasses(Person.class, Immutable.class, PrivateConstructor.class);
+		RemoteInvocationResult result = (RemoteInvocationResult) roundTrip(new RemoteInvocationResult(
+				new Object[] {new Immutable("x"), PrivateConstructor.create("y")}));
+		Object[] values = (Object[]) result.getValue();
+		assertEquals("x", values[0].toString());
+		assertEquals("y", values[1].toString());
+	}
+
+	@Test(expected = EOFException.class)
+	public void announcedLengthBeyondInput() throws Exception {
+		// Byte array announcing 16M bytes, followed by just two bytes
+		decode(new byte[] {1, 0, 17, (byte) 0x80, (byte) 0x80, (byte) 0x80, 0x08, 1, 2});
+	}
+
+	@Test(expected = StreamCorruptedException.class)
+	public void maxLengthExceeded() throws Exception {
+		this.codec.setMaxLength(100);
+		roundTrip(new RemoteInvocationResult(new byte[101]));
+	}
+
+	@Test
+	public void maxDepthExceeded() throws Exception {
+		// 42 levels: the result, 21 lists and 20 maps
+		List<Object> value = new ArrayList<Object>();
+		for (int i = 0; i < 20; i++) {
+			Map<String, Object> map = new HashMap<String, Object>();
+			map.put("key", value);
+			value = new ArrayList<Object>();
+			value.add(map);
+		}
+		byte[] message = encode(new RemoteInvocationResult(value));
+		this.codec.setMaxDepth(42);
+		assertNotNull(decode(message));
+
+		this.codec.setMaxDepth(41);
+		try {
+			decode(message);
+			fail("Should have thrown StreamCorruptedException");
+		}
+		catch (StreamCorruptedException ex) {
+			assertTrue(ex.getMessage().contains("depth"));
+		}
+	}
+
+	@Test
+	public void serializedContentReadThroughFactory() throws Exception {
+		final List<InputStream> streams = new ArrayList<InputStream>();
+		RemoteInvocationCodec.ObjectInputStreamFactory factory = new RemoteInvocationCodec.ObjectInputStreamFactory() {
+			public ObjectInputStream createObjectInputStream(InputStream is) throws IOException {
+				streams.add(is);
+				return new ConfigurableObjectInputStream(is, getClass().getClassLoader());
+			}
+			public Class<?> resolveClass(String className) throws ClassNotFoundException {
+				return ClassUtils.forName(className, getClass().getClassLoader());
+			}
+		};
+		byte[] message = encode(new RemoteInvocationResult(new IllegalStateException("failure")));
+		RemoteInvocationResult decoded = (RemoteInvocationResult) this.codec.decode(
+				new ByteArrayInputStream(message), factory);
+		assertEquals("failure", decoded.getException().getMessage());
+		assertEquals(1, streams.size());
+	}
+
+	@Test
+	public void largeArrays() throws Exception {
+		byte[] bytes = new byte[100000];
+		Integer[] numbers = new Integer[5000];
+		for (int i = 0; i < numbers.length; i++) {
+			bytes[i] = (byte) i;
+			numbers[i] = i;
+		}
+		Object[] values = (Object[]) ((RemoteInvocationResult) roundTrip(
+				new RemoteInvocationResult(new Object[] {bytes, numbers, numbers}))).getValue();
+		assertArrayEquals(bytes, (byte[]) values[0]);
+		assertArrayEquals(numbers, (Integer[]) values[1]);
+		assertSame(values[1], values[2]);
+	}
+
+	@Test(expected = NotSerializableException.class)
+	public void nonSerializableObject() throws Exception {
+		roundTrip(new RemoteInvocationResult(new Object()));
+	}
+
+	@Test
+	public void batchInvocation() throws Exception {
+		RemoteInvocation first = new RemoteInvocation("first", new Class[0], new Object[0]);
+		RemoteInvocation second = new RemoteInvocation("second", new Class[0], new Object[0]);
+		BatchRemoteInvocation decoded = (BatchRemoteInvocation) roundTrip(
+				new BatchRemoteInvocation(new RemoteInvocation[] {first, second}));
+		assertEquals(2, decoded.getInvocations().length);
+		assertEquals("second", decoded.getInvocations()[1].getMethodName());
+	}
+
+	@Test
+	public void compression() throws Exception {
+		List<Person> people = new ArrayList<Person>();
+		for (int i = 0; i < 1000; i++) {
+			people.add(new Person("person", i));
+		}
+		RemoteInvocationResult result = new RemoteInvocationResult(people);
+		int plainSize = encode(result).length;
+		this.codec.setCompress(true);
+		byte[] compressed = encode(result);
+		assertTrue(compressed.length < plainSize);
+
+		Object decoded = this.codec.decode(new ByteArrayInputStream(compressed), getClass().getClassLoader());
+		assertEquals(1000, ((List<?>) ((RemoteInvocationResult) decoded).getValue()).size());
+	}
+
+	@Test
+	public void smallerThanJavaSerialization() throws Exception {
+		List<Person> people = new ArrayList<Person>();
+		for (int i = 0; i < 10; i++) {
+			people.add(new Person("person" + i, i));
+		}
+		RemoteInvocationResult result = new RemoteInvocationResult(people);
+		ByteArrayOutputStream baos = new ByteArrayOutputStream();
+		ObjectOutputStream oos = new ObjectOutputStream(baos);
+		oos.writeObject(result);
+		oos.close();
+		assertTrue(encode(result).length < baos.size() / 2);
+	}
+
+
+	private byte[] encode(Object message) throws Exception {
+		ByteArrayOutputStream baos = new ByteArrayOutputStream();
+		this.codec.encode(message, baos);
+		return baos.toByteArray();
+	}
+
+	private Object decode(byte[] message) throws Exception {
+		return this.codec.decode(new ByteArrayInputStream(message), getClass().getClassLoader());
+	}
+
+	private Object roundTrip(Object message) throws Exception {
+		return decode(encode(message));
+	}
+
+
+	@SuppressWarnings("serial")
+	private static class Person implements Serializable {
+
+		private String name;
+
+		private int age;
+
+		private Person parent;
+
+		private List<Person> children = new ArrayList<Person>();
+
+		private transient Object transientValue = "initial";
+
+		public Person() {
+		}
+
+		public Person(String name, int age) {
+			this.name = name;
+			this.age = age;
+		}
+	}
+
+
+	@SuppressWarnings("serial")
+	private static class Immutable implements Serializable {
+
+		private final String value;
+
+		public Immutable() {
+			this(null);
+		}
+
+		public Immutable(String value) {
+			this.value = value;
+		}
+
+		@Override
+		public String toString() {
+			return this.value;
+		}
+	}
+
+
+	@SuppressWarnings("serial")
+	private static class PrivateConstructor implements Serializable {
+
+		private String value;
+
+		private PrivateConstructor() {
+		}
+
+		public static PrivateConstructor create(String value) {
+			PrivateConstructor instance = new PrivateConstructor();
+			instance.value = value;
+			return instance;
+		}
+
+		@Override
+		public String toString() {
+			return this.value;
+		}
+	}
+
+}
@@ -19,7 +19,10 @@ package org.springframework.scheduling.annotation;
 import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
 import java.util.HashMap;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 
 import org.aopalliance.intercept.MethodInterceptor;
 import org.aopalliance.intercept.MethodInvocation;
@@ -34,6 +37,8 @@ import org.springframework.context.ApplicationEvent;
 import org.springframework.context.ApplicationListener;
 import org.springframework.context.support.GenericApplicationContext;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.util.concurrent.ListenableFuture;
+import org.springframework.util.concurrent.ListenableFutureCallback;
 
 import static org.junit.Assert.*;
 
@@ -63,6 +68,44 @@ public class AsyncExecutionTests {
 		asyncTest.doSomething(10);
 		Future<String> future = asyncTest.returnSomething(20);
 		assertEquals("20", future.get());
+		ListenableFuture<String> listenableFuture = asyncTest.returnSomethingListenable(20);
+		assertEquals("20", listenableFuture.get());
+	}
+
+	@Test
+	public void asyncMethodWithListenableFutureCallback() throws Exception {
+		originalThreadName = Thread.currentThread().getName();
+		GenericApplicationContext context = new GenericApplicationContext();
+		context.registerBeanDefinition("asyncTest", new RootBeanDefinition(AsyncMethodBean.class));
+		context.registerBeanDefinition("autoProxyCreator", new RootBeanDefinition(DefaultAdvisorAutoProxyCreator.class));
+		context.registerBeanDefinition("asyncAdvisor", new RootBeanDefinition(AsyncAnnotationAdvisor.class));
+		context.refresh();
+		AsyncMethodBean asyncTest = context.getBean("asyncTest", AsyncMethodBean.class);
+		final CountDownLatch latch = new CountDownLatch(2);
+		final AtomicReference<Object> result = new AtomicReference<Object>();
+		final AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+		asyncTest.returnSomethingListenable(20).addCallback(new ListenableFutureCallback<String>() {
+			public void onSuccess(String value) {
+				result.set(value);
+				latch.countDown();
+			}
+			public void onFailure(Throwable ex) {
+				latch.countDown();
+			}
+		});
+		asyncTest.returnSomethingListenable(0).addCallback(new ListenableFutureCallback<String>() {
+			public void onSuccess(String value) {
+				latch.countDown();
+			}
+			public void onFailure(Throwable ex) {
+				failure.set(ex);
+				latch.countDown();
+			}
+		});
+		assertTrue(latch.await(5, TimeUnit.SECONDS));
+		assertEquals("20", result.get());
+		assertTrue(failure.get() instanceof IllegalArgumentException);
+		context.close();
 	}
 
 	@Test
@@ -346,6 +389,15 @@ public class AsyncExecutionTests {
 			assertTrue(!Thread.currentThread().getName().equals(originalThreadName));
 			return new AsyncResult<String>(Integer.toString(i));
 		}
+
+		@Async
+		public ListenableFuture<String> returnSomethingListenable(int i) {
+			assertTrue(!Thread.currentThread().getName().equals(originalThreadName));
+			if (i == 0) {
+				throw new IllegalArgumentException("0");
+			}
+			return new AsyncResult<String>(Integer.toString(i));
+		}
 	}
 
 
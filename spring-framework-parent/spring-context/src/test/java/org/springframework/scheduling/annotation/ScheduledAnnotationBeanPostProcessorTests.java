@@ -75,6 +75,25 @@ public class ScheduledAnnotationBeanPostProcessorTests {
 		assertEquals(5000L, task.getInterval());
 	}
 
+	@Test
+	public void scheduledMethodRunnablesExposed() {
+		StaticApplicationContext context = new StaticApplicationContext();
+		BeanDefinition processorDefinition = new RootBeanDefinition(ScheduledAnnotationBeanPostProcessor.class);
+		BeanDefinition targetDefinition = new RootBeanDefinition(FixedDelayTestBean.class);
+		context.registerBeanDefinition("postProcessor", processorDefinition);
+		context.registerBeanDefinition("target", targetDefinition);
+		context.refresh();
+		ScheduledAnnotationBeanPostProcessor postProcessor = context.getBean(ScheduledAnnotationBeanPostProcessor.class);
+		ScheduledTaskRegistrar registrar = (ScheduledTaskRegistrar)
+				new DirectFieldAccessor(postProcessor).getPropertyValue("registrar");
+		@SuppressWarnings("unchecked")
+		List<IntervalTask> fixedDelayTasks = (List<IntervalTask>)
+				new DirectFieldAccessor(registrar).getPropertyValue("fixedDelayTasks");
+		assertEquals(1, postProcessor.getScheduledMethodRunnables().size());
+		assertSame(fixedDelayTasks.get(0).getRunnable(), postProcessor.getScheduledMethodRunnables().iterator().next());
+		context.close();
+	}
+
 	@Test
 	public void fixedRateTask() {
 		StaticApplicationContext context = new StaticApplicationContext();
@@ -102,6 +121,29 @@ public class ScheduledAnnotationBeanPostProcessorTests {
 		assertEquals(3000L, task.getInterval());
 	}
 
+	@Test
+	public void lagMeasuredOnlyIfRequested() {
+		StaticApplicationContext context = new StaticApplicationContext();
+		context.registerBeanDefinition("postProcessor", new RootBeanDefinition(ScheduledAnnotationBeanPostProcessor.class));
+		context.registerBeanDefinition("target", new RootBeanDefinition(FixedRateTestBean.class));
+		context.refresh();
+		ScheduledMethodRunnable runnable = context.getBean(ScheduledAnnotationBeanPostProcessor.class)
+				.getScheduledMethodRunnables().iterator().next();
+		assertNull(new DirectFieldAccessor(runnable).getPropertyValue("trigger"));
+		context.close();
+
+		context = new StaticApplicationContext();
+		BeanDefinition processorDefinition = new RootBeanDefinition(ScheduledAnnotationBeanPostProcessor.class);
+		processorDefinition.getPropertyValues().add("measureLag", true);
+		context.registerBeanDefinition("postProcessor", processorDefinition);
+		context.registerBeanDefinition("target", new RootBeanDefinition(FixedRateTestBean.class));
+		context.refresh();
+		runnable = context.getBean(ScheduledAnnotationBeanPostProcessor.class)
+				.getScheduledMethodRunnables().iterator().next();
+		assertNotNull(new DirectFieldAccessor(runnable).getPropertyValue("trigger"));
+		context.close();
+	}
+
 	@Test
 	public void fixedRateTaskWithInitialDelay() {
 		StaticApplicationContext context = new StaticApplicationContext();
@@ -0,0 +1,125 @@
+/*
+ * Copyright 2002-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.scheduling.concurrent;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import org.springframework.core.task.TaskRejectedException;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author agent
+ */
+public class ForkJoinPoolTaskExecutorTests {
+
+	private final ForkJoinPoolTaskExecutor executor = new ForkJoinPoolTaskExecutor();
+
+
+	@Before
+	public void initExecutor() {
+		executor.setParallelism(4);
+		executor.afterPropertiesSet();
+	}
+
+	@After
+	public void shutdownExecutor() {
+		executor.destroy();
+	}
+
+
+	@Test
+	public void executeRunnables() throws Exception {
+		final CountDownLatch latch = new CountDownLatch(100);
+		final AtomicInteger workerThreadCount = new AtomicInteger();
+		for (int i = 0; i < 100; i++) {
+			executor.execute(new Runnable() {
+				@Override
+				public void run() {
+					if (Thread.currentThread() instanceof ForkJoinWorkerThread) {
+						workerThreadCount.incrementAndGet();
+					}
+					latch.countDown();
+				}
+			});
+		}
+		assertTrue(latch.await(5, TimeUnit.SECONDS));
+		assertEquals(100, workerThreadCount.get());
+		assertTrue(executor.prefersShortLivedTasks());
+	}
+
+	@Test
+	public void submitCallable() throws Exception {
+		Future<String> future = executor.submit(new Callable<String>() {
+			@Override
+			public String call() {
+				return Thread.currentThread().getName();
+			}
+		});
+		assertNotNull(future.get(5, TimeUnit.SECONDS));
+	}
+
+	@Test
+	public void submitRunnableFromWorker() throws Exception {
+		final CountDownLatch latch = new CountDownLatch(1);
+		Future<?> future = executor.submit(new Runnable() {
+			@Override
+			public void run() {
+				executor.execute(new Runnable() {
+					@Override
+					public void run() {
+						latch.countDown();
+					}
+				});
+			}
+		});
+		future.get(5, TimeUnit.SECONDS);
+		assertTrue(latch.await(5, TimeUnit.SECONDS));
+	}
+
+	@Test(expected = TaskRejectedException.class)
+	public void rejectedAfterShutdown() {
+		executor.destroy();
+		executor.execute(new Runnable() {
+			@Override
+			public void run() {
+			}
+		});
+	}
+
+	@Test
+	public void externalPoolNotShutDown() {
+		ForkJoinPool pool = new ForkJoinPool(2);
+		ForkJoinPoolTaskExecutor externalExecutor = new ForkJoinPoolTaskExecutor(pool);
+		externalExecutor.afterPropertiesSet();
+		assertSame(pool, externalExecutor.getForkJoinPool());
+		externalExecutor.destroy();
+		assertFalse(pool.isShutdown());
+		pool.shutdown();
+	}
+
+}
@@ -0,0 +1,206 @@
+/*
+ * Copyright 2002-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.scheduling.concurrent;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.Trigger;
+import org.springframework.scheduling.TriggerContext;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author agent
+ */
+public class HashedWheelTaskSchedulerTests {
+
+	private static final String THREAD_NAME_PREFIX = "wheel-";
+
+	private final HashedWheelTaskScheduler scheduler = new HashedWheelTaskScheduler();
+
+
+	@Before
+	public void initScheduler() {
+		scheduler.setThreadNamePrefix(THREAD_NAME_PREFIX);
+		scheduler.setPoolSize(2);
+		scheduler.setTickDuration(5);
+		scheduler.setTicksPerWheel(8);
+		scheduler.afterPropertiesSet();
+	}
+
+	@After
+	public void shutdownScheduler() {
+		scheduler.destroy();
+	}
+
+
+	@Test
+	public void submitRunnable() throws Exception {
+		TestTask task = new TestTask(1);
+		Future<?> future = scheduler.submit(task);
+		assertNull(future.get(1000, TimeUnit.MILLISECONDS));
+		assertTrue(task.lastThread.getName().startsWith(THREAD_NAME_PREFIX));
+	}
+
+	@Test
+	public void scheduleOneTimeTask() throws Exception {
+		TestTask task = new TestTask(1);
+		long start = System.currentTimeMillis();
+		Future<?> future = scheduler.schedule(task, new Date(start + 50));
+		assertNull(future.get(1000, TimeUnit.MILLISECONDS));
+		assertTrue(future.isDone());
+		assertTrue(System.currentTimeMillis() - start >= 50);
+		assertTrue(task.lastThread.getName().startsWith(THREAD_NAME_PREFIX));
+		assertEquals(0, scheduler.getScheduledTaskCount());
+	}
+
+	@Test
+	public void scheduleBeyondWheelRound() throws Exception {
+		// 8 ticks of 5 ms per round -> several rounds
+		TestTask task = new TestTask(1);
+		long start = System.currentTimeMillis();
+		Future<?> future = scheduler.schedule(task, new Date(start + 120));
+		assertNull(future.get(1000, TimeUnit.MILLISECONDS));
+		assertTrue(System.currentTimeMillis() - start >= 120);
+	}
+
+	@Test(expected = ExecutionException.class)
+	public void scheduleOneTimeFailingTaskWithoutErrorHandler() throws Exception {
+		TestTask task = new TestTask(0);
+		Future<?> future = scheduler.schedule(task, new Date(System.currentTimeMillis() + 20));
+		future.get(1000, TimeUnit.MILLISECONDS);
+	}
+
+	@Test
+	public void scheduleAtFixedRate() throws Exception {
+		TestTask task = new TestTask(3);
+		ScheduledFuture<?> future = scheduler.scheduleAtFixedRate(task, 10);
+		assertTrue(task.latch.await(1000, TimeUnit.MILLISECONDS));
+		assertTrue(future.cancel(false));
+		assertTrue(future.isCancelled());
+	}
+
+	@Test
+	public void scheduleWithFixedDelay() throws Exception {
+		TestTask task = new TestTask(3);
+		ScheduledFuture<?> future = scheduler.scheduleWithFixedDelay(task, new Date(), 10);
+		assertTrue(task.latch.await(1000, TimeUnit.MILLISECONDS));
+		assertTrue(future.cancel(false));
+	}
+
+	@Test
+	public void scheduleTriggerTask() throws Exception {
+		TestTask task = new TestTask(3);
+		Future<?> future = scheduler.schedule(task, new TestTrigger(3));
+		assertNull(future.get(1000, TimeUnit.MILLISECONDS));
+		assertTrue(task.latch.await(1000, TimeUnit.MILLISECONDS));
+	}
+
+	@Test
+	public void cancelManyTasks() throws Exception {
+		TestTask task = new TestTask(0);
+		List<ScheduledFuture<?>> futures = new ArrayList<ScheduledFuture<?>>();
+		Date startTime = new Date(System.currentTimeMillis() + 60000);
+		for (int i = 0; i < 10000; i++) {
+			futures.add(scheduler.schedule(task, startTime));
+		}
+		for (ScheduledFuture<?> future : futures) {
+			assertTrue(future.getDelay(TimeUnit.MILLISECONDS) > 0);
+			assertTrue(future.cancel(false));
+		}
+		long deadline = System.currentTimeMillis() + 1000;
+		while (scheduler.getScheduledTaskCount() > 0 && System.currentTimeMillis() < deadline) {
+			Thread.sleep(5);
+		}
+		assertEquals(0, scheduler.getScheduledTaskCount());
+		assertEquals(0, task.actualRunCount.get());
+	}
+
+	@Test
+	public void shutdownCancelsPendingTasks() throws Exception {
+		ScheduledFuture<?> future = scheduler.schedule(new TestTask(0), new Date(System.currentTimeMillis() + 60000));
+		scheduler.shutdown();
+		assertTrue(future.isCancelled());
+		try {
+			scheduler.schedule(new TestTask(0), new Date(System.currentTimeMillis() + 60000));
+			fail("Should have thrown TaskRejectedException");
+		}
+		catch (TaskRejectedException ex) {
+			// expected
+		}
+	}
+
+
+	private static class TestTask implements Runnable {
+
+		private final int expectedRunCount;
+
+		private final AtomicInteger actualRunCount = new AtomicInteger();
+
+		private final CountDownLatch latch;
+
+		private volatile Thread lastThread;
+
+		TestTask(int expectedRunCount) {
+			this.expectedRunCount = expectedRunCount;
+			this.latch = new CountDownLatch(expectedRunCount);
+		}
+
+		@Override
+		public void run() {
+			lastThread = Thread.currentThread();
+			if (actualRunCount.incrementAndGet() > expectedRunCount) {
+				throw new RuntimeException("intentional test failure");
+			}
+			latch.countDown();
+		}
+	}
+
+
+	private static class TestTrigger implements Trigger {
+
+		private final int maxRunCount;
+
+		private final AtomicInteger actualRunCount = new AtomicInteger();
+
+		TestTrigger(int maxRunCount) {
+			this.maxRunCount = maxRunCount;
+		}
+
+		@Override
+		public Date nextExecutionTime(TriggerContext triggerContext) {
+			if (this.actualRunCount.incrementAndGet() > this.maxRunCount) {
+				return null;
+			}
+			return new Date(System.currentTimeMillis() + 10);
+		}
+	}
+
+}
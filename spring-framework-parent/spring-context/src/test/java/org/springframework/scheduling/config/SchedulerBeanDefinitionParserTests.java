@@ -24,6 +24,7 @@ import org.junit.Test;
 import org.springframework.beans.DirectFieldAccessor;
 import org.springframework.context.ApplicationContext;
 import org.springframework.context.support.ClassPathXmlApplicationContext;
+import org.springframework.scheduling.concurrent.HashedWheelTaskScheduler;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
 
 /**
@@ -60,4 +61,14 @@ public class SchedulerBeanDefinitionParserTests {
 		assertEquals("customScheduler-", scheduler.getThreadNamePrefix());
 	}
 
+	@Test
+	public void wheelScheduler() {
+		HashedWheelTaskScheduler scheduler = (HashedWheelTaskScheduler) this.context.getBean("wheelScheduler");
+		DirectFieldAccessor accessor = new DirectFieldAccessor(scheduler);
+		assertEquals(4, accessor.getPropertyValue("poolSize"));
+		assertEquals(5L, accessor.getPropertyValue("tickDuration"));
+		assertEquals(1024, accessor.getPropertyValue("ticksPerWheel"));
+		assertEquals("wheelScheduler-", scheduler.getThreadNamePrefix());
+	}
+
 }
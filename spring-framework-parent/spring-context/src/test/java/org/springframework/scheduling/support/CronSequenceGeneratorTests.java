@@ -17,6 +17,7 @@
 package org.springframework.scheduling.support;
 
 import java.util.Date;
+import java.util.TimeZone;
 
 import org.junit.Test;
 
@@ -45,4 +46,50 @@ public class CronSequenceGeneratorTests {
 				new CronSequenceGenerator("0 */2 1-4 * * *").next(new Date(2012, 6, 1, 9, 0)));
 	}
 
+	@Test
+	public void testNextTimestamp() {
+		CronSequenceGenerator generator = new CronSequenceGenerator("*/15 * 1-4 * * *");
+		Date date = new Date(2012, 6, 1, 9, 53, 50);
+		assertEquals(generator.next(date).getTime(), generator.next(date.getTime()));
+	}
+
+	@Test
+	public void testNextTimestamps() {
+		CronSequenceGenerator generator = new CronSequenceGenerator("0 0 12 * * MON-FRI", TimeZone.getTimeZone("UTC"));
+		// Friday, 2014-10-03 13:00 UTC
+		long[] timestamps = generator.next(1412341200000L, 3);
+		assertEquals(3, timestamps.length);
+		assertEquals(1412596800000L, timestamps[0]);  // Monday 12:00
+		assertEquals(1412683200000L, timestamps[1]);  // Tuesday 12:00
+		assertEquals(1412769600000L, timestamps[2]);  // Wednesday 12:00
+	}
+
+	@Test
+	public void testDaylightSavingGapWithHalfHourShift() {
+		CronSequenceGenerator generator = new CronSequenceGenerator("0 10,35 * * * *", TimeZone.getTimeZone("Australia/Lord_Howe"));
+		// 2014-10-05 01:59:30 local time, right before the clock moves forward to 02:30:
+		// 02:10 does not exist, so 02:35 (+11:00) is next
+		long timestamp = 1412436570000L;
+		assertEquals(1412436900000L, generator.next(timestamp));
+	}
+
+	@Test
+	public void testDaylightSavingFallBackHourly() {
+		CronSequenceGenerator generator = new CronSequenceGenerator("0 0 * * * *", TimeZone.getTimeZone("Europe/Berlin"));
+		// 2014-10-26 02:40 CEST, before the clock moves back from 03:00 CEST to 02:00 CET:
+		// 02:00 CET (01:00 UTC) is next, not 03:00 CET
+		assertEquals(1414285200000L, generator.next(1414284000000L));
+	}
+
+	@Test
+	public void testDaylightSavingFallBackBothOccurrences() {
+		CronSequenceGenerator generator = new CronSequenceGenerator("0 30 2 * * *", TimeZone.getTimeZone("Europe/Berlin"));
+		// 2014-10-26 02:10 CEST: 02:30 CEST (00:30 UTC) is next...
+		assertEquals(1414283400000L, generator.next(1414282200000L));
+		// ... followed by the second occurrence of 02:30, i.e. 02:30 CET (01:30 UTC)
+		assertEquals(1414287000000L, generator.next(1414283400000L));
+		// 2014-10-26 02:10 CET, within the repeated hour: 02:30 CET is next
+		assertEquals(1414287000000L, generator.next(1414285800000L));
+	}
+
 }
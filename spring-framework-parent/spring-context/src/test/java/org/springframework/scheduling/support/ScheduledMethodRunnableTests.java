@@ -0,0 +1,132 @@
+/*
+ * Copyright 2002-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.scheduling.support;
+
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import org.springframework.scheduling.Trigger;
+import org.springframework.scheduling.TriggerContext;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author agent
+ */
+public class ScheduledMethodRunnableTests {
+
+	@Test
+	public void executionMetrics() throws Exception {
+		TestBean bean = new TestBean();
+		ScheduledMethodRunnable runnable = new ScheduledMethodRunnable(bean, "sleep");
+		runnable.setTrigger(new PeriodicTrigger(1));
+		runnable.run();
+		runnable.run();
+		assertEquals(2, bean.count);
+		assertEquals(2, runnable.getExecutionCount());
+		assertTrue(runnable.getTotalExecutionTime() >= 20);
+		assertTrue(runnable.getMaxExecutionTime() >= 10);
+		assertTrue(runnable.getLastStartTime() > 0);
+		assertEquals(0, runnable.getOverlapCount());
+	}
+
+	@Test
+	public void noLagWithoutTrigger() throws Exception {
+		ScheduledMethodRunnable runnable = new ScheduledMethodRunnable(new TestBean(), "sleep");
+		runnable.run();
+		Thread.sleep(50);
+		runnable.run();
+		assertEquals(0, runnable.getMaxLag());
+		assertEquals(0, runnable.getTotalLag());
+	}
+
+	@Test
+	public void lagMeasuredAgainstTrigger() throws Exception {
+		ScheduledMethodRunnable runnable = new ScheduledMethodRunnable(new TestBean(), "sleep");
+		runnable.setTrigger(new PeriodicTrigger(1));
+		runnable.run();
+		Thread.sleep(50);
+		runnable.run();
+		assertTrue(runnable.getMaxLag() >= 40);
+		assertEquals(runnable.getMaxLag(), runnable.getTotalLag());
+	}
+
+	@Test
+	public void triggerContextPerExecution() throws Exception {
+		final List<TriggerContext> contexts = new CopyOnWriteArrayList<TriggerContext>();
+		final List<Date> completionTimes = new CopyOnWriteArrayList<Date>();
+		ScheduledMethodRunnable runnable = new ScheduledMethodRunnable(new TestBean(), "sleep");
+		runnable.setTrigger(new Trigger() {
+			public Date nextExecutionTime(TriggerContext triggerContext) {
+				contexts.add(triggerContext);
+				completionTimes.add(triggerContext.lastCompletionTime());
+				return new Date(triggerContext.lastCompletionTime().getTime() + 1);
+			}
+		});
+		runnable.run();
+		runnable.run();
+		assertEquals(2, contexts.size());
+		assertNotSame(contexts.get(0), contexts.get(1));
+		// The first context must not have been changed by the second execution
+		assertSame(completionTimes.get(0), contexts.get(0).lastCompletionTime());
+		assertFalse(contexts.get(0).lastActualExecutionTime().after(contexts.get(0).lastCompletionTime()));
+	}
+
+	@Test
+	public void overlappingExecutions() throws Exception {
+		final BlockingBean bean = new BlockingBean();
+		final ScheduledMethodRunnable runnable = new ScheduledMethodRunnable(bean, "block");
+		Thread thread = new Thread(runnable);
+		thread.start();
+		assertTrue(bean.started.await(5, TimeUnit.SECONDS));
+		runnable.run();
+		bean.release.countDown();
+		thread.join(5000);
+		assertEquals(2, runnable.getExecutionCount());
+		assertEquals(1, runnable.getOverlapCount());
+	}
+
+
+	public static class TestBean {
+
+		int count;
+
+		public void sleep() throws InterruptedException {
+			this.count++;
+			Thread.sleep(10);
+		}
+	}
+
+
+	public static class BlockingBean {
+
+		final CountDownLatch started = new CountDownLatch(1);
+
+		final CountDownLatch release = new CountDownLatch(1);
+
+		public void block() throws InterruptedException {
+			this.started.countDown();
+			this.release.await(5, TimeUnit.SECONDS);
+		}
+	}
+
+}
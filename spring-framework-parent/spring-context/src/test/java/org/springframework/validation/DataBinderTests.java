@@ -25,6 +25,7 @@ import java.io.ObjectOutputStream;
 import java.text.ParseException;
 import java.util.AbstractList;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.Iterator;
@@ -516,6 +517,114 @@ public class DataBinderTests extends TestCase {
 		assertTrue("did not change age", rod.getAge() == 0);
 	}
 
+	public void testBindingWithAllowedFieldsAndPatterns() throws Exception {
+		TestBean rod = new TestBean();
+		rod.setSpouse(new TestBean());
+		DataBinder binder = new DataBinder(rod);
+		binder.setAllowedFields("name", "touchy", "spouse.*", "*ge");
+		binder.setDisallowedFields("*uchy");
+		MutablePropertyValues pvs = new MutablePropertyValues();
+		pvs.add("name", "Rod");
+		pvs.add("age", "32");
+		pvs.add("touchy", "t");
+		pvs.add("spouse.name", "Kerry");
+		pvs.add("jedi", "true");
+
+		binder.bind(pvs);
+		binder.close();
+		assertEquals("Rod", rod.getName());
+		assertEquals(32, rod.getAge());
+		assertNull(rod.getTouchy());
+		assertEquals("Kerry", rod.getSpouse().getName());
+		assertFalse(rod.isJedi());
+		List<String> suppressedFields = Arrays.asList(binder.getBindingResult().getSuppressedFields());
+		assertEquals(2, suppressedFields.size());
+		assertTrue(suppressedFields.contains("touchy"));
+		assertTrue(suppressedFields.contains("jedi"));
+	}
+
+	public void testBindingWithUnknownFields() throws Exception {
+		TestBean rod = new TestBean();
+		DataBinder binder = new DataBinder(rod);
+		MutablePropertyValues pvs = new MutablePropertyValues();
+		pvs.add("name", "Rod");
+		pvs.add("Age", "32");
+		pvs.add("unknown", "value");
+		pvs.add("submit", "Save");
+
+		binder.bind(pvs);
+		binder.close();
+		assertEquals("Rod", rod.getName());
+		assertEquals(32, rod.getAge());
+		assertFalse(binder.getBindingResult().hasErrors());
+	}
+
+	public void testBindingWithUnknownFieldsNotIgnored() throws Exception {
+		TestBean rod = new TestBean();
+		DataBinder binder = new DataBinder(rod);
+		binder.setIgnoreUnknownFields(false);
+		MutablePropertyValues pvs = new MutablePropertyValues();
+		pvs.add("name", "Rod");
+		pvs.add("unknown", "value");
+
+		try {
+			binder.bind(pvs);
+			fail("Should have thrown NotWritablePropertyException");
+		}
+		catch (NotWritablePropertyException ex) {
+			// expected
+		}
+	}
+
+	public void testBindingPlanWithConversionService() throws Exception {
+		TestBean rod = new TestBean();
+		DataBinder binder = new DataBinder(rod);
+		binder.setConversionService(new DefaultConversionService());
+		binder.registerCustomEditor(String.class, "name", new PropertyEditorSupport() {
+			@Override
+			public void setAsText(String text) {
+				setValue(text.toUpperCase());
+			}
+		});
+		MutablePropertyValues pvs = new MutablePropertyValues();
+		pvs.add("name", "Rod");
+		pvs.add("age", "32x");
+		pvs.add("jedi", "true");
+		pvs.add("touchy", "m.y");
+		pvs.add("someIntegerArray", "1");
+
+		binder.bind(pvs);
+		BindingResult br = binder.getBindingResult();
+		assertEquals("ROD", rod.getName());
+		assertTrue(rod.isJedi());
+		assertEquals(1, rod.getSomeIntegerArray()[0].intValue());
+		assertEquals(2, br.getErrorCount());
+		assertEquals("typeMismatch", br.getFieldError("age").getCode());
+		assertEquals("32x", br.getFieldError("age").getRejectedValue());
+		assertEquals("methodInvocation", br.getFieldError("touchy").getCode());
+		assertEquals("m.y", br.getFieldError("touchy").getRejectedValue());
+	}
+
+	public void testBindingPlanWithoutConversionService() throws Exception {
+		TestBean rod = new TestBean();
+		DataBinder binder = new DataBinder(rod);
+		MutablePropertyValues pvs = new MutablePropertyValues();
+		pvs.add("name", "Rod");
+		pvs.add("age", "32");
+		pvs.add("touchy", "m.y");
+		pvs.add("stringArray", "a");
+		pvs.add("someMap", new HashMap<String, String>());
+
+		binder.bind(pvs);
+		BindingResult br = binder.getBindingResult();
+		assertEquals("Rod", rod.getName());
+		assertEquals(32, rod.getAge());
+		assertEquals("a", rod.getStringArray()[0]);
+		assertNotNull(rod.getSomeMap());
+		assertEquals(1, br.getErrorCount());
+		assertEquals("methodInvocation", br.getFieldError("touchy").getCode());
+	}
+
 	public void testBindingWithDisallowedFields() throws Exception {
 		TestBean rod = new TestBean();
 		DataBinder binder = new DataBinder(rod);
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2013 the original author or authors.
+ * Copyright 2002-2014 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -18,10 +18,19 @@ package org.springframework.validation;
 
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
 import static org.junit.Assert.assertThat;
 
+import java.lang.reflect.Field;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Before;
 import org.junit.Test;
 import org.springframework.tests.sample.beans.TestBean;
+import org.springframework.util.ReflectionUtils;
+import org.springframework.util.SerializationTestUtils;
 import org.springframework.validation.DefaultMessageCodesResolver.Format;
 
 /**
@@ -33,6 +42,11 @@ public class DefaultMessageCodesResolverTests {
 
 	private DefaultMessageCodesResolver resolver = new DefaultMessageCodesResolver();
 
+	@Before
+	public void clearCache() throws Exception {
+		getMessageCodesCache().clear();
+	}
+
 	@Test
 	public void shouldResolveMessageCode() throws Exception {
 		String[] codes = resolver.resolveMessageCodes("errorCode", "objectName");
@@ -157,4 +171,109 @@ public class DefaultMessageCodesResolverTests {
 				"CUSTOM-errorCode.objectName",
 				"CUSTOM-errorCode" })));
 	}
+
+	@Test
+	public void shouldReturnIndependentCodesFromCache() throws Exception {
+		String[] codes = resolver.resolveMessageCodes("errorCode", "objectName", "field",
+				TestBean.class);
+		codes[0] = "modified";
+		String[] cachedCodes = resolver.resolveMessageCodes(
+				"errorCode", "objectName", "field", TestBean.class);
+		assertThat(cachedCodes, is(not(sameInstance(codes))));
+		assertThat(cachedCodes, is(equalTo(new String[] {
+				"errorCode.objectName.field",
+				"errorCode.field",
+				"errorCode.org.springframework.tests.sample.beans.TestBean",
+				"errorCode" })));
+	}
+
+	@Test
+	public void shouldNotShareCachedCodesAcrossPrefixes() throws Exception {
+		resolver.resolveMessageCodes("errorCode", "objectName", "field", TestBean.class);
+		DefaultMessageCodesResolver prefixedResolver = new DefaultMessageCodesResolver();
+		prefixedResolver.setPrefix("prefix.");
+		String[] codes = prefixedResolver.resolveMessageCodes("errorCode", "objectName", "field",
+				TestBean.class);
+		assertThat(codes, is(equalTo(new String[] {
+				"prefix.errorCode.objectName.field",
+				"prefix.errorCode.field",
+				"prefix.errorCode.org.springframework.tests.sample.beans.TestBean",
+				"prefix.errorCode" })));
+	}
+
+	@Test
+	public void shouldNotUseCachedCodesAfterPrefixChange() throws Exception {
+		resolver.resolveMessageCodes("errorCode", "objectName", "field", null);
+		resolver.setPrefix("prefix.");
+		String[] codes = resolver.resolveMessageCodes("errorCode", "objectName", "field", null);
+		assertThat(codes, is(equalTo(new String[] {
+				"prefix.errorCode.objectName.field",
+				"prefix.errorCode.field",
+				"prefix.errorCode" })));
+		resolver.setMessageCodeFormatter(Format.POSTFIX_ERROR_CODE);
+		codes = resolver.resolveMessageCodes("errorCode", "objectName", "field", null);
+		assertThat(codes, is(equalTo(new String[] {
+				"prefix.objectName.field.errorCode",
+				"prefix.field.errorCode",
+				"prefix.errorCode" })));
+	}
+
+	@Test
+	public void shouldNotCacheCodesForIndexedFields() throws Exception {
+		resolver.resolveMessageCodes("errorCode", "objectName", "field", null);
+		resolver.resolveMessageCodes("errorCode", "objectName", "items[1].field", null);
+		resolver.resolveMessageCodes("errorCode", "objectName", "map[key]", null);
+		assertThat(getMessageCodesCache().size(), is(1));
+	}
+
+	@Test
+	public void shouldShareCachedCodesAcrossBindingResults() throws Exception {
+		BindingResult first = new BeanPropertyBindingResult(new TestBean(), "testBean");
+		first.rejectValue("name", "required");
+		assertThat(getMessageCodesCache().size(), is(1));
+		Object cachedCodes = getMessageCodesCache().values().iterator().next();
+
+		BindingResult second = new BeanPropertyBindingResult(new TestBean(), "testBean");
+		second.rejectValue("name", "required");
+		assertThat(getMessageCodesCache().size(), is(1));
+		assertThat(getMessageCodesCache().values().iterator().next(), is(sameInstance(cachedCodes)));
+		assertThat(second.getFieldError("name").getCodes(), is(equalTo(first.getFieldError("name").getCodes())));
+	}
+
+	@Test
+	public void shouldResolveCodesAfterDeserialization() throws Exception {
+		resolver.setPrefix("prefix.");
+		resolver.resolveMessageCodes("errorCode", "objectName", "field", null);
+		DefaultMessageCodesResolver deserialized =
+				(DefaultMessageCodesResolver) SerializationTestUtils.serializeAndDeserialize(resolver);
+		String[] codes = deserialized.resolveMessageCodes("errorCode", "objectName", "field", null);
+		assertThat(codes, is(equalTo(new String[] {
+				"prefix.errorCode.objectName.field",
+				"prefix.errorCode.field",
+				"prefix.errorCode" })));
+	}
+
+	@Test
+	public void shouldNotUseCachedCodesForSubclass() throws Exception {
+		resolver.resolveMessageCodes("errorCode", "objectName", "a[1]", TestBean.class);
+		DefaultMessageCodesResolver subclassResolver = new DefaultMessageCodesResolver() {
+			@Override
+			protected void buildFieldList(String field, List<String> fieldList) {
+				fieldList.add(field);
+			}
+		};
+		String[] codes = subclassResolver.resolveMessageCodes("errorCode", "objectName", "a[1]",
+				TestBean.class);
+		assertThat(codes, is(equalTo(new String[] {
+				"errorCode.objectName.a[1]",
+				"errorCode.a[1]",
+				"errorCode.org.springframework.tests.sample.beans.TestBean",
+				"errorCode" })));
+	}
+
+	private static Map<?, ?> getMessageCodesCache() throws Exception {
+		Field field = DefaultMessageCodesResolver.class.getDeclaredField("messageCodesCache");
+		ReflectionUtils.makeAccessible(field);
+		return (Map<?, ?>) field.get(null);
+	}
 }
@@ -0,0 +1,163 @@
+/*
+ * Copyright 2002-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.validation.beanvalidation;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Size;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import org.springframework.context.MessageSourceResolvable;
+import org.springframework.validation.BindingResult;
+import org.springframework.validation.FieldError;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author agent
+ * @since 3.2.12
+ */
+public class BulkValidatorTests {
+
+	private LocalValidatorFactoryBean validator;
+
+	private BulkValidator bulkValidator;
+
+
+	@Before
+	public void setUp() {
+		this.validator = new LocalValidatorFactoryBean();
+		this.validator.afterPropertiesSet();
+		this.bulkValidator = new BulkValidator(this.validator);
+		this.bulkValidator.setSequentialThreshold(4);
+	}
+
+	@After
+	public void tearDown() {
+		this.bulkValidator.destroy();
+	}
+
+
+	@Test
+	public void validateAll() {
+		List<Customer> customers = new ArrayList<Customer>();
+		for (int i = 0; i < 100; i++) {
+			customers.add(new Customer(i % 3 == 0 ? null : "customer" + i));
+		}
+		List<BindingResult> results = this.bulkValidator.validateAll(customers);
+		assertEquals(100, results.size());
+		for (int i = 0; i < 100; i++) {
+			BindingResult result = results.get(i);
+			assertSame(customers.get(i), result.getTarget());
+			assertEquals("customer", result.getObjectName());
+			if (i % 3 == 0) {
+				assertEquals(1, result.getErrorCount());
+				FieldError fieldError = result.getFieldError("name");
+				assertEquals("NotNull", fieldError.getCode());
+				assertEquals("NotNull.customer.name", fieldError.getCodes()[0]);
+			}
+			else {
+				assertFalse(result.hasErrors());
+			}
+		}
+	}
+
+	@Test
+	public void validateAllWithConstraintArguments() {
+		List<BindingResult> results = this.bulkValidator.validateAll(
+				Arrays.asList(new Customer("x"), new Customer("y")));
+		for (BindingResult result : results) {
+			FieldError fieldError = result.getFieldError("name");
+			assertEquals("Size", fieldError.getCode());
+			Object[] arguments = fieldError.getArguments();
+			assertEquals(3, arguments.length);
+			assertEquals("customer.name", ((MessageSourceResolvable) arguments[0]).getCodes()[0]);
+			assertEquals(10, arguments[1]);
+			assertEquals(2, arguments[2]);
+		}
+		assertNotSame(results.get(0).getFieldError().getArguments(), results.get(1).getFieldError().getArguments());
+	}
+
+	@Test
+	public void validateAllWithValidationHints() {
+		List<BindingResult> results = this.bulkValidator.validateAll(
+				Collections.singletonList(new Customer("x")), Strict.class);
+		assertEquals(1, results.get(0).getErrorCount());
+		assertEquals("NotNull", results.get(0).getFieldError("email").getCode());
+	}
+
+	@Test
+	public void validateAllWithEmptyCollection() {
+		assertTrue(this.bulkValidator.validateAll(Collections.emptyList()).isEmpty());
+	}
+
+	@Test
+	public void validateAllWithExternalPool() {
+		ForkJoinPool pool = new ForkJoinPool(2);
+		try {
+			this.bulkValidator.setForkJoinPool(pool);
+			List<BindingResult> results = this.bulkValidator.validateAll(
+					Collections.singletonList(new Customer(null)));
+			assertEquals(1, results.get(0).getErrorCount());
+			this.bulkValidator.destroy();
+			assertFalse(pool.isShutdown());
+		}
+		finally {
+			pool.shutdown();
+		}
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void validateAllWithNullElement() {
+		this.bulkValidator.validateAll(Collections.singletonList(null));
+	}
+
+
+	public interface Strict {
+	}
+
+
+	public static class Customer {
+
+		@NotNull
+		@Size(min = 2, max = 10)
+		private String name;
+
+		@NotNull(groups = Strict.class)
+		private String email;
+
+		public Customer(String name) {
+			this.name = name;
+		}
+
+		public String getName() {
+			return this.name;
+		}
+
+		public String getEmail() {
+			return this.email;
+		}
+	}
+
+}
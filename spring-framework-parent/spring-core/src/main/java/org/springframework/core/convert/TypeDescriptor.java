@@ -297,7 +297,8 @@ public class TypeDescriptor implements Serializable {
 
 	/**
 	 * Narrows this {@link TypeDescriptor} by setting its type to the class of the provided value.
-	 * <p>If the value is {@code null}, no narrowing is performed and this TypeDescriptor is returned unchanged.
+	 * <p>If the value is {@code null} or of exactly this TypeDescriptor's type, no narrowing is performed
+	 * and this TypeDescriptor is returned unchanged.
 	 * <p>Designed to be called by binding frameworks when they read property, field, or method return values.
 	 * Allows such frameworks to narrow a TypeDescriptor built from a declared property, field, or method return
 	 * value type. For example, a field declared as {@code java.lang.Object} would be narrowed to
@@ -308,7 +309,7 @@ public class TypeDescriptor implements Serializable {
 	 * @return this TypeDescriptor narrowed (returns a copy with its type updated to the class of the provided value)
 	 */
 	public TypeDescriptor narrow(Object value) {
-		if (value == null) {
+		if (value == null || value.getClass() == this.type) {
 			return this;
 		}
 		return new TypeDescriptor(value.getClass(), this.elementTypeDescriptor,
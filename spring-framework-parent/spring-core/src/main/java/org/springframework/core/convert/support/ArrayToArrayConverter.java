@@ -61,6 +61,13 @@ final class ArrayToArrayConverter implements ConditionalGenericConverter {
 						sourceType.getElementTypeDescriptor(), targetType.getElementTypeDescriptor())) {
 			return source;
 		}
+		if (source instanceof String[] && targetType.getElementTypeDescriptor().isPrimitive()) {
+			Object result = ConversionUtils.parsePrimitiveArray((String[]) source,
+					sourceType.getElementTypeDescriptor(), targetType.getElementTypeDescriptor(), this.conversionService);
+			if (result != null) {
+				return result;
+			}
+		}
 		List<Object> sourceList = Arrays.asList(ObjectUtils.toObjectArray(source));
 		return this.helperConverter.convert(sourceList, sourceType, targetType);
 	}
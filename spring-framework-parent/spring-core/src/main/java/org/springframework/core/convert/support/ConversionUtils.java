@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2011 the original author or authors.
+ * Copyright 2002-2014 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -20,11 +20,13 @@ import org.springframework.core.convert.ConversionFailedException;
 import org.springframework.core.convert.ConversionService;
 import org.springframework.core.convert.TypeDescriptor;
 import org.springframework.core.convert.converter.GenericConverter;
+import org.springframework.util.NumberUtils;
 
 /**
  * Internal utilities for the conversion package.
  *
  * @author Keith Donald
+ * @author agent
  * @since 3.0
  */
 abstract class ConversionUtils {
@@ -65,4 +67,88 @@ abstract class ConversionUtils {
 		}
 	}
 
+	/**
+	 * Parse the given Strings straight into an {@code int}, {@code long} or
+	 * {@code double} array, following the rules of the default String-to-Number
+	 * conversion but without boxing and without per-element converter lookups.
+	 * @param elements the Strings to parse
+	 * @param sourceElementType the type of the source elements
+	 * @param targetElementType the primitive type of the target elements
+	 * @param conversionService the conversion service that would convert the elements otherwise
+	 * @return the primitive array, or {@code null} if the elements need to go through
+	 * regular conversion (unsupported target type, custom String-to-Number conversion,
+	 * or any element which does not parse)
+	 */
+	public static Object parsePrimitiveArray(String[] elements, TypeDescriptor sourceElementType,
+			TypeDescriptor targetElementType, ConversionService conversionService) {
+
+		Class<?> componentType = targetElementType.getType();
+		if ((componentType != int.class && componentType != long.class && componentType != double.class) ||
+				!(conversionService instanceof GenericConversionService) ||
+				!((GenericConversionService) conversionService).isDefaultStringToNumberConversion(
+						sourceElementType, targetElementType)) {
+			return null;
+		}
+		try {
+			if (componentType == int.class) {
+				int[] result = new int[elements.length];
+				for (int i = 0; i < elements.length; i++) {
+					String element = elements[i];
+					if (!isParseable(element)) {
+						return null;
+					}
+					result[i] = (isPlainNumber(element) ? Integer.parseInt(element) :
+							NumberUtils.parseNumber(element, Integer.class));
+				}
+				return result;
+			}
+			else if (componentType == long.class) {
+				long[] result = new long[elements.length];
+				for (int i = 0; i < elements.length; i++) {
+					String element = elements[i];
+					if (!isParseable(element)) {
+						return null;
+					}
+					result[i] = (isPlainNumber(element) ? Long.parseLong(element) :
+							NumberUtils.parseNumber(element, Long.class));
+				}
+				return result;
+			}
+			else {
+				double[] result = new double[elements.length];
+				for (int i = 0; i < elements.length; i++) {
+					String element = elements[i];
+					if (!isParseable(element)) {
+						return null;
+					}
+					result[i] = (isPlainNumber(element) ? Double.parseDouble(element) :
+							NumberUtils.parseNumber(element, Double.class));
+				}
+				return result;
+			}
+		}
+		catch (NumberFormatException ex) {
+			// Let regular conversion report the failure
+			return null;
+		}
+	}
+
+	private static boolean isParseable(String element) {
+		return (element != null && element.length() > 0);
+	}
+
+	/**
+	 * Check whether the given element can be parsed as-is, i.e. without
+	 * whitespace trimming or hex decoding as applied by {@link NumberUtils}.
+	 */
+	private static boolean isPlainNumber(String element) {
+		for (int i = 0; i < element.length(); i++) {
+			char c = element.charAt(i);
+			if (Character.isWhitespace(c) || c == 'x' || c == 'X' || c == '#') {
+				return false;
+			}
+		}
+		return true;
+	}
+
 }
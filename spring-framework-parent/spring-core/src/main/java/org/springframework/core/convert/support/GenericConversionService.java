@@ -44,6 +44,7 @@ import org.springframework.core.convert.converter.GenericConverter.ConvertiblePa
 import org.springframework.util.Assert;
 import org.springframework.util.ClassUtils;
 import org.springframework.util.ObjectUtils;
+import org.springframework.util.ReflectionUtils;
 import org.springframework.util.StringUtils;
 
 /**
@@ -51,6 +52,10 @@ import org.springframework.util.StringUtils;
  * Indirectly implements {@link ConverterRegistry} as registration API through the
  * {@link ConfigurableConversionService} interface.
  *
+ * <p>Converter lookups are cached per pair of source and target {@link TypeDescriptor},
+ * as well as per pair of raw source and target classes for the common case of
+ * conversion requests without nested type information.
+ *
  * @author Keith Donald
  * @author Juergen Hoeller
  * @author Chris Beams
@@ -76,6 +81,18 @@ public class GenericConversionService implements ConfigurableConversionService {
 	private final Map<ConverterCacheKey, GenericConverter> converterCache =
 			new ConcurrentHashMap<ConverterCacheKey, GenericConverter>(64);
 
+	/** Cache for conversion requests between raw classes, avoiding TypeDescriptor lookups */
+	private final Map<ConvertiblePair, ClassPairConverter> classPairCache =
+			new ConcurrentHashMap<ConvertiblePair, ClassPairConverter>(64);
+
+	/** Whether canConvert(Class, Class) may bypass canConvert(TypeDescriptor, TypeDescriptor) */
+	private final boolean classPairCanConvert =
+			!isOverridden("canConvert", TypeDescriptor.class, TypeDescriptor.class);
+
+	/** Whether convert(Object, Class) may bypass convert(Object, TypeDescriptor, TypeDescriptor) */
+	private final boolean classPairConversion =
+			!isOverridden("convert", Object.class, TypeDescriptor.class, TypeDescriptor.class);
+
 
 	// implementing ConverterRegistry
 
@@ -115,8 +132,14 @@ public class GenericConversionService implements ConfigurableConversionService {
 
 	public boolean canConvert(Class<?> sourceType, Class<?> targetType) {
 		Assert.notNull(targetType, "targetType to convert to cannot be null");
-		return canConvert((sourceType != null ? TypeDescriptor.valueOf(sourceType) : null),
-				TypeDescriptor.valueOf(targetType));
+		if (!this.classPairCanConvert) {
+			return canConvert((sourceType != null ? TypeDescriptor.valueOf(sourceType) : null),
+					TypeDescriptor.valueOf(targetType));
+		}
+		if (sourceType == null) {
+			return true;
+		}
+		return (getClassPairConverter(sourceType, targetType).converter != null);
 	}
 
 	public boolean canConvert(TypeDescriptor sourceType, TypeDescriptor targetType) {
@@ -150,7 +173,16 @@ public class GenericConversionService implements ConfigurableConversionService {
 	@SuppressWarnings("unchecked")
 	public <T> T convert(Object source, Class<T> targetType) {
 		Assert.notNull(targetType,"The targetType to convert to cannot be null");
-		return (T) convert(source, TypeDescriptor.forObject(source), TypeDescriptor.valueOf(targetType));
+		if (source == null || !this.classPairConversion) {
+			return (T) convert(source, TypeDescriptor.forObject(source), TypeDescriptor.valueOf(targetType));
+		}
+		ClassPairConverter classPairConverter = getClassPairConverter(source.getClass(), targetType);
+		if (classPairConverter.converter != null) {
+			Object result = ConversionUtils.invokeConverter(
+					classPairConverter.converter, source, classPairConverter.sourceType, classPairConverter.targetType);
+			return (T) handleResult(classPairConverter.sourceType, classPairConverter.targetType, result);
+		}
+		return (T) handleConverterNotFound(source, classPairConverter.sourceType, classPairConverter.targetType);
 	}
 
 	public Object convert(Object source, TypeDescriptor sourceType, TypeDescriptor targetType) {
@@ -241,6 +273,20 @@ public class GenericConversionService implements ConfigurableConversionService {
 		return null;
 	}
 
+	/**
+	 * Determine whether conversion between the given types is performed by the
+	 * default String-to-Number converter, allowing converters to parse numbers
+	 * on their own rather than going through this conversion service.
+	 */
+	boolean isDefaultStringToNumberConversion(TypeDescriptor sourceType, TypeDescriptor targetType) {
+		GenericConverter converter = getConverter(sourceType, targetType);
+		if (converter instanceof ConverterFactoryAdapter) {
+			Object converterFactory = ((ConverterFactoryAdapter) converter).converterFactory;
+			return (converterFactory instanceof StringToNumberConverterFactory);
+		}
+		return false;
+	}
+
 	/**
 	 * Return the default converter if no converter is found for the given sourceType/targetType pair.
 	 * Returns a NO_OP Converter if the sourceType is assignable to the targetType.
@@ -261,8 +307,31 @@ public class GenericConversionService implements ConfigurableConversionService {
 		return (args != null ? new GenericConverter.ConvertiblePair(args[0], args[1]) : null);
 	}
 
+	/**
+	 * Determine whether the given method is overridden by a subclass, in which case
+	 * the corresponding class-pair shortcut must not be used.
+	 */
+	private boolean isOverridden(String methodName, Class<?>... paramTypes) {
+		return (ReflectionUtils.findMethod(getClass(), methodName, paramTypes).getDeclaringClass() !=
+				GenericConversionService.class);
+	}
+
+	private ClassPairConverter getClassPairConverter(Class<?> sourceType, Class<?> targetType) {
+		ConvertiblePair key = new ConvertiblePair(sourceType, targetType);
+		ClassPairConverter classPairConverter = this.classPairCache.get(key);
+		if (classPairConverter == null) {
+			TypeDescriptor sourceTypeDescriptor = TypeDescriptor.valueOf(sourceType);
+			TypeDescriptor targetTypeDescriptor = TypeDescriptor.valueOf(targetType);
+			classPairConverter = new ClassPairConverter(getConverter(sourceTypeDescriptor, targetTypeDescriptor),
+					sourceTypeDescriptor, targetTypeDescriptor);
+			this.classPairCache.put(key, classPairConverter);
+		}
+		return classPairConverter;
+	}
+
 	private void invalidateCache() {
 		this.converterCache.clear();
+		this.classPairCache.clear();
 	}
 
 	private Object handleConverterNotFound(Object source, TypeDescriptor sourceType, TypeDescriptor targetType) {
@@ -381,6 +450,25 @@ public class GenericConversionService implements ConfigurableConversionService {
 	}
 
 
+	/**
+	 * Converter for a pair of raw classes, along with the corresponding type descriptors.
+	 */
+	private static final class ClassPairConverter {
+
+		public final GenericConverter converter;
+
+		public final TypeDescriptor sourceType;
+
+		public final TypeDescriptor targetType;
+
+		public ClassPairConverter(GenericConverter converter, TypeDescriptor sourceType, TypeDescriptor targetType) {
+			this.converter = converter;
+			this.sourceType = sourceType;
+			this.targetType = targetType;
+		}
+	}
+
+
 	/**
 	 * Key for use with the converter cache.
 	 */
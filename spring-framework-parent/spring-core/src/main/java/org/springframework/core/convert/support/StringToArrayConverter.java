@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2010 the original author or authors.
+ * Copyright 2002-2014 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -54,6 +54,13 @@ final class StringToArrayConverter implements ConditionalGenericConverter {
 		}
 		String string = (String) source;
 		String[] fields = StringUtils.commaDelimitedListToStringArray(string);
+		if (targetType.getElementTypeDescriptor().isPrimitive()) {
+			Object result = ConversionUtils.parsePrimitiveArray(
+					fields, sourceType, targetType.getElementTypeDescriptor(), this.conversionService);
+			if (result != null) {
+				return result;
+			}
+		}
 		Object target = Array.newInstance(targetType.getElementTypeDescriptor().getType(), fields.length);
 		for (int i = 0; i < fields.length; i++) {
 			String sourceElement = fields[i];
@@ -142,7 +142,7 @@ public abstract class AbstractEnvironment implements ConfigurableEnvironment {
 
 	private final MutablePropertySources propertySources = new MutablePropertySources(this.logger);
 
-	private final ConfigurablePropertyResolver propertyResolver =
+	private final PropertySourcesPropertyResolver propertyResolver =
 			new PropertySourcesPropertyResolver(this.propertySources);
 
 
@@ -571,6 +571,24 @@ public abstract class AbstractEnvironment implements ConfigurableEnvironment {
 		this.propertyResolver.setIgnoreUnresolvableNestedPlaceholders(ignoreUnresolvableNestedPlaceholders);
 	}
 
+	/**
+	 * Set whether to index the property names of all enumerable property sources
+	 * for fast lookups, assuming that their content does not change anymore.
+	 * @see PropertySourcesPropertyResolver#setUsePropertyIndex
+	 */
+	public void setUsePropertyIndex(boolean usePropertyIndex) {
+		this.propertyResolver.setUsePropertyIndex(usePropertyIndex);
+	}
+
+	/**
+	 * Discard the current property index, if any, for picking up changes
+	 * to the content of this environment's property sources.
+	 * @see PropertySourcesPropertyResolver#refreshPropertyIndex()
+	 */
+	public void refreshPropertyIndex() {
+		this.propertyResolver.refreshPropertyIndex();
+	}
+
 	public void setRequiredProperties(String... requiredProperties) {
 		this.propertyResolver.setRequiredProperties(requiredProperties);
 	}
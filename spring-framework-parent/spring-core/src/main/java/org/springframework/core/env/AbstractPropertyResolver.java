@@ -70,6 +70,7 @@ public abstract class AbstractPropertyResolver implements ConfigurablePropertyRe
 	 */
 	public void setPlaceholderPrefix(String placeholderPrefix) {
 		this.placeholderPrefix = placeholderPrefix;
+		resetPlaceholderHelpers();
 	}
 
 	/**
@@ -79,6 +80,7 @@ public abstract class AbstractPropertyResolver implements ConfigurablePropertyRe
 	 */
 	public void setPlaceholderSuffix(String placeholderSuffix) {
 		this.placeholderSuffix = placeholderSuffix;
+		resetPlaceholderHelpers();
 	}
 
 	/**
@@ -90,6 +92,7 @@ public abstract class AbstractPropertyResolver implements ConfigurablePropertyRe
 	 */
 	public void setValueSeparator(String valueSeparator) {
 		this.valueSeparator = valueSeparator;
+		resetPlaceholderHelpers();
 	}
 
 	/**
@@ -181,6 +184,11 @@ public abstract class AbstractPropertyResolver implements ConfigurablePropertyRe
 				resolvePlaceholders(value) : resolveRequiredPlaceholders(value));
 	}
 
+	private void resetPlaceholderHelpers() {
+		this.nonStrictHelper = null;
+		this.strictHelper = null;
+	}
+
 	private PropertyPlaceholderHelper createPlaceholderHelper(boolean ignoreUnresolvablePlaceholders) {
 		return new PropertyPlaceholderHelper(this.placeholderPrefix, this.placeholderSuffix,
 				this.valueSeparator, ignoreUnresolvablePlaceholders);
@@ -47,6 +47,9 @@ public class MutablePropertySources implements PropertySources {
 
 	private final LinkedList<PropertySource<?>> propertySourceList = new LinkedList<PropertySource<?>>();
 
+	/** Number of modifications so far, for invalidating derived state such as property indexes */
+	private volatile int modificationCount;
+
 
 	/**
 	 * Create a new {@link MutablePropertySources} object.
@@ -98,6 +101,7 @@ public class MutablePropertySources implements PropertySources {
 		}
 		removeIfPresent(propertySource);
 		this.propertySourceList.addFirst(propertySource);
+		this.modificationCount++;
 	}
 
 	/**
@@ -110,6 +114,7 @@ public class MutablePropertySources implements PropertySources {
 		}
 		removeIfPresent(propertySource);
 		this.propertySourceList.addLast(propertySource);
+		this.modificationCount++;
 	}
 
 	/**
@@ -158,7 +163,11 @@ public class MutablePropertySources implements PropertySources {
 			logger.debug(String.format("Removing [%s] PropertySource", name));
 		}
 		int index = this.propertySourceList.indexOf(PropertySource.named(name));
-		return index == -1 ? null : this.propertySourceList.remove(index);
+		if (index == -1) {
+			return null;
+		}
+		this.modificationCount++;
+		return this.propertySourceList.remove(index);
 	}
 
 	/**
@@ -175,6 +184,7 @@ public class MutablePropertySources implements PropertySources {
 		}
 		int index = assertPresentAndGetIndex(name);
 		this.propertySourceList.set(index, propertySource);
+		this.modificationCount++;
 	}
 
 	/**
@@ -184,6 +194,15 @@ public class MutablePropertySources implements PropertySources {
 		return this.propertySourceList.size();
 	}
 
+	/**
+	 * Return the number of modifications of this {@code MutablePropertySources}
+	 * instance so far, allowing for detecting changes in the set and order of
+	 * contained property sources (but not in their content).
+	 */
+	int getModificationCount() {
+		return this.modificationCount;
+	}
+
 	@Override
 	public String toString() {
 		String[] names = new String[this.size()];
@@ -217,6 +236,7 @@ public class MutablePropertySources implements PropertySources {
 	private void addAtIndex(int index, PropertySource<?> propertySource) {
 		removeIfPresent(propertySource);
 		this.propertySourceList.add(index, propertySource);
+		this.modificationCount++;
 	}
 
 	/**
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2013 the original author or authors.
+ * Copyright 2002-2014 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,14 +16,28 @@
 
 package org.springframework.core.env;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
 import org.springframework.core.convert.ConversionException;
+import org.springframework.core.convert.support.ConfigurableConversionService;
 import org.springframework.util.ClassUtils;
 
 /**
  * {@link PropertyResolver} implementation that resolves property values against
  * an underlying set of {@link PropertySources}.
  *
+ * <p>Optionally maintains an {@link #setUsePropertyIndex index} of the property names
+ * of all {@link EnumerablePropertySource enumerable} property sources, along with
+ * caches of resolved placeholder strings and converted values, for fast lookups
+ * against a large number of property sources.
+ *
  * @author Chris Beams
+ * @author agent
  * @since 3.1
  * @see PropertySource
  * @see PropertySources
@@ -31,8 +45,19 @@ import org.springframework.util.ClassUtils;
  */
 public class PropertySourcesPropertyResolver extends AbstractPropertyResolver {
 
+	/** Maximum number of entries in each of the property index caches */
+	private static final int CACHE_LIMIT = 4096;
+
+	/** Marker for a cached null value */
+	private static final Object NULL_VALUE = new Object();
+
+
 	private final PropertySources propertySources;
 
+	private boolean usePropertyIndex = false;
+
+	private volatile PropertyIndex propertyIndex;
+
 
 	/**
 	 * Create a new resolver against the given property sources.
@@ -43,8 +68,76 @@ public class PropertySourcesPropertyResolver extends AbstractPropertyResolver {
 	}
 
 
+	/**
+	 * Set whether to index the property names of all {@link EnumerablePropertySource
+	 * enumerable} property sources, only querying the single source holding a given
+	 * key (plus any non-enumerable sources) instead of every property source in turn.
+	 * Resolved placeholder strings and values converted to simple value types get
+	 * cached as well.
+	 * <p>Default is "false". Switch this on for a large number of property sources
+	 * whose content does not change after initialization: additions, removals and
+	 * replacements of property sources through {@link MutablePropertySources} are
+	 * detected automatically, whereas changes to the content of a property source
+	 * (e.g. a system property set later on) require a {@link #refreshPropertyIndex()}.
+	 */
+	public void setUsePropertyIndex(boolean usePropertyIndex) {
+		this.usePropertyIndex = usePropertyIndex;
+		this.propertyIndex = null;
+	}
+
+	/**
+	 * Return whether to index the property names of all enumerable property sources.
+	 */
+	public boolean isUsePropertyIndex() {
+		return this.usePropertyIndex;
+	}
+
+	/**
+	 * Discard the current property index and its caches, if any, for picking up
+	 * changes to the content of the underlying property sources.
+	 * @see #setUsePropertyIndex
+	 */
+	public void refreshPropertyIndex() {
+		this.propertyIndex = null;
+	}
+
+	@Override
+	public void setConversionService(ConfigurableConversionService conversionService) {
+		super.setConversionService(conversionService);
+		refreshPropertyIndex();
+	}
+
+	@Override
+	public void setPlaceholderPrefix(String placeholderPrefix) {
+		super.setPlaceholderPrefix(placeholderPrefix);
+		refreshPropertyIndex();
+	}
+
+	@Override
+	public void setPlaceholderSuffix(String placeholderSuffix) {
+		super.setPlaceholderSuffix(placeholderSuffix);
+		refreshPropertyIndex();
+	}
+
+	@Override
+	public void setValueSeparator(String valueSeparator) {
+		super.setValueSeparator(valueSeparator);
+		refreshPropertyIndex();
+	}
+
+	@Override
+	public void setIgnoreUnresolvableNestedPlaceholders(boolean ignoreUnresolvableNestedPlaceholders) {
+		super.setIgnoreUnresolvableNestedPlaceholders(ignoreUnresolvableNestedPlaceholders);
+		refreshPropertyIndex();
+	}
+
+
 	@Override
 	public boolean containsProperty(String key) {
+		PropertyIndex index = getPropertyIndex();
+		if (index != null) {
+			return index.containsProperty(key);
+		}
 		if (this.propertySources != null) {
 			for (PropertySource<?> propertySource : this.propertySources) {
 				if (propertySource.containsProperty(key)) {
@@ -70,11 +163,43 @@ public class PropertySourcesPropertyResolver extends AbstractPropertyResolver {
 		return getProperty(key, String.class, false);
 	}
 
+	@Override
+	public String resolvePlaceholders(String text) {
+		PropertyIndex index = getPropertyIndex();
+		if (index == null || text == null) {
+			return super.resolvePlaceholders(text);
+		}
+		String result = index.placeholderCache.get(text);
+		if (result == null) {
+			result = super.resolvePlaceholders(text);
+			index.cache(index.placeholderCache, text, result);
+		}
+		return result;
+	}
+
+	@Override
+	public String resolveRequiredPlaceholders(String text) throws IllegalArgumentException {
+		PropertyIndex index = getPropertyIndex();
+		if (index == null || text == null) {
+			return super.resolveRequiredPlaceholders(text);
+		}
+		String result = index.requiredPlaceholderCache.get(text);
+		if (result == null) {
+			result = super.resolveRequiredPlaceholders(text);
+			index.cache(index.requiredPlaceholderCache, text, result);
+		}
+		return result;
+	}
+
 	protected <T> T getProperty(String key, Class<T> targetValueType, boolean resolveNestedPlaceholders) {
 		boolean debugEnabled = logger.isDebugEnabled();
 		if (logger.isTraceEnabled()) {
 			logger.trace(String.format("getProperty(\"%s\", %s)", key, targetValueType.getSimpleName()));
 		}
+		PropertyIndex index = getPropertyIndex();
+		if (index != null) {
+			return getIndexedProperty(index, key, targetValueType, resolveNestedPlaceholders);
+		}
 		if (this.propertySources != null) {
 			for (PropertySource<?> propertySource : this.propertySources) {
 				if (debugEnabled) {
@@ -82,20 +207,7 @@ public class PropertySourcesPropertyResolver extends AbstractPropertyResolver {
 				}
 				Object value;
 				if ((value = propertySource.getProperty(key)) != null) {
-					Class<?> valueType = value.getClass();
-					if (resolveNestedPlaceholders && value instanceof String) {
-						value = resolveNestedPlaceholders((String) value);
-					}
-					if (debugEnabled) {
-						logger.debug(String.format("Found key '%s' in [%s] with type [%s] and value '%s'",
-								key, propertySource.getName(), valueType.getSimpleName(), value));
-					}
-					if (!this.conversionService.canConvert(valueType, targetValueType)) {
-						throw new IllegalArgumentException(String.format(
-								"Cannot convert value [%s] from source type [%s] to target type [%s]",
-								value, valueType.getSimpleName(), targetValueType.getSimpleName()));
-					}
-					return this.conversionService.convert(value, targetValueType);
+					return convertValue(propertySource, key, value, targetValueType, resolveNestedPlaceholders);
 				}
 			}
 		}
@@ -105,6 +217,78 @@ public class PropertySourcesPropertyResolver extends AbstractPropertyResolver {
 		return null;
 	}
 
+	@SuppressWarnings("unchecked")
+	private <T> T getIndexedProperty(PropertyIndex index, String key, Class<T> targetValueType,
+			boolean resolveNestedPlaceholders) {
+
+		ValueCacheKey cacheKey = null;
+		if (String.class.equals(targetValueType) || ClassUtils.isPrimitiveOrWrapper(targetValueType) ||
+				targetValueType.isEnum()) {
+			// Immutable value: may be shared across calls
+			cacheKey = new ValueCacheKey(key, targetValueType, resolveNestedPlaceholders);
+			Object cachedValue = index.valueCache.get(cacheKey);
+			if (cachedValue != null) {
+				return (cachedValue != NULL_VALUE ? (T) cachedValue : null);
+			}
+		}
+		T result = null;
+		PropertySource<?>[] sources = index.propertySources;
+		int position = index.positionOf(key);
+		for (int i = 0; i < sources.length; i++) {
+			if (!index.indexed[i] || i == position) {
+				Object value = sources[i].getProperty(key);
+				if (value != null) {
+					result = convertValue(sources[i], key, value, targetValueType, resolveNestedPlaceholders);
+					break;
+				}
+			}
+		}
+		if (result == null && logger.isDebugEnabled()) {
+			logger.debug(String.format("Could not find key '%s' in any property source. Returning [null]", key));
+		}
+		if (cacheKey != null) {
+			index.cache(index.valueCache, cacheKey, (result != null ? result : NULL_VALUE));
+		}
+		return result;
+	}
+
+	private <T> T convertValue(PropertySource<?> propertySource, String key, Object value,
+			Class<T> targetValueType, boolean resolveNestedPlaceholders) {
+
+		Class<?> valueType = value.getClass();
+		if (resolveNestedPlaceholders && value instanceof String) {
+			value = resolveNestedPlaceholders((String) value);
+		}
+		if (logger.isDebugEnabled()) {
+			logger.debug(String.format("Found key '%s' in [%s] with type [%s] and value '%s'",
+					key, propertySource.getName(), valueType.getSimpleName(), value));
+		}
+		if (!this.conversionService.canConvert(valueType, targetValueType)) {
+			throw new IllegalArgumentException(String.format(
+					"Cannot convert value [%s] from source type [%s] to target type [%s]",
+					value, valueType.getSimpleName(), targetValueType.getSimpleName()));
+		}
+		return this.conversionService.convert(value, targetValueType);
+	}
+
+	/**
+	 * Return the current property index, (re-)building it if necessary.
+	 * @return the property index, or {@code null} if not indexing
+	 */
+	private PropertyIndex getPropertyIndex() {
+		if (!this.usePropertyIndex || this.propertySources == null) {
+			return null;
+		}
+		int modificationCount = (this.propertySources instanceof MutablePropertySources ?
+				((MutablePropertySources) this.propertySources).getModificationCount() : 0);
+		PropertyIndex index = this.propertyIndex;
+		if (index == null || index.modificationCount != modificationCount) {
+			index = new PropertyIndex(this.propertySources, modificationCount);
+			this.propertyIndex = index;
+		}
+		return index;
+	}
+
 	@Override
 	public <T> Class<T> getPropertyAsClass(String key, Class<T> targetValueType) {
 		boolean debugEnabled = logger.isDebugEnabled();
@@ -152,6 +336,114 @@ public class PropertySourcesPropertyResolver extends AbstractPropertyResolver {
 	}
 
 
+	/**
+	 * Snapshot of the property sources with the position of the first
+	 * enumerable property source holding each property name.
+	 */
+	private static class PropertyIndex {
+
+		public final int modificationCount;
+
+		public final PropertySource<?>[] propertySources;
+
+		/** Whether the property source at the same position is covered by the name index */
+		public final boolean[] indexed;
+
+		private final Map<String, Integer> positions = new HashMap<String, Integer>();
+
+		public final ConcurrentMap<ValueCacheKey, Object> valueCache =
+				new ConcurrentHashMap<ValueCacheKey, Object>(256);
+
+		public final ConcurrentMap<String, String> placeholderCache = new ConcurrentHashMap<String, String>(256);
+
+		public final ConcurrentMap<String, String> requiredPlaceholderCache = new ConcurrentHashMap<String, String>(256);
+
+		public PropertyIndex(PropertySources propertySources, int modificationCount) {
+			this.modificationCount = modificationCount;
+			List<PropertySource<?>> sourceList = new ArrayList<PropertySource<?>>();
+			for (PropertySource<?> propertySource : propertySources) {
+				sourceList.add(propertySource);
+			}
+			this.propertySources = sourceList.toArray(new PropertySource<?>[sourceList.size()]);
+			this.indexed = new boolean[this.propertySources.length];
+			for (int i = 0; i < this.propertySources.length; i++) {
+				PropertySource<?> propertySource = this.propertySources[i];
+				// Environment variables may be looked up through name variants: no exact name index possible
+				if (propertySource instanceof EnumerablePropertySource &&
+						!(propertySource instanceof SystemEnvironmentPropertySource)) {
+					this.indexed[i] = true;
+					for (String name : ((EnumerablePropertySource<?>) propertySource).getPropertyNames()) {
+						if (!this.positions.containsKey(name) && propertySource.getProperty(name) != null) {
+							this.positions.put(name, i);
+						}
+					}
+				}
+			}
+		}
+
+		public int positionOf(String key) {
+			Integer position = this.positions.get(key);
+			return (position != null ? position : -1);
+		}
+
+		public boolean containsProperty(String key) {
+			if (this.positions.containsKey(key)) {
+				return true;
+			}
+			for (int i = 0; i < this.propertySources.length; i++) {
+				if (!this.indexed[i] && this.propertySources[i].containsProperty(key)) {
+					return true;
+				}
+			}
+			return false;
+		}
+
+		public <K, V> void cache(ConcurrentMap<K, V> cache, K key, V value) {
+			if (cache.size() < CACHE_LIMIT) {
+				cache.put(key, value);
+			}
+		}
+	}
+
+
+	/**
+	 * Key for the converted value cache.
+	 */
+	private static class ValueCacheKey {
+
+		private final String key;
+
+		private final Class<?> targetType;
+
+		private final boolean resolveNestedPlaceholders;
+
+		public ValueCacheKey(String key, Class<?> targetType, boolean resolveNestedPlaceholders) {
+			this.key = key;
+			this.targetType = targetType;
+			this.resolveNestedPlaceholders = resolveNestedPlaceholders;
+		}
+
+		@Override
+		public boolean equals(Object other) {
+			if (this == other) {
+				return true;
+			}
+			if (!(other instanceof ValueCacheKey)) {
+				return false;
+			}
+			ValueCacheKey otherKey = (ValueCacheKey) other;
+			return (this.key.equals(otherKey.key) && this.targetType == otherKey.targetType &&
+					this.resolveNestedPlaceholders == otherKey.resolveNestedPlaceholders);
+		}
+
+		@Override
+		public int hashCode() {
+			return (this.key.hashCode() * 29 + this.targetType.hashCode()) * 2 +
+					(this.resolveNestedPlaceholders ? 1 : 0);
+		}
+	}
+
+
 	@SuppressWarnings("serial")
 	private static class ClassConversionException extends ConversionException {
 
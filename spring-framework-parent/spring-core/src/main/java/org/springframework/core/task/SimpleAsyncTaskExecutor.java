@@ -25,6 +25,8 @@ import java.util.concurrent.ThreadFactory;
 import org.springframework.util.Assert;
 import org.springframework.util.ConcurrencyThrottleSupport;
 import org.springframework.util.CustomizableThreadCreator;
+import org.springframework.util.concurrent.ListenableFuture;
+import org.springframework.util.concurrent.ListenableFutureTask;
 
 /**
  * {@link TaskExecutor} implementation that fires up a new Thread for each task,
@@ -43,15 +45,19 @@ import org.springframework.util.CustomizableThreadCreator;
  * 
  * <p> 注意：此实现不重用线程！ 相反，请考虑使用线程池TaskExecutor实现，尤其是执行大量短期任务。
  *
+ * <p>On Java 21+, this executor may fire up virtual threads instead, which are
+ * cheap enough to be created per task: see {@link #setVirtualThreads}.
+ *
  * @author Juergen Hoeller
  * @since 2.0
  * @see #setConcurrencyLimit
  * @see SyncTaskExecutor
+ * @see VirtualThreadTaskExecutor
  * @see org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor
  * @see org.springframework.scheduling.commonj.WorkManagerTaskExecutor
  */
 @SuppressWarnings("serial")
-public class SimpleAsyncTaskExecutor extends CustomizableThreadCreator implements AsyncTaskExecutor, Serializable {
+public class SimpleAsyncTaskExecutor extends CustomizableThreadCreator implements AsyncListenableTaskExecutor, Serializable {
 
 	/**
 	 * Permit any number of concurrent invocations: that is, don't throttle concurrency.
@@ -75,6 +81,10 @@ public class SimpleAsyncTaskExecutor extends CustomizableThreadCreator implement
 
 	private ThreadFactory threadFactory;
 
+	private boolean virtualThreads = false;
+
+	private transient VirtualThreadDelegate virtualThreadDelegate;
+
 
 	/**
 	 * Create a new SimpleAsyncTaskExecutor with default thread name prefix.
@@ -142,6 +152,28 @@ public class SimpleAsyncTaskExecutor extends CustomizableThreadCreator implement
 		return this.threadFactory;
 	}
 
+	/**
+	 * Switch this executor to virtual threads. Requires Java 21 or higher.
+	 * <p>The default is {@code false}, indicating platform threads.
+	 * Set this flag to {@code true} in order to create virtual threads instead,
+	 * named according to the thread name prefix of this executor. Any
+	 * {@link #setConcurrencyLimit concurrency limit} applies as usual.
+	 * <p>Not to be combined with an external {@link #setThreadFactory ThreadFactory}.
+	 * @throws UnsupportedOperationException if virtual threads are not supported
+	 * @see VirtualThreadTaskExecutor#isVirtualThreadSupported()
+	 */
+	public void setVirtualThreads(boolean virtual) {
+		this.virtualThreadDelegate = (virtual ? new VirtualThreadDelegate() : null);
+		this.virtualThreads = virtual;
+	}
+
+	/**
+	 * Return whether this executor creates virtual threads.
+	 */
+	public final boolean isVirtualThreads() {
+		return this.virtualThreads;
+	}
+
 	/**
 	 * Set the maximum number of parallel accesses allowed.
 	 * -1 indicates no concurrency limit at all.
@@ -240,6 +272,18 @@ public class SimpleAsyncTaskExecutor extends CustomizableThreadCreator implement
 		return future;
 	}
 
+	public ListenableFuture<?> submitListenable(Runnable task) {
+		ListenableFutureTask<Object> future = new ListenableFutureTask<Object>(task, null);
+		execute(future, TIMEOUT_INDEFINITE);
+		return future;
+	}
+
+	public <T> ListenableFuture<T> submitListenable(Callable<T> task) {
+		ListenableFutureTask<T> future = new ListenableFutureTask<T>(task);
+		execute(future, TIMEOUT_INDEFINITE);
+		return future;
+	}
+
 	/**
 	 * Template method for the actual execution of a task.
 	 * 
@@ -251,11 +295,22 @@ public class SimpleAsyncTaskExecutor extends CustomizableThreadCreator implement
 	 * 
 	 * @param task the Runnable to execute - 要运行的Runnable
 	 * @see #setThreadFactory
+	 * @see #setVirtualThreads
 	 * @see #createThread
 	 * @see java.lang.Thread#start()
 	 */
 	protected void doExecute(Runnable task) {
-		Thread thread = (this.threadFactory != null ? this.threadFactory.newThread(task) : createThread(task));
+		Thread thread;
+		if (this.virtualThreads) {
+			if (this.virtualThreadDelegate == null) {
+				// Deserialized instance: re-initialize stateless delegate.
+				this.virtualThreadDelegate = new VirtualThreadDelegate();
+			}
+			thread = this.virtualThreadDelegate.newVirtualThread(nextThreadName(), task);
+		}
+		else {
+			thread = (this.threadFactory != null ? this.threadFactory.newThread(task) : createThread(task));
+		}
 		thread.start();
 	}
 
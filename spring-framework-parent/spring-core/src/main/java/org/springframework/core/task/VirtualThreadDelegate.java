@@ -0,0 +1,102 @@
+/*
+ * Copyright 2002-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core.task;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ThreadFactory;
+
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ReflectionUtils;
+
+/**
+ * Internal delegate for virtual thread handling on Java 21+,
+ * accessing the {@code Thread.Builder.OfVirtual} API via reflection.
+ *
+ * @author agent
+ * @since 3.2.12
+ * @see VirtualThreadTaskExecutor
+ * @see SimpleAsyncTaskExecutor#setVirtualThreads
+ */
+final class VirtualThreadDelegate {
+
+	private static final Method ofVirtualMethod =
+			ClassUtils.getMethodIfAvailable(Thread.class, "ofVirtual");
+
+	private static final Method nameMethod;
+
+	private static final Method nameWithCounterMethod;
+
+	private static final Method factoryMethod;
+
+	private static final Method unstartedMethod;
+
+	static {
+		Class<?> builderClass = null;
+		if (ofVirtualMethod != null) {
+			try {
+				builderClass = ClassUtils.forName("java.lang.Thread$Builder", VirtualThreadDelegate.class.getClassLoader());
+			}
+			catch (Throwable ex) {
+				// Should not happen on a JVM that exposes Thread.ofVirtual()
+			}
+		}
+		nameMethod = (builderClass != null ?
+				ClassUtils.getMethodIfAvailable(builderClass, "name", String.class) : null);
+		nameWithCounterMethod = (builderClass != null ?
+				ClassUtils.getMethodIfAvailable(builderClass, "name", String.class, long.class) : null);
+		factoryMethod = (builderClass != null ?
+				ClassUtils.getMethodIfAvailable(builderClass, "factory") : null);
+		unstartedMethod = (builderClass != null ?
+				ClassUtils.getMethodIfAvailable(builderClass, "unstarted", Runnable.class) : null);
+	}
+
+
+	/**
+	 * Return whether virtual threads are supported on the current JVM.
+	 */
+	public static boolean isVirtualThreadSupported() {
+		return (nameMethod != null && nameWithCounterMethod != null &&
+				factoryMethod != null && unstartedMethod != null);
+	}
+
+
+	public VirtualThreadDelegate() {
+		if (!isVirtualThreadSupported()) {
+			throw new UnsupportedOperationException("Virtual threads not supported on this JVM - requires Java 21+");
+		}
+	}
+
+	/**
+	 * Create a factory for virtual threads with the given name prefix,
+	 * followed by a sequence number.
+	 */
+	public ThreadFactory virtualThreadFactory(String threadNamePrefix) {
+		Object builder = ReflectionUtils.invokeMethod(ofVirtualMethod, null);
+		builder = ReflectionUtils.invokeMethod(nameWithCounterMethod, builder, threadNamePrefix, 0L);
+		return (ThreadFactory) ReflectionUtils.invokeMethod(factoryMethod, builder);
+	}
+
+	/**
+	 * Create a new unstarted virtual thread with the given name.
+	 */
+	public Thread newVirtualThread(String name, Runnable task) {
+		Object builder = ReflectionUtils.invokeMethod(ofVirtualMethod, null);
+		builder = ReflectionUtils.invokeMethod(nameMethod, builder, name);
+		return (Thread) ReflectionUtils.invokeMethod(unstartedMethod, builder, task);
+	}
+
+}
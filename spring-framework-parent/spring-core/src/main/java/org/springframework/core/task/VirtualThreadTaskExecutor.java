@@ -0,0 +1,122 @@
+/*
+ * Copyright 2002-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core.task;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ThreadFactory;
+
+import org.springframework.util.Assert;
+import org.springframework.util.concurrent.ListenableFuture;
+import org.springframework.util.concurrent.ListenableFutureTask;
+
+/**
+ * A {@link TaskExecutor} implementation that fires up a new virtual thread
+ * for each task, as supported on Java 21+.
+ *
+ * <p>Virtual threads are cheap to create and to block, so there is no need
+ * for pooling them. For limiting concurrency, consider a
+ * {@link SimpleAsyncTaskExecutor} with {@link SimpleAsyncTaskExecutor#setVirtualThreads
+ * "virtualThreads"} and a {@link SimpleAsyncTaskExecutor#setConcurrencyLimit
+ * "concurrencyLimit"} instead.
+ *
+ * <p>The {@link #getVirtualThreadFactory() virtual thread factory} may also
+ * be passed to thread-based components, e.g. to a {@code ThreadPoolTaskScheduler}
+ * through its "threadFactory" property.
+ *
+ * <p>This class compiles against any JDK but fails on construction
+ * when not running on Java 21 or higher; use {@link #isVirtualThreadSupported()}
+ * for checking upfront.
+ *
+ * @author agent
+ * @since 3.2.12
+ * @see SimpleAsyncTaskExecutor#setVirtualThreads
+ */
+public class VirtualThreadTaskExecutor implements AsyncListenableTaskExecutor {
+
+	private final ThreadFactory virtualThreadFactory;
+
+
+	/**
+	 * Create a new VirtualThreadTaskExecutor without thread naming.
+	 */
+	public VirtualThreadTaskExecutor() {
+		this("");
+	}
+
+	/**
+	 * Create a new VirtualThreadTaskExecutor with thread names based
+	 * on the given thread name prefix followed by a counter (e.g. "test-0").
+	 * @param threadNamePrefix the prefix for thread names (e.g. "test-")
+	 * @throws UnsupportedOperationException if virtual threads are not supported
+	 */
+	public VirtualThreadTaskExecutor(String threadNamePrefix) {
+		this.virtualThreadFactory = new VirtualThreadDelegate().virtualThreadFactory(threadNamePrefix);
+	}
+
+
+	/**
+	 * Return whether virtual threads are supported on the current JVM.
+	 */
+	public static boolean isVirtualThreadSupported() {
+		return VirtualThreadDelegate.isVirtualThreadSupported();
+	}
+
+
+	/**
+	 * Return the underlying virtual {@link ThreadFactory}.
+	 * Can also be used for custom thread creation elsewhere.
+	 */
+	public final ThreadFactory getVirtualThreadFactory() {
+		return this.virtualThreadFactory;
+	}
+
+	public void execute(Runnable task) {
+		Assert.notNull(task, "Runnable must not be null");
+		this.virtualThreadFactory.newThread(task).start();
+	}
+
+	public void execute(Runnable task, long startTimeout) {
+		execute(task);
+	}
+
+	public Future<?> submit(Runnable task) {
+		FutureTask<Object> future = new FutureTask<Object>(task, null);
+		execute(future);
+		return future;
+	}
+
+	public <T> Future<T> submit(Callable<T> task) {
+		FutureTask<T> future = new FutureTask<T>(task);
+		execute(future);
+		return future;
+	}
+
+	public ListenableFuture<?> submitListenable(Runnable task) {
+		ListenableFutureTask<Object> future = new ListenableFutureTask<Object>(task, null);
+		execute(future);
+		return future;
+	}
+
+	public <T> ListenableFuture<T> submitListenable(Callable<T> task) {
+		ListenableFutureTask<T> future = new ListenableFutureTask<T>(task);
+		execute(future);
+		return future;
+	}
+
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2012 the original author or authors.
+ * Copyright 2002-2014 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -19,6 +19,7 @@ package org.springframework.util;
 import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.io.Serializable;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -35,6 +36,11 @@ import org.apache.commons.logging.LogFactory;
  * ("unbounded concurrency"). Subclasses may override this default;
  * check the javadoc of the concrete class that you're using.
  *
+ * <p>As of Spring 3.2.12, the concurrency count is maintained through
+ * compare-and-set operations: entering and leaving the throttle does not
+ * acquire a lock unless the concurrency limit has been reached, in which
+ * case the calling thread blocks until another thread leaves the throttle.
+ *
  * @author Juergen Hoeller
  * @since 1.2.5
  * @see #setConcurrencyLimit
@@ -64,7 +70,10 @@ public abstract class ConcurrencyThrottleSupport implements Serializable {
 
 	private int concurrencyLimit = UNBOUNDED_CONCURRENCY;
 
-	private int concurrencyCount = 0;
+	private final AtomicInteger concurrencyCount = new AtomicInteger();
+
+	/** Number of threads blocked in (or about to block in) the monitor */
+	private transient AtomicInteger waitingCount = new AtomicInteger();
 
 
 	/**
@@ -109,30 +118,55 @@ public abstract class ConcurrencyThrottleSupport implements Serializable {
 		}
 		if (this.concurrencyLimit > 0) {
 			boolean debug = logger.isDebugEnabled();
-			synchronized (this.monitor) {
-				boolean interrupted = false;
-				while (this.concurrencyCount >= this.concurrencyLimit) {
-					if (interrupted) {
-						throw new IllegalStateException("Thread was interrupted while waiting for invocation access, " +
-								"but concurrency limit still does not allow for entering");
-					}
-					if (debug) {
-						logger.debug("Concurrency count " + this.concurrencyCount +
-								" has reached limit " + this.concurrencyLimit + " - blocking");
-					}
+			int count = tryEnter();
+			if (count < 0) {
+				synchronized (this.monitor) {
+					// Register as waiter before re-checking, so that afterAccess will notify us.
+					this.waitingCount.incrementAndGet();
 					try {
-						this.monitor.wait();
+						boolean interrupted = false;
+						while ((count = tryEnter()) < 0) {
+							if (interrupted) {
+								throw new IllegalStateException("Thread was interrupted while waiting for invocation access, " +
+										"but concurrency limit still does not allow for entering");
+							}
+							if (debug) {
+								logger.debug("Concurrency count " + this.concurrencyCount.get() +
+										" has reached limit " + this.concurrencyLimit + " - blocking");
+							}
+							try {
+								this.monitor.wait();
+							}
+							catch (InterruptedException ex) {
+								// Re-interrupt current thread, to allow other threads to react.
+								Thread.currentThread().interrupt();
+								interrupted = true;
+							}
+						}
 					}
-					catch (InterruptedException ex) {
-						// Re-interrupt current thread, to allow other threads to react.
-						Thread.currentThread().interrupt();
-						interrupted = true;
+					finally {
+						this.waitingCount.decrementAndGet();
 					}
 				}
-				if (debug) {
-					logger.debug("Entering throttle at concurrency count " + this.concurrencyCount);
-				}
-				this.concurrencyCount++;
+			}
+			if (debug) {
+				logger.debug("Entering throttle at concurrency count " + count);
+			}
+		}
+	}
+
+	/**
+	 * Try to increment the concurrency count without exceeding the limit.
+	 * @return the previous concurrency count, or -1 if the limit has been reached
+	 */
+	private int tryEnter() {
+		while (true) {
+			int count = this.concurrencyCount.get();
+			if (count >= this.concurrencyLimit) {
+				return -1;
+			}
+			if (this.concurrencyCount.compareAndSet(count, count + 1)) {
+				return count;
 			}
 		}
 	}
@@ -143,12 +177,14 @@ public abstract class ConcurrencyThrottleSupport implements Serializable {
 	 */
 	protected void afterAccess() {
 		if (this.concurrencyLimit >= 0) {
-			synchronized (this.monitor) {
-				this.concurrencyCount--;
-				if (logger.isDebugEnabled()) {
-					logger.debug("Returning from throttle at concurrency count " + this.concurrencyCount);
+			int count = this.concurrencyCount.decrementAndGet();
+			if (logger.isDebugEnabled()) {
+				logger.debug("Returning from throttle at concurrency count " + count);
+			}
+			if (this.waitingCount.get() > 0) {
+				synchronized (this.monitor) {
+					this.monitor.notify();
 				}
-				this.monitor.notify();
 			}
 		}
 	}
@@ -165,6 +201,7 @@ public abstract class ConcurrencyThrottleSupport implements Serializable {
 		// Initialize transient fields.
 		this.logger = LogFactory.getLog(getClass());
 		this.monitor = new Object();
+		this.waitingCount = new AtomicInteger();
 	}
 
 }
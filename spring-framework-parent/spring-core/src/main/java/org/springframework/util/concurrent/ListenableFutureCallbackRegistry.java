@@ -0,0 +1,122 @@
+/*
+ * Copyright 2002-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.util.concurrent;
+
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Queue;
+
+import org.springframework.util.Assert;
+
+/**
+ * Registry for {@link ListenableFutureCallback} instances.
+ *
+ * <p>Inspired by {@code com.google.common.util.concurrent.ExecutionList}.
+ *
+ * @author agent
+ * @since 3.2.12
+ */
+public class ListenableFutureCallbackRegistry<T> {
+
+	private final Queue<ListenableFutureCallback<? super T>> callbacks =
+			new LinkedList<ListenableFutureCallback<? super T>>();
+
+	private State state = State.NEW;
+
+	private Object result = null;
+
+	private final Object mutex = new Object();
+
+
+	/**
+	 * Adds the given callback to this registry.
+	 * <p>If the result is available already, the callback gets invoked right
+	 * away, on the calling thread.
+	 * @param callback the callback to add
+	 */
+	@SuppressWarnings("unchecked")
+	public void addCallback(ListenableFutureCallback<? super T> callback) {
+		Assert.notNull(callback, "'callback' must not be null");
+		State state;
+		Object result;
+		synchronized (this.mutex) {
+			state = this.state;
+			result = this.result;
+			if (state == State.NEW) {
+				this.callbacks.add(callback);
+				return;
+			}
+		}
+		// Invoke outside of the lock: the callback may take arbitrary time
+		// or add further callbacks.
+		if (state == State.SUCCESS) {
+			callback.onSuccess((T) result);
+		}
+		else {
+			callback.onFailure((Throwable) result);
+		}
+	}
+
+	/**
+	 * Triggers a {@link ListenableFutureCallback#onSuccess(Object)} call on all
+	 * added callbacks with the given result.
+	 * @param result the result to trigger the callbacks with
+	 */
+	public void success(T result) {
+		List<ListenableFutureCallback<? super T>> callbacksToInvoke;
+		synchronized (this.mutex) {
+			this.state = State.SUCCESS;
+			this.result = result;
+			callbacksToInvoke = drainCallbacks();
+		}
+		for (ListenableFutureCallback<? super T> callback : callbacksToInvoke) {
+			callback.onSuccess(result);
+		}
+	}
+
+	/**
+	 * Triggers a {@link ListenableFutureCallback#onFailure(Throwable)} call on all
+	 * added callbacks with the given {@code Throwable}.
+	 * @param ex the exception to trigger the callbacks with
+	 */
+	public void failure(Throwable ex) {
+		List<ListenableFutureCallback<? super T>> callbacksToInvoke;
+		synchronized (this.mutex) {
+			this.state = State.FAILURE;
+			this.result = ex;
+			callbacksToInvoke = drainCallbacks();
+		}
+		for (ListenableFutureCallback<? super T> callback : callbacksToInvoke) {
+			callback.onFailure(ex);
+		}
+	}
+
+	/**
+	 * Copy and clear the pending callbacks. Needs to be called while holding the mutex.
+	 */
+	private List<ListenableFutureCallback<? super T>> drainCallbacks() {
+		List<ListenableFutureCallback<? super T>> callbacksToInvoke =
+				new ArrayList<ListenableFutureCallback<? super T>>(this.callbacks);
+		this.callbacks.clear();
+		return callbacksToInvoke;
+	}
+
+
+	private enum State {NEW, SUCCESS, FAILURE}
+
+}
@@ -0,0 +1,6 @@
+/**
+ *
+ * Useful generic {@code java.util.concurrent.Future} extension.
+ *
+ */
+package org.springframework.util.concurrent;
@@ -0,0 +1,131 @@
+/*
+ * Copyright 2002-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.springframework.core.convert.support;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import org.springframework.core.convert.TypeDescriptor;
+
+/**
+ * JMH benchmark for common conversions through a {@link DefaultConversionService}:
+ * scalar conversions between raw classes, array and collection conversions with
+ * String-to-Number elements, and the corresponding {@code canConvert} checks.
+ *
+ * <p>Run through {@link #main}, or via the JMH runner with
+ * {@code -prof gc} in order to check the allocation rate per conversion.
+ *
+ * @author agent
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConversionServiceBenchmark {
+
+	private DefaultConversionService conversionService;
+
+	private String[] stringArray;
+
+	private String delimitedString;
+
+	private List<String> stringList;
+
+	private TypeDescriptor stringListType;
+
+	private TypeDescriptor integerListType;
+
+
+	@Setup
+	public void setUp() throws Exception {
+		this.conversionService = new DefaultConversionService();
+		this.stringArray = new String[64];
+		StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < this.stringArray.length; i++) {
+			this.stringArray[i] = String.valueOf(i * 31);
+			sb.append(i > 0 ? "," : "").append(this.stringArray[i]);
+		}
+		this.delimitedString = sb.toString();
+		this.stringList = Arrays.asList(this.stringArray);
+		this.stringListType = new TypeDescriptor(Holder.class.getDeclaredField("stringList"));
+		this.integerListType = new TypeDescriptor(Holder.class.getDeclaredField("integerList"));
+	}
+
+
+	@Benchmark
+	public boolean canConvertStringToInteger() {
+		return this.conversionService.canConvert(String.class, Integer.class);
+	}
+
+	@Benchmark
+	public Integer convertStringToInteger() {
+		return this.conversionService.convert("12345", Integer.class);
+	}
+
+	@Benchmark
+	public String convertIntegerToString() {
+		return this.conversionService.convert(12345, String.class);
+	}
+
+	@Benchmark
+	public int[] convertStringArrayToIntArray() {
+		return this.conversionService.convert(this.stringArray, int[].class);
+	}
+
+	@Benchmark
+	public long[] convertDelimitedStringToLongArray() {
+		return this.conversionService.convert(this.delimitedString, long[].class);
+	}
+
+	@Benchmark
+	public Object convertStringListToIntegerList() {
+		return this.conversionService.convert(this.stringList, this.stringListType, this.integerListType);
+	}
+
+
+	public static void main(String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder().include(ConversionServiceBenchmark.class.getSimpleName()).build()).run();
+	}
+
+
+	@SuppressWarnings("unused")
+	private static class Holder {
+
+		public List<String> stringList;
+
+		public List<Integer> integerList;
+	}
+
+}
@@ -576,6 +576,37 @@ public class DefaultConversionTests {
 		assertEquals(3, result[2]);
 	}
 
+	@Test
+	public void convertArrayToPrimitiveLongAndDoubleArrays() {
+		long[] longs = conversionService.convert(new String[] {"1", " 2 ", "0x10", "-4"}, long[].class);
+		assertTrue(Arrays.equals(new long[] {1, 2, 16, -4}, longs));
+		double[] doubles = conversionService.convert(new String[] {"1.5", "2", "-3e2"}, double[].class);
+		assertTrue(Arrays.equals(new double[] {1.5, 2, -300}, doubles));
+		int[] ints = conversionService.convert("1, 2,#ff", int[].class);
+		assertTrue(Arrays.equals(new int[] {1, 2, 255}, ints));
+	}
+
+	@Test(expected = ConversionFailedException.class)
+	public void convertArrayToPrimitiveArrayWithEmptyElement() {
+		conversionService.convert(new String[] {"1", ""}, int[].class);
+	}
+
+	@Test(expected = ConversionFailedException.class)
+	public void convertArrayToPrimitiveArrayWithInvalidElement() {
+		conversionService.convert(new String[] {"1", "x"}, int[].class);
+	}
+
+	@Test
+	public void convertArrayToPrimitiveArrayWithCustomConverter() {
+		conversionService.addConverter(new Converter<String, Integer>() {
+			public Integer convert(String source) {
+				return source.length();
+			}
+		});
+		int[] result = conversionService.convert(new String[] {"a", "bb"}, int[].class);
+		assertTrue(Arrays.equals(new int[] {1, 2}, result));
+	}
+
 	@Test
 	public void convertArrayToArrayAssignable() {
 		int[] result = conversionService.convert(new int[] { 1, 2, 3 }, int[].class);
@@ -71,6 +71,32 @@ public class GenericConversionServiceTests {
 		assertTrue(conversionService.canConvert(String.class, Integer.class));
 	}
 
+	@Test
+	public void canConvertWithOverriddenTypeDescriptorVariant() {
+		GenericConversionService conversionService = new GenericConversionService() {
+			@Override
+			public boolean canConvert(TypeDescriptor sourceType, TypeDescriptor targetType) {
+				return (sourceType != null && sourceType.getType() == String.class &&
+						targetType.getType() == Color.class);
+			}
+		};
+		assertTrue(conversionService.canConvert(String.class, Color.class));
+		assertFalse(conversionService.canConvert(String.class, String.class));
+		assertFalse(conversionService.canConvert(null, Color.class));
+	}
+
+	@Test
+	public void convertWithOverriddenTypeDescriptorVariant() {
+		GenericConversionService conversionService = new GenericConversionService() {
+			@Override
+			public Object convert(Object source, TypeDescriptor sourceType, TypeDescriptor targetType) {
+				return (targetType.getType() == Integer.class ? 42 : super.convert(source, sourceType, targetType));
+			}
+		};
+		assertEquals(Integer.valueOf(42), conversionService.convert("1", Integer.class));
+		assertEquals("1", conversionService.convert("1", String.class));
+	}
+
 	@Test
 	public void canConvertAssignable() {
 		assertTrue(conversionService.canConvert(String.class, String.class));
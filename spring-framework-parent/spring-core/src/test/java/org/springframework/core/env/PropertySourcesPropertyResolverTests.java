@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2013 the original author or authors.
+ * Copyright 2002-2014 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -431,6 +431,76 @@ public class PropertySourcesPropertyResolverTests {
 		}
 	}
 
+	@Test
+	public void getProperty_withPropertyIndex() {
+		MutablePropertySources sources = new MutablePropertySources();
+		PropertySourcesPropertyResolver resolver = new PropertySourcesPropertyResolver(sources);
+		resolver.setUsePropertyIndex(true);
+		MockPropertySource ps1 = new MockPropertySource("ps1").withProperty("pName", "ps1Value");
+		sources.addLast(ps1);
+		sources.addLast(new MockPropertySource("ps2").withProperty("pName", "ps2Value").withProperty("num", "42"));
+		sources.addLast(new PropertySource<Object>("nonEnumerable") {
+			@Override
+			public Object getProperty(String name) {
+				return ("dynamic".equals(name) ? "dynamicValue" : null);
+			}
+		});
+		assertThat(resolver.getProperty("pName"), equalTo("ps1Value"));
+		assertThat(resolver.getProperty("num", Integer.class), equalTo(42));
+		assertThat(resolver.getProperty("dynamic"), equalTo("dynamicValue"));
+		assertThat(resolver.getProperty("bogus"), nullValue());
+		assertThat(resolver.containsProperty("num"), is(true));
+		assertThat(resolver.containsProperty("dynamic"), is(true));
+		assertThat(resolver.containsProperty("bogus"), is(false));
+
+		// changes to the set of property sources get detected
+		sources.addFirst(new MockPropertySource("ps0").withProperty("pName", "ps0Value"));
+		assertThat(resolver.getProperty("pName"), equalTo("ps0Value"));
+		sources.remove("ps0");
+		assertThat(resolver.getProperty("pName"), equalTo("ps1Value"));
+
+		// changes to the content of a property source require a refresh
+		ps1.setProperty("bogus", "bogusValue");
+		assertThat(resolver.getProperty("bogus"), nullValue());
+		resolver.refreshPropertyIndex();
+		assertThat(resolver.getProperty("bogus"), equalTo("bogusValue"));
+	}
+
+	@Test
+	public void resolvePlaceholders_withPropertyIndex() {
+		MutablePropertySources sources = new MutablePropertySources();
+		PropertySourcesPropertyResolver resolver = new PropertySourcesPropertyResolver(sources);
+		resolver.setUsePropertyIndex(true);
+		sources.addLast(new MockPropertySource().withProperty("p1", "v1").withProperty("p2", "${p1}:v2"));
+		assertThat(resolver.resolvePlaceholders("${p2}:${bogus}"), equalTo("v1:v2:${bogus}"));
+		assertThat(resolver.resolvePlaceholders("${p2}:${bogus}"), equalTo("v1:v2:${bogus}"));
+		assertThat(resolver.resolveRequiredPlaceholders("${p2}"), equalTo("v1:v2"));
+		try {
+			resolver.resolveRequiredPlaceholders("${bogus}");
+			fail("Should have thrown IllegalArgumentException");
+		}
+		catch (IllegalArgumentException ex) {
+			// expected
+		}
+	}
+
+	@Test
+	public void resolvePlaceholders_withPropertyIndexAndChangedPlaceholderSyntax() {
+		MutablePropertySources sources = new MutablePropertySources();
+		PropertySourcesPropertyResolver resolver = new PropertySourcesPropertyResolver(sources);
+		resolver.setUsePropertyIndex(true);
+		sources.addLast(new MockPropertySource().withProperty("p1", "v1"));
+		assertThat(resolver.resolvePlaceholders("%{p1}|${p1}|${bogus|d}"), equalTo("%{p1}|v1|${bogus|d}"));
+
+		resolver.setPlaceholderPrefix("%{");
+		assertThat(resolver.resolvePlaceholders("%{p1}|${p1}|${bogus|d}"), equalTo("v1|${p1}|${bogus|d}"));
+		resolver.setPlaceholderPrefix("${");
+		resolver.setValueSeparator("|");
+		assertThat(resolver.resolvePlaceholders("%{p1}|${p1}|${bogus|d}"), equalTo("%{p1}|v1|d"));
+		resolver.setPlaceholderSuffix("]");
+		assertThat(resolver.resolvePlaceholders("%{p1}|${p1]|${bogus|d]"), equalTo("%{p1}|v1|d"));
+	}
+
 
 	interface SomeType {
 	}
@@ -16,7 +16,10 @@
 
 package org.springframework.core.task;
 
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import junit.framework.TestCase;
 
@@ -75,6 +78,60 @@ public final class SimpleAsyncTaskExecutorTests extends TestCase {
 		}
 	}
 
+	public void testConcurrencyLimitIsEnforced() throws Exception {
+		SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor();
+		executor.setConcurrencyLimit(2);
+		final AtomicInteger active = new AtomicInteger();
+		final AtomicInteger maxActive = new AtomicInteger();
+		final CountDownLatch latch = new CountDownLatch(20);
+		for (int i = 0; i < 20; i++) {
+			executor.execute(new Runnable() {
+				@Override
+				public void run() {
+					int current = active.incrementAndGet();
+					while (true) {
+						int max = maxActive.get();
+						if (current <= max || maxActive.compareAndSet(max, current)) {
+							break;
+						}
+					}
+					try {
+						Thread.sleep(5);
+					}
+					catch (InterruptedException ex) {
+						Thread.currentThread().interrupt();
+					}
+					active.decrementAndGet();
+					latch.countDown();
+				}
+			});
+		}
+		assertTrue(latch.await(10, TimeUnit.SECONDS));
+		assertTrue(maxActive.get() <= 2);
+	}
+
+	public void testVirtualThreads() throws Exception {
+		if (!VirtualThreadTaskExecutor.isVirtualThreadSupported()) {
+			try {
+				new SimpleAsyncTaskExecutor().setVirtualThreads(true);
+				fail("Should have thrown UnsupportedOperationException");
+			}
+			catch (UnsupportedOperationException expected) {
+			}
+			return;
+		}
+		final Object monitor = new Object();
+		SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("virtual#");
+		executor.setVirtualThreads(true);
+		ThreadNameHarvester task = new ThreadNameHarvester(monitor);
+		executeAndWait(executor, task, monitor);
+		assertTrue(task.getThreadName().startsWith("virtual#"));
+
+		VirtualThreadTaskExecutor virtualExecutor = new VirtualThreadTaskExecutor("test-");
+		assertEquals("test-0", virtualExecutor.getVirtualThreadFactory().newThread(new NoOpRunnable()).getName());
+		assertNull(virtualExecutor.submit(new NoOpRunnable()).get(5, TimeUnit.SECONDS));
+	}
+
 	private void executeAndWait(SimpleAsyncTaskExecutor executor, Runnable task, Object monitor) {
 		synchronized (monitor) {
 			executor.execute(task);
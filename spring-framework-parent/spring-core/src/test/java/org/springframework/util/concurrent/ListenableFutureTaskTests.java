@@ -0,0 +1,162 @@
+/*
+ * Copyright 2002-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.util.concurrent;
+
+import java.io.IOException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Test;
+
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author agent
+ */
+public class ListenableFutureTaskTests {
+
+	@Test
+	public void success() throws Exception {
+		final String s = "Hello World";
+		Callable<String> callable = new Callable<String>() {
+			public String call() throws Exception {
+				return s;
+			}
+		};
+		ListenableFutureTask<String> task = new ListenableFutureTask<String>(callable);
+		final AtomicReference<String> result = new AtomicReference<String>();
+		task.addCallback(new ListenableFutureCallback<String>() {
+			public void onSuccess(String value) {
+				result.set(value);
+			}
+			public void onFailure(Throwable ex) {
+				fail(ex.getMessage());
+			}
+		});
+		task.run();
+		assertEquals(s, result.get());
+	}
+
+	@Test
+	public void failure() throws Exception {
+		final String s = "Hello World";
+		Callable<String> callable = new Callable<String>() {
+			public String call() throws Exception {
+				throw new IOException(s);
+			}
+		};
+		ListenableFutureTask<String> task = new ListenableFutureTask<String>(callable);
+		final AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+		task.addCallback(new ListenableFutureCallback<String>() {
+			public void onSuccess(String result) {
+				fail("onSuccess not expected");
+			}
+			public void onFailure(Throwable ex) {
+				failure.set(ex);
+			}
+		});
+		task.run();
+		assertTrue(failure.get() instanceof IOException);
+		assertEquals(s, failure.get().getMessage());
+	}
+
+	@Test
+	public void callbackAddedAfterCompletion() throws Exception {
+		ListenableFutureTask<String> task = new ListenableFutureTask<String>(new Runnable() {
+			public void run() {
+			}
+		}, "done");
+		task.run();
+		final AtomicReference<String> result = new AtomicReference<String>();
+		task.addCallback(new ListenableFutureCallback<String>() {
+			public void onSuccess(String value) {
+				result.set(value);
+			}
+			public void onFailure(Throwable ex) {
+				fail(ex.getMessage());
+			}
+		});
+		assertEquals("done", result.get());
+	}
+
+	@Test
+	public void callbackNotInvokedWhileHoldingLock() throws Exception {
+		final ListenableFutureTask<String> task = new ListenableFutureTask<String>(new Runnable() {
+			public void run() {
+			}
+		}, "done");
+		final AtomicReference<String> result = new AtomicReference<String>();
+		task.addCallback(new ListenableFutureCallback<String>() {
+			public void onSuccess(String value) {
+				// Another thread adding a callback must not block on the registry.
+				Thread thread = new Thread() {
+					@Override
+					public void run() {
+						task.addCallback(new ListenableFutureCallback<String>() {
+							public void onSuccess(String value) {
+								result.set(value);
+							}
+							public void onFailure(Throwable ex) {
+							}
+						});
+					}
+				};
+				thread.start();
+				try {
+					thread.join(5000);
+				}
+				catch (InterruptedException ex) {
+					Thread.currentThread().interrupt();
+				}
+			}
+			public void onFailure(Throwable ex) {
+				fail(ex.getMessage());
+			}
+		});
+		task.run();
+		assertEquals("done", result.get());
+	}
+
+	@Test
+	public void submitListenable() throws Exception {
+		SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor();
+		final CountDownLatch latch = new CountDownLatch(1);
+		final AtomicReference<String> result = new AtomicReference<String>();
+		ListenableFuture<String> future = executor.submitListenable(new Callable<String>() {
+			public String call() {
+				return Thread.currentThread().getName();
+			}
+		});
+		future.addCallback(new ListenableFutureCallback<String>() {
+			public void onSuccess(String value) {
+				result.set(value);
+				latch.countDown();
+			}
+			public void onFailure(Throwable ex) {
+				latch.countDown();
+			}
+		});
+		assertTrue(latch.await(5, TimeUnit.SECONDS));
+		assertEquals(future.get(), result.get());
+		assertFalse(Thread.currentThread().getName().equals(result.get()));
+	}
+
+}
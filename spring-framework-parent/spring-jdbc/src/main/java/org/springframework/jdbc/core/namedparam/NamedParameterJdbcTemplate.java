@@ -16,9 +16,15 @@
 
 package org.springframework.jdbc.core.namedparam;
 
-import java.util.LinkedHashMap;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
 import javax.sql.DataSource;
 
 import org.springframework.dao.DataAccessException;
@@ -34,6 +40,7 @@ import org.springframework.jdbc.core.RowCallbackHandler;
 import org.springframework.jdbc.core.RowMapper;
 import org.springframework.jdbc.core.SingleColumnRowMapper;
 import org.springframework.jdbc.core.SqlParameter;
+import org.springframework.jdbc.core.SqlParameterValue;
 import org.springframework.jdbc.core.SqlRowSetResultSetExtractor;
 import org.springframework.jdbc.support.KeyHolder;
 import org.springframework.jdbc.support.rowset.SqlRowSet;
@@ -48,6 +55,14 @@ import org.springframework.util.Assert;
  * done at execution time. It also allows for expanding a {@link java.util.List}
  * of values to the appropriate number of placeholders.
  *
+ * <p>Parsed SQL statements are cached, as are the fully substituted statements
+ * along with their parameter declarations - keyed by the original SQL and the
+ * shape of the given parameters (e.g. the number of elements in an IN clause
+ * list). Repeated executions thus skip parsing, placeholder expansion and the
+ * construction of a {@link PreparedStatementCreatorFactory}. Both caches evict
+ * in approximate least-recently-used order: Entries that have been used since
+ * they were last considered for eviction get a second chance.
+ *
  * <p>The underlying {@link org.springframework.jdbc.core.JdbcTemplate} is
  * exposed to allow for convenient access to the traditional
  * {@link org.springframework.jdbc.core.JdbcTemplate} methods.
@@ -72,14 +87,22 @@ public class NamedParameterJdbcTemplate implements NamedParameterJdbcOperations
 	private volatile int cacheLimit = DEFAULT_CACHE_LIMIT;
 
 	/** Cache of original SQL String to ParsedSql representation */
-	@SuppressWarnings("serial")
-	private final Map<String, ParsedSql> parsedSqlCache =
-			new LinkedHashMap<String, ParsedSql>(DEFAULT_CACHE_LIMIT, 0.75f, true) {
-				@Override
-				protected boolean removeEldestEntry(Map.Entry<String, ParsedSql> eldest) {
-					return size() > getCacheLimit();
-				}
-			};
+	private final ConcurrentMap<String, CachedParsedSql> parsedSqlCache =
+			new ConcurrentHashMap<String, CachedParsedSql>(DEFAULT_CACHE_LIMIT);
+
+	/** Original SQL Strings in eviction order */
+	private final Queue<String> parsedSqlCacheKeys = new ConcurrentLinkedQueue<String>();
+
+	/** Cache of substituted statements per original SQL and parameter shape */
+	private final ConcurrentMap<StatementCacheKey, CachedStatement> statementCache =
+			new ConcurrentHashMap<StatementCacheKey, CachedStatement>(DEFAULT_CACHE_LIMIT);
+
+	/** Statement cache keys in eviction order */
+	private final Queue<StatementCacheKey> statementCacheKeys = new ConcurrentLinkedQueue<StatementCacheKey>();
+
+	private final AtomicLong cacheHitCount = new AtomicLong();
+
+	private final AtomicLong cacheMissCount = new AtomicLong();
 
 
 	/**
@@ -114,6 +137,8 @@ public class NamedParameterJdbcTemplate implements NamedParameterJdbcOperations
 	/**
 	 * Specify the maximum number of entries for this template's SQL cache.
 	 * Default is 256.
+	 * <p>Applies to parsed SQL statements as well as to substituted statements
+	 * per parameter shape; a value of 0 turns off caching completely.
 	 */
 	public void setCacheLimit(int cacheLimit) {
 		this.cacheLimit = cacheLimit;
@@ -126,6 +151,29 @@ public class NamedParameterJdbcTemplate implements NamedParameterJdbcOperations
 		return this.cacheLimit;
 	}
 
+	/**
+	 * Return the number of statement executions that found their substituted
+	 * SQL and parameter declarations in the cache.
+	 */
+	public long getCacheHitCount() {
+		return this.cacheHitCount.get();
+	}
+
+	/**
+	 * Return the number of statement executions that had to substitute
+	 * their named parameters, since no matching statement was cached.
+	 */
+	public long getCacheMissCount() {
+		return this.cacheMissCount.get();
+	}
+
+	/**
+	 * Return the number of substituted statements currently cached.
+	 */
+	public int getCacheSize() {
+		return this.statementCache.size();
+	}
+
 
 	public <T> T execute(String sql, SqlParameterSource paramSource, PreparedStatementCallback<T> action)
 			throws DataAccessException {
@@ -298,10 +346,10 @@ public class NamedParameterJdbcTemplate implements NamedParameterJdbcOperations
 			throws DataAccessException {
 
 		ParsedSql parsedSql = getParsedSql(sql);
-		String sqlToUse = NamedParameterUtils.substituteNamedParameters(parsedSql, paramSource);
 		Object[] params = NamedParameterUtils.buildValueArray(parsedSql, paramSource, null);
-		List<SqlParameter> declaredParameters = NamedParameterUtils.buildSqlParameterList(parsedSql, paramSource);
-		PreparedStatementCreatorFactory pscf = new PreparedStatementCreatorFactory(sqlToUse, declaredParameters);
+		CachedStatement statement = getCachedStatement(parsedSql, paramSource, params);
+		PreparedStatementCreatorFactory pscf =
+				new PreparedStatementCreatorFactory(statement.sql, statement.declaredParameters);
 		if (keyColumnNames != null) {
 			pscf.setGeneratedKeysColumnNames(keyColumnNames);
 		}
@@ -335,17 +383,38 @@ public class NamedParameterJdbcTemplate implements NamedParameterJdbcOperations
 	 */
 	protected PreparedStatementCreator getPreparedStatementCreator(String sql, SqlParameterSource paramSource) {
 		ParsedSql parsedSql = getParsedSql(sql);
-		String sqlToUse = NamedParameterUtils.substituteNamedParameters(parsedSql, paramSource);
 		Object[] params = NamedParameterUtils.buildValueArray(parsedSql, paramSource, null);
-		List<SqlParameter> declaredParameters = NamedParameterUtils.buildSqlParameterList(parsedSql, paramSource);
-		PreparedStatementCreatorFactory pscf = new PreparedStatementCreatorFactory(sqlToUse, declaredParameters);
-		return pscf.newPreparedStatementCreator(params);
+		return getCachedStatement(parsedSql, paramSource, params).factory.newPreparedStatementCreator(params);
+	}
+
+	/**
+	 * Obtain the substituted statement for the given parsed SQL and parameters,
+	 * either from the cache or freshly built.
+	 */
+	private CachedStatement getCachedStatement(ParsedSql parsedSql, SqlParameterSource paramSource, Object[] params) {
+		if (getCacheLimit() <= 0) {
+			return new CachedStatement(parsedSql, paramSource);
+		}
+		StatementCacheKey cacheKey = new StatementCacheKey(parsedSql, paramSource, params);
+		CachedStatement statement = this.statementCache.get(cacheKey);
+		if (statement != null) {
+			this.cacheHitCount.incrementAndGet();
+			statement.markUsed();
+			return statement;
+		}
+		this.cacheMissCount.incrementAndGet();
+		statement = new CachedStatement(parsedSql, paramSource);
+		if (this.statementCache.putIfAbsent(cacheKey, statement) == null) {
+			this.statementCacheKeys.add(cacheKey);
+			evictIfNecessary(this.statementCache, this.statementCacheKeys);
+		}
+		return statement;
 	}
 
 	/**
 	 * Obtain a parsed representation of the given SQL statement.
-	 * <p>The default implementation uses an LRU cache with an upper limit
-	 * of 256 entries.
+	 * <p>The default implementation uses an approximate LRU cache with an
+	 * upper limit of 256 entries.
 	 * @param sql the original SQL
 	 * @return a representation of the parsed SQL statement
 	 */
@@ -353,13 +422,184 @@ public class NamedParameterJdbcTemplate implements NamedParameterJdbcOperations
 		if (getCacheLimit() <= 0) {
 			return NamedParameterUtils.parseSqlStatement(sql);
 		}
-		synchronized (this.parsedSqlCache) {
-			ParsedSql parsedSql = this.parsedSqlCache.get(sql);
-			if (parsedSql == null) {
-				parsedSql = NamedParameterUtils.parseSqlStatement(sql);
-				this.parsedSqlCache.put(sql, parsedSql);
+		CachedParsedSql cachedParsedSql = this.parsedSqlCache.get(sql);
+		if (cachedParsedSql != null) {
+			cachedParsedSql.markUsed();
+			return cachedParsedSql.parsedSql;
+		}
+		cachedParsedSql = new CachedParsedSql(NamedParameterUtils.parseSqlStatement(sql));
+		if (this.parsedSqlCache.putIfAbsent(sql, cachedParsedSql) == null) {
+			this.parsedSqlCacheKeys.add(sql);
+			evictIfNecessary(this.parsedSqlCache, this.parsedSqlCacheKeys);
+		}
+		return cachedParsedSql.parsedSql;
+	}
+
+	/**
+	 * Evict entries from the given cache until it is within the cache limit.
+	 * <p>Keys are taken from the head of the given queue: Entries that have
+	 * been used since they were queued are given a second chance at the tail
+	 * of the queue, approximating least-recently-used order without locking.
+	 */
+	private <K> void evictIfNecessary(Map<K, ? extends CacheEntry> cache, Queue<K> cacheKeys) {
+		int secondChances = cache.size();
+		while (cache.size() > getCacheLimit()) {
+			K eldestKey = cacheKeys.poll();
+			if (eldestKey == null) {
+				break;
 			}
-			return parsedSql;
+			CacheEntry entry = cache.get(eldestKey);
+			if (entry != null && entry.resetUsed() && secondChances-- > 0) {
+				cacheKeys.add(eldestKey);
+			}
+			else {
+				cache.remove(eldestKey);
+			}
+		}
+	}
+
+
+	/**
+	 * Key for the statement cache: the original SQL plus the shape of the given
+	 * parameters, i.e. SQL type and type name per parameter, as well as the
+	 * number of elements for collection values (which get expanded into a
+	 * corresponding number of placeholders).
+	 */
+	private static class StatementCacheKey {
+
+		private final String sql;
+
+		private final int[] shape;
+
+		private final String[] typeNames;
+
+		private final int hashCode;
+
+		public StatementCacheKey(ParsedSql parsedSql, SqlParameterSource paramSource, Object[] params) {
+			this.sql = parsedSql.getOriginalSql();
+			List<String> paramNames = parsedSql.getParameterNames();
+			int[] shape = new int[paramNames.size() * 2];
+			int shapeLength = 0;
+			String[] typeNames = null;
+			for (int i = 0; i < paramNames.size(); i++) {
+				String paramName = paramNames.get(i);
+				Object value = params[i];
+				if (value instanceof SqlParameterValue) {
+					value = ((SqlParameterValue) value).getValue();
+				}
+				shape[shapeLength++] = paramSource.getSqlType(paramName);
+				if (value instanceof Collection) {
+					Collection<?> entries = (Collection<?>) value;
+					boolean expressionLists = false;
+					for (Object entry : entries) {
+						if (entry instanceof Object[]) {
+							expressionLists = true;
+							break;
+						}
+					}
+					if (expressionLists) {
+						// Negative marker, followed by the length of each expression list
+						shape[shapeLength++] = -entries.size() - 2;
+						int[] newShape = new int[shape.length + entries.size()];
+						System.arraycopy(shape, 0, newShape, 0, shapeLength);
+						shape = newShape;
+						for (Object entry : entries) {
+							shape[shapeLength++] = (entry instanceof Object[] ? ((Object[]) entry).length : -1);
+						}
+					}
+					else {
+						shape[shapeLength++] = entries.size();
+					}
+				}
+				else {
+					shape[shapeLength++] = -1;
+				}
+				String typeName = paramSource.getTypeName(paramName);
+				if (typeName != null) {
+					if (typeNames == null) {
+						typeNames = new String[paramNames.size()];
+					}
+					typeNames[i] = typeName;
+				}
+			}
+			this.shape = shape;
+			this.typeNames = typeNames;
+			this.hashCode = this.sql.hashCode() * 29 + Arrays.hashCode(this.shape);
+		}
+
+		@Override
+		public boolean equals(Object other) {
+			if (this == other) {
+				return true;
+			}
+			if (!(other instanceof StatementCacheKey)) {
+				return false;
+			}
+			StatementCacheKey otherKey = (StatementCacheKey) other;
+			return (this.hashCode == otherKey.hashCode && this.sql.equals(otherKey.sql) &&
+					Arrays.equals(this.shape, otherKey.shape) && Arrays.equals(this.typeNames, otherKey.typeNames));
+		}
+
+		@Override
+		public int hashCode() {
+			return this.hashCode;
+		}
+	}
+
+
+	/**
+	 * Base class for cache entries, tracking whether an entry has been used
+	 * since it was last considered for eviction.
+	 */
+	private static abstract class CacheEntry {
+
+		private volatile boolean used;
+
+		public void markUsed() {
+			if (!this.used) {
+				this.used = true;
+			}
+		}
+
+		public boolean resetUsed() {
+			if (this.used) {
+				this.used = false;
+				return true;
+			}
+			return false;
+		}
+	}
+
+
+	/**
+	 * Cached ParsedSql representation of an original SQL statement.
+	 */
+	private static class CachedParsedSql extends CacheEntry {
+
+		private final ParsedSql parsedSql;
+
+		public CachedParsedSql(ParsedSql parsedSql) {
+			this.parsedSql = parsedSql;
+		}
+	}
+
+
+	/**
+	 * Substituted SQL statement plus parameter declarations for a specific
+	 * parameter shape, along with a PreparedStatementCreatorFactory for them.
+	 */
+	private static class CachedStatement extends CacheEntry {
+
+		private final String sql;
+
+		private final List<SqlParameter> declaredParameters;
+
+		private final PreparedStatementCreatorFactory factory;
+
+		public CachedStatement(ParsedSql parsedSql, SqlParameterSource paramSource) {
+			this.sql = NamedParameterUtils.substituteNamedParameters(parsedSql, paramSource);
+			this.declaredParameters = NamedParameterUtils.buildSqlParameterList(parsedSql, paramSource);
+			this.factory = new PreparedStatementCreatorFactory(this.sql, this.declaredParameters);
 		}
 	}
 
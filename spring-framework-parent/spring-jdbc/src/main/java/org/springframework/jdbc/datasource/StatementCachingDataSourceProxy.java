@@ -0,0 +1,607 @@
+/*
+ * Copyright 2002-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.jdbc.datasource;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.sql.DataSource;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.jdbc.support.JdbcUtils;
+
+/**
+ * Proxy for a target DataSource, caching JDBC PreparedStatements per Connection.
+ * Statements are keyed by SQL String and result set type, concurrency and
+ * holdability (as well as the auto-generated keys flag, if specified), and
+ * kept in an LRU cache for the lifetime of the Connection handle.
+ *
+ * <p>Closing a cached PreparedStatement does not physically close it: its
+ * parameters get cleared, any pending batch and open ResultSets get released,
+ * and statement settings such as max rows, fetch size and query timeout get
+ * reset to their original values. The next {@code prepareStatement} call for
+ * the same SQL on the same Connection will then return the very same target
+ * statement, avoiding a repeated parse on the database server for drivers
+ * which do not offer a statement cache of their own. All cached statements
+ * will be physically closed when the Connection handle gets closed.
+ *
+ * <p>Statement caching is only effective for Connections that are being
+ * used for several operations, for example within a transaction driven by
+ * {@link DataSourceTransactionManager}, or when exposing a single Connection
+ * handle through {@link SingleConnectionDataSource}:
+ *
+ * <pre class="code">
+ * StatementCachingDataSourceProxy cachingDataSource = new StatementCachingDataSourceProxy(targetDataSource);
+ * DataSource dataSource = new SingleConnectionDataSource(cachingDataSource.getConnection(), true);</pre>
+ *
+ * A PreparedStatement that is still in use when the same SQL gets prepared
+ * again on the same Connection will not be shared: the second statement will
+ * be prepared on the target Connection and physically closed afterwards.
+ *
+ * <p><b>NOTE:</b> This DataSource proxy returns wrapped Connections (which
+ * implement the {@link ConnectionProxy} interface) and wrapped PreparedStatements.
+ * Use JDBC 4's {@code unwrap} methods or a corresponding
+ * {@link org.springframework.jdbc.support.nativejdbc.NativeJdbcExtractor}
+ * to retrieve native JDBC objects.
+ *
+ * @author agent
+ * @since 3.2.12
+ * @see #setStatementCacheSize
+ * @see ConnectionProxy#getTargetConnection()
+ */
+public class StatementCachingDataSourceProxy extends DelegatingDataSource {
+
+	/** Default maximum number of cached PreparedStatements per Connection: 32 */
+	public static final int DEFAULT_STATEMENT_CACHE_SIZE = 32;
+
+	private static final Log logger = LogFactory.getLog(StatementCachingDataSourceProxy.class);
+
+	private int statementCacheSize = DEFAULT_STATEMENT_CACHE_SIZE;
+
+	private final AtomicLong cacheHitCount = new AtomicLong();
+
+	private final AtomicLong cacheMissCount = new AtomicLong();
+
+	private final AtomicLong cacheEvictionCount = new AtomicLong();
+
+
+	/**
+	 * Create a new StatementCachingDataSourceProxy.
+	 * @see #setTargetDataSource
+	 */
+	public StatementCachingDataSourceProxy() {
+	}
+
+	/**
+	 * Create a new StatementCachingDataSourceProxy.
+	 * @param targetDataSource the target DataSource
+	 */
+	public StatementCachingDataSourceProxy(DataSource targetDataSource) {
+		super(targetDataSource);
+	}
+
+
+	/**
+	 * Specify the maximum number of PreparedStatements to cache per Connection.
+	 * Default is 32. The least recently used statement will be closed once
+	 * this limit is exceeded.
+	 * <p>A size of 0 turns off statement caching, always preparing and closing
+	 * statements on the target Connection.
+	 */
+	public void setStatementCacheSize(int statementCacheSize) {
+		this.statementCacheSize = statementCacheSize;
+	}
+
+	/**
+	 * Return the maximum number of PreparedStatements to cache per Connection.
+	 */
+	public int getStatementCacheSize() {
+		return this.statementCacheSize;
+	}
+
+	/**
+	 * Return the number of {@code prepareStatement} calls that have been
+	 * served from a statement cache, across all Connections.
+	 */
+	public long getCacheHitCount() {
+		return this.cacheHitCount.get();
+	}
+
+	/**
+	 * Return the number of {@code prepareStatement} calls that had to prepare
+	 * a new statement on the target Connection, across all Connections.
+	 */
+	public long getCacheMissCount() {
+		return this.cacheMissCount.get();
+	}
+
+	/**
+	 * Return the number of cached statements that have been closed because
+	 * the statement cache of their Connection exceeded its size limit.
+	 */
+	public long getCacheEvictionCount() {
+		return this.cacheEvictionCount.get();
+	}
+
+
+	/**
+	 * Return a Connection handle that caches PreparedStatements
+	 * for its lifetime.
+	 * <p>The returned Connection handle implements the ConnectionProxy interface,
+	 * allowing to retrieve the underlying target Connection.
+	 * @return a statement-caching Connection handle
+	 * @see ConnectionProxy#getTargetConnection()
+	 */
+	@Override
+	public Connection getConnection() throws SQLException {
+		return getStatementCachingConnectionProxy(getTargetDataSource().getConnection());
+	}
+
+	/**
+	 * Return a Connection handle that caches PreparedStatements
+	 * for its lifetime.
+	 * <p>The returned Connection handle implements the ConnectionProxy interface,
+	 * allowing to retrieve the underlying target Connection.
+	 * @param username the per-Connection username
+	 * @param password the per-Connection password
+	 * @return a statement-caching Connection handle
+	 * @see ConnectionProxy#getTargetConnection()
+	 */
+	@Override
+	public Connection getConnection(String username, String password) throws SQLException {
+		return getStatementCachingConnectionProxy(getTargetDataSource().getConnection(username, password));
+	}
+
+	/**
+	 * Wrap the given Connection with a proxy that caches PreparedStatements.
+	 * @param target the original Connection to wrap
+	 * @return the wrapped Connection
+	 */
+	protected Connection getStatementCachingConnectionProxy(Connection target) {
+		return (Connection) Proxy.newProxyInstance(
+				ConnectionProxy.class.getClassLoader(),
+				new Class<?>[] {ConnectionProxy.class},
+				new StatementCachingInvocationHandler(target));
+	}
+
+
+	/**
+	 * Invocation handler that caches PreparedStatements
+	 * for a target Connection.
+	 */
+	private class StatementCachingInvocationHandler implements InvocationHandler {
+
+		private final Connection target;
+
+		/** Cached statements in access order, guarded by itself */
+		private final Map<StatementKey, CachedStatement> statementCache =
+				new LinkedHashMap<StatementKey, CachedStatement>(16, 0.75f, true);
+
+		private boolean closed = false;
+
+		public StatementCachingInvocationHandler(Connection target) {
+			this.target = target;
+		}
+
+		public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+			// Invocation on ConnectionProxy interface coming in...
+
+			if (method.getName().equals("equals")) {
+				// Only considered as equal when proxies are identical.
+				return (proxy == args[0]);
+			}
+			else if (method.getName().equals("hashCode")) {
+				// Use hashCode of Connection proxy.
+				return System.identityHashCode(proxy);
+			}
+			else if (method.getName().equals("toString")) {
+				return "Statement-caching proxy for target Connection [" + this.target + "]";
+			}
+			else if (method.getName().equals("unwrap")) {
+				if (((Class<?>) args[0]).isInstance(proxy)) {
+					return proxy;
+				}
+			}
+			else if (method.getName().equals("isWrapperFor")) {
+				if (((Class<?>) args[0]).isInstance(proxy)) {
+					return true;
+				}
+			}
+			else if (method.getName().equals("getTargetConnection")) {
+				// Handle getTargetConnection method: return underlying Connection.
+				return this.target;
+			}
+			else if (method.getName().equals("close")) {
+				// Handle close method: physically close all cached statements.
+				closeCachedStatements();
+				this.closed = true;
+				this.target.close();
+				return null;
+			}
+			else if (method.getName().equals("isClosed")) {
+				return (this.closed || this.target.isClosed());
+			}
+			else if (method.getName().equals("prepareStatement") && getStatementCacheSize() > 0 && !this.closed) {
+				StatementKey key = StatementKey.forArguments(method.getParameterTypes(), args);
+				if (key != null) {
+					return getCachedStatement((Connection) proxy, key, method, args);
+				}
+			}
+
+			// Invoke method on target Connection.
+			try {
+				return method.invoke(this.target, args);
+			}
+			catch (InvocationTargetException ex) {
+				throw ex.getTargetException();
+			}
+		}
+
+		/**
+		 * Obtain a PreparedStatement handle for the given key, reusing
+		 * a cached target statement if available.
+		 */
+		private PreparedStatement getCachedStatement(Connection connectionProxy, StatementKey key,
+				Method method, Object[] args) throws Throwable {
+
+			CachedStatement cachedStatement;
+			synchronized (this.statementCache) {
+				cachedStatement = this.statementCache.get(key);
+				if (cachedStatement != null) {
+					if (!cachedStatement.inUse) {
+						cachedStatement.inUse = true;
+						cacheHitCount.incrementAndGet();
+						return cachedStatement.createProxy(connectionProxy);
+					}
+					// Statement currently in use: prepare an uncached one below.
+					cachedStatement = null;
+				}
+			}
+			cacheMissCount.incrementAndGet();
+			PreparedStatement ps;
+			try {
+				ps = (PreparedStatement) method.invoke(this.target, args);
+			}
+			catch (InvocationTargetException ex) {
+				throw ex.getTargetException();
+			}
+			synchronized (this.statementCache) {
+				if (!this.statementCache.containsKey(key)) {
+					cachedStatement = new CachedStatement(this, key, ps);
+					cachedStatement.inUse = true;
+					this.statementCache.put(key, cachedStatement);
+					evictIfNecessary();
+				}
+			}
+			if (cachedStatement != null) {
+				return cachedStatement.createProxy(connectionProxy);
+			}
+			return ps;
+		}
+
+		/**
+		 * Close least recently used statements until the cache fits its size limit.
+		 * Statements that are currently in use will be closed on release.
+		 */
+		private void evictIfNecessary() {
+			Iterator<CachedStatement> it = this.statementCache.values().iterator();
+			while (this.statementCache.size() > getStatementCacheSize() && it.hasNext()) {
+				CachedStatement eldest = it.next();
+				it.remove();
+				cacheEvictionCount.incrementAndGet();
+				if (eldest.inUse) {
+					eldest.evicted = true;
+				}
+				else {
+					JdbcUtils.closeStatement(eldest.target);
+				}
+			}
+		}
+
+		/**
+		 * Return the given statement to the cache after use.
+		 */
+		private void release(CachedStatement cachedStatement, boolean reusable) {
+			synchronized (this.statementCache) {
+				cachedStatement.inUse = false;
+				if (cachedStatement.evicted || this.closed || !reusable) {
+					this.statementCache.remove(cachedStatement.key);
+					JdbcUtils.closeStatement(cachedStatement.target);
+				}
+			}
+		}
+
+		private void closeCachedStatements() {
+			synchronized (this.statementCache) {
+				if (logger.isDebugEnabled() && !this.statementCache.isEmpty()) {
+					logger.debug("Closing " + this.statementCache.size() + " cached statements for JDBC Connection [" +
+							this.target + "]");
+				}
+				for (CachedStatement cachedStatement : this.statementCache.values()) {
+					if (cachedStatement.inUse) {
+						cachedStatement.evicted = true;
+					}
+					else {
+						JdbcUtils.closeStatement(cachedStatement.target);
+					}
+				}
+				this.statementCache.clear();
+			}
+		}
+	}
+
+
+	/**
+	 * Cache key for a PreparedStatement: SQL String plus int arguments
+	 * of the {@code prepareStatement} variant used.
+	 */
+	private static class StatementKey {
+
+		private final String sql;
+
+		private final int[] options;
+
+		private StatementKey(String sql, int[] options) {
+			this.sql = sql;
+			this.options = options;
+		}
+
+		/**
+		 * Build a key for the given {@code prepareStatement} arguments,
+		 * or return {@code null} for column-based generated keys variants.
+		 */
+		public static StatementKey forArguments(Class<?>[] paramTypes, Object[] args) {
+			int[] options = new int[args.length];
+			// Variant marker: distinguishes (sql, autoGeneratedKeys) from other variants.
+			options[0] = args.length;
+			for (int i = 1; i < args.length; i++) {
+				if (paramTypes[i] != int.class) {
+					return null;
+				}
+				options[i] = (Integer) args[i];
+			}
+			return new StatementKey((String) args[0], options);
+		}
+
+		@Override
+		public boolean equals(Object other) {
+			if (this == other) {
+				return true;
+			}
+			if (!(other instanceof StatementKey)) {
+				return false;
+			}
+			StatementKey otherKey = (StatementKey) other;
+			return (this.sql.equals(otherKey.sql) && Arrays.equals(this.options, otherKey.options));
+		}
+
+		@Override
+		public int hashCode() {
+			return this.sql.hashCode() * 29 + Arrays.hashCode(this.options);
+		}
+	}
+
+
+	/**
+	 * Holder for a cached target PreparedStatement.
+	 */
+	private static class CachedStatement {
+
+		private final StatementCachingInvocationHandler connectionHandler;
+
+		private final StatementKey key;
+
+		private final PreparedStatement target;
+
+		/** Guarded by the statement cache of the owning Connection */
+		private boolean inUse;
+
+		/** Guarded by the statement cache of the owning Connection */
+		private boolean evicted;
+
+		public CachedStatement(StatementCachingInvocationHandler connectionHandler, StatementKey key,
+				PreparedStatement target) {
+			this.connectionHandler = connectionHandler;
+			this.key = key;
+			this.target = target;
+		}
+
+		public PreparedStatement createProxy(Connection connectionProxy) {
+			return (PreparedStatement) Proxy.newProxyInstance(
+					PreparedStatement.class.getClassLoader(),
+					new Class<?>[] {PreparedStatement.class},
+					new CachedStatementInvocationHandler(this, connectionProxy));
+		}
+
+		public void release(boolean reusable) {
+			this.connectionHandler.release(this, reusable);
+		}
+	}
+
+
+	/**
+	 * Invocation handler for a single use of a cached PreparedStatement,
+	 * resetting the statement instead of closing it.
+	 */
+	private static class CachedStatementInvocationHandler implements InvocationHandler {
+
+		private final CachedStatement cachedStatement;
+
+		private final Connection connectionProxy;
+
+		/** Original values of statement settings changed during this use */
+		private Map<Method, Object> originalSettings;
+
+		private List<ResultSet> resultSets;
+
+		private boolean batched = false;
+
+		private boolean closeOnCompletion = false;
+
+		private boolean closed = false;
+
+		public CachedStatementInvocationHandler(CachedStatement cachedStatement, Connection connectionProxy) {
+			this.cachedStatement = cachedStatement;
+			this.connectionProxy = connectionProxy;
+		}
+
+		public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+			// Invocation on PreparedStatement interface coming in...
+
+			String methodName = method.getName();
+			if (methodName.equals("equals")) {
+				// Only considered as equal when proxies are identical.
+				return (proxy == args[0]);
+			}
+			else if (methodName.equals("hashCode")) {
+				// Use hashCode of PreparedStatement proxy.
+				return System.identityHashCode(proxy);
+			}
+			else if (methodName.equals("toString")) {
+				return "Cached PreparedStatement proxy for target statement [" + this.cachedStatement.target + "]";
+			}
+			else if (methodName.equals("unwrap")) {
+				if (((Class<?>) args[0]).isInstance(proxy)) {
+					return proxy;
+				}
+			}
+			else if (methodName.equals("isWrapperFor")) {
+				if (((Class<?>) args[0]).isInstance(proxy)) {
+					return true;
+				}
+			}
+			else if (methodName.equals("close")) {
+				// Handle close method: reset the statement and return it to the cache.
+				if (!this.closed) {
+					this.closed = true;
+					this.cachedStatement.release(resetStatement());
+				}
+				return null;
+			}
+			else if (methodName.equals("isClosed")) {
+				return this.closed;
+			}
+			else if (methodName.equals("getConnection")) {
+				// Expose the Connection handle rather than the target Connection.
+				return this.connectionProxy;
+			}
+
+			if (this.closed) {
+				throw new SQLException("Statement handle already closed");
+			}
+
+			PreparedStatement target = this.cachedStatement.target;
+			if (methodName.startsWith("set") && args != null && args.length == 1 &&
+					method.getDeclaringClass() != PreparedStatement.class) {
+				// Statement-level setting such as setMaxRows: keep original value for reset.
+				rememberOriginalSetting(target, method);
+			}
+			else if (methodName.equals("addBatch")) {
+				this.batched = true;
+			}
+			else if (methodName.equals("closeOnCompletion")) {
+				// Cannot be switched off again: do not reuse the statement afterwards.
+				this.closeOnCompletion = true;
+			}
+
+			// Invoke method on target PreparedStatement.
+			try {
+				Object retVal = method.invoke(target, args);
+				if (retVal instanceof ResultSet) {
+					if (this.resultSets == null) {
+						this.resultSets = new LinkedList<ResultSet>();
+					}
+					this.resultSets.add((ResultSet) retVal);
+				}
+				return retVal;
+			}
+			catch (InvocationTargetException ex) {
+				throw ex.getTargetException();
+			}
+		}
+
+		private void rememberOriginalSetting(PreparedStatement target, Method setter) {
+			if (this.originalSettings == null) {
+				this.originalSettings = new LinkedHashMap<Method, Object>();
+			}
+			else if (this.originalSettings.containsKey(setter)) {
+				return;
+			}
+			Object originalValue = null;
+			try {
+				String prefix = (setter.getParameterTypes()[0] == boolean.class ? "is" : "get");
+				Method getter = setter.getDeclaringClass().getMethod(prefix + setter.getName().substring(3));
+				originalValue = getter.invoke(target);
+			}
+			catch (Exception ex) {
+				// No corresponding getter (e.g. setCursorName): not resettable.
+			}
+			this.originalSettings.put(setter, originalValue);
+		}
+
+		/**
+		 * Reset the target statement for its next use.
+		 * @return whether the statement can be reused
+		 */
+		private boolean resetStatement() {
+			PreparedStatement target = this.cachedStatement.target;
+			if (this.closeOnCompletion) {
+				return false;
+			}
+			try {
+				if (this.resultSets != null) {
+					for (ResultSet rs : this.resultSets) {
+						JdbcUtils.closeResultSet(rs);
+					}
+				}
+				if (this.batched) {
+					target.clearBatch();
+				}
+				target.clearParameters();
+				target.clearWarnings();
+				if (this.originalSettings != null) {
+					for (Map.Entry<Method, Object> entry : this.originalSettings.entrySet()) {
+						if (entry.getValue() == null) {
+							return false;
+						}
+						entry.getKey().invoke(target, entry.getValue());
+					}
+				}
+				return true;
+			}
+			catch (Throwable ex) {
+				logger.debug("Could not reset cached JDBC PreparedStatement - closing it instead", ex);
+				return false;
+			}
+		}
+	}
+
+}
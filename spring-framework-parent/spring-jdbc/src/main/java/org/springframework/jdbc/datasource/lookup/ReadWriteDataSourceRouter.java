@@ -0,0 +1,511 @@
+/*
+ * Copyright 2002-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.jdbc.datasource.lookup;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.sql.DataSource;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.jdbc.datasource.ConnectionProxy;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * DataSource that routes read-only work to a pool of replica DataSources,
+ * sending everything else to a primary DataSource. The replicas need to be
+ * configured as {@link #setReplicaDataSources replicaDataSources}, with
+ * arbitrary names as keys; the primary DataSource is the
+ * {@link #setDefaultTargetDataSource default target DataSource}.
+ *
+ * <p>Read-only work is detected through
+ * {@link TransactionSynchronizationManager#isCurrentTransactionReadOnly()},
+ * i.e. through the "readOnly" flag of a Spring-managed transaction such as
+ * {@code @Transactional(readOnly = true)}. Since transaction managers such as
+ * {@link org.springframework.jdbc.datasource.DataSourceTransactionManager}
+ * fetch their Connection before exposing the read-only flag, this router needs
+ * to be wrapped with a {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy},
+ * with the transaction manager and data access code talking to the proxy:
+ *
+ * <pre>
+ * &lt;bean id="dataSourceRouter" class="org.springframework.jdbc.datasource.lookup.ReadWriteDataSourceRouter"&gt;
+ *   &lt;property name="defaultTargetDataSource" ref="myPrimaryDataSource"/&gt;
+ *   &lt;property name="replicaDataSources"&gt;
+ *     &lt;map&gt;
+ *       &lt;entry key="replica1" value-ref="myReplicaDataSource1"/&gt;
+ *       &lt;entry key="replica2" value-ref="myReplicaDataSource2"/&gt;
+ *     &lt;/map&gt;
+ *   &lt;/property&gt;
+ *   &lt;property name="loadBalancingStrategy" value="LEAST_OUTSTANDING"/&gt;
+ * &lt;/bean&gt;
+ *
+ * &lt;bean id="dataSource" class="org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy"&gt;
+ *   &lt;property name="targetDataSource" ref="dataSourceRouter"/&gt;
+ * &lt;/bean&gt;</pre>
+ *
+ * <p>Replicas get selected in {@link LoadBalancingStrategy#ROUND_ROBIN round-robin}
+ * order by default, or alternatively by
+ * {@link LoadBalancingStrategy#LEAST_OUTSTANDING least outstanding Connections}.
+ * A replica that failed to provide a Connection for a number of consecutive
+ * attempts (see {@link #setFailureThreshold}) will be ejected from the pool for
+ * a certain time (see {@link #setEjectionTime}). If no replica is able to provide
+ * a Connection, the primary DataSource will be used as fallback, unless
+ * {@link #setFallbackToPrimary "fallbackToPrimary"} has been turned off.
+ *
+ * <p>Connection acquisition and usage times are being tracked per replica;
+ * see {@link #getReplicaStatistics()}.
+ *
+ * @author agent
+ * @since 3.2.12
+ * @see #setReplicaDataSources
+ * @see #setDefaultTargetDataSource
+ * @see org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy
+ */
+public class ReadWriteDataSourceRouter extends AbstractRoutingDataSource {
+
+	/**
+	 * Strategy for selecting one of several available replicas.
+	 */
+	public enum LoadBalancingStrategy {
+
+		/** Select replicas in turn */
+		ROUND_ROBIN,
+
+		/** Select the replica with the fewest currently open Connections */
+		LEAST_OUTSTANDING
+	}
+
+
+	private static final Log logger = LogFactory.getLog(ReadWriteDataSourceRouter.class);
+
+	private Map<Object, Object> replicaDataSources;
+
+	private LoadBalancingStrategy loadBalancingStrategy = LoadBalancingStrategy.ROUND_ROBIN;
+
+	private int failureThreshold = 3;
+
+	private long ejectionTime = 30000;
+
+	private boolean fallbackToPrimary = true;
+
+	private volatile List<ReplicaStatistics> replicas = Collections.emptyList();
+
+	private final AtomicInteger roundRobinCounter = new AtomicInteger();
+
+
+	/**
+	 * Specify the map of replica DataSources, with arbitrary names as keys.
+	 * The mapped value can either be a corresponding {@link javax.sql.DataSource}
+	 * instance or a data source name String (to be resolved via a
+	 * {@link #setDataSourceLookup DataSourceLookup}).
+	 * <p>This is an alias for {@link #setTargetDataSources targetDataSources}.
+	 */
+	public void setReplicaDataSources(Map<Object, Object> replicaDataSources) {
+		setTargetDataSources(replicaDataSources);
+	}
+
+	@Override
+	public void setTargetDataSources(Map<Object, Object> targetDataSources) {
+		super.setTargetDataSources(targetDataSources);
+		this.replicaDataSources = targetDataSources;
+	}
+
+	/**
+	 * Specify the strategy for selecting a replica for read-only work.
+	 * Default is {@link LoadBalancingStrategy#ROUND_ROBIN}.
+	 */
+	public void setLoadBalancingStrategy(LoadBalancingStrategy loadBalancingStrategy) {
+		this.loadBalancingStrategy = loadBalancingStrategy;
+	}
+
+	/**
+	 * Specify the number of consecutive failures to obtain a Connection
+	 * after which a replica gets ejected from the pool. Default is 3.
+	 * @see #setEjectionTime
+	 */
+	public void setFailureThreshold(int failureThreshold) {
+		this.failureThreshold = failureThreshold;
+	}
+
+	/**
+	 * Specify the time (in milliseconds) that an ejected replica will be
+	 * excluded from selection. Default is 30000 (30 seconds).
+	 * <p>After that time, the replica will be tried again; a single further
+	 * failure will eject it once more, whereas a successful Connection
+	 * attempt will fully restore it.
+	 * @see #setFailureThreshold
+	 */
+	public void setEjectionTime(long ejectionTime) {
+		this.ejectionTime = ejectionTime;
+	}
+
+	/**
+	 * Specify whether to fall back to the primary DataSource for read-only work
+	 * if no replica is available or able to provide a Connection. Default is "true".
+	 * <p>Switch this flag to "false" in order to propagate the Connection failure
+	 * of the last replica tried instead.
+	 */
+	public void setFallbackToPrimary(boolean fallbackToPrimary) {
+		this.fallbackToPrimary = fallbackToPrimary;
+	}
+
+
+	@Override
+	public void afterPropertiesSet() {
+		super.afterPropertiesSet();
+		List<ReplicaStatistics> replicas = new ArrayList<ReplicaStatistics>(this.replicaDataSources.size());
+		for (Map.Entry<Object, Object> entry : this.replicaDataSources.entrySet()) {
+			replicas.add(new ReplicaStatistics(resolveSpecifiedLookupKey(entry.getKey()),
+					resolveSpecifiedDataSource(entry.getValue())));
+		}
+		this.replicas = Collections.unmodifiableList(replicas);
+	}
+
+	/**
+	 * Return the statistics for each replica, with the replica name as key.
+	 * The returned statistics objects reflect the live state of each replica.
+	 */
+	public Map<Object, ReplicaStatistics> getReplicaStatistics() {
+		Map<Object, ReplicaStatistics> statistics = new LinkedHashMap<Object, ReplicaStatistics>();
+		for (ReplicaStatistics replica : this.replicas) {
+			statistics.put(replica.getName(), replica);
+		}
+		return Collections.unmodifiableMap(statistics);
+	}
+
+
+	@Override
+	public Connection getConnection() throws SQLException {
+		return getConnection(null, null, false);
+	}
+
+	@Override
+	public Connection getConnection(String username, String password) throws SQLException {
+		return getConnection(username, password, true);
+	}
+
+	private Connection getConnection(String username, String password, boolean withCredentials)
+			throws SQLException {
+
+		if (isReadOnly()) {
+			SQLException failure = null;
+			List<ReplicaStatistics> tried = new ArrayList<ReplicaStatistics>(this.replicas.size());
+			ReplicaStatistics replica = selectReplica(tried);
+			while (replica != null) {
+				try {
+					return replica.getConnection(username, password, withCredentials);
+				}
+				catch (SQLException ex) {
+					recordFailure(replica, ex);
+					failure = ex;
+				}
+				tried.add(replica);
+				replica = selectReplica(tried);
+			}
+			if (failure != null && !this.fallbackToPrimary) {
+				throw failure;
+			}
+			if (!this.replicas.isEmpty() && logger.isDebugEnabled()) {
+				logger.debug("No replica available for read-only Connection - falling back to primary DataSource");
+			}
+		}
+		DataSource primary = determineTargetDataSource();
+		return (withCredentials ? primary.getConnection(username, password) : primary.getConnection());
+	}
+
+	/**
+	 * Determine whether the current work is read-only.
+	 * <p>The default implementation checks the read-only flag of the current
+	 * transaction, as exposed by {@link TransactionSynchronizationManager}.
+	 */
+	protected boolean isReadOnly() {
+		return TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+	}
+
+	/**
+	 * Routes to the primary DataSource (as default target) in any case,
+	 * since replica selection happens in {@link #getConnection()} itself.
+	 */
+	@Override
+	protected Object determineCurrentLookupKey() {
+		return null;
+	}
+
+	/**
+	 * Select an available replica according to the load balancing strategy.
+	 * @param excluded replicas that have already been tried
+	 * @return the selected replica, or {@code null} if none available
+	 */
+	private ReplicaStatistics selectReplica(List<ReplicaStatistics> excluded) {
+		List<ReplicaStatistics> replicas = this.replicas;
+		int size = replicas.size();
+		if (size == 0) {
+			return null;
+		}
+		long now = System.currentTimeMillis();
+		int start = (this.roundRobinCounter.getAndIncrement() & Integer.MAX_VALUE) % size;
+		ReplicaStatistics selected = null;
+		for (int i = 0; i < size; i++) {
+			ReplicaStatistics candidate = replicas.get((start + i) % size);
+			if (!candidate.isAvailable(now) || excluded.contains(candidate)) {
+				continue;
+			}
+			if (this.loadBalancingStrategy == LoadBalancingStrategy.ROUND_ROBIN) {
+				return candidate;
+			}
+			if (selected == null || candidate.getOutstandingConnections() < selected.getOutstandingConnections()) {
+				selected = candidate;
+			}
+		}
+		return selected;
+	}
+
+	private void recordFailure(ReplicaStatistics replica, SQLException ex) {
+		int failures = replica.consecutiveFailures.incrementAndGet();
+		replica.failureCount.incrementAndGet();
+		if (failures >= this.failureThreshold) {
+			replica.ejectedUntil = System.currentTimeMillis() + this.ejectionTime;
+			if (logger.isWarnEnabled()) {
+				logger.warn("Ejecting replica '" + replica.getName() + "' for " + this.ejectionTime +
+						" ms after " + failures + " consecutive Connection failures", ex);
+			}
+		}
+		else if (logger.isDebugEnabled()) {
+			logger.debug("Could not obtain Connection from replica '" + replica.getName() + "'", ex);
+		}
+	}
+
+
+	/**
+	 * Live statistics for a replica DataSource: Connection counts,
+	 * failures, and acquisition and usage times.
+	 */
+	public static class ReplicaStatistics {
+
+		private final Object name;
+
+		private final DataSource dataSource;
+
+		private final AtomicInteger outstandingConnections = new AtomicInteger();
+
+		private final AtomicInteger consecutiveFailures = new AtomicInteger();
+
+		private final AtomicLong connectionCount = new AtomicLong();
+
+		private final AtomicLong failureCount = new AtomicLong();
+
+		private final AtomicLong totalAcquisitionTime = new AtomicLong();
+
+		private final AtomicLong maxAcquisitionTime = new AtomicLong();
+
+		private final AtomicLong totalUsageTime = new AtomicLong();
+
+		private final AtomicLong closedConnectionCount = new AtomicLong();
+
+		private volatile long ejectedUntil;
+
+		private ReplicaStatistics(Object name, DataSource dataSource) {
+			this.name = name;
+			this.dataSource = dataSource;
+		}
+
+		/**
+		 * Return the name of this replica, as specified in the replica map.
+		 */
+		public Object getName() {
+			return this.name;
+		}
+
+		/**
+		 * Return the target DataSource of this replica.
+		 */
+		public DataSource getDataSource() {
+			return this.dataSource;
+		}
+
+		/**
+		 * Return whether this replica is currently eligible for selection,
+		 * i.e. not ejected after repeated Connection failures.
+		 */
+		public boolean isAvailable() {
+			return isAvailable(System.currentTimeMillis());
+		}
+
+		private boolean isAvailable(long now) {
+			return (now >= this.ejectedUntil);
+		}
+
+		/**
+		 * Return the number of Connections currently open against this replica.
+		 */
+		public int getOutstandingConnections() {
+			return this.outstandingConnections.get();
+		}
+
+		/**
+		 * Return the number of Connections obtained from this replica.
+		 */
+		public long getConnectionCount() {
+			return this.connectionCount.get();
+		}
+
+		/**
+		 * Return the number of failed attempts to obtain a Connection.
+		 */
+		public long getFailureCount() {
+			return this.failureCount.get();
+		}
+
+		/**
+		 * Return the average time (in milliseconds) for obtaining a Connection.
+		 */
+		public double getAverageAcquisitionTime() {
+			long count = this.connectionCount.get();
+			return (count > 0 ? this.totalAcquisitionTime.get() / 1000000.0 / count : 0);
+		}
+
+		/**
+		 * Return the maximum time (in milliseconds) for obtaining a Connection.
+		 */
+		public double getMaxAcquisitionTime() {
+			return this.maxAcquisitionTime.get() / 1000000.0;
+		}
+
+		/**
+		 * Return the average time (in milliseconds) that a Connection to
+		 * this replica has been in use, from acquisition until close.
+		 */
+		public double getAverageUsageTime() {
+			long count = this.closedConnectionCount.get();
+			return (count > 0 ? this.totalUsageTime.get() / 1000000.0 / count : 0);
+		}
+
+		private Connection getConnection(String username, String password, boolean withCredentials)
+				throws SQLException {
+
+			long startTime = System.nanoTime();
+			Connection target = (withCredentials ? this.dataSource.getConnection(username, password) :
+					this.dataSource.getConnection());
+			long acquiredTime = System.nanoTime();
+			long acquisitionTime = acquiredTime - startTime;
+			this.consecutiveFailures.set(0);
+			this.connectionCount.incrementAndGet();
+			this.totalAcquisitionTime.addAndGet(acquisitionTime);
+			long max = this.maxAcquisitionTime.get();
+			while (acquisitionTime > max && !this.maxAcquisitionTime.compareAndSet(max, acquisitionTime)) {
+				max = this.maxAcquisitionTime.get();
+			}
+			this.outstandingConnections.incrementAndGet();
+			return (Connection) Proxy.newProxyInstance(
+					ConnectionProxy.class.getClassLoader(),
+					new Class<?>[] {ConnectionProxy.class},
+					new ReplicaConnectionInvocationHandler(this, target, acquiredTime));
+		}
+
+		private void connectionClosed(long acquiredTime) {
+			this.outstandingConnections.decrementAndGet();
+			this.closedConnectionCount.incrementAndGet();
+			this.totalUsageTime.addAndGet(System.nanoTime() - acquiredTime);
+		}
+
+		@Override
+		public String toString() {
+			return "Replica '" + this.name + "': outstanding=" + getOutstandingConnections() +
+					", connections=" + getConnectionCount() + ", failures=" + getFailureCount() +
+					", available=" + isAvailable();
+		}
+	}
+
+
+	/**
+	 * Invocation handler that tracks the close of a replica Connection.
+	 */
+	private static class ReplicaConnectionInvocationHandler implements InvocationHandler {
+
+		private final ReplicaStatistics replica;
+
+		private final Connection target;
+
+		private final long acquiredTime;
+
+		private boolean closed = false;
+
+		public ReplicaConnectionInvocationHandler(ReplicaStatistics replica, Connection target, long acquiredTime) {
+			this.replica = replica;
+			this.target = target;
+			this.acquiredTime = acquiredTime;
+		}
+
+		public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+			// Invocation on ConnectionProxy interface coming in...
+
+			if (method.getName().equals("equals")) {
+				// Only considered as equal when proxies are identical.
+				return (proxy == args[0]);
+			}
+			else if (method.getName().equals("hashCode")) {
+				// Use hashCode of Connection proxy.
+				return System.identityHashCode(proxy);
+			}
+			else if (method.getName().equals("toString")) {
+				return "Replica Connection proxy for target Connection [" + this.target + "]";
+			}
+			else if (method.getName().equals("unwrap")) {
+				if (((Class<?>) args[0]).isInstance(proxy)) {
+					return proxy;
+				}
+			}
+			else if (method.getName().equals("isWrapperFor")) {
+				if (((Class<?>) args[0]).isInstance(proxy)) {
+					return true;
+				}
+			}
+			else if (method.getName().equals("getTargetConnection")) {
+				// Handle getTargetConnection method: return underlying Connection.
+				return this.target;
+			}
+			else if (method.getName().equals("close")) {
+				// Handle close method: track usage time, only once per Connection.
+				if (!this.closed) {
+					this.closed = true;
+					this.replica.connectionClosed(this.acquiredTime);
+				}
+			}
+
+			// Invoke method on target Connection.
+			try {
+				return method.invoke(this.target, args);
+			}
+			catch (InvocationTargetException ex) {
+				throw ex.getTargetException();
+			}
+		}
+	}
+
+}
@@ -22,6 +22,7 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Types;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.LinkedList;
@@ -399,6 +400,66 @@ public class NamedParameterJdbcTemplateTests {
 		verify(connection).close();
 	}
 
+	@Test
+	public void testUpdateWithCachedStatements() throws SQLException {
+		given(preparedStatement.executeUpdate()).willReturn(1);
+		String sql = "update seat_status set booking_id = null where performance_id in (:perfIds)";
+
+		params.put("perfIds", Arrays.asList(1, 2));
+		namedParameterTemplate.update(sql, params);
+		params.put("perfIds", Arrays.asList(3, 4, 5));
+		namedParameterTemplate.update(sql, params);
+		params.put("perfIds", Arrays.asList(6, 7));
+		namedParameterTemplate.update(sql, params);
+
+		verify(connection, times(2)).prepareStatement(
+				"update seat_status set booking_id = null where performance_id in (?, ?)");
+		verify(connection).prepareStatement(
+				"update seat_status set booking_id = null where performance_id in (?, ?, ?)");
+		verify(preparedStatement).setObject(1, 6);
+		verify(preparedStatement).setObject(2, 7);
+		verify(preparedStatement).setObject(3, 5);
+		assertEquals(1, namedParameterTemplate.getCacheHitCount());
+		assertEquals(2, namedParameterTemplate.getCacheMissCount());
+		assertEquals(2, namedParameterTemplate.getCacheSize());
+	}
+
+	@Test
+	public void testCacheLimitKeepsRecentlyUsedStatements() throws SQLException {
+		given(preparedStatement.executeUpdate()).willReturn(1);
+		namedParameterTemplate.setCacheLimit(2);
+		params.put("perfId", 1);
+		params.put("priceId", 1);
+
+		namedParameterTemplate.update(UPDATE_NAMED_PARAMETERS, params);
+		namedParameterTemplate.update("update seat_status set booking_id = null where performance_id = :perfId", params);
+		namedParameterTemplate.update(UPDATE_NAMED_PARAMETERS, params);
+		namedParameterTemplate.update("update seat_status set booking_id = null where price_id = :priceId", params);
+		assertEquals(1, namedParameterTemplate.getCacheHitCount());
+		assertEquals(2, namedParameterTemplate.getCacheSize());
+
+		namedParameterTemplate.update(UPDATE_NAMED_PARAMETERS, params);
+		assertEquals(2, namedParameterTemplate.getCacheHitCount());
+		assertEquals(3, namedParameterTemplate.getCacheMissCount());
+	}
+
+	@Test
+	public void testUpdateWithCachedStatementsAndTypedParameters() throws SQLException {
+		given(preparedStatement.executeUpdate()).willReturn(1);
+
+		params.put("perfId", 1);
+		params.put("priceId", 1);
+		namedParameterTemplate.update(UPDATE_NAMED_PARAMETERS, params);
+		MapSqlParameterSource paramSource = new MapSqlParameterSource(params);
+		paramSource.registerSqlType("perfId", Types.DECIMAL);
+		namedParameterTemplate.update(UPDATE_NAMED_PARAMETERS, paramSource);
+
+		verify(connection, times(2)).prepareStatement(UPDATE_NAMED_PARAMETERS_PARSED);
+		verify(preparedStatement).setObject(1, 1, Types.DECIMAL);
+		assertEquals(0, namedParameterTemplate.getCacheHitCount());
+		assertEquals(2, namedParameterTemplate.getCacheSize());
+	}
+
 	@Test
 	public void testBatchUpdateWithPlainMap() throws Exception {
 		@SuppressWarnings("unchecked")
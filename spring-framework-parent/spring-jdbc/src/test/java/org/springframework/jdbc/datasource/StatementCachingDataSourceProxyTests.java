@@ -0,0 +1,210 @@
+/*
+ * Copyright 2002-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.jdbc.datasource;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author agent
+ */
+public class StatementCachingDataSourceProxyTests {
+
+	private EmbeddedDatabase db;
+
+	private StatementCachingDataSourceProxy cachingDataSource;
+
+
+	@Before
+	public void setUp() {
+		db = new EmbeddedDatabaseBuilder().build();
+		JdbcTemplate jdbcTemplate = new JdbcTemplate(db);
+		jdbcTemplate.execute("create table T_CACHED (ID integer primary key, NAME varchar(50))");
+		jdbcTemplate.update("insert into T_CACHED (ID, NAME) values (1, 'Juergen')");
+		jdbcTemplate.update("insert into T_CACHED (ID, NAME) values (2, 'Rod')");
+		jdbcTemplate.update("insert into T_CACHED (ID, NAME) values (3, 'Mark')");
+		cachingDataSource = new StatementCachingDataSourceProxy(db);
+	}
+
+	@After
+	public void tearDown() {
+		db.shutdown();
+	}
+
+
+	@Test
+	public void testReuseWithinSingleConnection() throws Exception {
+		SingleConnectionDataSource dataSource = new SingleConnectionDataSource(cachingDataSource.getConnection(), true);
+		JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+		String sql = "select NAME from T_CACHED where ID = ?";
+
+		assertEquals("Juergen", jdbcTemplate.queryForObject(sql, String.class, 1));
+		assertEquals("Rod", jdbcTemplate.queryForObject(sql, String.class, 2));
+		assertEquals("Mark", jdbcTemplate.queryForObject(sql, String.class, 3));
+		assertEquals(1, cachingDataSource.getCacheMissCount());
+		assertEquals(2, cachingDataSource.getCacheHitCount());
+
+		assertEquals(2, jdbcTemplate.queryForInt("select count(*) from T_CACHED where ID > ?", 1));
+		assertEquals(2, cachingDataSource.getCacheMissCount());
+		dataSource.destroy();
+	}
+
+	@Test
+	public void testSameTargetStatementAfterClose() throws Exception {
+		Connection con = cachingDataSource.getConnection();
+		String sql = "select NAME from T_CACHED where ID = ?";
+		PreparedStatement ps1 = con.prepareStatement(sql);
+		assertSame(con, ps1.getConnection());
+		ps1.close();
+		assertTrue(ps1.isClosed());
+		try {
+			ps1.executeQuery();
+			fail("Should have thrown SQLException");
+		}
+		catch (java.sql.SQLException ex) {
+			// expected
+		}
+
+		PreparedStatement ps2 = con.prepareStatement(sql);
+		assertNotSame(ps1, ps2);
+		assertFalse(ps2.isClosed());
+		// Same SQL while ps2 still in use -> separate statement.
+		PreparedStatement ps3 = con.prepareStatement(sql);
+		assertFalse(ps3.isClosed());
+		ps3.close();
+		ps2.close();
+		assertEquals(2, cachingDataSource.getCacheMissCount());
+		assertEquals(1, cachingDataSource.getCacheHitCount());
+		con.close();
+		assertTrue(con.isClosed());
+	}
+
+	@Test
+	public void testNoReuseAfterCloseOnCompletion() throws Exception {
+		Connection con = cachingDataSource.getConnection();
+		String sql = "select NAME from T_CACHED where ID = ?";
+		PreparedStatement ps1 = con.prepareStatement(sql);
+		try {
+			ps1.closeOnCompletion();
+		}
+		catch (AbstractMethodError err) {
+			// embedded driver predates JDBC 4.1 - the statement is marked nevertheless
+		}
+		ps1.close();
+		PreparedStatement ps2 = con.prepareStatement(sql);
+		ps2.setInt(1, 1);
+		java.sql.ResultSet rs = ps2.executeQuery();
+		assertTrue(rs.next());
+		assertEquals("Juergen", rs.getString(1));
+		rs.close();
+		assertFalse(ps2.isClosed());
+		ps2.close();
+		assertEquals(2, cachingDataSource.getCacheMissCount());
+		assertEquals(0, cachingDataSource.getCacheHitCount());
+		con.close();
+	}
+
+	@Test
+	public void testDifferentResultSetTypes() throws Exception {
+		Connection con = cachingDataSource.getConnection();
+		String sql = "select NAME from T_CACHED";
+		con.prepareStatement(sql).close();
+		con.prepareStatement(sql, java.sql.ResultSet.TYPE_SCROLL_INSENSITIVE, java.sql.ResultSet.CONCUR_READ_ONLY).close();
+		con.prepareStatement(sql, java.sql.ResultSet.TYPE_SCROLL_INSENSITIVE, java.sql.ResultSet.CONCUR_READ_ONLY).close();
+		con.prepareStatement(sql).close();
+		assertEquals(2, cachingDataSource.getCacheMissCount());
+		assertEquals(2, cachingDataSource.getCacheHitCount());
+		con.close();
+	}
+
+	@Test
+	public void testReuseWithinTransaction() {
+		final JdbcTemplate jdbcTemplate = new JdbcTemplate(cachingDataSource);
+		TransactionTemplate tt = new TransactionTemplate(new DataSourceTransactionManager(cachingDataSource));
+		tt.execute(new TransactionCallback<Object>() {
+			@Override
+			public Object doInTransaction(TransactionStatus status) {
+				for (int i = 4; i < 14; i++) {
+					jdbcTemplate.update("insert into T_CACHED (ID, NAME) values (?, ?)", i, "Name" + i);
+				}
+				return null;
+			}
+		});
+		assertEquals(1, cachingDataSource.getCacheMissCount());
+		assertEquals(9, cachingDataSource.getCacheHitCount());
+		assertEquals(13, jdbcTemplate.queryForInt("select count(*) from T_CACHED"));
+		assertEquals("Name13", jdbcTemplate.queryForObject("select NAME from T_CACHED where ID = ?", String.class, 13));
+	}
+
+	@Test
+	public void testStatementSettingsReset() throws Exception {
+		SingleConnectionDataSource dataSource = new SingleConnectionDataSource(cachingDataSource.getConnection(), true);
+		JdbcTemplate limitedTemplate = new JdbcTemplate(dataSource);
+		limitedTemplate.setMaxRows(1);
+		JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+		String sql = "select NAME from T_CACHED where ID > ? order by ID";
+
+		assertEquals(1, limitedTemplate.queryForList(sql, String.class, 0).size());
+		assertEquals(3, jdbcTemplate.queryForList(sql, String.class, 0).size());
+		assertEquals(1, cachingDataSource.getCacheHitCount());
+		dataSource.destroy();
+	}
+
+	@Test
+	public void testCacheSizeLimit() throws Exception {
+		cachingDataSource.setStatementCacheSize(1);
+		SingleConnectionDataSource dataSource = new SingleConnectionDataSource(cachingDataSource.getConnection(), true);
+		JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+
+		assertEquals("Juergen", jdbcTemplate.queryForObject("select NAME from T_CACHED where ID = ?", String.class, 1));
+		assertEquals("Rod", jdbcTemplate.queryForObject("select NAME from T_CACHED where NAME is not null and ID = ?", String.class, 2));
+		assertEquals("Rod", jdbcTemplate.queryForObject("select NAME from T_CACHED where NAME is not null and ID = ?", String.class, 2));
+		assertEquals("Juergen", jdbcTemplate.queryForObject("select NAME from T_CACHED where ID = ?", String.class, 1));
+		assertEquals(3, cachingDataSource.getCacheMissCount());
+		assertEquals(1, cachingDataSource.getCacheHitCount());
+		assertEquals(2, cachingDataSource.getCacheEvictionCount());
+		dataSource.destroy();
+	}
+
+	@Test
+	public void testCachingTurnedOff() throws Exception {
+		cachingDataSource.setStatementCacheSize(0);
+		SingleConnectionDataSource dataSource = new SingleConnectionDataSource(cachingDataSource.getConnection(), true);
+		JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+		String sql = "select NAME from T_CACHED where ID = ?";
+
+		assertEquals("Juergen", jdbcTemplate.queryForObject(sql, String.class, 1));
+		assertEquals("Rod", jdbcTemplate.queryForObject(sql, String.class, 2));
+		assertEquals(0, cachingDataSource.getCacheMissCount());
+		assertEquals(0, cachingDataSource.getCacheHitCount());
+		dataSource.destroy();
+	}
+
+}
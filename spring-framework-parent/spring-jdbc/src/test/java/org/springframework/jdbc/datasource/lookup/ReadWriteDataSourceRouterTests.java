@@ -0,0 +1,237 @@
+/*
+ * Copyright 2002-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.jdbc.datasource.lookup;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import javax.sql.DataSource;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import org.springframework.jdbc.datasource.ConnectionProxy;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionCallbackWithoutResult;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.junit.Assert.*;
+import static org.mockito.BDDMockito.*;
+
+/**
+ * @author agent
+ */
+public class ReadWriteDataSourceRouterTests {
+
+	private DataSource primary;
+
+	private DataSource replica1;
+
+	private DataSource replica2;
+
+	private ReadWriteDataSourceRouter router;
+
+
+	@Before
+	public void setUp() throws Exception {
+		primary = mock(DataSource.class);
+		replica1 = mock(DataSource.class);
+		replica2 = mock(DataSource.class);
+		given(primary.getConnection()).willAnswer(new ConnectionAnswer());
+		given(replica1.getConnection()).willAnswer(new ConnectionAnswer());
+		given(replica2.getConnection()).willAnswer(new ConnectionAnswer());
+		Map<Object, Object> replicas = new LinkedHashMap<Object, Object>();
+		replicas.put("replica1", replica1);
+		replicas.put("replica2", replica2);
+		router = new ReadWriteDataSourceRouter();
+		router.setDefaultTargetDataSource(primary);
+		router.setReplicaDataSources(replicas);
+	}
+
+	@After
+	public void tearDown() {
+		TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+	}
+
+
+	@Test
+	public void testReadWriteGoesToPrimary() throws Exception {
+		router.afterPropertiesSet();
+		router.getConnection().close();
+		router.getConnection().close();
+		verify(primary, times(2)).getConnection();
+		verify(replica1, never()).getConnection();
+		verify(replica2, never()).getConnection();
+	}
+
+	@Test
+	public void testReadOnlyRoundRobin() throws Exception {
+		router.afterPropertiesSet();
+		TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+		for (int i = 0; i < 4; i++) {
+			Connection con = router.getConnection();
+			assertTrue(con instanceof ConnectionProxy);
+			con.close();
+		}
+		verify(primary, never()).getConnection();
+		verify(replica1, times(2)).getConnection();
+		verify(replica2, times(2)).getConnection();
+
+		Map<Object, ReadWriteDataSourceRouter.ReplicaStatistics> statistics = router.getReplicaStatistics();
+		assertEquals(2, statistics.get("replica1").getConnectionCount());
+		assertEquals(0, statistics.get("replica1").getOutstandingConnections());
+		assertTrue(statistics.get("replica1").getMaxAcquisitionTime() >= statistics.get("replica1").getAverageAcquisitionTime());
+	}
+
+	@Test
+	public void testReadOnlyLeastOutstanding() throws Exception {
+		router.setLoadBalancingStrategy(ReadWriteDataSourceRouter.LoadBalancingStrategy.LEAST_OUTSTANDING);
+		router.afterPropertiesSet();
+		TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+		Map<Object, ReadWriteDataSourceRouter.ReplicaStatistics> statistics = router.getReplicaStatistics();
+
+		Connection con1 = router.getConnection();
+		Connection con2 = router.getConnection();
+		assertEquals(1, statistics.get("replica1").getOutstandingConnections());
+		assertEquals(1, statistics.get("replica2").getOutstandingConnections());
+
+		con1.close();
+		con1.close();
+		Object freeReplica = (statistics.get("replica1").getOutstandingConnections() == 0 ? "replica1" : "replica2");
+		for (int i = 0; i < 3; i++) {
+			router.getConnection().close();
+		}
+		assertEquals(4, statistics.get(freeReplica).getConnectionCount());
+		con2.close();
+		assertEquals(0, statistics.get("replica1").getOutstandingConnections());
+		assertEquals(0, statistics.get("replica2").getOutstandingConnections());
+	}
+
+	@Test
+	public void testReplicaEjection() throws Exception {
+		given(replica1.getConnection()).willThrow(new SQLException("down"));
+		router.setFailureThreshold(1);
+		router.afterPropertiesSet();
+		TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+		for (int i = 0; i < 4; i++) {
+			router.getConnection().close();
+		}
+		verify(replica1, times(1)).getConnection();
+		verify(replica2, times(4)).getConnection();
+		verify(primary, never()).getConnection();
+		ReadWriteDataSourceRouter.ReplicaStatistics statistics = router.getReplicaStatistics().get("replica1");
+		assertFalse(statistics.isAvailable());
+		assertEquals(1, statistics.getFailureCount());
+	}
+
+	@Test
+	public void testReplicaRestoredAfterEjectionTime() throws Exception {
+		given(replica1.getConnection()).willThrow(new SQLException("down")).willAnswer(new ConnectionAnswer());
+		router.setFailureThreshold(1);
+		router.setEjectionTime(0);
+		router.afterPropertiesSet();
+		TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+		for (int i = 0; i < 4; i++) {
+			router.getConnection().close();
+		}
+		ReadWriteDataSourceRouter.ReplicaStatistics statistics = router.getReplicaStatistics().get("replica1");
+		assertTrue(statistics.isAvailable());
+		assertEquals(1, statistics.getFailureCount());
+		assertTrue(statistics.getConnectionCount() > 0);
+	}
+
+	@Test
+	public void testFallbackToPrimary() throws Exception {
+		given(replica1.getConnection()).willThrow(new SQLException("down"));
+		given(replica2.getConnection()).willThrow(new SQLException("down"));
+		router.afterPropertiesSet();
+		TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+		router.getConnection().close();
+		verify(replica1).getConnection();
+		verify(replica2).getConnection();
+		verify(primary).getConnection();
+	}
+
+	@Test(expected = SQLException.class)
+	public void testNoFallbackToPrimary() throws Exception {
+		given(replica1.getConnection()).willThrow(new SQLException("down"));
+		given(replica2.getConnection()).willThrow(new SQLException("down"));
+		router.setFallbackToPrimary(false);
+		router.afterPropertiesSet();
+		TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+		router.getConnection();
+	}
+
+	@Test
+	public void testReadOnlyTransactionWithLazyConnectionDataSourceProxy() throws Exception {
+		router.afterPropertiesSet();
+		final LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(router);
+		TransactionTemplate tt = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+		tt.setReadOnly(true);
+		tt.execute(new TransactionCallbackWithoutResult() {
+			@Override
+			protected void doInTransactionWithoutResult(TransactionStatus status) {
+				try {
+					DataSourceUtils.getConnection(dataSource).createStatement();
+				}
+				catch (SQLException ex) {
+					throw new IllegalStateException(ex);
+				}
+			}
+		});
+		// Primary connection for default settings check on proxy initialization
+		verify(primary, times(1)).getConnection();
+		verify(replica1, times(1)).getConnection();
+		assertEquals(0, router.getReplicaStatistics().get("replica1").getOutstandingConnections());
+
+		tt.setReadOnly(false);
+		tt.execute(new TransactionCallbackWithoutResult() {
+			@Override
+			protected void doInTransactionWithoutResult(TransactionStatus status) {
+				try {
+					DataSourceUtils.getConnection(dataSource).createStatement();
+				}
+				catch (SQLException ex) {
+					throw new IllegalStateException(ex);
+				}
+			}
+		});
+		verify(primary, times(2)).getConnection();
+		verify(replica2, never()).getConnection();
+	}
+
+
+	private static class ConnectionAnswer implements Answer<Connection> {
+
+		@Override
+		public Connection answer(InvocationOnMock invocation) {
+			return mock(Connection.class);
+		}
+	}
+
+}
@@ -25,14 +25,21 @@ import org.springframework.beans.factory.annotation.BeanFactoryAnnotationUtils;
 import org.springframework.core.NamedThreadLocal;
 import org.springframework.transaction.NoTransactionException;
 import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
 import org.springframework.transaction.TransactionStatus;
 import org.springframework.transaction.TransactionSystemException;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
 import org.springframework.transaction.support.CallbackPreferringPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+import org.springframework.transaction.support.ResourceTransactionManager;
 import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.springframework.util.StringUtils;
 
 import java.lang.reflect.Method;
 import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * Base class for transactional aspects, such as the {@link TransactionInterceptor}
@@ -61,6 +68,14 @@ import java.util.Properties;
  * 
  * <p> 使用策略设计模式。 PlatformTransactionManager实现将执行实际的事务管理，TransactionAttributeSource用于确定事务定义。
  *
+ * <p>Transaction attributes and joinpoint identifications are resolved once per
+ * method and target class, and transaction managers are cached per qualifier.
+ * A transactional method that joins a transaction which an aspect has begun
+ * on a resource-local {@link ResourceTransactionManager}, with the same read-only
+ * flag and isolation level, takes a lightweight path: the existing transaction is
+ * simply continued, with a participating {@code TransactionStatus} only being
+ * created on demand (for {@link #currentTransactionStatus()} or for a rollback).
+ *
  * <p>A transaction aspect is serializable if its {@code PlatformTransactionManager}
  * and {@code TransactionAttributeSource} are serializable.
  * 
@@ -92,6 +107,12 @@ public abstract class TransactionAspectSupport implements BeanFactoryAware, Init
 	private static final ThreadLocal<TransactionInfo> transactionInfoHolder =
 			new NamedThreadLocal<TransactionInfo>("Current aspect-driven transaction");
 
+	/** Key to use to store the default transaction manager */
+	private static final Object DEFAULT_TRANSACTION_MANAGER_KEY = new Object();
+
+	/** Key to use for invocation plans without target class */
+	private static final Object NO_TARGET_CLASS_KEY = new Object();
+
 
 	/**
 	 * Subclasses can use this to return the current TransactionInfo.
@@ -126,7 +147,12 @@ public abstract class TransactionAspectSupport implements BeanFactoryAware, Init
 	 * @see org.springframework.transaction.support.TransactionSynchronizationManager#isActualTransactionActive()
 	 */
 	protected static TransactionInfo currentTransactionInfo() throws NoTransactionException {
-		return transactionInfoHolder.get();
+		TransactionInfo info = transactionInfoHolder.get();
+		if (info != null && info.joinedInvocations != null && !info.joinedInvocations.isEmpty()) {
+			// Innermost invocation joined the transaction: expose a participating TransactionInfo.
+			return info.joinedInvocations.getCurrentTransactionInfo();
+		}
+		return info;
 	}
 
 	/**
@@ -147,7 +173,7 @@ public abstract class TransactionAspectSupport implements BeanFactoryAware, Init
 		if (info == null) {
 			throw new NoTransactionException("No transaction aspect-managed TransactionStatus in scope");
 		}
-		return currentTransactionInfo().transactionStatus;
+		return info.transactionStatus;
 	}
 
 
@@ -159,8 +185,18 @@ public abstract class TransactionAspectSupport implements BeanFactoryAware, Init
 
 	private TransactionAttributeSource transactionAttributeSource;
 
+	/** Whether invocation plans may keep the attribute returned by the attribute source */
+	private boolean staticTransactionAttributeSource;
+
 	private BeanFactory beanFactory;
 
+	private final ConcurrentMap<Object, PlatformTransactionManager> transactionManagerCache =
+			new ConcurrentHashMap<Object, PlatformTransactionManager>(4);
+
+	/** Invocation plans per Method and target class */
+	private final ConcurrentMap<Method, ConcurrentMap<Object, InvocationPlan>> invocationPlanCache =
+			new ConcurrentHashMap<Method, ConcurrentMap<Object, InvocationPlan>>(64);
+
 
 	/**
 	 * Specify the name of the default transaction manager bean.
@@ -169,6 +205,7 @@ public abstract class TransactionAspectSupport implements BeanFactoryAware, Init
 	 */
 	public void setTransactionManagerBeanName(String transactionManagerBeanName) {
 		this.transactionManagerBeanName = transactionManagerBeanName;
+		this.transactionManagerCache.clear();
 	}
 
 	/**
@@ -187,6 +224,7 @@ public abstract class TransactionAspectSupport implements BeanFactoryAware, Init
 	 */
 	public void setTransactionManager(PlatformTransactionManager transactionManager) {
 		this.transactionManager = transactionManager;
+		this.transactionManagerCache.clear();
 	}
 
 	/**
@@ -212,6 +250,8 @@ public abstract class TransactionAspectSupport implements BeanFactoryAware, Init
 		NameMatchTransactionAttributeSource tas = new NameMatchTransactionAttributeSource();
 		tas.setProperties(transactionAttributes);
 		this.transactionAttributeSource = tas;
+		this.staticTransactionAttributeSource = true;
+		this.invocationPlanCache.clear();
 	}
 
 	/**
@@ -223,7 +263,10 @@ public abstract class TransactionAspectSupport implements BeanFactoryAware, Init
 	 * @see org.springframework.transaction.annotation.AnnotationTransactionAttributeSource
 	 */
 	public void setTransactionAttributeSources(TransactionAttributeSource[] transactionAttributeSources) {
-		this.transactionAttributeSource = new CompositeTransactionAttributeSource(transactionAttributeSources);
+		CompositeTransactionAttributeSource tas = new CompositeTransactionAttributeSource(transactionAttributeSources);
+		this.transactionAttributeSource = tas;
+		this.staticTransactionAttributeSource = isStaticTransactionAttributeSource(tas);
+		this.invocationPlanCache.clear();
 	}
 
 	/**
@@ -237,6 +280,9 @@ public abstract class TransactionAspectSupport implements BeanFactoryAware, Init
 	 */
 	public void setTransactionAttributeSource(TransactionAttributeSource transactionAttributeSource) {
 		this.transactionAttributeSource = transactionAttributeSource;
+		this.staticTransactionAttributeSource = (transactionAttributeSource != null &&
+				isStaticTransactionAttributeSource(transactionAttributeSource));
+		this.invocationPlanCache.clear();
 	}
 
 	/**
@@ -257,6 +303,7 @@ public abstract class TransactionAspectSupport implements BeanFactoryAware, Init
 	 */
 	public void setBeanFactory(BeanFactory beanFactory) {
 		this.beanFactory = beanFactory;
+		this.transactionManagerCache.clear();
 	}
 
 	/**
@@ -320,14 +367,21 @@ public abstract class TransactionAspectSupport implements BeanFactoryAware, Init
 
 		// If the transaction attribute is null, the method is non-transactional.
 		// 如果transaction属性为null，则该方法是非事务性的。
-		final TransactionAttribute txAttr = getTransactionAttributeSource().getTransactionAttribute(method, targetClass);
+		InvocationPlan plan = getInvocationPlan(method, targetClass);
+		final TransactionAttribute txAttr = plan.transactionAttribute;
 		final PlatformTransactionManager tm = determineTransactionManager(txAttr);
-		final String joinpointIdentification = methodIdentification(method, targetClass);
+		final String joinpointIdentification = plan.joinpointIdentification;
+
+		if (plan.participating && canJoinCurrentTransaction(tm, txAttr)) {
+			return invokeWithinJoinedTransaction(
+					tm, plan.namedTransactionAttribute, joinpointIdentification, invocation);
+		}
 
 		if (txAttr == null || !(tm instanceof CallbackPreferringPlatformTransactionManager)) {
 			// Standard transaction demarcation with getTransaction and commit/rollback calls.
 			// 使用getTransaction和commit / rollback调用的标准事务划分。
-			TransactionInfo txInfo = createTransactionIfNecessary(tm, txAttr, joinpointIdentification);
+			TransactionInfo txInfo = createTransactionIfNecessary(
+					tm, plan.namedTransactionAttribute, joinpointIdentification);
 			Object retVal = null;
 			try {
 				// This is an around advice: Invoke the next interceptor in the chain.
@@ -397,6 +451,163 @@ public abstract class TransactionAspectSupport implements BeanFactoryAware, Init
 		}
 	}
 
+	/**
+	 * Obtain the invocation plan for the given method and target class,
+	 * resolving its joinpoint identification once. The transaction attribute
+	 * is only kept for attribute sources known to return the same attribute
+	 * every time; other sources get asked again on every invocation.
+	 */
+	private InvocationPlan getInvocationPlan(Method method, Class<?> targetClass) {
+		ConcurrentMap<Object, InvocationPlan> plans = this.invocationPlanCache.get(method);
+		if (plans == null) {
+			plans = new ConcurrentHashMap<Object, InvocationPlan>(4);
+			ConcurrentMap<Object, InvocationPlan> existing = this.invocationPlanCache.putIfAbsent(method, plans);
+			if (existing != null) {
+				plans = existing;
+			}
+		}
+		Object classKey = (targetClass != null ? targetClass : NO_TARGET_CLASS_KEY);
+		InvocationPlan plan = plans.get(classKey);
+		if (plan != null && this.staticTransactionAttributeSource) {
+			return plan;
+		}
+		TransactionAttribute txAttr = getTransactionAttributeSource().getTransactionAttribute(method, targetClass);
+		if (plan == null || plan.transactionAttribute != txAttr) {
+			// First invocation, or the attribute source returned a different attribute this time.
+			plan = new InvocationPlan(txAttr, methodIdentification(method, targetClass));
+			plans.put(classKey, plan);
+		}
+		return plan;
+	}
+
+	/**
+	 * Determine whether the given source always returns the same attribute
+	 * for a given method and target class, i.e. whether its attributes may be
+	 * cached within invocation plans instead of being looked up again for
+	 * every invocation.
+	 * <p>This is the case for the common attribute sources that are configured
+	 * once, as well as for sources that cache their attributes themselves.
+	 */
+	private static boolean isStaticTransactionAttributeSource(TransactionAttributeSource tas) {
+		if (tas instanceof AbstractFallbackTransactionAttributeSource) {
+			return true;
+		}
+		Class<?> tasClass = tas.getClass();
+		if (tasClass == MatchAlwaysTransactionAttributeSource.class ||
+				tasClass == NameMatchTransactionAttributeSource.class ||
+				tasClass == MethodMapTransactionAttributeSource.class) {
+			return true;
+		}
+		if (tasClass == CompositeTransactionAttributeSource.class) {
+			for (TransactionAttributeSource source :
+					((CompositeTransactionAttributeSource) tas).getTransactionAttributeSources()) {
+				if (!isStaticTransactionAttributeSource(source)) {
+					return false;
+				}
+			}
+			return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Determine whether an invocation with the given attribute may simply continue
+	 * the transaction that the innermost aspect-driven invocation has begun:
+	 * on the same resource-local transaction manager, with the same read-only
+	 * flag and a compatible isolation level, and with no other transaction
+	 * having been started on the current thread since.
+	 */
+	private boolean canJoinCurrentTransaction(PlatformTransactionManager tm, TransactionAttribute txAttr) {
+		if (!(tm instanceof AbstractPlatformTransactionManager) || !(tm instanceof ResourceTransactionManager) ||
+				tm instanceof CallbackPreferringPlatformTransactionManager) {
+			return false;
+		}
+		AbstractPlatformTransactionManager aptm = (AbstractPlatformTransactionManager) tm;
+		if (aptm.isValidateExistingTransaction() || aptm.isFailEarlyOnGlobalRollbackOnly()) {
+			return false;
+		}
+		TransactionInfo current = transactionInfoHolder.get();
+		if (current == null || current.transactionManager != tm ||
+				!(current.transactionStatus instanceof DefaultTransactionStatus)) {
+			return false;
+		}
+		DefaultTransactionStatus status = (DefaultTransactionStatus) current.transactionStatus;
+		TransactionAttribute currentAttr = current.transactionAttribute;
+		return (status.isNewTransaction() && status.isNewSynchronization() && !status.isCompleted() &&
+				currentAttr.getName() != null &&
+				currentAttr.getName() == TransactionSynchronizationManager.getCurrentTransactionName() &&
+				TransactionSynchronizationManager.isActualTransactionActive() &&
+				TransactionSynchronizationManager.hasResource(((ResourceTransactionManager) tm).getResourceFactory()) &&
+				txAttr.isReadOnly() == currentAttr.isReadOnly() &&
+				(txAttr.getIsolationLevel() == TransactionDefinition.ISOLATION_DEFAULT ||
+						txAttr.getIsolationLevel() == currentAttr.getIsolationLevel()));
+	}
+
+	/**
+	 * Proceed with the given invocation within the current transaction,
+	 * without obtaining a participating TransactionStatus unless necessary.
+	 */
+	private Object invokeWithinJoinedTransaction(PlatformTransactionManager tm, TransactionAttribute txAttr,
+			String joinpointIdentification, InvocationCallback invocation) throws Throwable {
+
+		// Keep the joined invocations with the TransactionInfo of the transaction they
+		// joined, so that they go away with it instead of lingering in a ThreadLocal.
+		TransactionInfo joinedInfo = transactionInfoHolder.get();
+		JoinedInvocations joined = joinedInfo.joinedInvocations;
+		if (joined == null) {
+			joined = new JoinedInvocations();
+			joinedInfo.joinedInvocations = joined;
+		}
+		joined.push(this, tm, txAttr, joinpointIdentification);
+		Object retVal;
+		try {
+			retVal = invocation.proceedWithInvocation();
+		}
+		catch (Throwable ex) {
+			TransactionInfo txInfo = joined.pop();
+			if (txInfo == null && txAttr.rollbackOn(ex)) {
+				// Participate in the rollback, as a regular participating transaction would.
+				try {
+					txInfo = prepareJoinedTransactionInfo(tm, txAttr, joinpointIdentification);
+				}
+				catch (RuntimeException ex2) {
+					markJoinedTransactionRollbackOnly(joinedInfo, ex, ex2);
+				}
+				catch (Error err) {
+					markJoinedTransactionRollbackOnly(joinedInfo, ex, err);
+				}
+			}
+			completeTransactionAfterThrowing(txInfo, ex);
+			throw ex;
+		}
+		commitTransactionAfterReturning(joined.pop());
+		return retVal;
+	}
+
+	/**
+	 * Mark the joined transaction as rollback-only after a participating
+	 * TransactionStatus could not be obtained for rolling back, so that the
+	 * original exception can still be propagated.
+	 */
+	private void markJoinedTransactionRollbackOnly(TransactionInfo joinedInfo, Throwable ex, Throwable participationEx) {
+		logger.error("Could not participate in rollback of joined transaction for [" +
+				joinedInfo.getJoinpointIdentification() + "] after application exception " + ex +
+				" - marking transaction as rollback-only", participationEx);
+		joinedInfo.getTransactionStatus().setRollbackOnly();
+	}
+
+	/**
+	 * Create a TransactionInfo with a participating TransactionStatus
+	 * for an invocation that joined the current transaction.
+	 */
+	private TransactionInfo prepareJoinedTransactionInfo(PlatformTransactionManager tm,
+			TransactionAttribute txAttr, String joinpointIdentification) {
+
+		TransactionInfo txInfo = new TransactionInfo(tm, txAttr, joinpointIdentification);
+		txInfo.newTransactionStatus(tm.getTransaction(txAttr));
+		return txInfo;
+	}
+
 	/**
 	 * Determine the specific transaction manager to use for the given transaction.
 	 * 
@@ -409,13 +620,23 @@ public abstract class TransactionAspectSupport implements BeanFactoryAware, Init
 		}
 		String qualifier = txAttr.getQualifier();
 		if (StringUtils.hasLength(qualifier)) {
-			return BeanFactoryAnnotationUtils.qualifiedBeanOfType(this.beanFactory, PlatformTransactionManager.class, qualifier);
-		}
-		else if (this.transactionManagerBeanName != null) {
-			return this.beanFactory.getBean(this.transactionManagerBeanName, PlatformTransactionManager.class);
+			PlatformTransactionManager tm = this.transactionManagerCache.get(qualifier);
+			if (tm == null) {
+				tm = BeanFactoryAnnotationUtils.qualifiedBeanOfType(
+						this.beanFactory, PlatformTransactionManager.class, qualifier);
+				this.transactionManagerCache.putIfAbsent(qualifier, tm);
+			}
+			return tm;
 		}
 		else {
-			return this.beanFactory.getBean(PlatformTransactionManager.class);
+			PlatformTransactionManager tm = this.transactionManagerCache.get(DEFAULT_TRANSACTION_MANAGER_KEY);
+			if (tm == null) {
+				tm = (this.transactionManagerBeanName != null ?
+						this.beanFactory.getBean(this.transactionManagerBeanName, PlatformTransactionManager.class) :
+						this.beanFactory.getBean(PlatformTransactionManager.class));
+				this.transactionManagerCache.putIfAbsent(DEFAULT_TRANSACTION_MANAGER_KEY, tm);
+			}
+			return tm;
 		}
 	}
 
@@ -742,6 +963,9 @@ public abstract class TransactionAspectSupport implements BeanFactoryAware, Init
 
 		private TransactionInfo oldTransactionInfo;
 
+		/** Invocations that joined this transaction, if any */
+		private JoinedInvocations joinedInvocations;
+
 		public TransactionInfo(PlatformTransactionManager transactionManager,
 				TransactionAttribute transactionAttribute, String joinpointIdentification) {
 			this.transactionManager = transactionManager;
@@ -807,6 +1031,142 @@ public abstract class TransactionAspectSupport implements BeanFactoryAware, Init
 	}
 
 
+	/**
+	 * Transaction attribute and joinpoint identification for a specific
+	 * method and target class, resolved on first invocation.
+	 */
+	private static class InvocationPlan {
+
+		private final TransactionAttribute transactionAttribute;
+
+		/** The transaction attribute, exposing the joinpoint identification as default name */
+		private final TransactionAttribute namedTransactionAttribute;
+
+		private final String joinpointIdentification;
+
+		/** Whether the attribute allows for participating in an existing transaction */
+		private final boolean participating;
+
+		public InvocationPlan(TransactionAttribute txAttr, String joinpointIdentification) {
+			this.transactionAttribute = txAttr;
+			this.namedTransactionAttribute = namedTransactionAttribute(txAttr, joinpointIdentification);
+			this.joinpointIdentification = joinpointIdentification;
+			if (txAttr != null) {
+				int propagation = txAttr.getPropagationBehavior();
+				this.participating = (propagation == TransactionDefinition.PROPAGATION_REQUIRED ||
+						propagation == TransactionDefinition.PROPAGATION_SUPPORTS ||
+						propagation == TransactionDefinition.PROPAGATION_MANDATORY);
+			}
+			else {
+				this.participating = false;
+			}
+		}
+
+		/**
+		 * If no name specified, apply method identification as transaction name.
+		 * Static in order to not hold on to the (non-serializable) plan itself.
+		 */
+		@SuppressWarnings("serial")
+		private static TransactionAttribute namedTransactionAttribute(
+				TransactionAttribute txAttr, final String joinpointIdentification) {
+
+			if (txAttr == null || txAttr.getName() != null) {
+				return txAttr;
+			}
+			return new DelegatingTransactionAttribute(txAttr) {
+				@Override
+				public String getName() {
+					return joinpointIdentification;
+				}
+			};
+		}
+	}
+
+
+	/**
+	 * Stack of invocations that joined an aspect-driven transaction, kept with
+	 * the TransactionInfo of that transaction and reusing its frame arrays
+	 * across invocations. A participating TransactionInfo is only created for
+	 * a frame if actually requested.
+	 */
+	private static class JoinedInvocations {
+
+		private TransactionAspectSupport[] aspects = new TransactionAspectSupport[4];
+
+		private PlatformTransactionManager[] transactionManagers = new PlatformTransactionManager[4];
+
+		private TransactionAttribute[] transactionAttributes = new TransactionAttribute[4];
+
+		private String[] joinpointIdentifications = new String[4];
+
+		private TransactionInfo[] transactionInfos = new TransactionInfo[4];
+
+		private int depth;
+
+		public void push(TransactionAspectSupport aspect, PlatformTransactionManager tm,
+				TransactionAttribute txAttr, String joinpointIdentification) {
+
+			if (this.depth == this.aspects.length) {
+				int newLength = this.depth * 2;
+				TransactionAspectSupport[] newAspects = new TransactionAspectSupport[newLength];
+				PlatformTransactionManager[] newTransactionManagers = new PlatformTransactionManager[newLength];
+				TransactionAttribute[] newTransactionAttributes = new TransactionAttribute[newLength];
+				String[] newJoinpointIdentifications = new String[newLength];
+				TransactionInfo[] newTransactionInfos = new TransactionInfo[newLength];
+				System.arraycopy(this.aspects, 0, newAspects, 0, this.depth);
+				System.arraycopy(this.transactionManagers, 0, newTransactionManagers, 0, this.depth);
+				System.arraycopy(this.transactionAttributes, 0, newTransactionAttributes, 0, this.depth);
+				System.arraycopy(this.joinpointIdentifications, 0, newJoinpointIdentifications, 0, this.depth);
+				System.arraycopy(this.transactionInfos, 0, newTransactionInfos, 0, this.depth);
+				this.aspects = newAspects;
+				this.transactionManagers = newTransactionManagers;
+				this.transactionAttributes = newTransactionAttributes;
+				this.joinpointIdentifications = newJoinpointIdentifications;
+				this.transactionInfos = newTransactionInfos;
+			}
+			this.aspects[this.depth] = aspect;
+			this.transactionManagers[this.depth] = tm;
+			this.transactionAttributes[this.depth] = txAttr;
+			this.joinpointIdentifications[this.depth] = joinpointIdentification;
+			this.depth++;
+		}
+
+		/**
+		 * Remove the innermost frame.
+		 * @return the participating TransactionInfo created for it, or {@code null} if none
+		 */
+		public TransactionInfo pop() {
+			this.depth--;
+			TransactionInfo txInfo = this.transactionInfos[this.depth];
+			this.aspects[this.depth] = null;
+			this.transactionManagers[this.depth] = null;
+			this.transactionAttributes[this.depth] = null;
+			this.joinpointIdentifications[this.depth] = null;
+			this.transactionInfos[this.depth] = null;
+			return txInfo;
+		}
+
+		public boolean isEmpty() {
+			return (this.depth == 0);
+		}
+
+		/**
+		 * Return the participating TransactionInfo for the innermost frame,
+		 * creating it if necessary.
+		 */
+		public TransactionInfo getCurrentTransactionInfo() {
+			int index = this.depth - 1;
+			TransactionInfo txInfo = this.transactionInfos[index];
+			if (txInfo == null) {
+				txInfo = this.aspects[index].prepareJoinedTransactionInfo(this.transactionManagers[index],
+						this.transactionAttributes[index], this.joinpointIdentifications[index]);
+				this.transactionInfos[index] = txInfo;
+			}
+			return txInfo;
+		}
+	}
+
+
 	/**
 	 * Simple callback interface for proceeding with the target invocation.
 	 * Concrete interceptors/aspects adapt this to their invocation mechanism.
@@ -18,11 +18,9 @@ package org.springframework.transaction.support;
 
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.HashMap;
-import java.util.LinkedHashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -82,6 +80,18 @@ import org.springframework.util.Assert;
  * <p> 例如，同步用于始终在JTA事务中返回相同的资源，例如，分别针对任何给定的DataSource或SessionFactory的JDBC连接或
  * Hibernate会话。
  *
+ * <p>All state is kept in a single context object per thread, holding the
+ * transaction characteristics in plain fields and the bound resources in
+ * small arrays (typically just a single DataSource or SessionFactory key).
+ * The context is created on first write and then kept for the lifetime of
+ * the thread, being reset in place at the end of each transaction: It does
+ * not retain any references to resources or synchronizations once they have
+ * been unbound or cleared, and subsequent transactions on the same thread do
+ * not allocate a new context. Read operations on a thread without context
+ * simply return the defaults. Code that manages pooled threads and needs
+ * to release all per-thread state (e.g. on application shutdown) may call
+ * {@link #removeThreadContext()}.
+ *
  * @author Juergen Hoeller
  * @since 02.06.2003
  * @see #isSynchronizationActive
@@ -96,23 +106,8 @@ public abstract class TransactionSynchronizationManager {
 
 	private static final Log logger = LogFactory.getLog(TransactionSynchronizationManager.class);
 
-	private static final ThreadLocal<Map<Object, Object>> resources =
-			new NamedThreadLocal<Map<Object, Object>>("Transactional resources");
-
-	private static final ThreadLocal<Set<TransactionSynchronization>> synchronizations =
-			new NamedThreadLocal<Set<TransactionSynchronization>>("Transaction synchronizations");
-
-	private static final ThreadLocal<String> currentTransactionName =
-			new NamedThreadLocal<String>("Current transaction name");
-
-	private static final ThreadLocal<Boolean> currentTransactionReadOnly =
-			new NamedThreadLocal<Boolean>("Current transaction read-only status");
-
-	private static final ThreadLocal<Integer> currentTransactionIsolationLevel =
-			new NamedThreadLocal<Integer>("Current transaction isolation level");
-
-	private static final ThreadLocal<Boolean> actualTransactionActive =
-			new NamedThreadLocal<Boolean>("Actual transaction active");
+	private static final ThreadLocal<TransactionContext> transactionContext =
+			new NamedThreadLocal<TransactionContext>("Transaction context");
 
 
 	//-------------------------------------------------------------------------
@@ -136,8 +131,15 @@ public abstract class TransactionSynchronizationManager {
 	 * @see #hasResource
 	 */
 	public static Map<Object, Object> getResourceMap() {
-		Map<Object, Object> map = resources.get();
-		return (map != null ? Collections.unmodifiableMap(map) : Collections.emptyMap());
+		TransactionContext context = transactionContext.get();
+		if (context == null || context.resourceCount == 0) {
+			return Collections.emptyMap();
+		}
+		Map<Object, Object> map = new LinkedHashMap<Object, Object>(context.resourceCount * 2);
+		for (int i = 0; i < context.resourceCount; i++) {
+			map.put(context.resourceKeys[i], context.resourceValues[i]);
+		}
+		return Collections.unmodifiableMap(map);
 	}
 
 	/**
@@ -156,8 +158,11 @@ public abstract class TransactionSynchronizationManager {
 	 * @see ResourceTransactionManager#getResourceFactory()
 	 */
 	public static boolean hasResource(Object key) {
-		Object actualKey = TransactionSynchronizationUtils.unwrapResourceIfNecessary(key);
-		Object value = doGetResource(actualKey);
+		TransactionContext context = transactionContext.get();
+		if (context == null || context.resourceCount == 0) {
+			return false;
+		}
+		Object value = doGetResource(context, key);
 		return (value != null);
 	}
 
@@ -178,10 +183,14 @@ public abstract class TransactionSynchronizationManager {
 	 * @see ResourceTransactionManager#getResourceFactory()
 	 */
 	public static Object getResource(Object key) {
-		Object actualKey = TransactionSynchronizationUtils.unwrapResourceIfNecessary(key);
-		Object value = doGetResource(actualKey);
+		TransactionContext context = transactionContext.get();
+		if (context == null || context.resourceCount == 0) {
+			return null;
+		}
+		Object value = doGetResource(context, key);
 		if (value != null && logger.isTraceEnabled()) {
-			logger.trace("Retrieved value [" + value + "] for key [" + actualKey + "] bound to thread [" +
+			logger.trace("Retrieved value [" + value + "] for key [" +
+					TransactionSynchronizationUtils.unwrapResourceIfNecessary(key) + "] bound to thread [" +
 					Thread.currentThread().getName() + "]");
 		}
 		return value;
@@ -192,21 +201,16 @@ public abstract class TransactionSynchronizationManager {
 	 * 
 	 * <p> 实际上检查绑定给定键的资源的值。
 	 */
-	private static Object doGetResource(Object actualKey) {
-		Map<Object, Object> map = resources.get();
-		if (map == null) {
+	private static Object doGetResource(TransactionContext context, Object key) {
+		int index = context.indexOfResource(key);
+		if (index < 0) {
 			return null;
 		}
-		Object value = map.get(actualKey);
+		Object value = context.resourceValues[index];
 		// Transparently remove ResourceHolder that was marked as void...
 		// 透明地删除标记为void的ResourceHolder ...
 		if (value instanceof ResourceHolder && ((ResourceHolder) value).isVoid()) {
-			map.remove(actualKey);
-			// Remove entire ThreadLocal if empty...
-			// 如果为空，则删除整个ThreadLocal ...
-			if (map.isEmpty()) {
-				resources.remove();
-			}
+			context.removeResource(index);
 			value = null;
 		}
 		return value;
@@ -234,14 +238,7 @@ public abstract class TransactionSynchronizationManager {
 	public static void bindResource(Object key, Object value) throws IllegalStateException {
 		Object actualKey = TransactionSynchronizationUtils.unwrapResourceIfNecessary(key);
 		Assert.notNull(value, "Value must not be null");
-		Map<Object, Object> map = resources.get();
-		// set ThreadLocal Map if none found
-		// 如果找不到，则设置ThreadLocal Map
-		if (map == null) {
-			map = new HashMap<Object, Object>();
-			resources.set(map);
-		}
-		Object oldValue = map.put(actualKey, value);
+		Object oldValue = obtainContext().putResource(actualKey, value);
 		// Transparently suppress a ResourceHolder that was marked as void...
 		// 透明地抑制标记为void的ResourceHolder ...
 		if (oldValue instanceof ResourceHolder && ((ResourceHolder) oldValue).isVoid()) {
@@ -277,11 +274,11 @@ public abstract class TransactionSynchronizationManager {
 	 * @see ResourceTransactionManager#getResourceFactory()
 	 */
 	public static Object unbindResource(Object key) throws IllegalStateException {
-		Object actualKey = TransactionSynchronizationUtils.unwrapResourceIfNecessary(key);
-		Object value = doUnbindResource(actualKey);
+		Object value = doUnbindResource(key);
 		if (value == null) {
-			throw new IllegalStateException(
-					"No value for key [" + actualKey + "] bound to thread [" + Thread.currentThread().getName() + "]");
+			throw new IllegalStateException("No value for key [" +
+					TransactionSynchronizationUtils.unwrapResourceIfNecessary(key) + "] bound to thread [" +
+					Thread.currentThread().getName() + "]");
 		}
 		return value;
 	}
@@ -301,8 +298,7 @@ public abstract class TransactionSynchronizationManager {
 	 * 
 	 */
 	public static Object unbindResourceIfPossible(Object key) {
-		Object actualKey = TransactionSynchronizationUtils.unwrapResourceIfNecessary(key);
-		return doUnbindResource(actualKey);
+		return doUnbindResource(key);
 	}
 
 	/**
@@ -311,17 +307,17 @@ public abstract class TransactionSynchronizationManager {
 	 * <p> 实际上删除绑定给定键的资源的值。
 	 * 
 	 */
-	private static Object doUnbindResource(Object actualKey) {
-		Map<Object, Object> map = resources.get();
-		if (map == null) {
+	private static Object doUnbindResource(Object key) {
+		TransactionContext context = transactionContext.get();
+		if (context == null) {
 			return null;
 		}
-		Object value = map.remove(actualKey);
-		// Remove entire ThreadLocal if empty...
-		// 如果为空，则删除整个ThreadLocal ...
-		if (map.isEmpty()) {
-			resources.remove();
+		int index = context.indexOfResource(key);
+		if (index < 0) {
+			return null;
 		}
+		Object actualKey = context.resourceKeys[index];
+		Object value = context.removeResource(index);
 		// Transparently suppress a ResourceHolder that was marked as void...
 		// 透明地抑制标记为void的ResourceHolder ...
 		if (value instanceof ResourceHolder && ((ResourceHolder) value).isVoid()) {
@@ -349,7 +345,8 @@ public abstract class TransactionSynchronizationManager {
 	 * @see #registerSynchronization
 	 */
 	public static boolean isSynchronizationActive() {
-		return (synchronizations.get() != null);
+		TransactionContext context = transactionContext.get();
+		return (context != null && context.synchronizationActive);
 	}
 
 	/**
@@ -364,11 +361,12 @@ public abstract class TransactionSynchronizationManager {
 	 * 
 	 */
 	public static void initSynchronization() throws IllegalStateException {
-		if (isSynchronizationActive()) {
+		TransactionContext context = obtainContext();
+		if (context.synchronizationActive) {
 			throw new IllegalStateException("Cannot activate transaction synchronization - already active");
 		}
 		logger.trace("Initializing transaction synchronization");
-		synchronizations.set(new LinkedHashSet<TransactionSynchronization>());
+		context.synchronizationActive = true;
 	}
 
 	/**
@@ -397,10 +395,14 @@ public abstract class TransactionSynchronizationManager {
 			throws IllegalStateException {
 
 		Assert.notNull(synchronization, "TransactionSynchronization must not be null");
-		if (!isSynchronizationActive()) {
+		TransactionContext context = transactionContext.get();
+		if (context == null || !context.synchronizationActive) {
 			throw new IllegalStateException("Transaction synchronization is not active");
 		}
-		synchronizations.get().add(synchronization);
+		if (!context.synchronizations.contains(synchronization)) {
+			context.synchronizations.add(synchronization);
+			context.sortedSynchronizations = null;
+		}
 	}
 
 	/**
@@ -420,10 +422,11 @@ public abstract class TransactionSynchronizationManager {
 	 * @see TransactionSynchronization
 	 */
 	public static List<TransactionSynchronization> getSynchronizations() throws IllegalStateException {
-		Set<TransactionSynchronization> synchs = synchronizations.get();
-		if (synchs == null) {
+		TransactionContext context = transactionContext.get();
+		if (context == null || !context.synchronizationActive) {
 			throw new IllegalStateException("Transaction synchronization is not active");
 		}
+		List<TransactionSynchronization> synchs = context.synchronizations;
 		// Return unmodifiable snapshot, to avoid ConcurrentModificationExceptions
 		// while iterating and invoking synchronization callbacks that in turn
 		// might register further synchronizations.
@@ -432,12 +435,17 @@ public abstract class TransactionSynchronizationManager {
 		if (synchs.isEmpty()) {
 			return Collections.emptyList();
 		}
+		else if (context.sortedSynchronizations != null) {
+			// Snapshot still valid: no synchronizations registered since.
+			return context.sortedSynchronizations;
+		}
 		else {
 			// Sort lazily here, not in registerSynchronization.
 			// 这里懒惰地排序，而不是在registerSynchronization中。
 			List<TransactionSynchronization> sortedSynchs = new ArrayList<TransactionSynchronization>(synchs);
 			OrderComparator.sort(sortedSynchs);
-			return Collections.unmodifiableList(sortedSynchs);
+			context.sortedSynchronizations = Collections.unmodifiableList(sortedSynchs);
+			return context.sortedSynchronizations;
 		}
 	}
 
@@ -453,11 +461,12 @@ public abstract class TransactionSynchronizationManager {
 	 * 
 	 */
 	public static void clearSynchronization() throws IllegalStateException {
-		if (!isSynchronizationActive()) {
+		TransactionContext context = transactionContext.get();
+		if (context == null || !context.synchronizationActive) {
 			throw new IllegalStateException("Cannot deactivate transaction synchronization - not active");
 		}
 		logger.trace("Clearing transaction synchronization");
-		synchronizations.remove();
+		context.clearSynchronizations();
 	}
 
 
@@ -479,7 +488,10 @@ public abstract class TransactionSynchronizationManager {
 	 * @see org.springframework.transaction.TransactionDefinition#getName()
 	 */
 	public static void setCurrentTransactionName(String name) {
-		currentTransactionName.set(name);
+		TransactionContext context = (name != null ? obtainContext() : transactionContext.get());
+		if (context != null) {
+			context.currentTransactionName = name;
+		}
 	}
 
 	/**
@@ -492,7 +504,8 @@ public abstract class TransactionSynchronizationManager {
 	 * @see org.springframework.transaction.TransactionDefinition#getName()
 	 */
 	public static String getCurrentTransactionName() {
-		return currentTransactionName.get();
+		TransactionContext context = transactionContext.get();
+		return (context != null ? context.currentTransactionName : null);
 	}
 
 	/**
@@ -509,7 +522,10 @@ public abstract class TransactionSynchronizationManager {
 	 * @see org.springframework.transaction.TransactionDefinition#isReadOnly()
 	 */
 	public static void setCurrentTransactionReadOnly(boolean readOnly) {
-		currentTransactionReadOnly.set(readOnly ? Boolean.TRUE : null);
+		TransactionContext context = (readOnly ? obtainContext() : transactionContext.get());
+		if (context != null) {
+			context.currentTransactionReadOnly = readOnly;
+		}
 	}
 
 	/**
@@ -532,7 +548,8 @@ public abstract class TransactionSynchronizationManager {
 	 * @see TransactionSynchronization#beforeCommit(boolean)
 	 */
 	public static boolean isCurrentTransactionReadOnly() {
-		return (currentTransactionReadOnly.get() != null);
+		TransactionContext context = transactionContext.get();
+		return (context != null && context.currentTransactionReadOnly);
 	}
 
 	/**
@@ -558,7 +575,10 @@ public abstract class TransactionSynchronizationManager {
 	 * @see org.springframework.transaction.TransactionDefinition#getIsolationLevel()
 	 */
 	public static void setCurrentTransactionIsolationLevel(Integer isolationLevel) {
-		currentTransactionIsolationLevel.set(isolationLevel);
+		TransactionContext context = (isolationLevel != null ? obtainContext() : transactionContext.get());
+		if (context != null) {
+			context.currentTransactionIsolationLevel = isolationLevel;
+		}
 	}
 
 	/**
@@ -585,7 +605,8 @@ public abstract class TransactionSynchronizationManager {
 	 * @see org.springframework.transaction.TransactionDefinition#getIsolationLevel()
 	 */
 	public static Integer getCurrentTransactionIsolationLevel() {
-		return currentTransactionIsolationLevel.get();
+		TransactionContext context = transactionContext.get();
+		return (context != null ? context.currentTransactionIsolationLevel : null);
 	}
 
 	/**
@@ -601,7 +622,10 @@ public abstract class TransactionSynchronizationManager {
 	 * 
 	 */
 	public static void setActualTransactionActive(boolean active) {
-		actualTransactionActive.set(active ? Boolean.TRUE : null);
+		TransactionContext context = (active ? obtainContext() : transactionContext.get());
+		if (context != null) {
+			context.actualTransactionActive = active;
+		}
 	}
 
 	/**
@@ -623,7 +647,8 @@ public abstract class TransactionSynchronizationManager {
 	 * @see #isSynchronizationActive()
 	 */
 	public static boolean isActualTransactionActive() {
-		return (actualTransactionActive.get() != null);
+		TransactionContext context = transactionContext.get();
+		return (context != null && context.actualTransactionActive);
 	}
 
 
@@ -641,10 +666,153 @@ public abstract class TransactionSynchronizationManager {
 	 */
 	public static void clear() {
 		clearSynchronization();
-		setCurrentTransactionName(null);
-		setCurrentTransactionReadOnly(false);
-		setCurrentTransactionIsolationLevel(null);
-		setActualTransactionActive(false);
+		TransactionContext context = transactionContext.get();
+		if (context != null) {
+			context.currentTransactionName = null;
+			context.currentTransactionReadOnly = false;
+			context.currentTransactionIsolationLevel = null;
+			context.actualTransactionActive = false;
+		}
+	}
+
+	/**
+	 * Remove the transaction context from the current thread, not leaving
+	 * a ThreadLocal entry behind.
+	 * <p>The context is otherwise kept for reuse by subsequent transactions
+	 * on the same thread. This method allows for releasing it, e.g. from
+	 * thread pool cleanup code when an application shuts down.
+	 * @throws IllegalStateException if the context still holds transaction
+	 * state (bound resources, active synchronization or transaction characteristics)
+	 */
+	public static void removeThreadContext() throws IllegalStateException {
+		TransactionContext context = transactionContext.get();
+		if (context != null) {
+			if (!context.isEmpty()) {
+				throw new IllegalStateException("Cannot remove transaction context - transaction state still bound");
+			}
+			transactionContext.remove();
+		}
+	}
+
+	/**
+	 * Return the context for the current thread, creating and binding it
+	 * if necessary. Only to be used by operations that store state.
+	 */
+	private static TransactionContext obtainContext() {
+		TransactionContext context = transactionContext.get();
+		if (context == null) {
+			context = new TransactionContext();
+			transactionContext.set(context);
+		}
+		return context;
+	}
+
+
+	/**
+	 * Holder for the entire transaction state of a thread.
+	 * Resources are kept in insertion order in parallel key/value arrays, with
+	 * keys compared by identity first and only unwrapped when necessary.
+	 */
+	private static final class TransactionContext {
+
+		private Object[] resourceKeys = new Object[4];
+
+		private Object[] resourceValues = new Object[4];
+
+		private int resourceCount;
+
+		private final List<TransactionSynchronization> synchronizations =
+				new ArrayList<TransactionSynchronization>(4);
+
+		private List<TransactionSynchronization> sortedSynchronizations;
+
+		private boolean synchronizationActive;
+
+		private String currentTransactionName;
+
+		private boolean currentTransactionReadOnly;
+
+		private Integer currentTransactionIsolationLevel;
+
+		private boolean actualTransactionActive;
+
+		/**
+		 * Find the index of the resource for the given (possibly wrapped) key.
+		 */
+		public int indexOfResource(Object key) {
+			for (int i = 0; i < this.resourceCount; i++) {
+				if (this.resourceKeys[i] == key) {
+					return i;
+				}
+			}
+			if (this.resourceCount == 0) {
+				return -1;
+			}
+			Object actualKey = TransactionSynchronizationUtils.unwrapResourceIfNecessary(key);
+			for (int i = 0; i < this.resourceCount; i++) {
+				if (actualKey.equals(this.resourceKeys[i])) {
+					return i;
+				}
+			}
+			return -1;
+		}
+
+		/**
+		 * Bind the given value to the given (already unwrapped) key.
+		 * @return the previously bound value, or {@code null} if none
+		 */
+		public Object putResource(Object actualKey, Object value) {
+			int index = indexOfResource(actualKey);
+			if (index >= 0) {
+				Object oldValue = this.resourceValues[index];
+				this.resourceValues[index] = value;
+				return oldValue;
+			}
+			if (this.resourceCount == this.resourceKeys.length) {
+				Object[] newKeys = new Object[this.resourceCount * 2];
+				Object[] newValues = new Object[this.resourceCount * 2];
+				System.arraycopy(this.resourceKeys, 0, newKeys, 0, this.resourceCount);
+				System.arraycopy(this.resourceValues, 0, newValues, 0, this.resourceCount);
+				this.resourceKeys = newKeys;
+				this.resourceValues = newValues;
+			}
+			this.resourceKeys[this.resourceCount] = actualKey;
+			this.resourceValues[this.resourceCount] = value;
+			this.resourceCount++;
+			return null;
+		}
+
+		/**
+		 * Remove the resource at the given index, keeping the order of the others.
+		 * @return the removed value
+		 */
+		public Object removeResource(int index) {
+			Object value = this.resourceValues[index];
+			int numMoved = this.resourceCount - index - 1;
+			if (numMoved > 0) {
+				System.arraycopy(this.resourceKeys, index + 1, this.resourceKeys, index, numMoved);
+				System.arraycopy(this.resourceValues, index + 1, this.resourceValues, index, numMoved);
+			}
+			this.resourceCount--;
+			this.resourceKeys[this.resourceCount] = null;
+			this.resourceValues[this.resourceCount] = null;
+			return value;
+		}
+
+		public void clearSynchronizations() {
+			this.synchronizationActive = false;
+			this.synchronizations.clear();
+			this.sortedSynchronizations = null;
+		}
+
+		/**
+		 * Return whether this context is back to its initial state.
+		 */
+		public boolean isEmpty() {
+			return (this.resourceCount == 0 && !this.synchronizationActive &&
+					this.currentTransactionName == null && !this.currentTransactionReadOnly &&
+					this.currentTransactionIsolationLevel == null && !this.actualTransactionActive);
+		}
 	}
 
 }
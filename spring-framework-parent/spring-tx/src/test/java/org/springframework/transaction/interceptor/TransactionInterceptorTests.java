@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2012 the original author or authors.
+ * Copyright 2002-2014 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -17,15 +17,29 @@
 package org.springframework.transaction.interceptor;
 
 import java.io.Serializable;
+import java.lang.reflect.Method;
 import java.util.Properties;
 
 import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.tests.sample.beans.ITestBean;
+import org.springframework.tests.sample.beans.TestBean;
+import org.springframework.transaction.CannotCreateTransactionException;
 import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.TransactionDefinition;
 import org.springframework.transaction.TransactionException;
 import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.UnexpectedRollbackException;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+import org.springframework.transaction.support.ResourceHolderSupport;
+import org.springframework.transaction.support.ResourceTransactionManager;
+import org.springframework.transaction.support.SmartTransactionObject;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.springframework.util.SerializationTestUtils;
 
+import static org.mockito.BDDMockito.*;
+
 /**
  * Mock object based tests for TransactionInterceptor.
  *
@@ -106,6 +120,244 @@ public class TransactionInterceptorTests extends AbstractTransactionAspectTests
 		assertTrue(ctas.getTransactionAttributeSources()[1] instanceof NameMatchTransactionAttributeSource);
 	}
 
+	public void testTransactionManagerCachedPerQualifier() throws Exception {
+		PlatformTransactionManager fooTm = mock(PlatformTransactionManager.class);
+		PlatformTransactionManager defaultTm = mock(PlatformTransactionManager.class);
+		BeanFactory beanFactory = mock(BeanFactory.class);
+		given(beanFactory.containsBean("fooTm")).willReturn(true);
+		given(beanFactory.getBean("fooTm", PlatformTransactionManager.class)).willReturn(fooTm);
+		given(beanFactory.getBean(PlatformTransactionManager.class)).willReturn(defaultTm);
+
+		TransactionInterceptor ti = new TransactionInterceptor();
+		ti.setBeanFactory(beanFactory);
+		DefaultTransactionAttribute fooAttr = new DefaultTransactionAttribute();
+		fooAttr.setQualifier("fooTm");
+		DefaultTransactionAttribute defaultAttr = new DefaultTransactionAttribute();
+
+		assertSame(fooTm, ti.determineTransactionManager(fooAttr));
+		assertSame(fooTm, ti.determineTransactionManager(fooAttr));
+		assertSame(defaultTm, ti.determineTransactionManager(defaultAttr));
+		assertSame(defaultTm, ti.determineTransactionManager(defaultAttr));
+		verify(beanFactory, times(1)).getBean("fooTm", PlatformTransactionManager.class);
+		verify(beanFactory, times(1)).getBean(PlatformTransactionManager.class);
+
+		ti.setBeanFactory(beanFactory);
+		assertSame(fooTm, ti.determineTransactionManager(fooAttr));
+		verify(beanFactory, times(2)).getBean("fooTm", PlatformTransactionManager.class);
+	}
+
+	public void testJoinedTransactionCommitsOnce() throws Exception {
+		final ResourceBindingTransactionManager tm = new ResourceBindingTransactionManager();
+		final ITestBean inner = (ITestBean) advised(new TestBean() {
+			@Override
+			public String getName() {
+				assertTrue(TransactionSynchronizationManager.hasResource(tm));
+				assertFalse(TransactionAspectSupport.currentTransactionStatus().isNewTransaction());
+				return super.getName();
+			}
+		}, tm, requiredAttributeSource());
+		TestBean outerTarget = new TestBean() {
+			@Override
+			public int getAge() {
+				TransactionStatus status = TransactionAspectSupport.currentTransactionStatus();
+				assertTrue(status.isNewTransaction());
+				inner.getName();
+				inner.getName();
+				assertSame(status, TransactionAspectSupport.currentTransactionStatus());
+				return super.getAge();
+			}
+		};
+		ITestBean outer = (ITestBean) advised(outerTarget, tm, requiredAttributeSource());
+
+		outer.getAge();
+		outer.getAge();
+		assertEquals(2, tm.begun);
+		assertEquals(2, tm.commits);
+		assertEquals(0, tm.rollbacks);
+		assertFalse(TransactionSynchronizationManager.hasResource(tm));
+		assertNull(TransactionAspectSupport.currentTransactionInfo());
+	}
+
+	public void testJoinedTransactionRollbackMarksGlobalRollbackOnly() throws Exception {
+		final ResourceBindingTransactionManager tm = new ResourceBindingTransactionManager();
+		final ITestBean inner = (ITestBean) advised(new TestBean(), tm, requiredAttributeSource());
+		TestBean outerTarget = new TestBean() {
+			@Override
+			public int getAge() {
+				try {
+					inner.exceptional(new IllegalStateException());
+					fail("Should have thrown IllegalStateException");
+				}
+				catch (Throwable ex) {
+					assertTrue(ex instanceof IllegalStateException);
+				}
+				assertTrue(TransactionAspectSupport.currentTransactionStatus().isRollbackOnly());
+				return super.getAge();
+			}
+		};
+		ITestBean outer = (ITestBean) advised(outerTarget, tm, requiredAttributeSource());
+
+		try {
+			outer.getAge();
+			fail("Should have thrown UnexpectedRollbackException");
+		}
+		catch (UnexpectedRollbackException ex) {
+			// expected
+		}
+		assertEquals(1, tm.begun);
+		assertEquals(0, tm.commits);
+		assertEquals(1, tm.rollbacks);
+		assertFalse(TransactionSynchronizationManager.hasResource(tm));
+	}
+
+	public void testJoinedRollbackParticipationFailureKeepsOriginalException() throws Exception {
+		final ResourceBindingTransactionManager tm = new ResourceBindingTransactionManager();
+		final ITestBean inner = (ITestBean) advised(new TestBean(), tm, requiredAttributeSource());
+		TestBean outerTarget = new TestBean() {
+			@Override
+			public int getAge() {
+				tm.failParticipation = true;
+				try {
+					inner.exceptional(new IllegalStateException());
+					fail("Should have thrown IllegalStateException");
+				}
+				catch (Throwable ex) {
+					assertTrue(ex instanceof IllegalStateException);
+				}
+				tm.failParticipation = false;
+				assertTrue(TransactionAspectSupport.currentTransactionStatus().isRollbackOnly());
+				return super.getAge();
+			}
+		};
+		ITestBean outer = (ITestBean) advised(outerTarget, tm, requiredAttributeSource());
+
+		outer.getAge();
+		assertEquals(1, tm.begun);
+		assertEquals(0, tm.commits);
+		assertEquals(1, tm.rollbacks);
+		assertFalse(TransactionSynchronizationManager.hasResource(tm));
+		assertNull(TransactionAspectSupport.currentTransactionInfo());
+	}
+
+	public void testInvocationPlanRequeriesDynamicAttributeSource() throws Exception {
+		ResourceBindingTransactionManager tm = new ResourceBindingTransactionManager();
+		final TransactionAttribute[] currentAttr = new TransactionAttribute[1];
+		TransactionAttributeSource tas = new TransactionAttributeSource() {
+			@Override
+			public TransactionAttribute getTransactionAttribute(Method method, Class<?> targetClass) {
+				return currentAttr[0];
+			}
+		};
+		ITestBean itb = (ITestBean) advised(new TestBean(), tm, tas);
+
+		currentAttr[0] = new DefaultTransactionAttribute();
+		itb.getAge();
+		assertEquals(1, tm.begun);
+		currentAttr[0] = null;
+		itb.getAge();
+		assertEquals(1, tm.begun);
+		currentAttr[0] = new DefaultTransactionAttribute(TransactionDefinition.PROPAGATION_NEVER);
+		itb.getAge();
+		assertEquals(1, tm.begun);
+		currentAttr[0] = new DefaultTransactionAttribute();
+		itb.getAge();
+		assertEquals(2, tm.begun);
+		assertEquals(2, tm.commits);
+	}
+
+	private TransactionAttributeSource requiredAttributeSource() {
+		NameMatchTransactionAttributeSource tas = new NameMatchTransactionAttributeSource();
+		Properties props = new Properties();
+		props.setProperty("*", "PROPAGATION_REQUIRED");
+		tas.setProperties(props);
+		return tas;
+	}
+
+
+	/**
+	 * Resource-local transaction manager that binds a resource holder
+	 * for the scope of each transaction, counting begin/commit/rollback calls.
+	 */
+	@SuppressWarnings("serial")
+	private static class ResourceBindingTransactionManager extends AbstractPlatformTransactionManager
+			implements ResourceTransactionManager {
+
+		private int begun;
+
+		private int commits;
+
+		private int rollbacks;
+
+		private boolean failParticipation;
+
+		@Override
+		public Object getResourceFactory() {
+			return this;
+		}
+
+		@Override
+		protected Object doGetTransaction() {
+			if (this.failParticipation) {
+				throw new CannotCreateTransactionException("Participation failure");
+			}
+			return new ResourceTransaction((ResourceHolderSupport) TransactionSynchronizationManager.getResource(this));
+		}
+
+		@Override
+		protected boolean isExistingTransaction(Object transaction) {
+			return (((ResourceTransaction) transaction).holder != null);
+		}
+
+		@Override
+		protected void doBegin(Object transaction, TransactionDefinition definition) {
+			ResourceHolderSupport holder = new ResourceHolderSupport() {};
+			holder.setSynchronizedWithTransaction(true);
+			((ResourceTransaction) transaction).holder = holder;
+			TransactionSynchronizationManager.bindResource(this, holder);
+			this.begun++;
+		}
+
+		@Override
+		protected void doCommit(DefaultTransactionStatus status) {
+			this.commits++;
+		}
+
+		@Override
+		protected void doRollback(DefaultTransactionStatus status) {
+			this.rollbacks++;
+		}
+
+		@Override
+		protected void doSetRollbackOnly(DefaultTransactionStatus status) {
+			((ResourceTransaction) status.getTransaction()).holder.setRollbackOnly();
+		}
+
+		@Override
+		protected void doCleanupAfterCompletion(Object transaction) {
+			TransactionSynchronizationManager.unbindResource(this);
+			((ResourceTransaction) transaction).holder.clear();
+		}
+	}
+
+
+	private static class ResourceTransaction implements SmartTransactionObject {
+
+		private ResourceHolderSupport holder;
+
+		public ResourceTransaction(ResourceHolderSupport holder) {
+			this.holder = holder;
+		}
+
+		@Override
+		public boolean isRollbackOnly() {
+			return this.holder.isRollbackOnly();
+		}
+
+		@Override
+		public void flush() {
+		}
+	}
+
 
 	/**
 	 * We won't use this: we just want to know it's serializable.
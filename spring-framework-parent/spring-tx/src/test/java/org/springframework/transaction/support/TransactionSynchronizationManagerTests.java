@@ -0,0 +1,149 @@
+/*
+ * Copyright 2002-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.springframework.transaction.support;
+
+import java.lang.reflect.Field;
+
+import org.junit.After;
+import org.junit.Test;
+
+import org.springframework.transaction.TransactionDefinition;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author agent
+ */
+public class TransactionSynchronizationManagerTests {
+
+	@After
+	public void verifyNoThreadState() throws Exception {
+		TransactionSynchronizationManager.removeThreadContext();
+		assertNull("Transaction context must not linger on the thread", getTransactionContext());
+	}
+
+
+	@Test
+	public void defaultsWithoutContext() throws Exception {
+		assertFalse(TransactionSynchronizationManager.isSynchronizationActive());
+		assertFalse(TransactionSynchronizationManager.isActualTransactionActive());
+		assertFalse(TransactionSynchronizationManager.isCurrentTransactionReadOnly());
+		assertNull(TransactionSynchronizationManager.getCurrentTransactionName());
+		assertNull(TransactionSynchronizationManager.getCurrentTransactionIsolationLevel());
+		assertNull(TransactionSynchronizationManager.getResource("key"));
+		assertFalse(TransactionSynchronizationManager.hasResource("key"));
+		assertNull(TransactionSynchronizationManager.unbindResourceIfPossible("key"));
+		assertTrue(TransactionSynchronizationManager.getResourceMap().isEmpty());
+		TransactionSynchronizationManager.setCurrentTransactionName(null);
+		TransactionSynchronizationManager.setActualTransactionActive(false);
+		assertNull(getTransactionContext());
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void registerSynchronizationWithoutContext() {
+		TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {});
+	}
+
+	@Test
+	public void contextResetAfterTransactionCleanup() throws Exception {
+		TransactionSynchronizationManager.initSynchronization();
+		TransactionSynchronizationManager.setActualTransactionActive(true);
+		TransactionSynchronizationManager.setCurrentTransactionName("tx");
+		TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+		TransactionSynchronizationManager.setCurrentTransactionIsolationLevel(
+				TransactionDefinition.ISOLATION_SERIALIZABLE);
+		TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {});
+		assertNotNull(getTransactionContext());
+		assertEquals("tx", TransactionSynchronizationManager.getCurrentTransactionName());
+		assertEquals(1, TransactionSynchronizationManager.getSynchronizations().size());
+
+		TransactionSynchronizationManager.clear();
+		assertFalse(TransactionSynchronizationManager.isSynchronizationActive());
+		assertFalse(TransactionSynchronizationManager.isActualTransactionActive());
+		assertFalse(TransactionSynchronizationManager.isCurrentTransactionReadOnly());
+		assertNull(TransactionSynchronizationManager.getCurrentTransactionName());
+		assertNull(TransactionSynchronizationManager.getCurrentTransactionIsolationLevel());
+	}
+
+	@Test
+	public void contextReusedAcrossTransactions() throws Exception {
+		TransactionSynchronizationManager.initSynchronization();
+		TransactionSynchronizationManager.bindResource("key", "value");
+		Object context = getTransactionContext();
+		TransactionSynchronizationManager.unbindResource("key");
+		TransactionSynchronizationManager.clear();
+		assertSame(context, getTransactionContext());
+
+		TransactionSynchronizationManager.initSynchronization();
+		TransactionSynchronizationManager.bindResource("key", "value");
+		assertSame(context, getTransactionContext());
+		TransactionSynchronizationManager.unbindResource("key");
+		TransactionSynchronizationManager.clear();
+	}
+
+	@Test
+	public void removeThreadContextWithBoundState() throws Exception {
+		TransactionSynchronizationManager.bindResource("key", "value");
+		try {
+			TransactionSynchronizationManager.removeThreadContext();
+			fail("Should have thrown IllegalStateException");
+		}
+		catch (IllegalStateException ex) {
+			// expected
+		}
+		assertEquals("value", TransactionSynchronizationManager.unbindResource("key"));
+	}
+
+	@Test
+	public void contextResetAfterLastResourceUnbound() throws Exception {
+		TransactionSynchronizationManager.bindResource("key1", "value1");
+		TransactionSynchronizationManager.bindResource("key2", "value2");
+		assertEquals("value1", TransactionSynchronizationManager.getResource("key1"));
+		assertEquals(2, TransactionSynchronizationManager.getResourceMap().size());
+
+		TransactionSynchronizationManager.unbindResource("key1");
+		TransactionSynchronizationManager.unbindResource("key2");
+		assertTrue(TransactionSynchronizationManager.getResourceMap().isEmpty());
+		assertNull(TransactionSynchronizationManager.getResource("key1"));
+	}
+
+	@Test
+	public void contextResetAfterVoidResourceHolderDiscarded() throws Exception {
+		ResourceHolderSupport holder = new ResourceHolderSupport() {};
+		TransactionSynchronizationManager.bindResource("key", holder);
+		holder.unbound();
+		assertNull(TransactionSynchronizationManager.getResource("key"));
+		assertFalse(TransactionSynchronizationManager.hasResource("key"));
+	}
+
+	@Test
+	public void contextResetAfterCharacteristicsReset() throws Exception {
+		TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+		assertNotNull(getTransactionContext());
+		TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+		assertFalse(TransactionSynchronizationManager.isCurrentTransactionReadOnly());
+	}
+
+
+	private static Object getTransactionContext() throws Exception {
+		Field field = TransactionSynchronizationManager.class.getDeclaredField("transactionContext");
+		field.setAccessible(true);
+		return ((ThreadLocal<?>) field.get(null)).get();
+	}
+
+}
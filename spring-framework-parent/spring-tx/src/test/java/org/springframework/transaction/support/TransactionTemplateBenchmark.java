@@ -0,0 +1,160 @@
+/*
+ * Copyright 2002-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.transaction.support;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+
+/**
+ * JMH benchmark for short {@link TransactionTemplate#execute} calls against a
+ * resource-binding transaction manager, measuring the per-transaction overhead
+ * of {@link AbstractPlatformTransactionManager} and
+ * {@link TransactionSynchronizationManager}.
+ *
+ * <p>Run through {@link #main}, or via the JMH runner with
+ * {@code -prof gc} in order to check the allocation rate per transaction.
+ *
+ * @author agent
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TransactionTemplateBenchmark {
+
+	private TransactionTemplate transactionTemplate;
+
+	private TransactionTemplate readOnlyTransactionTemplate;
+
+	private TransactionCallback<Object> callback;
+
+	private TransactionCallback<Object> nestedCallback;
+
+
+	@Setup
+	public void setUp() {
+		final ResourceBindingTransactionManager tm = new ResourceBindingTransactionManager();
+		this.transactionTemplate = new TransactionTemplate(tm);
+		this.readOnlyTransactionTemplate = new TransactionTemplate(tm);
+		this.readOnlyTransactionTemplate.setReadOnly(true);
+		this.readOnlyTransactionTemplate.setIsolationLevel(TransactionDefinition.ISOLATION_READ_COMMITTED);
+		this.callback = new TransactionCallback<Object>() {
+			@Override
+			public Object doInTransaction(TransactionStatus status) {
+				return TransactionSynchronizationManager.getResource(tm);
+			}
+		};
+		this.nestedCallback = new TransactionCallback<Object>() {
+			@Override
+			public Object doInTransaction(TransactionStatus status) {
+				return transactionTemplate.execute(callback);
+			}
+		};
+	}
+
+
+	@Benchmark
+	public Object execute() {
+		return this.transactionTemplate.execute(this.callback);
+	}
+
+	@Benchmark
+	public Object executeReadOnly() {
+		return this.readOnlyTransactionTemplate.execute(this.callback);
+	}
+
+	@Benchmark
+	public Object executeParticipating() {
+		return this.transactionTemplate.execute(this.nestedCallback);
+	}
+
+
+	public static void main(String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder().include(TransactionTemplateBenchmark.class.getSimpleName()).build()).run();
+	}
+
+
+	/**
+	 * Transaction manager that binds a resource holder for the scope of each
+	 * transaction, analogous to DataSourceTransactionManager but without any
+	 * actual resource.
+	 */
+	@SuppressWarnings("serial")
+	private static class ResourceBindingTransactionManager extends AbstractPlatformTransactionManager {
+
+		@Override
+		protected Object doGetTransaction() {
+			return new Transaction((ResourceHolderSupport) TransactionSynchronizationManager.getResource(this));
+		}
+
+		@Override
+		protected boolean isExistingTransaction(Object transaction) {
+			return (((Transaction) transaction).holder != null);
+		}
+
+		@Override
+		protected void doBegin(Object transaction, TransactionDefinition definition) {
+			ResourceHolderSupport holder = new ResourceHolderSupport() {};
+			holder.setSynchronizedWithTransaction(true);
+			((Transaction) transaction).holder = holder;
+			TransactionSynchronizationManager.bindResource(this, holder);
+		}
+
+		@Override
+		protected void doCommit(DefaultTransactionStatus status) {
+		}
+
+		@Override
+		protected void doRollback(DefaultTransactionStatus status) {
+		}
+
+		@Override
+		protected void doCleanupAfterCompletion(Object transaction) {
+			TransactionSynchronizationManager.unbindResource(this);
+			((Transaction) transaction).holder.clear();
+		}
+	}
+
+
+	private static class Transaction {
+
+		private ResourceHolderSupport holder;
+
+		public Transaction(ResourceHolderSupport holder) {
+			this.holder = holder;
+		}
+	}
+
+}
@@ -0,0 +1,49 @@
+/*
+ * Copyright 2002-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.http;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Strategy for obtaining {@link ByteBuffer ByteBuffers} for HTTP message I/O,
+ * typically reusing buffers across requests instead of allocating a fresh
+ * buffer for every message.
+ *
+ * <p>Acquired buffers are cleared and ready for use; they must be handed back
+ * through {@link #release} once no longer needed, and must not be used after
+ * that point anymore.
+ *
+ * @author agent
+ * @since 3.2.12
+ * @see DefaultByteBufferPool
+ * @see org.springframework.http.converter.AbstractHttpMessageConverter#setBufferPool
+ */
+public interface ByteBufferPool {
+
+	/**
+	 * Obtain a buffer from the pool, allocating a new one if necessary.
+	 * @return a cleared buffer (never {@code null})
+	 */
+	ByteBuffer acquire();
+
+	/**
+	 * Return the given buffer to the pool.
+	 * @param buffer a buffer previously obtained through {@link #acquire()}
+	 */
+	void release(ByteBuffer buffer);
+
+}
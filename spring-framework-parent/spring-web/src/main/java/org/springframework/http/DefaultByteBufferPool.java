@@ -0,0 +1,145 @@
+/*
+ * Copyright 2002-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.http;
+
+import java.nio.ByteBuffer;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.util.Assert;
+
+/**
+ * Default thread-safe {@link ByteBufferPool} implementation, holding on to
+ * a bounded number of fixed-size heap or direct buffers.
+ *
+ * <p>Buffers released beyond the {@link #setMaxPoolSize maximum pool size}
+ * as well as buffers of a different size or kind are simply dropped.
+ * The number of buffers allocated so far is exposed through
+ * {@link #getAllocationCount()} for monitoring purposes.
+ *
+ * @author agent
+ * @since 3.2.12
+ */
+public class DefaultByteBufferPool implements ByteBufferPool {
+
+	/** The default buffer size: 8 KB */
+	public static final int DEFAULT_BUFFER_SIZE = 8192;
+
+
+	private int bufferSize = DEFAULT_BUFFER_SIZE;
+
+	private boolean direct = false;
+
+	private int maxPoolSize = 64;
+
+	private final Queue<ByteBuffer> pool = new ConcurrentLinkedQueue<ByteBuffer>();
+
+	private final AtomicInteger poolSize = new AtomicInteger();
+
+	private final AtomicLong allocationCount = new AtomicLong();
+
+
+	/**
+	 * Set the capacity of the buffers to hand out. Default is 8 KB.
+	 */
+	public void setBufferSize(int bufferSize) {
+		Assert.isTrue(bufferSize > 0, "Buffer size must be greater than 0");
+		this.bufferSize = bufferSize;
+	}
+
+	/**
+	 * Return the capacity of the buffers handed out by this pool.
+	 */
+	public int getBufferSize() {
+		return this.bufferSize;
+	}
+
+	/**
+	 * Set whether to hand out direct buffers rather than heap buffers.
+	 * <p>Default is "false". Direct buffers only pay off for channel-based
+	 * I/O; converters copying between streams require array-backed buffers
+	 * for copying without an intermediate array.
+	 * @see java.nio.ByteBuffer#allocateDirect
+	 */
+	public void setDirect(boolean direct) {
+		this.direct = direct;
+	}
+
+	/**
+	 * Return whether this pool hands out direct buffers.
+	 */
+	public boolean isDirect() {
+		return this.direct;
+	}
+
+	/**
+	 * Set the maximum number of idle buffers to keep. Default is 64.
+	 */
+	public void setMaxPoolSize(int maxPoolSize) {
+		Assert.isTrue(maxPoolSize >= 0, "Max pool size must not be negative");
+		this.maxPoolSize = maxPoolSize;
+	}
+
+	/**
+	 * Return the maximum number of idle buffers to keep.
+	 */
+	public int getMaxPoolSize() {
+		return this.maxPoolSize;
+	}
+
+
+	public ByteBuffer acquire() {
+		ByteBuffer buffer = this.pool.poll();
+		if (buffer != null) {
+			this.poolSize.decrementAndGet();
+			buffer.clear();
+			return buffer;
+		}
+		this.allocationCount.incrementAndGet();
+		return (this.direct ? ByteBuffer.allocateDirect(this.bufferSize) : ByteBuffer.allocate(this.bufferSize));
+	}
+
+	public void release(ByteBuffer buffer) {
+		if (buffer == null || buffer.capacity() != this.bufferSize || buffer.isDirect() != this.direct ||
+				buffer.isReadOnly()) {
+			return;
+		}
+		if (this.poolSize.incrementAndGet() <= this.maxPoolSize) {
+			this.pool.offer(buffer);
+		}
+		else {
+			this.poolSize.decrementAndGet();
+		}
+	}
+
+	/**
+	 * Return the number of idle buffers currently held by this pool.
+	 */
+	public int getPoolSize() {
+		return this.poolSize.get();
+	}
+
+	/**
+	 * Return the number of buffers allocated by this pool so far.
+	 */
+	public long getAllocationCount() {
+		return this.allocationCount.get();
+	}
+
+}
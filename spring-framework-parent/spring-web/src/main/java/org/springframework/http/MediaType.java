@@ -28,7 +28,11 @@ import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.Queue;
 import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
 
 import org.springframework.util.Assert;
 import org.springframework.util.CollectionUtils;
@@ -42,6 +46,8 @@ import org.springframework.util.comparator.CompoundComparator;
  * <p>Consists of a {@linkplain #getType() type} and a {@linkplain #getSubtype() subtype}.
  * Also has functionality to parse media types from a string using {@link #parseMediaType(String)},
  * or multiple comma-separated media types using {@link #parseMediaTypes(String)}.
+ * Parsed values are kept in a bounded cache, since the same Content-Type and Accept
+ * header values tend to come in over and over again.
  *
  * @author Arjen Poutsma
  * @author Juergen Hoeller
@@ -200,6 +206,21 @@ public class MediaType implements Comparable<MediaType> {
 
 	private static final String PARAM_CHARSET = "charset";
 
+	/** Maximum number of entries in each of the parse caches */
+	private static final int CACHE_LIMIT = 256;
+
+	/** Cache of media type String to parsed MediaType (immutable, hence shareable) */
+	private static final ConcurrentMap<String, MediaType> mediaTypeCache =
+			new ConcurrentHashMap<String, MediaType>(CACHE_LIMIT);
+
+	private static final Queue<String> mediaTypeCacheKeys = new ConcurrentLinkedQueue<String>();
+
+	/** Cache of comma-separated media types String to unmodifiable list of parsed MediaTypes */
+	private static final ConcurrentMap<String, List<MediaType>> mediaTypesCache =
+			new ConcurrentHashMap<String, List<MediaType>>(CACHE_LIMIT);
+
+	private static final Queue<String> mediaTypesCacheKeys = new ConcurrentLinkedQueue<String>();
+
 
 	private final String type;
 
@@ -685,6 +706,18 @@ public class MediaType implements Comparable<MediaType> {
 	 */
 	public static MediaType parseMediaType(String mediaType) {
 		Assert.hasLength(mediaType, "'mediaType' must not be empty");
+		MediaType result = mediaTypeCache.get(mediaType);
+		if (result == null) {
+			result = parseMediaTypeInternal(mediaType);
+			if (mediaTypeCache.putIfAbsent(mediaType, result) == null) {
+				mediaTypeCacheKeys.add(mediaType);
+				evictIfNecessary(mediaTypeCache, mediaTypeCacheKeys);
+			}
+		}
+		return result;
+	}
+
+	private static MediaType parseMediaTypeInternal(String mediaType) {
 		String[] parts = StringUtils.tokenizeToStringArray(mediaType, ";");
 
 		String fullType = parts[0].trim();
@@ -742,12 +775,31 @@ public class MediaType implements Comparable<MediaType> {
 		if (!StringUtils.hasLength(mediaTypes)) {
 			return Collections.emptyList();
 		}
-		String[] tokens = mediaTypes.split(",\\s*");
-		List<MediaType> result = new ArrayList<MediaType>(tokens.length);
-		for (String token : tokens) {
-			result.add(parseMediaType(token));
+		List<MediaType> cached = mediaTypesCache.get(mediaTypes);
+		if (cached == null) {
+			String[] tokens = mediaTypes.split(",\\s*");
+			List<MediaType> result = new ArrayList<MediaType>(tokens.length);
+			for (String token : tokens) {
+				result.add(parseMediaType(token));
+			}
+			cached = Collections.unmodifiableList(result);
+			if (mediaTypesCache.putIfAbsent(mediaTypes, cached) == null) {
+				mediaTypesCacheKeys.add(mediaTypes);
+				evictIfNecessary(mediaTypesCache, mediaTypesCacheKeys);
+			}
+		}
+		// Callers may sort the returned list: hand out a copy of the cached one
+		return new ArrayList<MediaType>(cached);
+	}
+
+	private static <V> void evictIfNecessary(Map<String, V> cache, Queue<String> keys) {
+		while (cache.size() > CACHE_LIMIT) {
+			String eldestKey = keys.poll();
+			if (eldestKey == null) {
+				break;
+			}
+			cache.remove(eldestKey);
 		}
-		return result;
 	}
 
 	/**
@@ -16,7 +16,14 @@
 
 package org.springframework.http.converter;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
@@ -25,18 +32,22 @@ import java.util.List;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
+import org.springframework.http.ByteBufferPool;
+import org.springframework.http.DefaultByteBufferPool;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpInputMessage;
 import org.springframework.http.HttpOutputMessage;
 import org.springframework.http.MediaType;
 import org.springframework.util.Assert;
+import org.springframework.util.StreamUtils;
 
 /**
  * Abstract base class for most {@link HttpMessageConverter} implementations.
  *
  * <p>This base class adds support for setting supported {@code MediaTypes}, through the
  * {@link #setSupportedMediaTypes(List) supportedMediaTypes} bean property. It also adds
- * support for {@code Content-Type} and {@code Content-Length} when writing to output messages.
+ * support for {@code Content-Type} and {@code Content-Length} when writing to output messages,
+ * and copy methods for subclasses which go through a shared {@link ByteBufferPool}.
  *
  * @author Arjen Poutsma
  * @author Juergen Hoeller
@@ -44,11 +55,16 @@ import org.springframework.util.Assert;
  */
 public abstract class AbstractHttpMessageConverter<T> implements HttpMessageConverter<T> {
 
+	private static final ByteBufferPool defaultBufferPool = new DefaultByteBufferPool();
+
+
 	/** Logger available to subclasses */
 	protected final Log logger = LogFactory.getLog(getClass());
 
 	private List<MediaType> supportedMediaTypes = Collections.emptyList();
 
+	private ByteBufferPool bufferPool = defaultBufferPool;
+
 
 	/**
 	 * Construct an {@code AbstractHttpMessageConverter} with no supported media types.
@@ -86,6 +102,23 @@ public abstract class AbstractHttpMessageConverter<T> implements HttpMessageConv
 		return Collections.unmodifiableList(this.supportedMediaTypes);
 	}
 
+	/**
+	 * Set the pool to obtain copy buffers from.
+	 * <p>Default is a {@link DefaultByteBufferPool} shared by all converters.
+	 * @see #copy(InputStream, OutputStream)
+	 */
+	public void setBufferPool(ByteBufferPool bufferPool) {
+		Assert.notNull(bufferPool, "ByteBufferPool must not be null");
+		this.bufferPool = bufferPool;
+	}
+
+	/**
+	 * Return the pool to obtain copy buffers from.
+	 */
+	public ByteBufferPool getBufferPool() {
+		return this.bufferPool;
+	}
+
 
 	/**
 	 * This implementation checks if the given class is {@linkplain #supports(Class) supported},
@@ -235,4 +268,95 @@ public abstract class AbstractHttpMessageConverter<T> implements HttpMessageConv
 	protected abstract void writeInternal(T t, HttpOutputMessage outputMessage)
 			throws IOException, HttpMessageNotWritableException;
 
+
+
+	/**
+	 * Copy the contents of the given InputStream to the given OutputStream,
+	 * using a buffer from the {@link #setBufferPool buffer pool}.
+	 * Leaves both streams open when done.
+	 * @param in the InputStream to copy from
+	 * @param out the OutputStream to copy to
+	 * @return the number of bytes copied
+	 * @throws IOException in case of I/O errors
+	 */
+	protected long copy(InputStream in, OutputStream out) throws IOException {
+		ByteBuffer buffer = this.bufferPool.acquire();
+		try {
+			long byteCount = 0;
+			if (buffer.hasArray()) {
+				byte[] array = buffer.array();
+				int offset = buffer.arrayOffset();
+				int length = buffer.capacity();
+				int bytesRead;
+				while ((bytesRead = in.read(array, offset, length)) != -1) {
+					out.write(array, offset, bytesRead);
+					byteCount += bytesRead;
+				}
+			}
+			else {
+				ReadableByteChannel inChannel = Channels.newChannel(in);
+				WritableByteChannel outChannel = Channels.newChannel(out);
+				while (inChannel.read(buffer) != -1) {
+					buffer.flip();
+					byteCount += buffer.remaining();
+					while (buffer.hasRemaining()) {
+						outChannel.write(buffer);
+					}
+					buffer.clear();
+				}
+			}
+			out.flush();
+			return byteCount;
+		}
+		finally {
+			this.bufferPool.release(buffer);
+		}
+	}
+
+	/**
+	 * Copy the contents of the given InputStream into a new byte array.
+	 * <p>With a known content length, the content is read into an array that
+	 * starts at no more than {@link StreamUtils#BUFFER_SIZE} and grows towards
+	 * the announced length as data actually arrives, so a large announced length
+	 * does not cause a large upfront allocation; otherwise the content is
+	 * collected through a pooled buffer. Leaves the stream open when done.
+	 * @param in the InputStream to copy from
+	 * @param contentLength the expected number of bytes, or -1 if not known
+	 * @return the new byte array
+	 * @throws IOException in case of I/O errors
+	 */
+	protected byte[] copyToByteArray(InputStream in, long contentLength) throws IOException {
+		if (contentLength >= 0 && contentLength < Integer.MAX_VALUE) {
+			byte[] bytes = new byte[(int) Math.min(contentLength, StreamUtils.BUFFER_SIZE)];
+			int offset = 0;
+			while (offset < contentLength) {
+				if (offset == bytes.length) {
+					byte[] grown = new byte[(int) Math.min((long) bytes.length * 2, contentLength)];
+					System.arraycopy(bytes, 0, grown, 0, offset);
+					bytes = grown;
+				}
+				int bytesRead = in.read(bytes, offset, bytes.length - offset);
+				if (bytesRead == -1) {
+					byte[] truncated = new byte[offset];
+					System.arraycopy(bytes, 0, truncated, 0, offset);
+					return truncated;
+				}
+				offset += bytesRead;
+			}
+			int next = in.read();
+			if (next == -1) {
+				return bytes;
+			}
+			// More content than announced: continue with a growing buffer
+			ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length + StreamUtils.BUFFER_SIZE);
+			out.write(bytes);
+			out.write(next);
+			copy(in, out);
+			return out.toByteArray();
+		}
+		ByteArrayOutputStream out = new ByteArrayOutputStream(StreamUtils.BUFFER_SIZE);
+		copy(in, out);
+		return out.toByteArray();
+	}
+
 }
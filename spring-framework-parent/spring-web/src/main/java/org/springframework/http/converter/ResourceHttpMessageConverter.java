@@ -16,20 +16,24 @@
 
 package org.springframework.http.converter;
 
+import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
 import javax.activation.FileTypeMap;
 import javax.activation.MimetypesFileTypeMap;
 
 import org.springframework.core.io.ByteArrayResource;
 import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.FileSystemResource;
 import org.springframework.core.io.InputStreamResource;
 import org.springframework.core.io.Resource;
 import org.springframework.http.HttpInputMessage;
 import org.springframework.http.HttpOutputMessage;
 import org.springframework.http.MediaType;
 import org.springframework.util.ClassUtils;
-import org.springframework.util.StreamUtils;
 import org.springframework.util.StringUtils;
 
 /**
@@ -39,7 +43,12 @@ import org.springframework.util.StringUtils;
  * if available - is used to determine the {@code Content-Type} of written resources.
  * If JAF is not available, {@code application/octet-stream} is used.
  *
+ * <p>A {@link FileSystemResource} is sent through {@link FileChannel#transferTo} if the
+ * output message body is a {@link WritableByteChannel}, allowing the operating system
+ * to send the file without copying it through the JVM heap.
+ *
  * @author Arjen Poutsma
+ * @author agent
  * @since 3.0.2
  */
 public class ResourceHttpMessageConverter extends AbstractHttpMessageConverter<Resource> {
@@ -62,7 +71,7 @@ public class ResourceHttpMessageConverter extends AbstractHttpMessageConverter<R
 	protected Resource readInternal(Class<? extends Resource> clazz, HttpInputMessage inputMessage)
 			throws IOException, HttpMessageNotReadableException {
 
-		byte[] body = StreamUtils.copyToByteArray(inputMessage.getBody());
+		byte[] body = copyToByteArray(inputMessage.getBody(), inputMessage.getHeaders().getContentLength());
 		return new ByteArrayResource(body);
 	}
 
@@ -87,9 +96,15 @@ public class ResourceHttpMessageConverter extends AbstractHttpMessageConverter<R
 	protected void writeInternal(Resource resource, HttpOutputMessage outputMessage)
 			throws IOException, HttpMessageNotWritableException {
 
+		OutputStream body = outputMessage.getBody();
+		if (resource instanceof FileSystemResource && body instanceof WritableByteChannel) {
+			transferFile((FileSystemResource) resource, (WritableByteChannel) body);
+			body.flush();
+			return;
+		}
 		InputStream in = resource.getInputStream();
 		try {
-			StreamUtils.copy(in, outputMessage.getBody());
+			copy(in, body);
 		}
 		finally {
 			try {
@@ -98,7 +113,25 @@ public class ResourceHttpMessageConverter extends AbstractHttpMessageConverter<R
 			catch (IOException ex) {
 			}
 		}
-		outputMessage.getBody().flush();
+		body.flush();
+	}
+
+	private void transferFile(FileSystemResource resource, WritableByteChannel target) throws IOException {
+		FileChannel fileChannel = new FileInputStream(resource.getFile()).getChannel();
+		try {
+			long position = 0;
+			long size = fileChannel.size();
+			while (position < size) {
+				position += fileChannel.transferTo(position, size - position, target);
+			}
+		}
+		finally {
+			try {
+				fileChannel.close();
+			}
+			catch (IOException ex) {
+			}
+		}
 	}
 
 
@@ -25,7 +25,6 @@ import java.util.List;
 import org.springframework.http.HttpInputMessage;
 import org.springframework.http.HttpOutputMessage;
 import org.springframework.http.MediaType;
-import org.springframework.util.StreamUtils;
 
 /**
  * Implementation of {@link HttpMessageConverter} that can read and write strings.
@@ -85,7 +84,8 @@ public class StringHttpMessageConverter extends AbstractHttpMessageConverter<Str
 	@Override
 	protected String readInternal(Class<? extends String> clazz, HttpInputMessage inputMessage) throws IOException {
 		Charset charset = getContentTypeCharset(inputMessage.getHeaders().getContentType());
-		return StreamUtils.copyToString(inputMessage.getBody(), charset);
+		byte[] bytes = copyToByteArray(inputMessage.getBody(), inputMessage.getHeaders().getContentLength());
+		return new String(bytes, charset.name());
 	}
 
 	@Override
@@ -106,7 +106,7 @@ public class StringHttpMessageConverter extends AbstractHttpMessageConverter<Str
 			outputMessage.getHeaders().setAcceptCharset(getAcceptedCharsets());
 		}
 		Charset charset = getContentTypeCharset(outputMessage.getHeaders().getContentType());
-		StreamUtils.copy(str, charset, outputMessage.getBody());
+		outputMessage.getBody().write(str.getBytes(charset.name()));
 	}
 
 
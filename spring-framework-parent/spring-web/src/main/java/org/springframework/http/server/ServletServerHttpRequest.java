@@ -17,11 +17,8 @@
 package org.springframework.http.server;
 
 import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.OutputStreamWriter;
-import java.io.Writer;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.URLEncoder;
@@ -154,31 +151,28 @@ public class ServletServerHttpRequest implements ServerHttpRequest {
 	 * to access a parameter thus causing the input stream to be "consumed".
 	 */
 	private InputStream getBodyFromServletRequestParameters(HttpServletRequest request) throws IOException {
-		ByteArrayOutputStream bos = new ByteArrayOutputStream(1024);
-		Writer writer = new OutputStreamWriter(bos, FORM_CHARSET);
-
+		StringBuilder builder = new StringBuilder(256);
 		Map<String, String[]> form = request.getParameterMap();
 		for (Iterator<String> nameIterator = form.keySet().iterator(); nameIterator.hasNext();) {
 			String name = nameIterator.next();
 			List<String> values = Arrays.asList(form.get(name));
 			for (Iterator<String> valueIterator = values.iterator(); valueIterator.hasNext();) {
 				String value = valueIterator.next();
-				writer.write(URLEncoder.encode(name, FORM_CHARSET));
+				builder.append(URLEncoder.encode(name, FORM_CHARSET));
 				if (value != null) {
-					writer.write('=');
-					writer.write(URLEncoder.encode(value, FORM_CHARSET));
+					builder.append('=');
+					builder.append(URLEncoder.encode(value, FORM_CHARSET));
 					if (valueIterator.hasNext()) {
-						writer.write('&');
+						builder.append('&');
 					}
 				}
 			}
 			if (nameIterator.hasNext()) {
-				writer.append('&');
+				builder.append('&');
 			}
 		}
-		writer.flush();
-
-		return new ByteArrayInputStream(bos.toByteArray());
+		// URL-encoded content is plain ASCII: no need for a Writer and its encoding buffer
+		return new ByteArrayInputStream(builder.toString().getBytes(FORM_CHARSET));
 	}
 
 }
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2012 the original author or authors.
+ * Copyright 2002-2014 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -23,21 +23,27 @@ import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
 import java.io.OutputStream;
 import java.rmi.RemoteException;
+import java.util.Arrays;
+import java.util.List;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
 import org.springframework.beans.factory.BeanClassLoaderAware;
 import org.springframework.remoting.rmi.CodebaseAwareObjectInputStream;
+import org.springframework.remoting.support.BatchRemoteInvocation;
 import org.springframework.remoting.support.RemoteInvocation;
+import org.springframework.remoting.support.RemoteInvocationCodec;
 import org.springframework.remoting.support.RemoteInvocationResult;
 import org.springframework.util.Assert;
+import org.springframework.util.ClassUtils;
 
 /**
  * Abstract base implementation of the HttpInvokerRequestExecutor interface.
  *
  * <p>Pre-implements serialization of RemoteInvocation objects and
- * deserialization of RemoteInvocationResults objects.
+ * deserialization of RemoteInvocationResults objects, either through
+ * Java serialization or through a pluggable {@link RemoteInvocationCodec}.
  *
  * @author Juergen Hoeller
  * @since 1.1
@@ -76,6 +82,8 @@ public abstract class AbstractHttpInvokerRequestExecutor
 
 	private boolean acceptGzipEncoding = true;
 
+	private RemoteInvocationCodec codec;
+
 	private ClassLoader beanClassLoader;
 
 
@@ -89,10 +97,11 @@ public abstract class AbstractHttpInvokerRequestExecutor
 	}
 
 	/**
-	 * Return the content type to use for sending HTTP invoker requests.
+	 * Return the content type to use for sending HTTP invoker requests:
+	 * the content type of the configured {@link #setCodec codec}, if any.
 	 */
 	public String getContentType() {
-		return this.contentType;
+		return (this.codec != null ? this.codec.getContentType() : this.contentType);
 	}
 
 	/**
@@ -113,6 +122,24 @@ public abstract class AbstractHttpInvokerRequestExecutor
 		return this.acceptGzipEncoding;
 	}
 
+	/**
+	 * Specify a codec to use instead of Java serialization, e.g. a
+	 * {@link org.springframework.remoting.support.CompactRemoteInvocationCodec}.
+	 * <p>Requests will be sent with the codec's content type; the service
+	 * exporter on the server side needs to be configured with the same codec.
+	 * @see org.springframework.remoting.rmi.RemoteInvocationSerializingExporter#setCodec
+	 */
+	public void setCodec(RemoteInvocationCodec codec) {
+		this.codec = codec;
+	}
+
+	/**
+	 * Return the codec to use instead of Java serialization, if any.
+	 */
+	public RemoteInvocationCodec getCodec() {
+		return this.codec;
+	}
+
 	public void setBeanClassLoader(ClassLoader classLoader) {
 		this.beanClassLoader = classLoader;
 	}
@@ -136,6 +163,36 @@ public abstract class AbstractHttpInvokerRequestExecutor
 		return doExecuteRequest(config, baos);
 	}
 
+	/**
+	 * Execute the given remote invocations in a single HTTP request,
+	 * through a {@link BatchRemoteInvocation}.
+	 * <p>The results are returned in the order of the given invocations.
+	 * The exporter on the server side needs to be able to handle batch
+	 * invocations, which Spring's exporters do as of 3.2.12.
+	 * @param config the HTTP invoker configuration that specifies the target service
+	 * @param invocations the RemoteInvocations to execute
+	 * @return the RemoteInvocationResults, one per invocation
+	 * @throws Exception in case of general errors
+	 * @see #executeRequest
+	 */
+	public List<RemoteInvocationResult> executeRequests(
+			HttpInvokerClientConfiguration config, List<RemoteInvocation> invocations) throws Exception {
+
+		RemoteInvocation batch = new BatchRemoteInvocation(invocations.toArray(new RemoteInvocation[invocations.size()]));
+		RemoteInvocationResult batchResult = executeRequest(config, batch);
+		if (batchResult.hasException()) {
+			Throwable ex = batchResult.getException();
+			throw (ex instanceof Exception ? (Exception) ex : new RemoteException("Batch invocation failed", ex));
+		}
+		Object value = batchResult.getValue();
+		if (!(value instanceof RemoteInvocationResult[]) ||
+				((RemoteInvocationResult[]) value).length != invocations.size()) {
+			throw new RemoteException("Batch invocation result needs to be an array of [" +
+					RemoteInvocationResult.class.getName() + "] with one element per invocation: " + value);
+		}
+		return Arrays.asList((RemoteInvocationResult[]) value);
+	}
+
 	/**
 	 * Serialize the given RemoteInvocation into a ByteArrayOutputStream.
 	 * @param invocation the RemoteInvocation object
@@ -153,7 +210,8 @@ public abstract class AbstractHttpInvokerRequestExecutor
 	 * <p>The default implementation gives {@code decorateOutputStream} a chance
 	 * to decorate the stream first (for example, for custom encryption or compression).
 	 * Creates an {@code ObjectOutputStream} for the final stream and calls
-	 * {@code doWriteRemoteInvocation} to actually write the object.
+	 * {@code doWriteRemoteInvocation} to actually write the object, unless
+	 * a {@link #setCodec codec} has been specified.
 	 * <p>Can be overridden for custom serialization of the invocation.
 	 * @param invocation the RemoteInvocation object
 	 * @param os the OutputStream to write to
@@ -162,6 +220,16 @@ public abstract class AbstractHttpInvokerRequestExecutor
 	 * @see #doWriteRemoteInvocation
 	 */
 	protected void writeRemoteInvocation(RemoteInvocation invocation, OutputStream os) throws IOException {
+		if (this.codec != null) {
+			OutputStream decorated = decorateOutputStream(os);
+			try {
+				this.codec.encode(invocation, decorated);
+			}
+			finally {
+				decorated.close();
+			}
+			return;
+		}
 		ObjectOutputStream oos = new ObjectOutputStream(decorateOutputStream(os));
 		try {
 			doWriteRemoteInvocation(invocation, oos);
@@ -222,7 +290,9 @@ public abstract class AbstractHttpInvokerRequestExecutor
 	 * <p>Gives {@code decorateInputStream} a chance to decorate the stream
 	 * first (for example, for custom encryption or compression). Creates an
 	 * {@code ObjectInputStream} via {@code createObjectInputStream} and
-	 * calls {@code doReadRemoteInvocationResult} to actually read the object.
+	 * calls {@code doReadRemoteInvocationResult} to actually read the object,
+	 * unless a {@link #setCodec codec} has been specified (which reads any
+	 * embedded Java serialization content via {@code createObjectInputStream}).
 	 * <p>Can be overridden for custom serialization of the invocation.
 	 * @param is the InputStream to read from
 	 * @param codebaseUrl the codebase URL to load classes from if not found locally
@@ -233,9 +303,30 @@ public abstract class AbstractHttpInvokerRequestExecutor
 	 * @see #createObjectInputStream
 	 * @see #doReadRemoteInvocationResult
 	 */
-	protected RemoteInvocationResult readRemoteInvocationResult(InputStream is, String codebaseUrl)
+	protected RemoteInvocationResult readRemoteInvocationResult(InputStream is, final String codebaseUrl)
 			throws IOException, ClassNotFoundException {
 
+		if (this.codec != null) {
+			InputStream decorated = decorateInputStream(is);
+			try {
+				Object obj = this.codec.decode(decorated, new RemoteInvocationCodec.ObjectInputStreamFactory() {
+					public ObjectInputStream createObjectInputStream(InputStream in) throws IOException {
+						return AbstractHttpInvokerRequestExecutor.this.createObjectInputStream(in, codebaseUrl);
+					}
+					public Class<?> resolveClass(String className) throws ClassNotFoundException {
+						return ClassUtils.forName(className, getBeanClassLoader());
+					}
+				});
+				if (!(obj instanceof RemoteInvocationResult)) {
+					throw new RemoteException("Decoded object needs to be assignable to type [" +
+							RemoteInvocationResult.class.getName() + "]: " + obj);
+				}
+				return (RemoteInvocationResult) obj;
+			}
+			finally {
+				decorated.close();
+			}
+		}
 		ObjectInputStream ois = createObjectInputStream(decorateInputStream(is), codebaseUrl);
 		try {
 			return doReadRemoteInvocationResult(ois);
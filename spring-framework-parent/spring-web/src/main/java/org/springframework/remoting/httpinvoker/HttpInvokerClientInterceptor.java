@@ -19,6 +19,8 @@ package org.springframework.remoting.httpinvoker;
 import java.io.IOException;
 import java.io.InvalidClassException;
 import java.net.ConnectException;
+import java.util.ArrayList;
+import java.util.List;
 
 import org.aopalliance.intercept.MethodInterceptor;
 import org.aopalliance.intercept.MethodInvocation;
@@ -192,6 +194,38 @@ public class HttpInvokerClientInterceptor extends RemoteInvocationBasedAccessor
 		return getHttpInvokerRequestExecutor().executeRequest(this, invocation);
 	}
 
+	/**
+	 * Execute the given remote invocations against the remote service in one
+	 * round trip, if supported by the configured {@link HttpInvokerRequestExecutor}
+	 * (i.e. if it is an {@link AbstractHttpInvokerRequestExecutor}), or one
+	 * after the other otherwise.
+	 * <p>Invocations can be built via {@code RemoteInvocation}'s constructors;
+	 * each returned result can be turned into a return value or exception
+	 * through {@link RemoteInvocationResult#recreate()}.
+	 * @param invocations the RemoteInvocations to execute
+	 * @return the RemoteInvocationResults, in the order of the invocations
+	 * @throws RemoteAccessException in case of access failure
+	 * @see AbstractHttpInvokerRequestExecutor#executeRequests
+	 */
+	public List<RemoteInvocationResult> executeRequests(List<RemoteInvocation> invocations)
+			throws RemoteAccessException {
+
+		HttpInvokerRequestExecutor executor = getHttpInvokerRequestExecutor();
+		try {
+			if (executor instanceof AbstractHttpInvokerRequestExecutor) {
+				return ((AbstractHttpInvokerRequestExecutor) executor).executeRequests(this, invocations);
+			}
+			List<RemoteInvocationResult> results = new ArrayList<RemoteInvocationResult>(invocations.size());
+			for (RemoteInvocation invocation : invocations) {
+				results.add(executeRequest(invocation));
+			}
+			return results;
+		}
+		catch (Throwable ex) {
+			throw convertHttpInvokerAccessException(ex);
+		}
+	}
+
 	/**
 	 * Convert the given HTTP invoker access exception to an appropriate
 	 * Spring RemoteAccessException.
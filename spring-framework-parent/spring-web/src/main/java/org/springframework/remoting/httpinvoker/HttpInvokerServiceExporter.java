@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2010 the original author or authors.
+ * Copyright 2002-2014 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -41,6 +41,8 @@ import org.springframework.web.util.NestedServletException;
  * <p>Deserializes remote invocation objects and serializes remote invocation
  * result objects. Uses Java serialization just like RMI, but provides the
  * same ease of setup as Caucho's HTTP-based Hessian and Burlap protocols.
+ * Requests in the format of a configured {@link #setCodec codec} are
+ * decoded and answered with that codec instead.
  *
  * <p><b>HTTP invoker is the recommended protocol for Java-to-Java remoting.</b>
  * It is more powerful and more extensible than Hessian and Burlap, at the
@@ -111,6 +113,15 @@ public class HttpInvokerServiceExporter extends RemoteInvocationSerializingExpor
 	protected RemoteInvocation readRemoteInvocation(HttpServletRequest request, InputStream is)
 			throws IOException, ClassNotFoundException {
 
+		if (isCodecContentType(request.getContentType())) {
+			InputStream decorated = decorateInputStream(request, is);
+			try {
+				return decodeRemoteInvocation(decorated);
+			}
+			finally {
+				decorated.close();
+			}
+		}
 		ObjectInputStream ois = createObjectInputStream(decorateInputStream(request, is));
 		try {
 			return doReadRemoteInvocation(ois);
@@ -145,7 +156,8 @@ public class HttpInvokerServiceExporter extends RemoteInvocationSerializingExpor
 			HttpServletRequest request, HttpServletResponse response, RemoteInvocationResult result)
 			throws IOException {
 
-		response.setContentType(getContentType());
+		response.setContentType(isCodecContentType(request.getContentType()) ?
+				getCodec().getContentType() : getContentType());
 		writeRemoteInvocationResult(request, response, result, response.getOutputStream());
 	}
 
@@ -168,6 +180,16 @@ public class HttpInvokerServiceExporter extends RemoteInvocationSerializingExpor
 			HttpServletRequest request, HttpServletResponse response, RemoteInvocationResult result, OutputStream os)
 			throws IOException {
 
+		if (isCodecContentType(request.getContentType())) {
+			OutputStream decorated = decorateOutputStream(request, response, os);
+			try {
+				encodeRemoteInvocationResult(result, decorated);
+			}
+			finally {
+				decorated.close();
+			}
+			return;
+		}
 		ObjectOutputStream oos = createObjectOutputStream(decorateOutputStream(request, response, os));
 		try {
 			doWriteRemoteInvocationResult(result, oos);
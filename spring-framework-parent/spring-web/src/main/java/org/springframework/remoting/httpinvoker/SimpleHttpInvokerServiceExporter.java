@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2009 the original author or authors.
+ * Copyright 2002-2014 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -107,6 +107,9 @@ public class SimpleHttpInvokerServiceExporter extends RemoteInvocationSerializin
 	protected RemoteInvocation readRemoteInvocation(HttpExchange exchange, InputStream is)
 			throws IOException, ClassNotFoundException {
 
+		if (isCodecContentType(exchange.getRequestHeaders().getFirst("Content-Type"))) {
+			return decodeRemoteInvocation(decorateInputStream(exchange, is));
+		}
 		ObjectInputStream ois = createObjectInputStream(decorateInputStream(exchange, is));
 		return doReadRemoteInvocation(ois);
 	}
@@ -134,7 +137,9 @@ public class SimpleHttpInvokerServiceExporter extends RemoteInvocationSerializin
 	protected void writeRemoteInvocationResult(HttpExchange exchange, RemoteInvocationResult result)
 			throws IOException {
 
-		exchange.getResponseHeaders().set("Content-Type", getContentType());
+		exchange.getResponseHeaders().set("Content-Type",
+				isCodecContentType(exchange.getRequestHeaders().getFirst("Content-Type")) ?
+						getCodec().getContentType() : getContentType());
 		exchange.sendResponseHeaders(200, 0);
 		writeRemoteInvocationResult(exchange, result, exchange.getResponseBody());
 	}
@@ -156,6 +161,12 @@ public class SimpleHttpInvokerServiceExporter extends RemoteInvocationSerializin
 	protected void writeRemoteInvocationResult(
 			HttpExchange exchange, RemoteInvocationResult result, OutputStream os) throws IOException {
 
+		if (isCodecContentType(exchange.getRequestHeaders().getFirst("Content-Type"))) {
+			OutputStream decorated = decorateOutputStream(exchange, os);
+			encodeRemoteInvocationResult(result, decorated);
+			decorated.flush();
+			return;
+		}
 		ObjectOutputStream oos = createObjectOutputStream(decorateOutputStream(exchange, os));
 		doWriteRemoteInvocationResult(result, oos);
 		oos.flush();
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2012 the original author or authors.
+ * Copyright 2002-2014 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -17,8 +17,10 @@
 package org.springframework.web.bind;
 
 import java.lang.reflect.Array;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import org.springframework.beans.MutablePropertyValues;
 import org.springframework.beans.PropertyValue;
@@ -200,16 +202,19 @@ public class WebDataBinder extends DataBinder {
 	 * @see #getFieldDefaultPrefix
 	 */
 	protected void checkFieldDefaults(MutablePropertyValues mpvs) {
-		if (getFieldDefaultPrefix() != null) {
-			String fieldDefaultPrefix = getFieldDefaultPrefix();
+		String fieldDefaultPrefix = getFieldDefaultPrefix();
+		if (fieldDefaultPrefix != null && hasPropertyStartingWith(mpvs, fieldDefaultPrefix)) {
 			PropertyValue[] pvArray = mpvs.getPropertyValues();
+			Set<String> names = getPropertyNames(pvArray);
 			for (PropertyValue pv : pvArray) {
 				if (pv.getName().startsWith(fieldDefaultPrefix)) {
 					String field = pv.getName().substring(fieldDefaultPrefix.length());
-					if (getPropertyAccessor().isWritableProperty(field) && !mpvs.contains(field)) {
+					if (getPropertyAccessor().isWritableProperty(field) && !names.contains(field)) {
 						mpvs.add(field, pv.getValue());
+						names.add(field);
 					}
 					mpvs.removePropertyValue(pv);
+					names.remove(pv.getName());
 				}
 			}
 		}
@@ -227,22 +232,50 @@ public class WebDataBinder extends DataBinder {
 	 * @see #getEmptyValue(String, Class)
 	 */
 	protected void checkFieldMarkers(MutablePropertyValues mpvs) {
-		if (getFieldMarkerPrefix() != null) {
-			String fieldMarkerPrefix = getFieldMarkerPrefix();
+		String fieldMarkerPrefix = getFieldMarkerPrefix();
+		if (fieldMarkerPrefix != null && hasPropertyStartingWith(mpvs, fieldMarkerPrefix)) {
 			PropertyValue[] pvArray = mpvs.getPropertyValues();
+			Set<String> names = getPropertyNames(pvArray);
 			for (PropertyValue pv : pvArray) {
 				if (pv.getName().startsWith(fieldMarkerPrefix)) {
 					String field = pv.getName().substring(fieldMarkerPrefix.length());
-					if (getPropertyAccessor().isWritableProperty(field) && !mpvs.contains(field)) {
+					if (getPropertyAccessor().isWritableProperty(field) && !names.contains(field)) {
 						Class fieldType = getPropertyAccessor().getPropertyType(field);
 						mpvs.add(field, getEmptyValue(field, fieldType));
+						names.add(field);
 					}
 					mpvs.removePropertyValue(pv);
+					names.remove(pv.getName());
 				}
 			}
 		}
 	}
 
+	/**
+	 * Check whether any of the given property values starts with the given prefix,
+	 * without copying the property values.
+	 */
+	private boolean hasPropertyStartingWith(MutablePropertyValues mpvs, String prefix) {
+		for (PropertyValue pv : mpvs.getPropertyValueList()) {
+			if (pv.getName().startsWith(prefix)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Collect the names of the given property values, for hashed lookups
+	 * instead of scanning the property values for every field.
+	 */
+	private Set<String> getPropertyNames(PropertyValue[] pvArray) {
+		Set<String> names = new HashSet<String>(pvArray.length * 2);
+		for (PropertyValue pv : pvArray) {
+			names.add(pv.getName());
+		}
+		return names;
+	}
+
 	/**
 	 * Determine an empty value for the specified field.
 	 * <p>Default implementation returns {@code Boolean.FALSE}
@@ -0,0 +1,334 @@
+/*
+ * Copyright 2002-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.web.context.request.async;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.util.Assert;
+import org.springframework.util.StringUtils;
+import org.springframework.web.context.request.WebRequest;
+
+/**
+ * {@link AsyncTaskExecutor} for concurrent request processing with admission
+ * control, to be configured on the {@link WebAsyncManager} (e.g. through the
+ * MVC async support configuration) instead of the default thread-per-task
+ * {@link org.springframework.core.task.SimpleAsyncTaskExecutor}.
+ *
+ * <p>Runs tasks on a fixed number of threads, with a bounded number of tasks
+ * waiting for a thread. Tasks beyond the {@link #setQueueCapacity queue capacity}
+ * are rejected right away, which the {@code WebAsyncManager} turns into a
+ * 503 (Service Unavailable) response. Once the queue is filled up to the
+ * {@link #setSheddingThreshold shedding threshold}, only requests marked as
+ * high priority through the {@link #setPriorityHeaderName priority header}
+ * are admitted anymore.
+ *
+ * <p>Tasks of timed out requests get cancelled by the {@code WebAsyncManager}:
+ * waiting tasks are removed from the queue. Running tasks are only interrupted
+ * if {@link #setInterruptOnTimeout "interruptOnTimeout"} has been switched on.
+ *
+ * @author agent
+ * @since 3.2.12
+ * @see WebAsyncManager#setTaskExecutor
+ */
+public class BoundedAsyncTaskExecutor implements AsyncTaskExecutor, InitializingBean, DisposableBean {
+
+	private int concurrencyLimit = 10;
+
+	private int queueCapacity = 100;
+
+	private int sheddingThreshold = -1;
+
+	private String priorityHeaderName;
+
+	private int keepAliveSeconds = 60;
+
+	private String threadNamePrefix = "BoundedAsyncTaskExecutor-";
+
+	private boolean interruptOnTimeout = false;
+
+	private ThreadPoolExecutor threadPoolExecutor;
+
+	/** Number of admitted tasks that have not finished yet (queued plus active) */
+	private final AtomicInteger pendingCount = new AtomicInteger();
+
+	private final AtomicInteger activeCount = new AtomicInteger();
+
+	private final AtomicLong rejectedCount = new AtomicLong();
+
+	private final AtomicLong timedOutCount = new AtomicLong();
+
+
+	/**
+	 * Set the maximum number of tasks to execute concurrently. Default is 10.
+	 */
+	public void setConcurrencyLimit(int concurrencyLimit) {
+		Assert.isTrue(concurrencyLimit > 0, "Concurrency limit must be greater than 0");
+		this.concurrencyLimit = concurrencyLimit;
+	}
+
+	/**
+	 * Set the maximum number of tasks waiting for a thread. Default is 100.
+	 * Further tasks will be rejected.
+	 */
+	public void setQueueCapacity(int queueCapacity) {
+		Assert.isTrue(queueCapacity >= 0, "Queue capacity must not be negative");
+		this.queueCapacity = queueCapacity;
+	}
+
+	/**
+	 * Set the number of waiting tasks from which on only high-priority requests
+	 * will be admitted. Default is the {@link #setQueueCapacity queue capacity},
+	 * i.e. no shedding of regular requests before the queue is full.
+	 * @see #setPriorityHeaderName
+	 */
+	public void setSheddingThreshold(int sheddingThreshold) {
+		this.sheddingThreshold = sheddingThreshold;
+	}
+
+	/**
+	 * Set the name of a request header carrying a numeric request priority,
+	 * e.g. "X-Request-Priority". Requests with a priority greater than 0 are
+	 * admitted beyond the {@link #setSheddingThreshold shedding threshold};
+	 * requests without the header count as priority 0. Default is none.
+	 */
+	public void setPriorityHeaderName(String priorityHeaderName) {
+		this.priorityHeaderName = priorityHeaderName;
+	}
+
+	/**
+	 * Set the number of seconds that idle threads are kept alive. Default is 60.
+	 */
+	public void setKeepAliveSeconds(int keepAliveSeconds) {
+		this.keepAliveSeconds = keepAliveSeconds;
+	}
+
+	/**
+	 * Specify the prefix to use for the names of newly created threads.
+	 * Default is "BoundedAsyncTaskExecutor-".
+	 */
+	public void setThreadNamePrefix(String threadNamePrefix) {
+		this.threadNamePrefix = threadNamePrefix;
+	}
+
+	/**
+	 * Specify whether the thread running the task of a timed out request should
+	 * be interrupted. Default is "false", only removing waiting tasks from the
+	 * queue and letting running tasks complete.
+	 * <p>Switch this on for handlers that react to interruption in a well-defined
+	 * manner, in order to free up their threads early.
+	 */
+	public void setInterruptOnTimeout(boolean interruptOnTimeout) {
+		this.interruptOnTimeout = interruptOnTimeout;
+	}
+
+	/**
+	 * Return whether running tasks of timed out requests get interrupted.
+	 */
+	public boolean isInterruptOnTimeout() {
+		return this.interruptOnTimeout;
+	}
+
+
+	public void afterPropertiesSet() {
+		this.threadPoolExecutor = new ThreadPoolExecutor(this.concurrencyLimit, this.concurrencyLimit,
+				this.keepAliveSeconds, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(),
+				(StringUtils.hasLength(this.threadNamePrefix) ?
+						new CustomizableThreadFactory(this.threadNamePrefix) : Executors.defaultThreadFactory()));
+		this.threadPoolExecutor.allowCoreThreadTimeOut(true);
+	}
+
+
+	public void execute(Runnable task) {
+		submit(task);
+	}
+
+	public void execute(Runnable task, long startTimeout) {
+		submit(task);
+	}
+
+	public Future<?> submit(Runnable task) {
+		return submit(new BoundedFutureTask<Object>(task, null), 0);
+	}
+
+	public <T> Future<T> submit(Callable<T> task) {
+		return submit(new BoundedFutureTask<T>(task), 0);
+	}
+
+	/**
+	 * Submit a task on behalf of the given request, taking the request's
+	 * priority into account for admission.
+	 * @param task the task to execute
+	 * @param request the request that the task belongs to
+	 * @return a Future representing pending completion of the task
+	 * @throws TaskRejectedException if the task was not admitted
+	 * @see #setPriorityHeaderName
+	 */
+	public Future<?> submit(Runnable task, WebRequest request) {
+		return submit(new BoundedFutureTask<Object>(task, null), determinePriority(request));
+	}
+
+	/**
+	 * Determine the priority of the given request.
+	 * <p>The default implementation parses the value of the
+	 * {@link #setPriorityHeaderName priority header}, if any.
+	 * @param request the current request
+	 * @return the priority, with values greater than 0 indicating high priority
+	 */
+	protected int determinePriority(WebRequest request) {
+		if (this.priorityHeaderName != null) {
+			String value = request.getHeader(this.priorityHeaderName);
+			if (value != null) {
+				try {
+					return Integer.parseInt(value.trim());
+				}
+				catch (NumberFormatException ex) {
+					// Treat like a regular request
+				}
+			}
+		}
+		return 0;
+	}
+
+	private <T> Future<T> submit(BoundedFutureTask<T> future, int priority) {
+		ThreadPoolExecutor executor = getThreadPoolExecutor();
+		int queueLimit = (priority > 0 || this.sheddingThreshold < 0 ?
+				this.queueCapacity : Math.min(this.sheddingThreshold, this.queueCapacity));
+		int pending = this.pendingCount.incrementAndGet();
+		if (pending - this.concurrencyLimit > queueLimit) {
+			this.pendingCount.decrementAndGet();
+			this.rejectedCount.incrementAndGet();
+			throw new TaskRejectedException("Executor [" + this + "] did not accept task: " + future.task +
+					" (" + this.activeCount.get() + " active, " + getQueuedCount() + " queued)");
+		}
+		try {
+			executor.execute(future);
+		}
+		catch (RejectedExecutionException ex) {
+			this.pendingCount.decrementAndGet();
+			this.rejectedCount.incrementAndGet();
+			throw new TaskRejectedException("Executor [" + executor + "] did not accept task: " + future.task, ex);
+		}
+		return future;
+	}
+
+	/**
+	 * Return the underlying ThreadPoolExecutor.
+	 * @throws IllegalStateException if the executor has not been initialized yet
+	 */
+	public ThreadPoolExecutor getThreadPoolExecutor() throws IllegalStateException {
+		Assert.state(this.threadPoolExecutor != null, "BoundedAsyncTaskExecutor not initialized");
+		return this.threadPoolExecutor;
+	}
+
+	/**
+	 * Return the number of currently running tasks.
+	 */
+	public int getActiveCount() {
+		return this.activeCount.get();
+	}
+
+	/**
+	 * Return the number of tasks currently waiting for a thread.
+	 */
+	public int getQueuedCount() {
+		return Math.max(this.pendingCount.get() - this.activeCount.get(), 0);
+	}
+
+	/**
+	 * Return the number of tasks rejected so far, either because the queue
+	 * was full or because of priority-based shedding.
+	 */
+	public long getRejectedCount() {
+		return this.rejectedCount.get();
+	}
+
+	/**
+	 * Return the number of tasks cancelled so far because their request timed out.
+	 */
+	public long getTimedOutCount() {
+		return this.timedOutCount.get();
+	}
+
+
+	/**
+	 * Shut down the thread pool, interrupting running tasks.
+	 */
+	public void destroy() {
+		if (this.threadPoolExecutor != null) {
+			this.threadPoolExecutor.shutdownNow();
+		}
+	}
+
+
+	/**
+	 * FutureTask that keeps the executor's counters up to date.
+	 */
+	private class BoundedFutureTask<T> extends FutureTask<T> {
+
+		private final Object task;
+
+		public BoundedFutureTask(Callable<T> callable) {
+			super(callable);
+			this.task = callable;
+		}
+
+		public BoundedFutureTask(Runnable runnable, T result) {
+			super(runnable, result);
+			this.task = runnable;
+		}
+
+		@Override
+		public void run() {
+			activeCount.incrementAndGet();
+			try {
+				super.run();
+			}
+			finally {
+				activeCount.decrementAndGet();
+				pendingCount.decrementAndGet();
+			}
+		}
+
+		@Override
+		public boolean cancel(boolean mayInterruptIfRunning) {
+			boolean cancelled = super.cancel(mayInterruptIfRunning);
+			if (cancelled) {
+				timedOutCount.incrementAndGet();
+				if (threadPoolExecutor.remove(this)) {
+					// Never going to run: release its slot right away
+					pendingCount.decrementAndGet();
+				}
+			}
+			return cancelled;
+		}
+	}
+
+}
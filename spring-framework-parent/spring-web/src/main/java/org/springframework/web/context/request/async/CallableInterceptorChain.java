@@ -17,6 +17,7 @@ package org.springframework.web.context.request.async;
 
 import java.util.List;
 import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -37,11 +38,20 @@ class CallableInterceptorChain {
 
 	private int preProcessIndex = -1;
 
+	private volatile Future<?> taskFuture;
+
+	private volatile boolean interruptOnTimeout;
+
 
 	public CallableInterceptorChain(List<CallableProcessingInterceptor> interceptors) {
 		this.interceptors = interceptors;
 	}
 
+	public void setTaskFuture(Future<?> taskFuture, boolean interruptOnTimeout) {
+		this.taskFuture = taskFuture;
+		this.interruptOnTimeout = interruptOnTimeout;
+	}
+
 	public void applyBeforeConcurrentHandling(NativeWebRequest request, Callable<?> task) throws Exception {
 		for (CallableProcessingInterceptor interceptor : this.interceptors) {
 			interceptor.beforeConcurrentHandling(request, task);
@@ -75,6 +85,7 @@ class CallableInterceptorChain {
 	}
 
 	public Object triggerAfterTimeout(NativeWebRequest request, Callable<?> task) {
+		cancelTask();
 		for (CallableProcessingInterceptor interceptor : this.interceptors) {
 			try {
 				Object result = interceptor.handleTimeout(request, task);
@@ -92,6 +103,19 @@ class CallableInterceptorChain {
 		return CallableProcessingInterceptor.RESULT_NONE;
 	}
 
+	private void cancelTask() {
+		Future<?> future = this.taskFuture;
+		if (future != null) {
+			try {
+				// Remove a waiting task, interrupting a running one only if requested
+				future.cancel(this.interruptOnTimeout);
+			}
+			catch (Throwable ex) {
+				// Ignore
+			}
+		}
+	}
+
 	public void triggerAfterCompletion(NativeWebRequest request, Callable<?> task) {
 		for (int i = this.interceptors.size()-1; i >= 0; i--) {
 			try {
@@ -21,13 +21,17 @@ import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
 import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
 import org.springframework.core.task.AsyncTaskExecutor;
 import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.http.HttpStatus;
 import org.springframework.util.Assert;
 import org.springframework.web.context.request.RequestAttributes;
 import org.springframework.web.context.request.async.DeferredResult.DeferredResultHandler;
@@ -74,10 +78,14 @@ public final class WebAsyncManager {
 	private static final DeferredResultProcessingInterceptor timeoutDeferredResultInterceptor =
 			new TimeoutDeferredResultProcessingInterceptor();
 
+	/** Default executor for concurrent handling, shared since creating one per request is costly */
+	private static final AsyncTaskExecutor DEFAULT_TASK_EXECUTOR =
+			new SimpleAsyncTaskExecutor(WebAsyncManager.class.getSimpleName());
+
 
 	private AsyncWebRequest asyncWebRequest;
 
-	private AsyncTaskExecutor taskExecutor = new SimpleAsyncTaskExecutor(this.getClass().getSimpleName());
+	private AsyncTaskExecutor taskExecutor = DEFAULT_TASK_EXECUTOR;
 
 	private Object concurrentResult = RESULT_NONE;
 
@@ -131,6 +139,9 @@ public final class WebAsyncManager {
 	 * Configure an AsyncTaskExecutor for use with concurrent processing via
 	 * {@link #startCallableProcessing(Callable, Object...)}.
 	 * <p>By default a {@link SimpleAsyncTaskExecutor} instance is used.
+	 * Consider a {@link BoundedAsyncTaskExecutor} for limiting the number of
+	 * threads and waiting tasks; tasks rejected by the executor result in a
+	 * 503 (Service Unavailable) response.
 	 */
 	public void setTaskExecutor(AsyncTaskExecutor taskExecutor) {
 		this.taskExecutor = taskExecutor;
@@ -325,7 +336,7 @@ public final class WebAsyncManager {
 		interceptorChain.applyBeforeConcurrentHandling(this.asyncWebRequest, callable);
 		startAsyncProcessing(processingContext);
 
-		this.taskExecutor.submit(new Runnable() {
+		Runnable task = new Runnable() {
 			public void run() {
 				Object result = null;
 				try {
@@ -340,7 +351,30 @@ public final class WebAsyncManager {
 				}
 				setConcurrentResultAndDispatch(result);
 			}
-		});
+		};
+
+		try {
+			if (this.taskExecutor instanceof BoundedAsyncTaskExecutor) {
+				// Only tasks of a BoundedAsyncTaskExecutor get cancelled on timeout
+				BoundedAsyncTaskExecutor boundedExecutor = (BoundedAsyncTaskExecutor) this.taskExecutor;
+				Future<?> future = boundedExecutor.submit(task, this.asyncWebRequest);
+				interceptorChain.setTaskFuture(future, boundedExecutor.isInterruptOnTimeout());
+			}
+			else {
+				this.taskExecutor.submit(task);
+			}
+		}
+		catch (TaskRejectedException ex) {
+			if (logger.isDebugEnabled()) {
+				logger.debug("Concurrent processing rejected: " + ex.getMessage());
+			}
+			HttpServletResponse response = this.asyncWebRequest.getNativeResponse(HttpServletResponse.class);
+			if (response != null && !response.isCommitted()) {
+				response.sendError(HttpStatus.SERVICE_UNAVAILABLE.value());
+			}
+			// The dispatched request must leave the error response as is
+			setConcurrentResultAndDispatch(CallableProcessingInterceptor.RESPONSE_HANDLED);
+		}
 	}
 
 	private void setConcurrentResultAndDispatch(Object result) {
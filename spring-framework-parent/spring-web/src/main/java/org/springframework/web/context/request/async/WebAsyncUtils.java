@@ -38,6 +38,9 @@ public abstract class WebAsyncUtils {
 
 	public static final String WEB_ASYNC_MANAGER_ATTRIBUTE = WebAsyncManager.class.getName() + ".WEB_ASYNC_MANAGER";
 
+	/** Whether the Servlet 3.0 async API is available, determined once */
+	private static final boolean startAsyncAvailable = ClassUtils.hasMethod(ServletRequest.class, "startAsync");
+
 	private static Constructor<?> standardAsyncRequestConstructor;
 
 
@@ -81,7 +84,7 @@ public abstract class WebAsyncUtils {
 	 * @return an AsyncWebRequest instance, never {@code null}
 	 */
 	public static AsyncWebRequest createAsyncWebRequest(HttpServletRequest request, HttpServletResponse response) {
-		return ClassUtils.hasMethod(ServletRequest.class, "startAsync") ?
+		return startAsyncAvailable ?
 				createStandardServletAsyncWebRequest(request, response) : new NoSupportAsyncWebRequest(request, response);
 	}
 
@@ -0,0 +1,181 @@
+/*
+ * Copyright 2002-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.springframework.web.method.support;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.cglib.reflect.FastClass;
+import org.springframework.core.BridgeMethodResolver;
+import org.springframework.core.GenericTypeResolver;
+import org.springframework.core.MethodParameter;
+import org.springframework.core.ParameterNameDiscoverer;
+import org.springframework.util.Assert;
+import org.springframework.util.ClassUtils;
+import org.springframework.web.method.HandlerMethod;
+
+/**
+ * Precomputed state for invoking a handler method over and over again:
+ * the {@link HandlerMethodArgumentResolver} for each method parameter,
+ * with parameter name discovery and generic type resolution done upfront,
+ * and optionally a generated invoker that calls the method without going
+ * through reflection.
+ *
+ * <p>A plan is independent of the current request and can be shared by all
+ * {@link InvocableHandlerMethod} instances for the same method and bean type,
+ * see {@link InvocableHandlerMethod#setInvocationPlan}.
+ *
+ * @author agent
+ * @since 3.2.12
+ */
+public class HandlerMethodInvocationPlan {
+
+	private static final Log logger = LogFactory.getLog(HandlerMethodInvocationPlan.class);
+
+	private final Method method;
+
+	private final HandlerMethodArgumentResolverComposite argumentResolvers;
+
+	private final MethodParameter[] parameters;
+
+	private final HandlerMethodArgumentResolver[] resolvers;
+
+	private final Class<?>[] parameterTypes;
+
+	private final FastClass fastClass;
+
+	private final int fastMethodIndex;
+
+
+	/**
+	 * Create a new invocation plan for the given handler method.
+	 * @param handlerMethod the handler method, with its bean resolved
+	 * @param argumentResolvers the argument resolvers to select from
+	 * @param parameterNameDiscoverer the strategy for discovering parameter names
+	 * @param generateInvoker whether to generate bytecode for invoking the method,
+	 * falling back to reflection if the method is not accessible that way
+	 */
+	public HandlerMethodInvocationPlan(HandlerMethod handlerMethod,
+			HandlerMethodArgumentResolverComposite argumentResolvers,
+			ParameterNameDiscoverer parameterNameDiscoverer, boolean generateInvoker) {
+
+		Assert.notNull(handlerMethod, "HandlerMethod must not be null");
+		Assert.notNull(argumentResolvers, "HandlerMethodArgumentResolverComposite must not be null");
+		this.method = BridgeMethodResolver.findBridgedMethod(handlerMethod.getMethod());
+		this.argumentResolvers = argumentResolvers;
+		Class<?> beanClass = handlerMethod.getBean().getClass();
+		this.parameters = handlerMethod.getMethodParameters();
+		this.resolvers = new HandlerMethodArgumentResolver[this.parameters.length];
+		for (int i = 0; i < this.parameters.length; i++) {
+			MethodParameter parameter = this.parameters[i];
+			parameter.initParameterNameDiscovery(parameterNameDiscoverer);
+			GenericTypeResolver.resolveParameterType(parameter, beanClass);
+			this.resolvers[i] = argumentResolvers.getArgumentResolver(parameter);
+		}
+		this.parameterTypes = this.method.getParameterTypes();
+
+		FastClass fastClass = null;
+		int fastMethodIndex = -1;
+		if (generateInvoker && !Modifier.isPrivate(this.method.getModifiers())) {
+			try {
+				fastClass = FastClass.create(this.method.getDeclaringClass());
+				fastMethodIndex = fastClass.getIndex(this.method.getName(), this.parameterTypes);
+			}
+			catch (Throwable ex) {
+				if (logger.isDebugEnabled()) {
+					logger.debug("Could not generate invoker for handler method [" + this.method +
+							"] - falling back to reflection: " + ex);
+				}
+			}
+		}
+		this.fastClass = (fastMethodIndex >= 0 ? fastClass : null);
+		this.fastMethodIndex = fastMethodIndex;
+	}
+
+
+	/**
+	 * Return the (bridged) method that this plan has been created for.
+	 */
+	public Method getMethod() {
+		return this.method;
+	}
+
+	/**
+	 * Return the argument resolvers that this plan selects from.
+	 */
+	public HandlerMethodArgumentResolverComposite getArgumentResolvers() {
+		return this.argumentResolvers;
+	}
+
+	/**
+	 * Return the method parameters, with parameter name discovery and generic
+	 * type resolution initialized, as passed to the argument resolvers.
+	 */
+	public MethodParameter[] getMethodParameters() {
+		return this.parameters;
+	}
+
+	/**
+	 * Return the argument resolver for the method parameter at the given index.
+	 * @param index the index of the method parameter
+	 * @return the resolver, or {@code null} if none supports the parameter
+	 */
+	public HandlerMethodArgumentResolver getArgumentResolver(int index) {
+		return this.resolvers[index];
+	}
+
+	/**
+	 * Return whether the method gets invoked through generated bytecode.
+	 */
+	public boolean hasGeneratedInvoker() {
+		return (this.fastClass != null);
+	}
+
+	/**
+	 * Determine whether the generated invoker is able to invoke the method
+	 * on the given bean with the given arguments. Where this is not the case,
+	 * the caller is expected to go through reflection, for the JDK's
+	 * argument checks and error messages to apply.
+	 */
+	boolean canInvoke(Object bean, Object[] args) {
+		if (this.fastClass == null || !this.method.getDeclaringClass().isInstance(bean) ||
+				args.length != this.parameterTypes.length) {
+			return false;
+		}
+		for (int i = 0; i < args.length; i++) {
+			if (!ClassUtils.isAssignableValue(this.parameterTypes[i], args[i])) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Invoke the method on the given bean through the generated invoker.
+	 * @throws InvocationTargetException wrapping any exception thrown by the method
+	 * @see #canInvoke
+	 */
+	Object invoke(Object bean, Object[] args) throws InvocationTargetException {
+		return this.fastClass.invoke(this.fastMethodIndex, bean, args);
+	}
+
+}
@@ -24,6 +24,7 @@ import org.springframework.core.GenericTypeResolver;
 import org.springframework.core.LocalVariableTableParameterNameDiscoverer;
 import org.springframework.core.MethodParameter;
 import org.springframework.core.ParameterNameDiscoverer;
+import org.springframework.util.Assert;
 import org.springframework.util.ReflectionUtils;
 import org.springframework.web.bind.WebDataBinder;
 import org.springframework.web.bind.support.SessionStatus;
@@ -53,6 +54,8 @@ public class InvocableHandlerMethod extends HandlerMethod {
 
 	private ParameterNameDiscoverer parameterNameDiscoverer = new LocalVariableTableParameterNameDiscoverer();
 
+	private HandlerMethodInvocationPlan invocationPlan;
+
 
 	/**
 	 * Create an instance from the given handler and method.
@@ -105,6 +108,22 @@ public class InvocableHandlerMethod extends HandlerMethod {
 		this.parameterNameDiscoverer = parameterNameDiscoverer;
 	}
 
+	/**
+	 * Set a precomputed {@link HandlerMethodInvocationPlan} for this method, taking
+	 * precedence over the configured argument resolvers and parameter name discoverer.
+	 * <p>Argument resolvers are then taken from the plan instead of being looked up
+	 * per invocation, and the method is invoked through the plan's generated invoker
+	 * if available.
+	 * @since 3.2.12
+	 */
+	public void setInvocationPlan(HandlerMethodInvocationPlan invocationPlan) {
+		if (invocationPlan != null) {
+			Assert.isTrue(invocationPlan.getMethod().equals(getBridgedMethod()),
+					"HandlerMethodInvocationPlan does not match handler method");
+		}
+		this.invocationPlan = invocationPlan;
+	}
+
 
 	/**
 	 * Invoke the method after resolving its argument values in the context of the given request. <p>Argument
@@ -142,6 +161,33 @@ public class InvocableHandlerMethod extends HandlerMethod {
 	private Object[] getMethodArgumentValues(NativeWebRequest request, ModelAndViewContainer mavContainer,
 			Object... providedArgs) throws Exception {
 
+		HandlerMethodInvocationPlan plan = this.invocationPlan;
+		if (plan != null) {
+			MethodParameter[] parameters = plan.getMethodParameters();
+			Object[] args = new Object[parameters.length];
+			for (int i = 0; i < parameters.length; i++) {
+				MethodParameter parameter = parameters[i];
+				args[i] = resolveProvidedArgument(parameter, providedArgs);
+				if (args[i] != null) {
+					continue;
+				}
+				HandlerMethodArgumentResolver resolver = plan.getArgumentResolver(i);
+				if (resolver == null) {
+					String msg = getArgumentResolutionErrorMessage("No suitable resolver for argument", i);
+					throw new IllegalStateException(msg);
+				}
+				try {
+					args[i] = resolver.resolveArgument(parameter, mavContainer, request, this.dataBinderFactory);
+				}
+				catch (Exception ex) {
+					if (logger.isTraceEnabled()) {
+						logger.trace(getArgumentResolutionErrorMessage("Error resolving argument", i), ex);
+					}
+					throw ex;
+				}
+			}
+			return args;
+		}
 		MethodParameter[] parameters = getMethodParameters();
 		Object[] args = new Object[parameters.length];
 		for (int i = 0; i < parameters.length; i++) {
@@ -210,8 +256,15 @@ public class InvocableHandlerMethod extends HandlerMethod {
 	 * Invoke the handler method with the given argument values.
 	 */
 	private Object invoke(Object... args) throws Exception {
-		ReflectionUtils.makeAccessible(getBridgedMethod());
+		HandlerMethodInvocationPlan plan = this.invocationPlan;
+		if (plan == null || !plan.canInvoke(getBean(), args)) {
+			ReflectionUtils.makeAccessible(getBridgedMethod());
+			plan = null;
+		}
 		try {
+			if (plan != null) {
+				return plan.invoke(getBean(), args);
+			}
 			return getBridgedMethod().invoke(getBean(), args);
 		}
 		catch (IllegalArgumentException ex) {
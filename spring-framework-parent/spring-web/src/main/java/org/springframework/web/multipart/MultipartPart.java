@@ -0,0 +1,79 @@
+/*
+ * Copyright 2002-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.web.multipart;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import org.springframework.http.HttpHeaders;
+
+/**
+ * A single part of a multipart request as exposed by a
+ * {@link StreamingMultipartHttpServletRequest}: the part headers
+ * plus a stream for reading the part content straight from the request.
+ *
+ * <p>In contrast to a {@link MultipartFile}, the content of a part is not
+ * held in memory or in a temporary file. It can only be read once, and only
+ * until the next part of the request is accessed.
+ *
+ * @author agent
+ * @since 3.2.12
+ * @see StreamingMultipartHttpServletRequest#getPartIterator()
+ */
+public interface MultipartPart {
+
+	/**
+	 * Return the name of the part in the multipart form.
+	 */
+	String getName();
+
+	/**
+	 * Return the original filename in the client's filesystem,
+	 * or {@code null} if the part is a regular form field.
+	 * @see MultipartFile#getOriginalFilename()
+	 */
+	String getOriginalFilename();
+
+	/**
+	 * Return whether the part is a regular form field
+	 * as opposed to an uploaded file.
+	 */
+	boolean isFormField();
+
+	/**
+	 * Return the content type of the part,
+	 * or {@code null} if not specified.
+	 */
+	String getContentType();
+
+	/**
+	 * Return the headers of the part.
+	 */
+	HttpHeaders getHeaders();
+
+	/**
+	 * Return an InputStream to read the contents of the part from.
+	 * <p>The stream reads directly from the request and becomes invalid
+	 * once the next part of the request has been accessed.
+	 * @return the contents of the part
+	 * @throws IOException in case of access errors
+	 * @throws MaxUploadSizeExceededException when reading beyond
+	 * the maximum allowed size of the part
+	 */
+	InputStream getInputStream() throws IOException;
+
+}
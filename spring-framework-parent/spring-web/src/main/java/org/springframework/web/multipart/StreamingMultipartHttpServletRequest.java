@@ -0,0 +1,54 @@
+/*
+ * Copyright 2002-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.web.multipart;
+
+import java.util.Iterator;
+
+/**
+ * Extension of the {@link MultipartHttpServletRequest} interface for
+ * requests whose parts are parsed on demand, in request order, while
+ * the application reads them, instead of being spooled to memory or disk
+ * upfront. Suitable for large uploads that get forwarded elsewhere.
+ *
+ * <p>Uploaded files are only available through {@link #getPartIterator()}
+ * and {@link #nextPart(String)}: the file accessors of the
+ * {@link MultipartRequest} interface do not return them. Form fields
+ * become available as request parameters once they have been passed.
+ *
+ * @author agent
+ * @since 3.2.12
+ * @see org.springframework.web.multipart.commons.CommonsMultipartResolver#setStreaming
+ */
+public interface StreamingMultipartHttpServletRequest extends MultipartHttpServletRequest {
+
+	/**
+	 * Return an Iterator over the remaining parts of the request.
+	 * <p>Advancing the iterator skips any unread content of the previous part.
+	 * @throws MultipartException in case of parsing errors
+	 */
+	Iterator<MultipartPart> getPartIterator() throws MultipartException;
+
+	/**
+	 * Advance to the next part with the given name, skipping any parts in between.
+	 * @param name the name of the part
+	 * @return the part, or {@code null} if there is no such part
+	 * in the remainder of the request
+	 * @throws MultipartException in case of parsing errors
+	 */
+	MultipartPart nextPart(String name) throws MultipartException;
+
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2012 the original author or authors.
+ * Copyright 2002-2014 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -109,6 +109,19 @@ public abstract class CommonsFileUploadSupport {
 		this.fileUpload.setSizeMax(maxUploadSize);
 	}
 
+	/**
+	 * Set the maximum allowed size (in bytes) for each individual file before
+	 * uploads are refused. -1 indicates no limit (the default).
+	 * <p>In contrast to the {@link #setMaxUploadSize overall upload size}, this
+	 * limit also applies to streamed parts while they are being read.
+	 * @param maxUploadSizePerFile the maximum upload size per file
+	 * @see org.apache.commons.fileupload.FileUploadBase#setFileSizeMax
+	 * @see CommonsMultipartResolver#setStreaming
+	 */
+	public void setMaxUploadSizePerFile(long maxUploadSizePerFile) {
+		this.fileUpload.setFileSizeMax(maxUploadSizePerFile);
+	}
+
 	/**
 	 * Set the maximum allowed size (in bytes) before uploads are written to disk.
 	 * Uploaded files will still be received past this amount, but they will not be
@@ -200,6 +213,7 @@ public abstract class CommonsFileUploadSupport {
 		if (encoding != null && !encoding.equals(fileUpload.getHeaderEncoding())) {
 			actualFileUpload = newFileUpload(getFileItemFactory());
 			actualFileUpload.setSizeMax(fileUpload.getSizeMax());
+			actualFileUpload.setFileSizeMax(fileUpload.getFileSizeMax());
 			actualFileUpload.setHeaderEncoding(encoding);
 		}
 
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2012 the original author or authors.
+ * Copyright 2002-2014 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -64,6 +64,8 @@ public class CommonsMultipartResolver extends CommonsFileUploadSupport
 
 	private boolean resolveLazily = false;
 
+	private boolean streaming = false;
+
 
 	/**
 	 * Constructor for use as bean. Determines the servlet container's
@@ -100,6 +102,22 @@ public class CommonsMultipartResolver extends CommonsFileUploadSupport
 		this.resolveLazily = resolveLazily;
 	}
 
+	/**
+	 * Set whether to expose multipart requests in streaming mode, parsing parts
+	 * on demand while the application reads them instead of spooling uploaded
+	 * files to memory or temporary files upfront.
+	 * <p>Default is "false". Switch this to "true" for large uploads that get
+	 * forwarded elsewhere: resolved requests will then implement
+	 * {@link org.springframework.web.multipart.StreamingMultipartHttpServletRequest},
+	 * with uploaded files only accessible as
+	 * {@link org.springframework.web.multipart.MultipartPart parts} in request order.
+	 * Use {@link #setMaxUploadSizePerFile} for limiting the size of each part.
+	 * @see CommonsStreamingMultipartHttpServletRequest
+	 */
+	public void setStreaming(boolean streaming) {
+		this.streaming = streaming;
+	}
+
 	/**
 	 * Initialize the underlying {@code org.apache.commons.fileupload.servlet.ServletFileUpload}
 	 * instance. Can be overridden to use a custom subclass, e.g. for testing purposes.
@@ -124,7 +142,11 @@ public class CommonsMultipartResolver extends CommonsFileUploadSupport
 
 	public MultipartHttpServletRequest resolveMultipart(final HttpServletRequest request) throws MultipartException {
 		Assert.notNull(request, "Request must not be null");
-		if (this.resolveLazily) {
+		if (this.streaming) {
+			String encoding = determineEncoding(request);
+			return new CommonsStreamingMultipartHttpServletRequest(request, prepareFileUpload(encoding), encoding);
+		}
+		else if (this.resolveLazily) {
 			return new DefaultMultipartHttpServletRequest(request) {
 				@Override
 				protected void initializeMultipart() {
@@ -159,6 +181,9 @@ public class CommonsMultipartResolver extends CommonsFileUploadSupport
 		catch (FileUploadBase.SizeLimitExceededException ex) {
 			throw new MaxUploadSizeExceededException(fileUpload.getSizeMax(), ex);
 		}
+		catch (FileUploadBase.FileSizeLimitExceededException ex) {
+			throw new MaxUploadSizeExceededException(fileUpload.getFileSizeMax(), ex);
+		}
 		catch (FileUploadException ex) {
 			throw new MultipartException("Could not parse multipart servlet request", ex);
 		}
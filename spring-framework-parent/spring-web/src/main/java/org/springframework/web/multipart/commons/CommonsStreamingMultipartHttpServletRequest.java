@@ -0,0 +1,307 @@
+/*
+ * Copyright 2002-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.web.multipart.commons;
+
+import java.io.ByteArrayInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UnsupportedEncodingException;
+import java.nio.charset.Charset;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.NoSuchElementException;
+import javax.servlet.http.HttpServletRequest;
+
+import org.apache.commons.fileupload.FileItemHeaders;
+import org.apache.commons.fileupload.FileItemIterator;
+import org.apache.commons.fileupload.FileItemStream;
+import org.apache.commons.fileupload.FileUpload;
+import org.apache.commons.fileupload.FileUploadBase;
+import org.apache.commons.fileupload.servlet.ServletFileUpload;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.StreamUtils;
+import org.springframework.util.StringUtils;
+import org.springframework.web.multipart.MaxUploadSizeExceededException;
+import org.springframework.web.multipart.MultipartException;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.multipart.MultipartPart;
+import org.springframework.web.multipart.StreamingMultipartHttpServletRequest;
+import org.springframework.web.multipart.support.DefaultMultipartHttpServletRequest;
+
+/**
+ * {@link StreamingMultipartHttpServletRequest} implementation on top of the
+ * Commons FileUpload streaming API, reading parts straight from the request
+ * without buffering file contents in memory or in temporary files.
+ *
+ * <p>Form fields are read into memory while being passed, becoming available
+ * through the regular parameter accessors from then on. The size of each part
+ * is subject to the {@link CommonsFileUploadSupport#setMaxUploadSizePerFile
+ * maximum upload size per file}, with the overall request size subject to the
+ * {@link CommonsFileUploadSupport#setMaxUploadSize maximum upload size}.
+ *
+ * @author agent
+ * @since 3.2.12
+ * @see CommonsMultipartResolver#setStreaming
+ */
+public class CommonsStreamingMultipartHttpServletRequest extends DefaultMultipartHttpServletRequest
+		implements StreamingMultipartHttpServletRequest {
+
+	private static final Log logger = LogFactory.getLog(CommonsStreamingMultipartHttpServletRequest.class);
+
+	private final HttpServletRequest originalRequest;
+
+	private final FileUpload fileUpload;
+
+	private final String encoding;
+
+	private FileItemIterator itemIterator;
+
+
+	/**
+	 * Create a new CommonsStreamingMultipartHttpServletRequest for the given request.
+	 * @param request the servlet request to wrap
+	 * @param fileUpload the Commons ServletFileUpload to parse the request with
+	 * @param encoding the encoding to use for form fields
+	 */
+	public CommonsStreamingMultipartHttpServletRequest(HttpServletRequest request, FileUpload fileUpload,
+			String encoding) {
+
+		super(request, new LinkedMultiValueMap<String, MultipartFile>(), new LinkedHashMap<String, String[]>(),
+				new HashMap<String, String>());
+		this.originalRequest = request;
+		this.fileUpload = fileUpload;
+		this.encoding = encoding;
+	}
+
+
+	public Iterator<MultipartPart> getPartIterator() throws MultipartException {
+		final FileItemIterator itemIterator = getItemIterator();
+		return new Iterator<MultipartPart>() {
+			public boolean hasNext() {
+				try {
+					return itemIterator.hasNext();
+				}
+				catch (Exception ex) {
+					throw handleParseFailure(ex);
+				}
+			}
+			public MultipartPart next() {
+				if (!hasNext()) {
+					throw new NoSuchElementException();
+				}
+				try {
+					return createPart(itemIterator.next());
+				}
+				catch (Exception ex) {
+					throw handleParseFailure(ex);
+				}
+			}
+			public void remove() {
+				throw new UnsupportedOperationException("Multipart parts cannot be removed");
+			}
+		};
+	}
+
+	public MultipartPart nextPart(String name) throws MultipartException {
+		Iterator<MultipartPart> it = getPartIterator();
+		while (it.hasNext()) {
+			MultipartPart part = it.next();
+			if (part.getName().equals(name)) {
+				return part;
+			}
+		}
+		return null;
+	}
+
+	private FileItemIterator getItemIterator() {
+		if (this.itemIterator == null) {
+			try {
+				this.itemIterator = ((ServletFileUpload) this.fileUpload).getItemIterator(this.originalRequest);
+			}
+			catch (Exception ex) {
+				throw handleParseFailure(ex);
+			}
+		}
+		return this.itemIterator;
+	}
+
+	private MultipartPart createPart(FileItemStream item) throws IOException {
+		if (item.isFormField()) {
+			byte[] content = StreamUtils.copyToByteArray(item.openStream());
+			String value = decodeFormField(item, content);
+			String[] curParam = getMultipartParameters().get(item.getFieldName());
+			getMultipartParameters().put(item.getFieldName(),
+					(curParam != null ? StringUtils.addStringToArray(curParam, value) : new String[] {value}));
+			getMultipartParameterContentTypes().put(item.getFieldName(), item.getContentType());
+			return new CommonsMultipartPart(item, new ByteArrayInputStream(content));
+		}
+		else {
+			return new CommonsMultipartPart(item, new SizeCheckingInputStream(item.openStream()));
+		}
+	}
+
+	private String decodeFormField(FileItemStream item, byte[] content) {
+		String partEncoding = this.encoding;
+		if (StringUtils.hasText(item.getContentType())) {
+			Charset charset = MediaType.parseMediaType(item.getContentType()).getCharSet();
+			if (charset != null) {
+				partEncoding = charset.name();
+			}
+		}
+		if (partEncoding != null) {
+			try {
+				return new String(content, partEncoding);
+			}
+			catch (UnsupportedEncodingException ex) {
+				if (logger.isWarnEnabled()) {
+					logger.warn("Could not decode multipart item '" + item.getFieldName() +
+							"' with encoding '" + partEncoding + "': using platform default");
+				}
+			}
+		}
+		return new String(content);
+	}
+
+	private MultipartException handleParseFailure(Exception ex) {
+		Throwable cause = (ex instanceof FileUploadBase.FileUploadIOException ? ex.getCause() : ex);
+		if (cause instanceof FileUploadBase.SizeLimitExceededException) {
+			return new MaxUploadSizeExceededException(this.fileUpload.getSizeMax(), cause);
+		}
+		if (cause instanceof FileUploadBase.FileSizeLimitExceededException) {
+			return new MaxUploadSizeExceededException(this.fileUpload.getFileSizeMax(), cause);
+		}
+		return new MultipartException("Could not parse multipart servlet request", cause);
+	}
+
+
+	/**
+	 * MultipartPart adapter for a Commons FileItemStream.
+	 */
+	private static class CommonsMultipartPart implements MultipartPart {
+
+		private final FileItemStream item;
+
+		private final InputStream inputStream;
+
+		public CommonsMultipartPart(FileItemStream item, InputStream inputStream) {
+			this.item = item;
+			this.inputStream = inputStream;
+		}
+
+		public String getName() {
+			return this.item.getFieldName();
+		}
+
+		public String getOriginalFilename() {
+			return (this.item.isFormField() ? null : this.item.getName());
+		}
+
+		public boolean isFormField() {
+			return this.item.isFormField();
+		}
+
+		public String getContentType() {
+			return this.item.getContentType();
+		}
+
+		public HttpHeaders getHeaders() {
+			HttpHeaders headers = new HttpHeaders();
+			FileItemHeaders itemHeaders = this.item.getHeaders();
+			if (itemHeaders != null) {
+				for (Iterator<String> names = itemHeaders.getHeaderNames(); names.hasNext();) {
+					String name = names.next();
+					for (Iterator<String> values = itemHeaders.getHeaders(name); values.hasNext();) {
+						headers.add(name, values.next());
+					}
+				}
+			}
+			else if (this.item.getContentType() != null) {
+				headers.add("Content-Type", this.item.getContentType());
+			}
+			return headers;
+		}
+
+		public InputStream getInputStream() throws IOException {
+			return this.inputStream;
+		}
+
+		@Override
+		public String toString() {
+			return "MultipartPart '" + getName() + "'" +
+					(isFormField() ? "" : " with original filename [" + getOriginalFilename() + "]");
+		}
+	}
+
+
+	/**
+	 * InputStream decorator that turns exceeded size limits into a
+	 * {@link MaxUploadSizeExceededException}, for consistency with
+	 * non-streaming multipart resolution.
+	 */
+	private class SizeCheckingInputStream extends FilterInputStream {
+
+		public SizeCheckingInputStream(InputStream in) {
+			super(in);
+		}
+
+		@Override
+		public int read() throws IOException {
+			try {
+				return super.read();
+			}
+			catch (FileUploadBase.FileUploadIOException ex) {
+				throw handleSizeFailure(ex);
+			}
+		}
+
+		@Override
+		public int read(byte[] b, int off, int len) throws IOException {
+			try {
+				return super.read(b, off, len);
+			}
+			catch (FileUploadBase.FileUploadIOException ex) {
+				throw handleSizeFailure(ex);
+			}
+		}
+
+		@Override
+		public long skip(long n) throws IOException {
+			try {
+				return super.skip(n);
+			}
+			catch (FileUploadBase.FileUploadIOException ex) {
+				throw handleSizeFailure(ex);
+			}
+		}
+
+		private IOException handleSizeFailure(FileUploadBase.FileUploadIOException ex) {
+			MultipartException failure = handleParseFailure(ex);
+			if (failure instanceof MaxUploadSizeExceededException) {
+				throw failure;
+			}
+			return ex;
+		}
+	}
+
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2012 the original author or authors.
+ * Copyright 2002-2014 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -29,13 +29,17 @@ import org.springframework.util.ClassUtils;
 import org.springframework.web.multipart.MultipartException;
 import org.springframework.web.multipart.MultipartFile;
 import org.springframework.web.multipart.MultipartHttpServletRequest;
+import org.springframework.web.multipart.MultipartPart;
 import org.springframework.web.multipart.MultipartResolver;
+import org.springframework.web.multipart.StreamingMultipartHttpServletRequest;
 
 /**
  * {@link ServerHttpRequest} implementation that accesses one part of a multipart
  * request. If using {@link MultipartResolver} configuration the part is accessed
  * through a {@link MultipartFile}. Or if using Servlet 3.0 multipart processing
- * the part is accessed through {@code ServletRequest.getPart}.
+ * the part is accessed through {@code ServletRequest.getPart}. With a
+ * {@link StreamingMultipartHttpServletRequest}, the part is read straight
+ * from the request, advancing to the next part of the given name.
  *
  * @author Rossen Stoyanchev
  * @author Juergen Hoeller
@@ -49,6 +53,8 @@ public class RequestPartServletServerHttpRequest extends ServletServerHttpReques
 
 	private final HttpHeaders headers;
 
+	private final MultipartPart streamedPart;
+
 
 	/**
 	 * Create a new instance.
@@ -65,7 +71,10 @@ public class RequestPartServletServerHttpRequest extends ServletServerHttpReques
 		this.multipartRequest = asMultipartRequest(request);
 		this.partName = partName;
 
-		this.headers = this.multipartRequest.getMultipartHeaders(this.partName);
+		this.streamedPart = (this.multipartRequest instanceof StreamingMultipartHttpServletRequest ?
+				((StreamingMultipartHttpServletRequest) this.multipartRequest).nextPart(this.partName) : null);
+		this.headers = (this.streamedPart != null ? this.streamedPart.getHeaders() :
+				this.multipartRequest.getMultipartHeaders(this.partName));
 		if (this.headers == null) {
 			if (request instanceof MultipartHttpServletRequest) {
 				throw new MissingServletRequestPartException(partName);
@@ -97,7 +106,10 @@ public class RequestPartServletServerHttpRequest extends ServletServerHttpReques
 
 	@Override
 	public InputStream getBody() throws IOException {
-		if (this.multipartRequest instanceof StandardMultipartHttpServletRequest) {
+		if (this.streamedPart != null) {
+			return this.streamedPart.getInputStream();
+		}
+		else if (this.multipartRequest instanceof StandardMultipartHttpServletRequest) {
 			try {
 				return this.multipartRequest.getPart(this.partName).getInputStream();
 			}
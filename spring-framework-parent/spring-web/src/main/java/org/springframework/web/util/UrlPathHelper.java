@@ -29,6 +29,7 @@ import org.apache.commons.logging.LogFactory;
 
 import org.springframework.util.LinkedMultiValueMap;
 import org.springframework.util.MultiValueMap;
+import org.springframework.util.ObjectUtils;
 import org.springframework.util.StringUtils;
 
 /**
@@ -64,6 +65,18 @@ public class UrlPathHelper {
 	 */
 	private static final String WEBSPHERE_URI_ATTRIBUTE = "com.ibm.websphere.servlet.uri_non_decoded";
 
+	/**
+	 * Names of the request attributes that hold the resolved lookup path,
+	 * one per combination of path-related settings.
+	 */
+	private static final String[] LOOKUP_PATH_ATTRIBUTES = new String[8];
+
+	static {
+		for (int i = 0; i < LOOKUP_PATH_ATTRIBUTES.length; i++) {
+			LOOKUP_PATH_ATTRIBUTES[i] = UrlPathHelper.class.getName() + ".lookupPath." + i;
+		}
+	}
+
 	private static final Log logger = LogFactory.getLog(UrlPathHelper.class);
 
 	static volatile Boolean websphereComplianceFlag;
@@ -77,6 +90,8 @@ public class UrlPathHelper {
 
 	private String defaultEncoding = WebUtils.DEFAULT_CHARACTER_ENCODING;
 
+	private boolean cacheLookupPath = true;
+
 
 	/**
 	 * Set if URL lookup should always use full path within current servlet
@@ -176,6 +191,26 @@ public class UrlPathHelper {
 		return this.defaultEncoding;
 	}
 
+	/**
+	 * Set whether the lookup path should be resolved once per request and
+	 * kept in a request attribute for subsequent calls, as long as the
+	 * request URI, context path, servlet path, path info and encoding of
+	 * the request remain the same (e.g. until a forward or include).
+	 * <p>Default is "true". Switch this off for a subclass that derives
+	 * the lookup path from further request state.
+	 * @see #getLookupPathForRequest
+	 */
+	public void setCacheLookupPath(boolean cacheLookupPath) {
+		this.cacheLookupPath = cacheLookupPath;
+	}
+
+	/**
+	 * Return whether the lookup path is resolved once per request.
+	 */
+	public boolean isCacheLookupPath() {
+		return this.cacheLookupPath;
+	}
+
 
 	/**
 	 * Return the mapping lookup path for the given request, within the current
@@ -187,12 +222,77 @@ public class UrlPathHelper {
 	 * 
 	 * <p> 如果在RequestDispatcher include中调用，则检测包括请求URL。
 	 * 
+	 * <p>The lookup path is resolved once per request unless
+	 * {@link #setCacheLookupPath "cacheLookupPath"} has been switched off.
+	 * 
 	 * @param request current HTTP request
 	 * @return the lookup path - 查找路径
 	 * @see #getPathWithinApplication
 	 * @see #getPathWithinServletMapping
 	 */
 	public String getLookupPathForRequest(HttpServletRequest request) {
+		if (this.cacheLookupPath) {
+			return getLookupPathHolder(request).lookupPath;
+		}
+		return resolveLookupPath(request);
+	}
+
+	/**
+	 * Return the segments of the {@link #getLookupPathForRequest lookup path}
+	 * for the given request, i.e. the lookup path split at "/" characters,
+	 * without empty segments.
+	 * <p>The returned array is shared between calls for the same request
+	 * and must not be modified.
+	 * @param request current HTTP request
+	 * @return the lookup path segments
+	 * @since 3.2.12
+	 * @see #getLookupPathForRequest
+	 */
+	public String[] getLookupPathSegments(HttpServletRequest request) {
+		if (this.cacheLookupPath) {
+			return getLookupPathHolder(request).getSegments();
+		}
+		return StringUtils.tokenizeToStringArray(resolveLookupPath(request), "/");
+	}
+
+	/**
+	 * Return the lookup path holder stored in the given request for the current
+	 * settings, resolving the lookup path if there is none yet, if the request
+	 * has changed in the meantime or if it has been resolved by a different
+	 * UrlPathHelper class (which may override the path resolution methods).
+	 */
+	private LookupPathHolder getLookupPathHolder(HttpServletRequest request) {
+		String requestUri = (String) request.getAttribute(WebUtils.INCLUDE_REQUEST_URI_ATTRIBUTE);
+		if (requestUri == null) {
+			requestUri = request.getRequestURI();
+		}
+		String contextPath = (String) request.getAttribute(WebUtils.INCLUDE_CONTEXT_PATH_ATTRIBUTE);
+		if (contextPath == null) {
+			contextPath = request.getContextPath();
+		}
+		String servletPath = (String) request.getAttribute(WebUtils.INCLUDE_SERVLET_PATH_ATTRIBUTE);
+		if (servletPath == null) {
+			servletPath = request.getServletPath();
+		}
+		String pathInfo = request.getPathInfo();
+		String encoding = (this.urlDecode ? determineEncoding(request) : null);
+
+		int index = (this.alwaysUseFullPath ? 4 : 0) + (this.urlDecode ? 2 : 0) + (this.removeSemicolonContent ? 1 : 0);
+		String attributeName = LOOKUP_PATH_ATTRIBUTES[index];
+		Object value = request.getAttribute(attributeName);
+		if (value instanceof LookupPathHolder) {
+			LookupPathHolder holder = (LookupPathHolder) value;
+			if (holder.matches(getClass(), requestUri, contextPath, servletPath, pathInfo, encoding)) {
+				return holder;
+			}
+		}
+		LookupPathHolder holder = new LookupPathHolder(getClass(),
+				requestUri, contextPath, servletPath, pathInfo, encoding, resolveLookupPath(request));
+		request.setAttribute(attributeName, holder);
+		return holder;
+	}
+
+	private String resolveLookupPath(HttpServletRequest request) {
 		// Always use full path within current servlet context?
 		// 始终在当前servlet上下文中使用完整路径？
 		if (this.alwaysUseFullPath) {
@@ -552,6 +652,10 @@ public class UrlPathHelper {
 
 	@SuppressWarnings("deprecation")
 	private String decodeInternal(HttpServletRequest request, String source) {
+		if (source.indexOf('%') == -1) {
+			// Nothing to decode: avoid going through a byte buffer
+			return source;
+		}
 		String enc = determineEncoding(request);
 		try {
 			return UriUtils.decode(source, enc);
@@ -623,6 +727,9 @@ public class UrlPathHelper {
 	}
 
 	private String removeJsessionid(String requestUri) {
+		if (requestUri.indexOf(';') == -1) {
+			return requestUri;
+		}
 		int startIndex = requestUri.toLowerCase().indexOf(";jsessionid=");
 		if (startIndex != -1) {
 			int endIndex = requestUri.indexOf(';', startIndex + 12);
@@ -736,4 +843,58 @@ public class UrlPathHelper {
 		return !websphereComplianceFlag;
 	}
 
+
+	/**
+	 * Lookup path resolved for a request, along with the request state
+	 * and the UrlPathHelper class that it has been derived from.
+	 */
+	private static class LookupPathHolder {
+
+		private final Class<?> helperClass;
+
+		private final String requestUri;
+
+		private final String contextPath;
+
+		private final String servletPath;
+
+		private final String pathInfo;
+
+		private final String encoding;
+
+		private final String lookupPath;
+
+		private String[] segments;
+
+		public LookupPathHolder(Class<?> helperClass, String requestUri, String contextPath,
+				String servletPath, String pathInfo, String encoding, String lookupPath) {
+
+			this.helperClass = helperClass;
+			this.requestUri = requestUri;
+			this.contextPath = contextPath;
+			this.servletPath = servletPath;
+			this.pathInfo = pathInfo;
+			this.encoding = encoding;
+			this.lookupPath = lookupPath;
+		}
+
+		public boolean matches(Class<?> helperClass, String requestUri, String contextPath,
+				String servletPath, String pathInfo, String encoding) {
+
+			return (this.helperClass == helperClass &&
+					ObjectUtils.nullSafeEquals(this.requestUri, requestUri) &&
+					ObjectUtils.nullSafeEquals(this.servletPath, servletPath) &&
+					ObjectUtils.nullSafeEquals(this.contextPath, contextPath) &&
+					ObjectUtils.nullSafeEquals(this.pathInfo, pathInfo) &&
+					ObjectUtils.nullSafeEquals(this.encoding, encoding));
+		}
+
+		public String[] getSegments() {
+			if (this.segments == null) {
+				this.segments = StringUtils.tokenizeToStringArray(this.lookupPath, "/");
+			}
+			return this.segments;
+		}
+	}
+
 }
@@ -0,0 +1,76 @@
+/*
+ * Copyright 2002-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.http;
+
+import java.nio.ByteBuffer;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author agent
+ */
+public class DefaultByteBufferPoolTests {
+
+	@Test
+	public void reuseReleasedBuffer() {
+		DefaultByteBufferPool pool = new DefaultByteBufferPool();
+		ByteBuffer buffer = pool.acquire();
+		assertEquals(DefaultByteBufferPool.DEFAULT_BUFFER_SIZE, buffer.capacity());
+		assertTrue(buffer.hasArray());
+		buffer.put((byte) 1);
+		pool.release(buffer);
+		assertEquals(1, pool.getPoolSize());
+
+		ByteBuffer reused = pool.acquire();
+		assertSame(buffer, reused);
+		assertEquals(0, reused.position());
+		assertEquals(reused.capacity(), reused.limit());
+		assertEquals(0, pool.getPoolSize());
+		assertEquals(1, pool.getAllocationCount());
+	}
+
+	@Test
+	public void directBuffers() {
+		DefaultByteBufferPool pool = new DefaultByteBufferPool();
+		pool.setDirect(true);
+		pool.setBufferSize(1024);
+		ByteBuffer buffer = pool.acquire();
+		assertTrue(buffer.isDirect());
+		assertEquals(1024, buffer.capacity());
+		pool.release(ByteBuffer.allocate(1024));
+		assertEquals(0, pool.getPoolSize());
+		pool.release(buffer);
+		assertEquals(1, pool.getPoolSize());
+	}
+
+	@Test
+	public void maxPoolSize() {
+		DefaultByteBufferPool pool = new DefaultByteBufferPool();
+		pool.setMaxPoolSize(1);
+		ByteBuffer buffer1 = pool.acquire();
+		ByteBuffer buffer2 = pool.acquire();
+		pool.release(buffer1);
+		pool.release(buffer2);
+		assertEquals(1, pool.getPoolSize());
+		pool.release(ByteBuffer.allocate(16));
+		assertEquals(1, pool.getPoolSize());
+		assertEquals(2, pool.getAllocationCount());
+	}
+
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2013 the original author or authors.
+ * Copyright 2002-2014 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -237,6 +237,20 @@ public class MediaTypeTests {
 		assertEquals("Invalid amount of media types", 0, mediaTypes.size());
 	}
 
+	@Test
+	public void parseMediaTypesCached() throws Exception {
+		String s = "text/html, application/xhtml+xml, application/xml;q=0.9, */*;q=0.8";
+		List<MediaType> mediaTypes = MediaType.parseMediaTypes(s);
+		List<MediaType> otherMediaTypes = MediaType.parseMediaTypes(s);
+		assertEquals(mediaTypes, otherMediaTypes);
+		assertNotSame(mediaTypes, otherMediaTypes);
+		assertSame(mediaTypes.get(2), otherMediaTypes.get(2));
+
+		MediaType.sortBySpecificityAndQuality(mediaTypes);
+		assertEquals(MediaType.ALL, MediaType.parseMediaTypes(s).get(3).removeQualityValue());
+		assertSame(MediaType.parseMediaType("application/xml;q=0.9"), MediaType.parseMediaType("application/xml;q=0.9"));
+	}
+
 	@Test
 	public void compareTo() {
 		MediaType audioBasic = new MediaType("audio", "basic");
@@ -22,6 +22,7 @@ import static org.junit.Assert.*;
 import org.junit.Before;
 import org.junit.Test;
 
+import org.springframework.http.DefaultByteBufferPool;
 import org.springframework.http.MediaType;
 import org.springframework.http.MockHttpInputMessage;
 import org.springframework.http.MockHttpOutputMessage;
@@ -56,6 +57,49 @@ public class ByteArrayHttpMessageConverterTests {
 		assertArrayEquals("Invalid result", body, result);
 	}
 
+	@Test
+	public void readWithInaccurateContentLength() throws IOException {
+		byte[] body = new byte[]{0x1, 0x2, 0x3};
+		MockHttpInputMessage inputMessage = new MockHttpInputMessage(body);
+		inputMessage.getHeaders().setContentLength(2);
+		assertArrayEquals(body, converter.read(byte[].class, inputMessage));
+
+		inputMessage = new MockHttpInputMessage(body);
+		inputMessage.getHeaders().setContentLength(5);
+		assertArrayEquals(body, converter.read(byte[].class, inputMessage));
+
+		inputMessage = new MockHttpInputMessage(body);
+		inputMessage.getHeaders().setContentLength(Integer.MAX_VALUE - 1);
+		assertArrayEquals(body, converter.read(byte[].class, inputMessage));
+	}
+
+	@Test
+	public void readLargerThanBufferSize() throws IOException {
+		byte[] body = new byte[100000];
+		for (int i = 0; i < body.length; i++) {
+			body[i] = (byte) i;
+		}
+		MockHttpInputMessage inputMessage = new MockHttpInputMessage(body);
+		inputMessage.getHeaders().setContentLength(body.length);
+		assertArrayEquals(body, converter.read(byte[].class, inputMessage));
+	}
+
+	@Test
+	public void readWithPooledBuffer() throws IOException {
+		DefaultByteBufferPool bufferPool = new DefaultByteBufferPool();
+		bufferPool.setBufferSize(16);
+		converter.setBufferPool(bufferPool);
+		byte[] body = new byte[100];
+		for (int i = 0; i < body.length; i++) {
+			body[i] = (byte) i;
+		}
+		for (int i = 0; i < 100; i++) {
+			MockHttpInputMessage inputMessage = new MockHttpInputMessage(body);
+			assertArrayEquals(body, converter.read(byte[].class, inputMessage));
+		}
+		assertEquals(1, bufferPool.getAllocationCount());
+	}
+
 	@Test
 	public void write() throws IOException {
 		MockHttpOutputMessage outputMessage = new MockHttpOutputMessage();
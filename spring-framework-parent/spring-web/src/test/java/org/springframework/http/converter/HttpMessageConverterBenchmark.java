@@ -0,0 +1,134 @@
+/*
+ * Copyright 2002-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.springframework.http.converter;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import org.springframework.http.MediaType;
+import org.springframework.http.MockHttpInputMessage;
+import org.springframework.http.MockHttpOutputMessage;
+
+/**
+ * JMH benchmark for reading and writing request bodies through
+ * {@link ByteArrayHttpMessageConverter} and {@link StringHttpMessageConverter},
+ * with and without an announced content length, measuring the buffer handling
+ * in {@link AbstractHttpMessageConverter}.
+ *
+ * <p>Run through {@link #main}, or via the JMH runner with
+ * {@code -prof gc} in order to check the allocation rate per message.
+ *
+ * @author agent
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HttpMessageConverterBenchmark {
+
+	@Param({"128", "8192", "1048576"})
+	public int size;
+
+	private byte[] body;
+
+	private String text;
+
+	private ByteArrayHttpMessageConverter byteArrayConverter;
+
+	private StringHttpMessageConverter stringConverter;
+
+
+	@Setup
+	public void setUp() {
+		this.body = new byte[this.size];
+		Arrays.fill(this.body, (byte) 'a');
+		this.text = new String(this.body, StringHttpMessageConverter.DEFAULT_CHARSET);
+		this.byteArrayConverter = new ByteArrayHttpMessageConverter();
+		this.stringConverter = new StringHttpMessageConverter();
+		this.stringConverter.setWriteAcceptCharset(false);
+	}
+
+
+	@Benchmark
+	public byte[] readByteArray() throws IOException {
+		return this.byteArrayConverter.read(byte[].class, createInputMessage(true));
+	}
+
+	@Benchmark
+	public byte[] readByteArrayWithoutContentLength() throws IOException {
+		return this.byteArrayConverter.read(byte[].class, createInputMessage(false));
+	}
+
+	@Benchmark
+	public String readString() throws IOException {
+		return this.stringConverter.read(String.class, createInputMessage(true));
+	}
+
+	@Benchmark
+	public String readStringWithoutContentLength() throws IOException {
+		return this.stringConverter.read(String.class, createInputMessage(false));
+	}
+
+	@Benchmark
+	public MockHttpOutputMessage writeByteArray() throws IOException {
+		MockHttpOutputMessage outputMessage = new MockHttpOutputMessage();
+		this.byteArrayConverter.write(this.body, MediaType.APPLICATION_OCTET_STREAM, outputMessage);
+		return outputMessage;
+	}
+
+	@Benchmark
+	public MockHttpOutputMessage writeString() throws IOException {
+		MockHttpOutputMessage outputMessage = new MockHttpOutputMessage();
+		this.stringConverter.write(this.text, MediaType.TEXT_PLAIN, outputMessage);
+		return outputMessage;
+	}
+
+	private MockHttpInputMessage createInputMessage(boolean withContentLength) {
+		MockHttpInputMessage inputMessage = new MockHttpInputMessage(new ByteArrayInputStream(this.body));
+		inputMessage.getHeaders().setContentType(MediaType.TEXT_PLAIN);
+		if (withContentLength) {
+			inputMessage.getHeaders().setContentLength(this.body.length);
+		}
+		return inputMessage;
+	}
+
+
+	public static void main(String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder().include(HttpMessageConverterBenchmark.class.getSimpleName()).build()).run();
+	}
+
+}
@@ -16,14 +16,21 @@
 
 package org.springframework.http.converter;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
 import java.util.Arrays;
 
 import org.junit.Before;
 import org.junit.Test;
 import org.springframework.core.io.ByteArrayResource;
 import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.FileSystemResource;
 import org.springframework.core.io.Resource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpOutputMessage;
 import org.springframework.http.MediaType;
 import org.springframework.http.MockHttpInputMessage;
 import org.springframework.http.MockHttpOutputMessage;
@@ -83,4 +90,42 @@ public class ResourceHttpMessageConverterTests {
 		assertTrue(Arrays.equals(byteArray, outputMessage.getBodyAsBytes()));
 	}
 
+	@Test
+	public void writeFileSystemResourceToChannel() throws IOException {
+		Resource classPathResource = new ClassPathResource("logo.jpg", getClass());
+		Resource body = new FileSystemResource(classPathResource.getFile());
+		final ChannelOutputStream channel = new ChannelOutputStream();
+		final HttpHeaders headers = new HttpHeaders();
+		converter.write(body, null, new HttpOutputMessage() {
+			public HttpHeaders getHeaders() {
+				return headers;
+			}
+			public OutputStream getBody() {
+				return channel;
+			}
+		});
+		assertTrue(channel.channelWritten);
+		assertEquals(body.contentLength(), headers.getContentLength());
+		assertTrue(Arrays.equals(FileCopyUtils.copyToByteArray(classPathResource.getInputStream()), channel.toByteArray()));
+	}
+
+
+	private static class ChannelOutputStream extends ByteArrayOutputStream implements WritableByteChannel {
+
+		private boolean channelWritten;
+
+		public int write(ByteBuffer src) {
+			this.channelWritten = true;
+			int length = src.remaining();
+			byte[] bytes = new byte[length];
+			src.get(bytes);
+			write(bytes, 0, length);
+			return length;
+		}
+
+		public boolean isOpen() {
+			return true;
+		}
+	}
+
 }
@@ -25,7 +25,9 @@ import java.io.ObjectOutputStream;
 import java.io.OutputStream;
 import java.io.Serializable;
 import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 import java.util.zip.GZIPInputStream;
 import java.util.zip.GZIPOutputStream;
 import javax.servlet.ServletException;
@@ -41,6 +43,7 @@ import org.springframework.beans.factory.BeanClassLoaderAware;
 import org.springframework.mock.web.test.MockHttpServletRequest;
 import org.springframework.mock.web.test.MockHttpServletResponse;
 import org.springframework.remoting.RemoteAccessException;
+import org.springframework.remoting.support.CompactRemoteInvocationCodec;
 import org.springframework.remoting.support.DefaultRemoteInvocationExecutor;
 import org.springframework.remoting.support.RemoteInvocation;
 import org.springframework.remoting.support.RemoteInvocationFactory;
@@ -126,6 +129,60 @@ public class HttpInvokerTests extends TestCase {
 		}
 	}
 
+	public void testHttpInvokerProxyFactoryBeanAndServiceExporterWithCodecAndBatch() throws Throwable {
+		TestBean target = new TestBean("myname", 99);
+		CompactRemoteInvocationCodec codec = new CompactRemoteInvocationCodec();
+
+		final HttpInvokerServiceExporter exporter = new HttpInvokerServiceExporter();
+		exporter.setServiceInterface(ITestBean.class);
+		exporter.setService(target);
+		exporter.setCodec(codec);
+		exporter.afterPropertiesSet();
+
+		HttpInvokerProxyFactoryBean pfb = new HttpInvokerProxyFactoryBean();
+		pfb.setServiceInterface(ITestBean.class);
+		pfb.setServiceUrl("http://myurl");
+
+		AbstractHttpInvokerRequestExecutor executor = new AbstractHttpInvokerRequestExecutor() {
+			@Override
+			protected RemoteInvocationResult doExecuteRequest(
+					HttpInvokerClientConfiguration config, ByteArrayOutputStream baos) throws Exception {
+				MockHttpServletRequest request = new MockHttpServletRequest();
+				MockHttpServletResponse response = new MockHttpServletResponse();
+				request.setContentType(getContentType());
+				request.setContent(baos.toByteArray());
+				exporter.handleRequest(request, response);
+				assertEquals(CompactRemoteInvocationCodec.CONTENT_TYPE_COMPACT_INVOCATION, response.getContentType());
+				return readRemoteInvocationResult(
+						new ByteArrayInputStream(response.getContentAsByteArray()), config.getCodebaseUrl());
+			}
+		};
+		executor.setCodec(codec);
+		pfb.setHttpInvokerRequestExecutor(executor);
+
+		pfb.afterPropertiesSet();
+		ITestBean proxy = (ITestBean) pfb.getObject();
+		assertEquals("myname", proxy.getName());
+		proxy.setAge(50);
+		assertEquals(50, proxy.getAge());
+		try {
+			proxy.exceptional(new IllegalStateException());
+			fail("Should have thrown IllegalStateException");
+		}
+		catch (IllegalStateException ex) {
+			// expected
+		}
+
+		List<RemoteInvocation> invocations = new ArrayList<RemoteInvocation>();
+		invocations.add(new RemoteInvocation("setAge", new Class[] {int.class}, new Object[] {60}));
+		invocations.add(new RemoteInvocation("getAge", new Class[0], new Object[0]));
+		invocations.add(new RemoteInvocation("getName", new Class[0], new Object[0]));
+		List<RemoteInvocationResult> results = pfb.executeRequests(invocations);
+		assertEquals(3, results.size());
+		assertEquals(60, results.get(1).recreate());
+		assertEquals("myname", results.get(2).recreate());
+	}
+
 	public void testHttpInvokerProxyFactoryBeanAndServiceExporterWithIOException() throws Exception {
 		TestBean target = new TestBean("myname", 99);
 
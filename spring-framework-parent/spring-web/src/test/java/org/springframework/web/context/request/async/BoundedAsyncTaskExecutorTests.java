@@ -0,0 +1,126 @@
+/*
+ * Copyright 2002-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.web.context.request.async;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.mock.web.test.MockHttpServletRequest;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author agent
+ */
+public class BoundedAsyncTaskExecutorTests {
+
+	private final BoundedAsyncTaskExecutor executor = new BoundedAsyncTaskExecutor();
+
+	private final CountDownLatch started = new CountDownLatch(1);
+
+	private final CountDownLatch release = new CountDownLatch(1);
+
+
+	@Before
+	public void setUp() {
+		this.executor.setConcurrencyLimit(1);
+		this.executor.setQueueCapacity(2);
+	}
+
+	@After
+	public void tearDown() {
+		this.release.countDown();
+		this.executor.destroy();
+	}
+
+
+	@Test
+	public void rejectWhenQueueFull() throws Exception {
+		this.executor.afterPropertiesSet();
+		this.executor.submit(new BlockingTask());
+		assertTrue(this.started.await(5, TimeUnit.SECONDS));
+		this.executor.submit(new BlockingTask());
+		this.executor.submit(new BlockingTask());
+		assertEquals(1, this.executor.getActiveCount());
+		assertEquals(2, this.executor.getQueuedCount());
+		try {
+			this.executor.submit(new BlockingTask());
+			fail("Should have thrown TaskRejectedException");
+		}
+		catch (TaskRejectedException ex) {
+			// expected
+		}
+		assertEquals(1, this.executor.getRejectedCount());
+	}
+
+	@Test
+	public void shedRegularRequestsBeyondThreshold() throws Exception {
+		this.executor.setSheddingThreshold(1);
+		this.executor.setPriorityHeaderName("X-Request-Priority");
+		this.executor.afterPropertiesSet();
+		MockHttpServletRequest regularRequest = new MockHttpServletRequest();
+		MockHttpServletRequest priorityRequest = new MockHttpServletRequest();
+		priorityRequest.addHeader("X-Request-Priority", "1");
+
+		this.executor.submit(new BlockingTask(), new ServletWebRequest(regularRequest));
+		assertTrue(this.started.await(5, TimeUnit.SECONDS));
+		this.executor.submit(new BlockingTask(), new ServletWebRequest(regularRequest));
+		try {
+			this.executor.submit(new BlockingTask(), new ServletWebRequest(regularRequest));
+			fail("Should have thrown TaskRejectedException");
+		}
+		catch (TaskRejectedException ex) {
+			// expected
+		}
+		this.executor.submit(new BlockingTask(), new ServletWebRequest(priorityRequest));
+		assertEquals(2, this.executor.getQueuedCount());
+	}
+
+	@Test
+	public void cancelReleasesQueuedTask() throws Exception {
+		this.executor.afterPropertiesSet();
+		this.executor.submit(new BlockingTask());
+		assertTrue(this.started.await(5, TimeUnit.SECONDS));
+		Future<?> future = this.executor.submit(new BlockingTask());
+		assertEquals(1, this.executor.getQueuedCount());
+		assertTrue(future.cancel(true));
+		assertEquals(0, this.executor.getQueuedCount());
+		assertEquals(1, this.executor.getTimedOutCount());
+	}
+
+
+	private class BlockingTask implements Runnable {
+
+		public void run() {
+			started.countDown();
+			try {
+				release.await(5, TimeUnit.SECONDS);
+			}
+			catch (InterruptedException ex) {
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+
+}
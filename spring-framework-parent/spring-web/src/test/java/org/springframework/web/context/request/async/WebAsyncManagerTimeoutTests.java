@@ -17,6 +17,7 @@
 package org.springframework.web.context.request.async;
 
 import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
 
 import javax.servlet.AsyncEvent;
 import javax.servlet.DispatcherType;
@@ -24,10 +25,12 @@ import javax.servlet.DispatcherType;
 import org.junit.Before;
 import org.junit.Test;
 import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
 import org.springframework.mock.web.test.MockAsyncContext;
 import org.springframework.mock.web.test.MockHttpServletRequest;
 import org.springframework.mock.web.test.MockHttpServletResponse;
 import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.WebRequest;
 
 import static org.junit.Assert.*;
 import static org.mockito.BDDMockito.*;
@@ -128,6 +131,78 @@ public class WebAsyncManagerTimeoutTests {
 		verify(interceptor).beforeConcurrentHandling(this.asyncWebRequest, callable);
 	}
 
+	@Test
+	@SuppressWarnings({"unchecked", "rawtypes"})
+	public void startCallableProcessingTimeoutDoesNotCancelTask() throws Exception {
+
+		StubCallable callable = new StubCallable();
+		Future future = mock(Future.class);
+		AsyncTaskExecutor executor = mock(AsyncTaskExecutor.class);
+		given(executor.submit((Runnable) notNull())).willReturn(future);
+		this.asyncManager.setTaskExecutor(executor);
+
+		this.asyncManager.startCallableProcessing(callable);
+		this.asyncWebRequest.onTimeout(ASYNC_EVENT);
+
+		verifyZeroInteractions(future);
+		assertEquals(503, this.servletResponse.getStatus());
+	}
+
+	@Test
+	@SuppressWarnings({"unchecked", "rawtypes"})
+	public void startCallableProcessingTimeoutCancelsBoundedTask() throws Exception {
+
+		StubCallable callable = new StubCallable();
+		Future future = mock(Future.class);
+		BoundedAsyncTaskExecutor executor = mock(BoundedAsyncTaskExecutor.class);
+		given(executor.submit((Runnable) notNull(), (WebRequest) notNull())).willReturn(future);
+		this.asyncManager.setTaskExecutor(executor);
+
+		this.asyncManager.startCallableProcessing(callable);
+		this.asyncWebRequest.onTimeout(ASYNC_EVENT);
+
+		verify(future).cancel(false);
+		assertEquals(503, this.servletResponse.getStatus());
+	}
+
+	@Test
+	@SuppressWarnings({"unchecked", "rawtypes"})
+	public void startCallableProcessingTimeoutInterruptsBoundedTask() throws Exception {
+
+		StubCallable callable = new StubCallable();
+		Future future = mock(Future.class);
+		BoundedAsyncTaskExecutor executor = mock(BoundedAsyncTaskExecutor.class);
+		given(executor.submit((Runnable) notNull(), (WebRequest) notNull())).willReturn(future);
+		given(executor.isInterruptOnTimeout()).willReturn(true);
+		this.asyncManager.setTaskExecutor(executor);
+
+		this.asyncManager.startCallableProcessing(callable);
+		this.asyncWebRequest.onTimeout(ASYNC_EVENT);
+
+		verify(future).cancel(true);
+	}
+
+	@Test
+	public void startCallableProcessingRejected() throws Exception {
+
+		StubCallable callable = new StubCallable();
+		AsyncTaskExecutor executor = mock(AsyncTaskExecutor.class);
+		given(executor.submit((Runnable) notNull())).willThrow(new TaskRejectedException("Overloaded"));
+		this.asyncManager.setTaskExecutor(executor);
+
+		CallableProcessingInterceptor interceptor = mock(CallableProcessingInterceptor.class);
+		this.asyncManager.registerCallableInterceptor("interceptor", interceptor);
+		this.asyncManager.startCallableProcessing(callable);
+
+		assertTrue(this.asyncManager.hasConcurrentResult());
+		assertSame(RESPONSE_HANDLED, this.asyncManager.getConcurrentResult());
+		assertEquals(503, this.servletResponse.getStatus());
+		assertEquals("/test", ((MockAsyncContext) this.servletRequest.getAsyncContext()).getDispatchedPath());
+
+		verify(interceptor).beforeConcurrentHandling(this.asyncWebRequest, callable);
+		verify(interceptor, never()).preProcess(this.asyncWebRequest, callable);
+	}
+
 	@Test
 	public void startCallableProcessingAfterTimeoutException() throws Exception {
 
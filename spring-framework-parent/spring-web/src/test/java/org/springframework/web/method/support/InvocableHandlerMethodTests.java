@@ -17,7 +17,9 @@
 package org.springframework.web.method.support;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
@@ -26,6 +28,7 @@ import java.lang.reflect.Method;
 
 import org.junit.Before;
 import org.junit.Test;
+import org.springframework.core.LocalVariableTableParameterNameDiscoverer;
 import org.springframework.core.MethodParameter;
 import org.springframework.http.converter.HttpMessageNotReadableException;
 import org.springframework.mock.web.test.MockHttpServletRequest;
@@ -198,6 +201,161 @@ public class InvocableHandlerMethodTests {
 		}
 	}
 
+	@Test
+	public void resolveArgWithInvocationPlan() throws Exception {
+		StubArgumentResolver intResolver = new StubArgumentResolver(Integer.class, 99);
+		StubArgumentResolver stringResolver = new StubArgumentResolver(String.class, "value");
+
+		HandlerMethodArgumentResolverComposite composite = new HandlerMethodArgumentResolverComposite();
+		composite.addResolver(intResolver);
+		composite.addResolver(stringResolver);
+		HandlerMethodInvocationPlan plan = new HandlerMethodInvocationPlan(
+				handlerMethod, composite, new LocalVariableTableParameterNameDiscoverer(), true);
+		assertSame(intResolver, plan.getArgumentResolver(0));
+		assertSame(stringResolver, plan.getArgumentResolver(1));
+		handlerMethod.setInvocationPlan(plan);
+
+		assertEquals("99-value", handlerMethod.invokeForRequest(webRequest, null));
+		assertEquals("2-value", handlerMethod.invokeForRequest(webRequest, null, 2));
+		assertEquals(1, intResolver.getResolvedParameters().size());
+		assertEquals(2, stringResolver.getResolvedParameters().size());
+	}
+
+	@Test
+	public void cannotResolveArgWithInvocationPlan() throws Exception {
+		HandlerMethodInvocationPlan plan = new HandlerMethodInvocationPlan(handlerMethod,
+				new HandlerMethodArgumentResolverComposite(), new LocalVariableTableParameterNameDiscoverer(), true);
+		assertNull(plan.getArgumentResolver(0));
+		handlerMethod.setInvocationPlan(plan);
+		try {
+			handlerMethod.invokeForRequest(webRequest, null);
+			fail("Expected exception");
+		}
+		catch (IllegalStateException ex) {
+			assertTrue(ex.getMessage().contains("No suitable resolver for argument [0] [type=java.lang.Integer]"));
+		}
+	}
+
+	@Test
+	public void illegalArgumentExceptionWithInvocationPlan() throws Exception {
+		HandlerMethodArgumentResolverComposite composite = new HandlerMethodArgumentResolverComposite();
+		composite.addResolver(new StubArgumentResolver(Integer.class, "__invalid__"));
+		composite.addResolver(new StubArgumentResolver(String.class, "value"));
+		handlerMethod.setInvocationPlan(new HandlerMethodInvocationPlan(
+				handlerMethod, composite, new LocalVariableTableParameterNameDiscoverer(), true));
+
+		try {
+			handlerMethod.invokeForRequest(webRequest, null);
+			fail("Expected exception");
+		}
+		catch (IllegalStateException ex) {
+			assertTrue(ex.getCause() instanceof IllegalArgumentException);
+			assertTrue(ex.getMessage().contains("[0] [type=java.lang.String] [value=__invalid__]"));
+		}
+	}
+
+	@Test
+	public void invocationTargetExceptionWithInvocationPlan() throws Exception {
+		Method method = ExceptionRaisingHandler.class.getDeclaredMethod("raiseException");
+		Throwable expected = new Exception("error");
+		InvocableHandlerMethod handlerMethod = new InvocableHandlerMethod(new ExceptionRaisingHandler(expected), method);
+		HandlerMethodInvocationPlan plan = new HandlerMethodInvocationPlan(handlerMethod,
+				new HandlerMethodArgumentResolverComposite(), new LocalVariableTableParameterNameDiscoverer(), true);
+		handlerMethod.setInvocationPlan(plan);
+		try {
+			handlerMethod.invokeForRequest(webRequest, null);
+			fail("Expected exception");
+		}
+		catch (Exception actual) {
+			assertSame(expected, actual);
+		}
+	}
+
+	@Test
+	public void resolveArgWithInvocationPlanWithoutGeneratedInvoker() throws Exception {
+		HandlerMethodArgumentResolverComposite composite = new HandlerMethodArgumentResolverComposite();
+		composite.addResolver(new StubArgumentResolver(Integer.class, 99));
+		composite.addResolver(new StubArgumentResolver(String.class, "value"));
+		HandlerMethodInvocationPlan plan = new HandlerMethodInvocationPlan(
+				handlerMethod, composite, new LocalVariableTableParameterNameDiscoverer(), false);
+		assertFalse(plan.hasGeneratedInvoker());
+		handlerMethod.setInvocationPlan(plan);
+
+		assertEquals("99-value", handlerMethod.invokeForRequest(webRequest, null));
+		assertEquals("2-value", handlerMethod.invokeForRequest(webRequest, null, 2));
+	}
+
+	@Test
+	public void exceptionsWithInvocationPlanWithoutGeneratedInvoker() throws Exception {
+		HandlerMethodArgumentResolverComposite composite = new HandlerMethodArgumentResolverComposite();
+		composite.addResolver(new StubArgumentResolver(Integer.class, "__invalid__"));
+		composite.addResolver(new StubArgumentResolver(String.class, "value"));
+		handlerMethod.setInvocationPlan(new HandlerMethodInvocationPlan(
+				handlerMethod, composite, new LocalVariableTableParameterNameDiscoverer(), false));
+		try {
+			handlerMethod.invokeForRequest(webRequest, null);
+			fail("Expected exception");
+		}
+		catch (IllegalStateException ex) {
+			assertTrue(ex.getCause() instanceof IllegalArgumentException);
+			assertTrue(ex.getMessage().contains("[0] [type=java.lang.String] [value=__invalid__]"));
+		}
+
+		Method method = ExceptionRaisingHandler.class.getDeclaredMethod("raiseException");
+		Throwable expected = new Exception("error");
+		InvocableHandlerMethod raisingMethod = new InvocableHandlerMethod(new ExceptionRaisingHandler(expected), method);
+		raisingMethod.setInvocationPlan(new HandlerMethodInvocationPlan(raisingMethod,
+				new HandlerMethodArgumentResolverComposite(), new LocalVariableTableParameterNameDiscoverer(), false));
+		try {
+			raisingMethod.invokeForRequest(webRequest, null);
+			fail("Expected exception");
+		}
+		catch (Exception actual) {
+			assertSame(expected, actual);
+		}
+	}
+
+	@Test
+	public void invocationPlanForPrivateMethodFallsBackToReflection() throws Exception {
+		Method method = PrivateMethodHandler.class.getDeclaredMethod("handle", String.class);
+		InvocableHandlerMethod handlerMethod = new InvocableHandlerMethod(new PrivateMethodHandler(), method);
+		HandlerMethodArgumentResolverComposite composite = new HandlerMethodArgumentResolverComposite();
+		composite.addResolver(new StubArgumentResolver(String.class, "value"));
+		HandlerMethodInvocationPlan plan = new HandlerMethodInvocationPlan(
+				handlerMethod, composite, new LocalVariableTableParameterNameDiscoverer(), true);
+		assertFalse(plan.hasGeneratedInvoker());
+		handlerMethod.setInvocationPlan(plan);
+
+		assertEquals("private-value", handlerMethod.invokeForRequest(webRequest, null));
+	}
+
+	@Test
+	public void invocationPlanPassesOwnMethodParameters() throws Exception {
+		Method method = GenericHandler.class.getDeclaredMethod("handle", Object.class);
+		StubArgumentResolver resolver = new StubArgumentResolver(String.class, "value");
+		HandlerMethodArgumentResolverComposite composite = new HandlerMethodArgumentResolverComposite();
+		composite.addResolver(resolver);
+		HandlerMethodInvocationPlan plan = new HandlerMethodInvocationPlan(
+				new InvocableHandlerMethod(new StringHandler(), method), composite,
+				new LocalVariableTableParameterNameDiscoverer(), false);
+
+		InvocableHandlerMethod handlerMethod = new InvocableHandlerMethod(new StringHandler(), method);
+		handlerMethod.setInvocationPlan(plan);
+		assertEquals("generic-value", handlerMethod.invokeForRequest(webRequest, null));
+
+		MethodParameter parameter = resolver.getResolvedParameters().get(0);
+		assertSame(plan.getMethodParameters()[0], parameter);
+		assertEquals(String.class, parameter.getParameterType());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void invocationPlanForOtherMethod() throws Exception {
+		Method method = ExceptionRaisingHandler.class.getDeclaredMethod("raiseException");
+		InvocableHandlerMethod otherMethod = new InvocableHandlerMethod(new ExceptionRaisingHandler(null), method);
+		handlerMethod.setInvocationPlan(new HandlerMethodInvocationPlan(otherMethod,
+				new HandlerMethodArgumentResolverComposite(), new LocalVariableTableParameterNameDiscoverer(), true));
+	}
+
 	private void invokeExceptionRaisingHandler(Throwable expected) throws Exception {
 		Method method = ExceptionRaisingHandler.class.getDeclaredMethod("raiseException");
 		Object handler = new ExceptionRaisingHandler(expected);
@@ -215,6 +373,27 @@ public class InvocableHandlerMethodTests {
 	}
 
 
+	@SuppressWarnings("unused")
+	private static class PrivateMethodHandler {
+
+		private String handle(String arg) {
+			return "private-" + arg;
+		}
+	}
+
+
+	private static class GenericHandler<T> {
+
+		public String handle(T arg) {
+			return "generic-" + arg;
+		}
+	}
+
+
+	private static class StringHandler extends GenericHandler<String> {
+	}
+
+
 	@SuppressWarnings("unused")
 	private static class ExceptionRaisingHandler {
 
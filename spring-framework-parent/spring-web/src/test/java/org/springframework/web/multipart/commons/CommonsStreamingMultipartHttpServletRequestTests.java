@@ -0,0 +1,142 @@
+/*
+ * Copyright 2002-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.web.multipart.commons;
+
+import java.util.Iterator;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import org.springframework.mock.web.test.MockHttpServletRequest;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.multipart.MaxUploadSizeExceededException;
+import org.springframework.web.multipart.MultipartHttpServletRequest;
+import org.springframework.web.multipart.MultipartPart;
+import org.springframework.web.multipart.StreamingMultipartHttpServletRequest;
+import org.springframework.web.multipart.support.RequestPartServletServerHttpRequest;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for {@link CommonsStreamingMultipartHttpServletRequest}.
+ *
+ * @author agent
+ */
+public class CommonsStreamingMultipartHttpServletRequestTests {
+
+	private static final String BOUNDARY = "----boundary";
+
+	private CommonsMultipartResolver resolver;
+
+	private MockHttpServletRequest request;
+
+
+	@Before
+	public void setUp() {
+		this.resolver = new CommonsMultipartResolver();
+		this.resolver.setStreaming(true);
+
+		StringBuilder body = new StringBuilder();
+		appendPart(body, "form-data; name=\"field1\"", null, "value1");
+		appendPart(body, "form-data; name=\"file1\"; filename=\"a.txt\"", "text/plain", "file content 1");
+		appendPart(body, "form-data; name=\"field2\"", "text/plain;charset=UTF-8", "value2");
+		appendPart(body, "form-data; name=\"file2\"; filename=\"b.bin\"", "application/octet-stream", "file content 2");
+		body.append("--").append(BOUNDARY).append("--\r\n");
+
+		this.request = new MockHttpServletRequest("POST", "/upload");
+		this.request.setContentType("multipart/form-data; boundary=" + BOUNDARY);
+		this.request.setContent(body.toString().getBytes());
+	}
+
+	private static void appendPart(StringBuilder body, String disposition, String contentType, String content) {
+		body.append("--").append(BOUNDARY).append("\r\n");
+		body.append("Content-Disposition: ").append(disposition).append("\r\n");
+		if (contentType != null) {
+			body.append("Content-Type: ").append(contentType).append("\r\n");
+		}
+		body.append("\r\n").append(content).append("\r\n");
+	}
+
+
+	@Test
+	public void partsInRequestOrder() throws Exception {
+		MultipartHttpServletRequest multipartRequest = this.resolver.resolveMultipart(this.request);
+		assertTrue(multipartRequest instanceof StreamingMultipartHttpServletRequest);
+		assertNull(multipartRequest.getParameter("field1"));
+
+		Iterator<MultipartPart> it = ((StreamingMultipartHttpServletRequest) multipartRequest).getPartIterator();
+		MultipartPart part = it.next();
+		assertEquals("field1", part.getName());
+		assertTrue(part.isFormField());
+		assertNull(part.getOriginalFilename());
+		assertEquals("value1", multipartRequest.getParameter("field1"));
+
+		part = it.next();
+		assertEquals("file1", part.getName());
+		assertFalse(part.isFormField());
+		assertEquals("a.txt", part.getOriginalFilename());
+		assertEquals("text/plain", part.getContentType());
+		assertEquals("text/plain", part.getHeaders().getFirst("Content-Type"));
+		assertEquals("file content 1", new String(StreamUtils.copyToByteArray(part.getInputStream())));
+		assertNull(multipartRequest.getFile("file1"));
+
+		part = it.next();
+		assertEquals("field2", part.getName());
+		assertEquals("value2", multipartRequest.getParameter("field2"));
+
+		part = it.next();
+		assertEquals("file2", part.getName());
+		assertFalse(it.hasNext());
+	}
+
+	@Test
+	public void nextPartSkipsUnreadContent() throws Exception {
+		StreamingMultipartHttpServletRequest multipartRequest =
+				(StreamingMultipartHttpServletRequest) this.resolver.resolveMultipart(this.request);
+
+		MultipartPart part = multipartRequest.nextPart("file2");
+		assertEquals("b.bin", part.getOriginalFilename());
+		assertEquals("file content 2", new String(StreamUtils.copyToByteArray(part.getInputStream())));
+		assertEquals("value1", multipartRequest.getParameter("field1"));
+		assertEquals("value2", multipartRequest.getParameter("field2"));
+		assertNull(multipartRequest.nextPart("file1"));
+	}
+
+	@Test
+	public void requestPartAccess() throws Exception {
+		MultipartHttpServletRequest multipartRequest = this.resolver.resolveMultipart(this.request);
+		RequestPartServletServerHttpRequest part = new RequestPartServletServerHttpRequest(multipartRequest, "file1");
+		assertEquals("text/plain", part.getHeaders().getContentType().toString());
+		assertEquals("file content 1", new String(StreamUtils.copyToByteArray(part.getBody())));
+	}
+
+	@Test
+	public void maxUploadSizePerFile() throws Exception {
+		this.resolver.setMaxUploadSizePerFile(10);
+		StreamingMultipartHttpServletRequest multipartRequest =
+				(StreamingMultipartHttpServletRequest) this.resolver.resolveMultipart(this.request);
+		MultipartPart part = multipartRequest.nextPart("file1");
+		try {
+			StreamUtils.copyToByteArray(part.getInputStream());
+			fail("Should have thrown MaxUploadSizeExceededException");
+		}
+		catch (MaxUploadSizeExceededException ex) {
+			assertEquals(10, ex.getMaxUploadSize());
+		}
+	}
+
+}
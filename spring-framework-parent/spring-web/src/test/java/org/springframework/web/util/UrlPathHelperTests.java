@@ -18,6 +18,8 @@ package org.springframework.web.util;
 
 import java.io.UnsupportedEncodingException;
 
+import javax.servlet.http.HttpServletRequest;
+
 import org.junit.Before;
 import org.junit.Ignore;
 import org.junit.Test;
@@ -363,6 +365,85 @@ public class UrlPathHelperTests {
 		tomcatCasualServletFolder();
 	}
 
+	@Test
+	public void getLookupPathCached() {
+		request.setContextPath("/petclinic");
+		request.setServletPath("/main");
+		request.setRequestURI("/petclinic/main/welcome.html");
+
+		String lookupPath = helper.getLookupPathForRequest(request);
+		assertEquals("/welcome.html", lookupPath);
+		assertSame(lookupPath, helper.getLookupPathForRequest(request));
+
+		request.setRequestURI("/petclinic/main/other.html");
+		assertEquals("/other.html", helper.getLookupPathForRequest(request));
+
+		request.setAttribute(WebUtils.INCLUDE_REQUEST_URI_ATTRIBUTE, "/petclinic/main/included.html");
+		assertEquals("/included.html", helper.getLookupPathForRequest(request));
+
+		helper.setAlwaysUseFullPath(true);
+		assertEquals("/main/included.html", helper.getLookupPathForRequest(request));
+	}
+
+	@Test
+	public void getLookupPathCachedPerHelperClass() {
+		request.setContextPath("/petclinic");
+		request.setServletPath("/main");
+		request.setRequestURI("/petclinic/main/welcome.html");
+		UrlPathHelper customHelper = new UrlPathHelper() {
+			@Override
+			public String getPathWithinServletMapping(HttpServletRequest request) {
+				return "/custom" + super.getPathWithinServletMapping(request);
+			}
+		};
+
+		assertEquals("/welcome.html", helper.getLookupPathForRequest(request));
+		assertEquals("/custom/welcome.html", customHelper.getLookupPathForRequest(request));
+		assertEquals("/welcome.html", helper.getLookupPathForRequest(request));
+	}
+
+	@Test
+	public void getLookupPathNotCached() {
+		request.setContextPath("/petclinic");
+		request.setServletPath("/main");
+		request.setRequestURI("/petclinic/main/welcome.html");
+		helper.setCacheLookupPath(false);
+
+		assertEquals("/welcome.html", helper.getLookupPathForRequest(request));
+		assertFalse(request.getAttributeNames().hasMoreElements());
+	}
+
+	@Test
+	public void getLookupPathCachedWithEncoding() throws UnsupportedEncodingException {
+		request.setContextPath("");
+		request.setRequestURI("/%C3%A4");
+		request.setCharacterEncoding("ISO-8859-1");
+		assertEquals("/\u00C3\u00A4", helper.getLookupPathForRequest(request));
+
+		request.setCharacterEncoding("UTF-8");
+		assertEquals("/\u00E4", helper.getLookupPathForRequest(request));
+	}
+
+	@Test
+	public void getLookupPathSegments() {
+		request.setContextPath("/petclinic");
+		request.setServletPath("/main");
+		request.setRequestURI("/petclinic/main/owners//10/edit");
+
+		String[] segments = helper.getLookupPathSegments(request);
+		assertArrayEquals(new String[] {"owners", "10", "edit"}, segments);
+		assertSame(segments, helper.getLookupPathSegments(request));
+	}
+
+	@Test
+	public void decodeRequestStringWithoutEncodedCharacters() {
+		String source = "/welcome.html";
+		assertSame(source, helper.decodeRequestString(request, source));
+		assertSame(source, helper.removeSemicolonContent(source));
+		helper.setRemoveSemicolonContent(false);
+		assertSame(source, helper.removeSemicolonContent(source));
+	}
+
 	@Test
 	public void getOriginatingQueryString() {
 		request.setQueryString("forward=on");
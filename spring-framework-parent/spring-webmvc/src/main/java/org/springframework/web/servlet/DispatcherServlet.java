@@ -28,6 +28,7 @@ import java.util.Locale;
 import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import javax.servlet.ServletContext;
 import javax.servlet.ServletException;
 import javax.servlet.http.HttpServletRequest;
@@ -402,6 +403,9 @@ public class DispatcherServlet extends FrameworkServlet {
 	/** 在包含请求后执行请求属性的清理？ */
 	private boolean cleanupAfterInclude = true;
 
+	/** Cache the HandlerAdapter determined per handler class? */
+	private boolean cacheHandlerAdapters = true;
+
 	/** MultipartResolver used by this servlet */
 	/** 此servlet使用的MultipartResolver */
 	private MultipartResolver multipartResolver;
@@ -422,6 +426,9 @@ public class DispatcherServlet extends FrameworkServlet {
 	/** 此servlet使用的HandlerAdapter列表 */
 	private List<HandlerAdapter> handlerAdapters;
 
+	/** HandlerAdapter last determined per handler class */
+	private final Map<Class<?>, HandlerAdapter> handlerAdapterCache = new ConcurrentHashMap<Class<?>, HandlerAdapter>(64);
+
 	/** List of HandlerExceptionResolvers used by this servlet */
 	/** 此servlet使用的HandlerExceptionResolvers列表 */
 	private List<HandlerExceptionResolver> handlerExceptionResolvers;
@@ -649,6 +656,22 @@ public class DispatcherServlet extends FrameworkServlet {
 		this.cleanupAfterInclude = cleanupAfterInclude;
 	}
 
+	/**
+	 * Set whether to remember the HandlerAdapter determined for each handler class,
+	 * checking the remembered adapter first on subsequent requests instead of asking
+	 * all HandlerAdapters in turn.
+	 * <p>Default is "true". The remembered adapter is still asked whether it
+	 * {@link HandlerAdapter#supports supports} the actual handler instance.
+	 * Turn this off if a HandlerAdapter ordered before another one may accept
+	 * some instances of a handler class but not others - which is not the case
+	 * for any of the HandlerAdapters that come with Spring.
+	 * @since 3.2.12
+	 */
+	public void setCacheHandlerAdapters(boolean cacheHandlerAdapters) {
+		this.cacheHandlerAdapters = cacheHandlerAdapters;
+		this.handlerAdapterCache.clear();
+	}
+
 	/**
 	 * This implementation calls {@link #initStrategies}.
 	 * 
@@ -820,6 +843,7 @@ public class DispatcherServlet extends FrameworkServlet {
 	 */
 	private void initHandlerAdapters(ApplicationContext context) {
 		this.handlerAdapters = null;
+		this.handlerAdapterCache.clear();
 
 		if (this.detectAllHandlerAdapters) {
 			// Find all HandlerAdapters in the ApplicationContext, including ancestor contexts.
@@ -1512,11 +1536,20 @@ public class DispatcherServlet extends FrameworkServlet {
 	 * 
 	 */
 	protected HandlerAdapter getHandlerAdapter(Object handler) throws ServletException {
+		if (this.cacheHandlerAdapters) {
+			HandlerAdapter cached = this.handlerAdapterCache.get(handler.getClass());
+			if (cached != null && cached.supports(handler)) {
+				return cached;
+			}
+		}
 		for (HandlerAdapter ha : this.handlerAdapters) {
 			if (logger.isTraceEnabled()) {
 				logger.trace("Testing handler adapter [" + ha + "]");
 			}
 			if (ha.supports(handler)) {
+				if (this.cacheHandlerAdapters) {
+					this.handlerAdapterCache.put(handler.getClass(), ha);
+				}
 				return ha;
 			}
 		}
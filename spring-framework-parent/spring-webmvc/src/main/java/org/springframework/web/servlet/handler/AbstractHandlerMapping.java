@@ -76,6 +76,8 @@ public abstract class AbstractHandlerMapping extends WebApplicationObjectSupport
 
 	private final List<MappedInterceptor> mappedInterceptors = new ArrayList<MappedInterceptor>();
 
+	private volatile MappedInterceptorIndex mappedInterceptorIndex;
+
 
 	/**
 	 * Specify the order value for this HandlerMapping bean.
@@ -186,6 +188,7 @@ public abstract class AbstractHandlerMapping extends WebApplicationObjectSupport
 	public void setPathMatcher(PathMatcher pathMatcher) {
 		Assert.notNull(pathMatcher, "PathMatcher must not be null");
 		this.pathMatcher = pathMatcher;
+		this.mappedInterceptorIndex = null;
 	}
 
 	/**
@@ -292,6 +295,7 @@ public abstract class AbstractHandlerMapping extends WebApplicationObjectSupport
 				}
 			}
 		}
+		this.mappedInterceptorIndex = null;
 	}
 
 	/**
@@ -457,14 +461,27 @@ public abstract class AbstractHandlerMapping extends WebApplicationObjectSupport
 				(HandlerExecutionChain) handler : new HandlerExecutionChain(handler));
 		chain.addInterceptors(getAdaptedInterceptors());
 
-		String lookupPath = this.urlPathHelper.getLookupPathForRequest(request);
-		for (MappedInterceptor mappedInterceptor : this.mappedInterceptors) {
-			if (mappedInterceptor.matches(lookupPath, this.pathMatcher)) {
-				chain.addInterceptor(mappedInterceptor.getInterceptor());
+		if (!this.mappedInterceptors.isEmpty()) {
+			String lookupPath = this.urlPathHelper.getLookupPathForRequest(request);
+			for (HandlerInterceptor interceptor : getMappedInterceptorIndex().getMatchingInterceptors(lookupPath)) {
+				chain.addInterceptor(interceptor);
 			}
 		}
 
 		return chain;
 	}
 
+	/**
+	 * Return the index of mapped interceptors by path, building it on first access
+	 * after the mapped interceptors or the PathMatcher have changed.
+	 */
+	private MappedInterceptorIndex getMappedInterceptorIndex() {
+		MappedInterceptorIndex index = this.mappedInterceptorIndex;
+		if (index == null) {
+			index = new MappedInterceptorIndex(this.mappedInterceptors, this.pathMatcher);
+			this.mappedInterceptorIndex = index;
+		}
+		return index;
+	}
+
 }
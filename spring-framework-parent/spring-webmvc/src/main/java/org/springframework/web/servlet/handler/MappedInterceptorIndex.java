@@ -0,0 +1,146 @@
+/*
+ * Copyright 2002-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.web.servlet.handler;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.util.AntPathMatcher;
+import org.springframework.util.PathMatcher;
+import org.springframework.util.StringUtils;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+/**
+ * Index of {@link MappedInterceptor}s by the literal leading path segments
+ * of their include patterns, organized as a trie over path segments.
+ *
+ * <p>A lookup walks the trie along the segments of the request path and
+ * only checks the interceptors registered at the visited nodes, plus the
+ * interceptors without literal leading segments (e.g. "/**" or no include
+ * patterns at all). Each candidate is still matched against its full include
+ * and exclude patterns, and matching interceptors are returned in their
+ * original registration order.
+ *
+ * <p>The trie is only built for a plain {@link AntPathMatcher}, assuming its
+ * standard "/" path separator; for any other PathMatcher, all interceptors
+ * are checked on every lookup.
+ *
+ * @author agent
+ * @since 3.2.12
+ * @see AbstractHandlerMapping#getHandlerExecutionChain
+ */
+final class MappedInterceptorIndex {
+
+	private static final String PATH_SEPARATOR = "/";
+
+
+	private final MappedInterceptor[] interceptors;
+
+	private final PathMatcher pathMatcher;
+
+	private final Node root = new Node();
+
+
+	public MappedInterceptorIndex(List<MappedInterceptor> interceptors, PathMatcher pathMatcher) {
+		this.interceptors = interceptors.toArray(new MappedInterceptor[interceptors.size()]);
+		this.pathMatcher = pathMatcher;
+		boolean indexable = (pathMatcher.getClass() == AntPathMatcher.class);
+		for (int i = 0; i < this.interceptors.length; i++) {
+			String[] includePatterns = this.interceptors[i].getPathPatterns();
+			if (!indexable || includePatterns == null) {
+				this.root.add(i);
+			}
+			else {
+				for (String pattern : includePatterns) {
+					Node node = this.root;
+					for (String segment : StringUtils.tokenizeToStringArray(pattern, PATH_SEPARATOR)) {
+						if (!isLiteral(segment)) {
+							break;
+						}
+						node = node.getOrCreateChild(segment);
+					}
+					node.add(i);
+				}
+			}
+		}
+	}
+
+	private static boolean isLiteral(String segment) {
+		return (segment.indexOf('*') == -1 && segment.indexOf('?') == -1 && segment.indexOf('{') == -1);
+	}
+
+
+	/**
+	 * Return the interceptors that apply to the given lookup path.
+	 * @param lookupPath the lookup path of the current request
+	 * @return the matching interceptors, in registration order
+	 */
+	public List<HandlerInterceptor> getMatchingInterceptors(String lookupPath) {
+		BitSet candidates = new BitSet(this.interceptors.length);
+		Node node = this.root;
+		node.collect(candidates);
+		if (!node.children.isEmpty()) {
+			for (String segment : StringUtils.tokenizeToStringArray(lookupPath, PATH_SEPARATOR)) {
+				node = node.children.get(segment);
+				if (node == null) {
+					break;
+				}
+				node.collect(candidates);
+			}
+		}
+		List<HandlerInterceptor> result = new ArrayList<HandlerInterceptor>(candidates.cardinality());
+		for (int i = candidates.nextSetBit(0); i >= 0; i = candidates.nextSetBit(i + 1)) {
+			MappedInterceptor candidate = this.interceptors[i];
+			if (candidate.matches(lookupPath, this.pathMatcher)) {
+				result.add(candidate.getInterceptor());
+			}
+		}
+		return result;
+	}
+
+
+	/**
+	 * A trie node for one literal path segment.
+	 */
+	private static class Node {
+
+		private final Map<String, Node> children = new HashMap<String, Node>(4);
+
+		private final BitSet interceptorIndexes = new BitSet();
+
+		public Node getOrCreateChild(String segment) {
+			Node child = this.children.get(segment);
+			if (child == null) {
+				child = new Node();
+				this.children.put(segment, child);
+			}
+			return child;
+		}
+
+		public void add(int interceptorIndex) {
+			this.interceptorIndexes.set(interceptorIndex);
+		}
+
+		public void collect(BitSet candidates) {
+			candidates.or(this.interceptorIndexes);
+		}
+	}
+
+}
@@ -21,7 +21,11 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Queue;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
@@ -43,8 +47,13 @@ import org.springframework.web.servlet.HandlerMapping;
  * Extends {@link AbstractMessageConverterMethodArgumentResolver} with the ability to handle
  * method return values by writing to the response with {@link HttpMessageConverter}s.
  *
+ * <p>The outcome of content negotiation - the selected media type and converter -
+ * is cached per combination of return value type, requested media types and
+ * producible media types, so that repeated requests skip negotiation entirely.
+ *
  * @author Arjen Poutsma
  * @author Rossen Stoyanchev
+ * @author agent
  * @since 3.1
  */
 public abstract class AbstractMessageConverterMethodProcessor extends AbstractMessageConverterMethodArgumentResolver
@@ -52,8 +61,23 @@ public abstract class AbstractMessageConverterMethodProcessor extends AbstractMe
 
 	private static final MediaType MEDIA_TYPE_APPLICATION = new MediaType("application");
 
+	/** Maximum number of entries in the negotiation cache */
+	private static final int NEGOTIATION_CACHE_LIMIT = 256;
+
+
 	private final ContentNegotiationManager contentNegotiationManager;
 
+	/** Cache of return value type to media types of the converters that can write it */
+	private final ConcurrentMap<Class<?>, List<MediaType>> producibleMediaTypesCache =
+			new ConcurrentHashMap<Class<?>, List<MediaType>>(64);
+
+	/** Cache of negotiation inputs to the selected media type and converter */
+	private final ConcurrentMap<NegotiationKey, NegotiationResult> negotiationCache =
+			new ConcurrentHashMap<NegotiationKey, NegotiationResult>(NEGOTIATION_CACHE_LIMIT);
+
+	/** Negotiation cache keys in order of insertion, for evicting the eldest entries */
+	private final Queue<NegotiationKey> negotiationCacheKeys = new ConcurrentLinkedQueue<NegotiationKey>();
+
 
 	protected AbstractMessageConverterMethodProcessor(List<HttpMessageConverter<?>> messageConverters) {
 		this(messageConverters, null);
@@ -109,6 +133,37 @@ public abstract class AbstractMessageConverterMethodProcessor extends AbstractMe
 		List<MediaType> requestedMediaTypes = getAcceptableMediaTypes(servletRequest);
 		List<MediaType> producibleMediaTypes = getProducibleMediaTypes(servletRequest, returnValueClass);
 
+		NegotiationKey cacheKey = new NegotiationKey(returnValueClass, requestedMediaTypes, producibleMediaTypes);
+		NegotiationResult negotiationResult = this.negotiationCache.get(cacheKey);
+		if (negotiationResult == null) {
+			negotiationResult = negotiate(returnValueClass, requestedMediaTypes, producibleMediaTypes);
+			if (this.negotiationCache.putIfAbsent(cacheKey, negotiationResult) == null) {
+				this.negotiationCacheKeys.add(cacheKey);
+				while (this.negotiationCache.size() > NEGOTIATION_CACHE_LIMIT) {
+					NegotiationKey eldestKey = this.negotiationCacheKeys.poll();
+					if (eldestKey == null) {
+						break;
+					}
+					this.negotiationCache.remove(eldestKey);
+				}
+			}
+		}
+
+		MediaType selectedMediaType = negotiationResult.mediaType;
+		HttpMessageConverter<?> messageConverter = negotiationResult.messageConverter;
+		((HttpMessageConverter<T>) messageConverter).write(returnValue, selectedMediaType, outputMessage);
+		if (logger.isDebugEnabled()) {
+			logger.debug("Written [" + returnValue + "] as \"" + selectedMediaType + "\" using [" +
+					messageConverter + "]");
+		}
+	}
+
+	/**
+	 * Select the media type to write with and the converter to write it with.
+	 */
+	private NegotiationResult negotiate(Class<?> returnValueClass, List<MediaType> requestedMediaTypes,
+			List<MediaType> producibleMediaTypes) throws HttpMediaTypeNotAcceptableException {
+
 		Set<MediaType> compatibleMediaTypes = new LinkedHashSet<MediaType>();
 		for (MediaType requestedType : requestedMediaTypes) {
 			for (MediaType producibleType : producibleMediaTypes) {
@@ -140,12 +195,7 @@ public abstract class AbstractMessageConverterMethodProcessor extends AbstractMe
 			selectedMediaType = selectedMediaType.removeQualityValue();
 			for (HttpMessageConverter<?> messageConverter : this.messageConverters) {
 				if (messageConverter.canWrite(returnValueClass, selectedMediaType)) {
-					((HttpMessageConverter<T>) messageConverter).write(returnValue, selectedMediaType, outputMessage);
-					if (logger.isDebugEnabled()) {
-						logger.debug("Written [" + returnValue + "] as \"" + selectedMediaType + "\" using [" +
-								messageConverter + "]");
-					}
-					return;
+					return new NegotiationResult(selectedMediaType, messageConverter);
 				}
 			}
 		}
@@ -167,13 +217,18 @@ public abstract class AbstractMessageConverterMethodProcessor extends AbstractMe
 			return new ArrayList<MediaType>(mediaTypes);
 		}
 		else if (!this.allSupportedMediaTypes.isEmpty()) {
-			List<MediaType> result = new ArrayList<MediaType>();
-			for (HttpMessageConverter<?> converter : this.messageConverters) {
-				if (converter.canWrite(returnValueClass, null)) {
-					result.addAll(converter.getSupportedMediaTypes());
+			List<MediaType> result = this.producibleMediaTypesCache.get(returnValueClass);
+			if (result == null) {
+				List<MediaType> mediaTypesToUse = new ArrayList<MediaType>();
+				for (HttpMessageConverter<?> converter : this.messageConverters) {
+					if (converter.canWrite(returnValueClass, null)) {
+						mediaTypesToUse.addAll(converter.getSupportedMediaTypes());
+					}
 				}
+				result = Collections.unmodifiableList(mediaTypesToUse);
+				this.producibleMediaTypesCache.put(returnValueClass, result);
 			}
-			return result;
+			return new ArrayList<MediaType>(result);
 		}
 		else {
 			return Collections.singletonList(MediaType.ALL);
@@ -194,4 +249,65 @@ public abstract class AbstractMessageConverterMethodProcessor extends AbstractMe
 		return (MediaType.SPECIFICITY_COMPARATOR.compare(acceptType, produceTypeToUse) <= 0 ? acceptType : produceTypeToUse);
 	}
 
+
+
+	/**
+	 * Key for the negotiation cache.
+	 */
+	private static class NegotiationKey {
+
+		private final Class<?> returnValueClass;
+
+		private final List<MediaType> requestedMediaTypes;
+
+		private final List<MediaType> producibleMediaTypes;
+
+		private final int hashCode;
+
+		public NegotiationKey(Class<?> returnValueClass, List<MediaType> requestedMediaTypes,
+				List<MediaType> producibleMediaTypes) {
+
+			this.returnValueClass = returnValueClass;
+			this.requestedMediaTypes = requestedMediaTypes;
+			this.producibleMediaTypes = producibleMediaTypes;
+			this.hashCode = 31 * (31 * returnValueClass.hashCode() + requestedMediaTypes.hashCode()) +
+					producibleMediaTypes.hashCode();
+		}
+
+		@Override
+		public boolean equals(Object other) {
+			if (this == other) {
+				return true;
+			}
+			if (!(other instanceof NegotiationKey)) {
+				return false;
+			}
+			NegotiationKey otherKey = (NegotiationKey) other;
+			return (this.returnValueClass == otherKey.returnValueClass &&
+					this.requestedMediaTypes.equals(otherKey.requestedMediaTypes) &&
+					this.producibleMediaTypes.equals(otherKey.producibleMediaTypes));
+		}
+
+		@Override
+		public int hashCode() {
+			return this.hashCode;
+		}
+	}
+
+
+	/**
+	 * Outcome of content negotiation: the media type to write with and the converter to use.
+	 */
+	private static class NegotiationResult {
+
+		public final MediaType mediaType;
+
+		public final HttpMessageConverter<?> messageConverter;
+
+		public NegotiationResult(MediaType mediaType, HttpMessageConverter<?> messageConverter) {
+			this.mediaType = mediaType;
+			this.messageConverter = messageConverter;
+		}
+	}
+
 }
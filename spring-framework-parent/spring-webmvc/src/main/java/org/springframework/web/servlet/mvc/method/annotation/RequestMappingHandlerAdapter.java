@@ -85,6 +85,7 @@ import org.springframework.web.method.annotation.SessionAttributesHandler;
 import org.springframework.web.method.annotation.SessionStatusMethodArgumentResolver;
 import org.springframework.web.method.support.HandlerMethodArgumentResolver;
 import org.springframework.web.method.support.HandlerMethodArgumentResolverComposite;
+import org.springframework.web.method.support.HandlerMethodInvocationPlan;
 import org.springframework.web.method.support.HandlerMethodReturnValueHandler;
 import org.springframework.web.method.support.HandlerMethodReturnValueHandlerComposite;
 import org.springframework.web.method.support.InvocableHandlerMethod;
@@ -151,6 +152,8 @@ public class RequestMappingHandlerAdapter extends AbstractHandlerMethodAdapter
 
 	private ParameterNameDiscoverer parameterNameDiscoverer = new LocalVariableTableParameterNameDiscoverer();
 
+	private boolean generateMethodInvokers = true;
+
 	private ConfigurableBeanFactory beanFactory;
 
 
@@ -167,6 +170,15 @@ public class RequestMappingHandlerAdapter extends AbstractHandlerMethodAdapter
 	private final Map<ControllerAdviceBean, Set<Method>> modelAttributeAdviceCache =
 			new LinkedHashMap<ControllerAdviceBean, Set<Method>>();
 
+	private final Map<InvocationPlanKey, HandlerMethodInvocationPlan> invocationPlanCache =
+			new ConcurrentHashMap<InvocationPlanKey, HandlerMethodInvocationPlan>(256);
+
+	private final Map<Class<?>, ModelFactory> simpleModelFactoryCache =
+			new ConcurrentHashMap<Class<?>, ModelFactory>(64);
+
+	/** Shared binder factory for handlers without any {@code @InitBinder} methods */
+	private volatile WebDataBinderFactory simpleDataBinderFactory;
+
 
 	/**
 	 * Default constructor.
@@ -211,6 +223,7 @@ public class RequestMappingHandlerAdapter extends AbstractHandlerMethodAdapter
 			this.argumentResolvers = new HandlerMethodArgumentResolverComposite();
 			this.argumentResolvers.addResolvers(argumentResolvers);
 		}
+		this.invocationPlanCache.clear();
 	}
 
 	/**
@@ -335,6 +348,8 @@ public class RequestMappingHandlerAdapter extends AbstractHandlerMethodAdapter
 	 */
 	public void setWebBindingInitializer(WebBindingInitializer webBindingInitializer) {
 		this.webBindingInitializer = webBindingInitializer;
+		this.simpleDataBinderFactory = null;
+		this.simpleModelFactoryCache.clear();
 	}
 
 	/**
@@ -457,6 +472,20 @@ public class RequestMappingHandlerAdapter extends AbstractHandlerMethodAdapter
 	 */
 	public void setParameterNameDiscoverer(ParameterNameDiscoverer parameterNameDiscoverer) {
 		this.parameterNameDiscoverer = parameterNameDiscoverer;
+		this.invocationPlanCache.clear();
+	}
+
+	/**
+	 * Set whether to generate bytecode for invoking handler methods instead of
+	 * going through reflection. Default is "true".
+	 * <p>Handler methods that cannot be invoked that way, e.g. private methods,
+	 * are invoked through reflection in any case.
+	 * @since 3.2.12
+	 * @see HandlerMethodInvocationPlan
+	 */
+	public void setGenerateMethodInvokers(boolean generateMethodInvokers) {
+		this.generateMethodInvokers = generateMethodInvokers;
+		this.invocationPlanCache.clear();
 	}
 
 	/**
@@ -583,6 +612,8 @@ public class RequestMappingHandlerAdapter extends AbstractHandlerMethodAdapter
 		handlers.add(new HttpEntityMethodProcessor(getMessageConverters(), this.contentNegotiationManager));
 		handlers.add(new CallableMethodReturnValueHandler());
 		handlers.add(new DeferredResultMethodReturnValueHandler());
+		handlers.add(new ListenableFutureReturnValueHandler());
+		handlers.add(new ResponseBodyEmitterReturnValueHandler(getMessageConverters()));
 		handlers.add(new AsyncTaskMethodReturnValueHandler(this.beanFactory));
 
 		// Annotation-based return value types
@@ -739,6 +770,11 @@ public class RequestMappingHandlerAdapter extends AbstractHandlerMethodAdapter
 			if (logger.isDebugEnabled()) {
 				logger.debug("Found concurrent result value [" + result + "]");
 			}
+			if (result == CallableProcessingInterceptor.RESPONSE_HANDLED) {
+				// The response was written during concurrent handling, e.g. a rejected task
+				mavContainer.setRequestHandled(true);
+				return null;
+			}
 			requestMappingMethod = requestMappingMethod.wrapConcurrentResult(result);
 		}
 
@@ -760,9 +796,25 @@ public class RequestMappingHandlerAdapter extends AbstractHandlerMethodAdapter
 		requestMethod.setHandlerMethodReturnValueHandlers(this.returnValueHandlers);
 		requestMethod.setDataBinderFactory(binderFactory);
 		requestMethod.setParameterNameDiscoverer(this.parameterNameDiscoverer);
+		requestMethod.setInvocationPlan(getInvocationPlan(handlerMethod));
 		return requestMethod;
 	}
 
+	/**
+	 * Return the {@link HandlerMethodInvocationPlan} for the given handler method,
+	 * creating it on first use for the method and the type of the handler bean.
+	 */
+	private HandlerMethodInvocationPlan getInvocationPlan(HandlerMethod handlerMethod) {
+		InvocationPlanKey key = new InvocationPlanKey(handlerMethod.getMethod(), handlerMethod.getBean().getClass());
+		HandlerMethodInvocationPlan plan = this.invocationPlanCache.get(key);
+		if (plan == null || plan.getArgumentResolvers() != this.argumentResolvers) {
+			plan = new HandlerMethodInvocationPlan(handlerMethod, this.argumentResolvers,
+					this.parameterNameDiscoverer, this.generateMethodInvokers);
+			this.invocationPlanCache.put(key, plan);
+		}
+		return plan;
+	}
+
 	private ModelFactory getModelFactory(HandlerMethod handlerMethod, WebDataBinderFactory binderFactory) {
 		SessionAttributesHandler sessionAttrHandler = getSessionAttributesHandler(handlerMethod);
 		Class<?> handlerType = handlerMethod.getBeanType();
@@ -771,6 +823,17 @@ public class RequestMappingHandlerAdapter extends AbstractHandlerMethodAdapter
 			methods = HandlerMethodSelector.selectMethods(handlerType, MODEL_ATTRIBUTE_METHODS);
 			this.modelAttributeCache.put(handlerType, methods);
 		}
+		if (methods.isEmpty() && this.modelAttributeAdviceCache.isEmpty() &&
+				binderFactory == this.simpleDataBinderFactory) {
+			// No @ModelAttribute methods and no @InitBinder methods: nothing handler-specific to prepare
+			ModelFactory modelFactory = this.simpleModelFactoryCache.get(handlerType);
+			if (modelFactory == null) {
+				modelFactory = new ModelFactory(
+						Collections.<InvocableHandlerMethod>emptyList(), binderFactory, sessionAttrHandler);
+				this.simpleModelFactoryCache.put(handlerType, modelFactory);
+			}
+			return modelFactory;
+		}
 		List<InvocableHandlerMethod> attrMethods = new ArrayList<InvocableHandlerMethod>();
 		// Global methods first
 		for (Entry<ControllerAdviceBean, Set<Method>> entry : this.modelAttributeAdviceCache.entrySet()) {
@@ -801,6 +864,15 @@ public class RequestMappingHandlerAdapter extends AbstractHandlerMethodAdapter
 			methods = HandlerMethodSelector.selectMethods(handlerType, INIT_BINDER_METHODS);
 			this.initBinderCache.put(handlerType, methods);
 		}
+		if (methods.isEmpty() && this.initBinderAdviceCache.isEmpty()) {
+			// No @InitBinder methods: share a single binder factory across handlers
+			WebDataBinderFactory binderFactory = this.simpleDataBinderFactory;
+			if (binderFactory == null) {
+				binderFactory = createDataBinderFactory(Collections.<InvocableHandlerMethod>emptyList());
+				this.simpleDataBinderFactory = binderFactory;
+			}
+			return binderFactory;
+		}
 		List<InvocableHandlerMethod> initBinderMethods = new ArrayList<InvocableHandlerMethod>();
 		// Global methods first
 		for (Entry<ControllerAdviceBean, Set<Method>> entry : this.initBinderAdviceCache .entrySet()) {
@@ -880,4 +952,38 @@ public class RequestMappingHandlerAdapter extends AbstractHandlerMethodAdapter
 		}
 	};
 
+
+	/**
+	 * Key for the invocation plan cache: a handler method along with the
+	 * type of bean it gets invoked on.
+	 */
+	private static class InvocationPlanKey {
+
+		private final Method method;
+
+		private final Class<?> beanClass;
+
+		public InvocationPlanKey(Method method, Class<?> beanClass) {
+			this.method = method;
+			this.beanClass = beanClass;
+		}
+
+		@Override
+		public boolean equals(Object other) {
+			if (this == other) {
+				return true;
+			}
+			if (!(other instanceof InvocationPlanKey)) {
+				return false;
+			}
+			InvocationPlanKey otherKey = (InvocationPlanKey) other;
+			return (this.method.equals(otherKey.method) && this.beanClass == otherKey.beanClass);
+		}
+
+		@Override
+		public int hashCode() {
+			return this.method.hashCode() * 29 + this.beanClass.hashCode();
+		}
+	}
+
 }
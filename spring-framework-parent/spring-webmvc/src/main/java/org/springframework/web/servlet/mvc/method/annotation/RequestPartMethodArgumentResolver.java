@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2011 the original author or authors.
+ * Copyright 2002-2014 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,6 +16,7 @@
 
 package org.springframework.web.servlet.mvc.method.annotation;
 
+import java.io.InputStream;
 import java.lang.annotation.Annotation;
 import java.util.Collection;
 import java.util.List;
@@ -40,7 +41,9 @@ import org.springframework.web.method.support.ModelAndViewContainer;
 import org.springframework.web.multipart.MultipartException;
 import org.springframework.web.multipart.MultipartFile;
 import org.springframework.web.multipart.MultipartHttpServletRequest;
+import org.springframework.web.multipart.MultipartPart;
 import org.springframework.web.multipart.MultipartResolver;
+import org.springframework.web.multipart.StreamingMultipartHttpServletRequest;
 import org.springframework.web.multipart.support.MissingServletRequestPartException;
 import org.springframework.web.multipart.support.RequestPartServletServerHttpRequest;
 import org.springframework.web.servlet.mvc.support.DefaultHandlerExceptionResolver;
@@ -54,6 +57,8 @@ import org.springframework.web.util.WebUtils;
  *  {@link MultipartResolver} abstraction
  * 	<li>Of type {@code javax.servlet.http.Part} in conjunction with
  * 	Servlet 3.0 multipart requests
+ * 	<li>Of type {@link MultipartPart} in conjunction with a streaming
+ * 	{@link MultipartResolver}
  * </ul>
  *
  * <p>When a parameter is annotated with {@code @RequestPart} the content of the
@@ -62,6 +67,12 @@ import org.springframework.web.util.WebUtils;
  * analogous to what @{@link RequestBody} does to resolve an argument based on
  * the content of a regular request.
  *
+ * <p>A parameter of type {@link InputStream} annotated with {@code @RequestPart}
+ * receives the raw content of the part. In combination with a
+ * {@link StreamingMultipartHttpServletRequest}, the content is read straight
+ * from the request; parts are then consumed in request order, so parameters
+ * need to be declared in the order of the parts in the request.
+ *
  * <p>When a parameter is not annotated or the name of the part is not specified,
  * it is derived from the name of the method argument.
  *
@@ -85,6 +96,7 @@ public class RequestPartMethodArgumentResolver extends AbstractMessageConverterM
 	 * 	<li>Annotated with {@code @RequestPart}
 	 * 	<li>Of type {@link MultipartFile} unless annotated with {@code @RequestParam}.
 	 * 	<li>Of type {@code javax.servlet.http.Part} unless annotated with {@code @RequestParam}.
+	 * 	<li>Of type {@link MultipartPart} unless annotated with {@code @RequestParam}.
 	 * </ul>
 	 */
 	public boolean supportsParameter(MethodParameter parameter) {
@@ -95,7 +107,8 @@ public class RequestPartMethodArgumentResolver extends AbstractMessageConverterM
 			if (parameter.hasParameterAnnotation(RequestParam.class)){
 				return false;
 			}
-			else if (MultipartFile.class.equals(parameter.getParameterType())) {
+			else if (MultipartFile.class.equals(parameter.getParameterType()) ||
+					MultipartPart.class.equals(parameter.getParameterType())) {
 				return true;
 			}
 			else if ("javax.servlet.http.Part".equals(parameter.getParameterType().getName())) {
@@ -130,6 +143,22 @@ public class RequestPartMethodArgumentResolver extends AbstractMessageConverterM
 		else if ("javax.servlet.http.Part".equals(parameter.getParameterType().getName())) {
 			arg = servletRequest.getPart(partName);
 		}
+		else if (MultipartPart.class.equals(parameter.getParameterType())) {
+			StreamingMultipartHttpServletRequest streamingRequest =
+					WebUtils.getNativeRequest(servletRequest, StreamingMultipartHttpServletRequest.class);
+			Assert.notNull(streamingRequest,
+					"Expected StreamingMultipartHttpServletRequest: is a streaming MultipartResolver configured?");
+			arg = streamingRequest.nextPart(partName);
+		}
+		else if (InputStream.class.equals(parameter.getParameterType())) {
+			try {
+				arg = new RequestPartServletServerHttpRequest(servletRequest, partName).getBody();
+			}
+			catch (MissingServletRequestPartException ex) {
+				// handled below
+				arg = null;
+			}
+		}
 		else {
 			try {
 				HttpInputMessage inputMessage = new RequestPartServletServerHttpRequest(servletRequest, partName);
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2013 the original author or authors.
+ * Copyright 2002-2014 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,13 +16,16 @@
 
 package org.springframework.web.servlet.view;
 
-import java.util.LinkedHashMap;
 import java.util.Locale;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
+import org.springframework.core.task.TaskExecutor;
 import org.springframework.web.context.support.WebApplicationObjectSupport;
 import org.springframework.web.servlet.View;
 import org.springframework.web.servlet.ViewResolver;
@@ -33,6 +36,15 @@ import org.springframework.web.servlet.ViewResolver;
  * once resolved: This means that view resolution won't be a performance problem,
  * no matter how costly initial view retrieval is.
  *
+ * <p>View creation does not involve a global lock: Views for different cache keys
+ * are created concurrently, while concurrent requests for the same missing key
+ * wait for a single creation attempt. Cache hits merely stamp the entry with its
+ * access time; the least recently used entry is only searched for when the cache
+ * limit is exceeded, under a lock held by cache updates. Cached entries may be given a time-to-live
+ * (see {@link #setCacheSeconds} and {@link #setUnresolvedCacheSeconds}), after
+ * which they are revalidated through {@link #isViewModified} - optionally in the
+ * background, using a {@link #setRefreshExecutor refresh executor}.
+ *
  * <p>Subclasses need to implement the {@link #loadView} template method,
  * building the View object for a specific view name and locale.
  *
@@ -61,29 +73,42 @@ public abstract class AbstractCachingViewResolver extends WebApplicationObjectSu
 	/** Whether we should refrain from resolving views again if unresolved once */
 	private boolean cacheUnresolved = true;
 
-	/** Fast access cache for Views, returning already cached instances without a global lock */
-	private final Map<Object, View> viewAccessCache = new ConcurrentHashMap<Object, View>(DEFAULT_CACHE_LIMIT);
-
-	/** Map from view key to View instance, synchronized for View creation */
-	@SuppressWarnings("serial")
-	private final Map<Object, View> viewCreationCache =
-			new LinkedHashMap<Object, View>(DEFAULT_CACHE_LIMIT, 0.75f, true) {
-				@Override
-				protected boolean removeEldestEntry(Map.Entry<Object, View> eldest) {
-					if (size() > getCacheLimit()) {
-						viewAccessCache.remove(eldest.getKey());
-						return true;
-					}
-					else {
-						return false;
-					}
-				}
-			};
+	/** Time-to-live for resolved views in seconds, -1 for caching forever */
+	private volatile int cacheSeconds = -1;
+
+	/** Time-to-live for unresolved view names in seconds, -1 for caching forever */
+	private volatile int unresolvedCacheSeconds = -1;
+
+	/** Executor for refreshing expired views in the background, if any */
+	private TaskExecutor refreshExecutor;
+
+	/** Map from view key to cached View, accessed without a global lock */
+	private final ConcurrentMap<Object, CachedView> viewCache =
+			new ConcurrentHashMap<Object, CachedView>(DEFAULT_CACHE_LIMIT);
+
+	/** Logical clock for stamping cache entries on access, for least-recently-used eviction */
+	private final AtomicLong accessClock = new AtomicLong();
+
+	/** Monitor for cache updates and eviction, not taken by cache hits */
+	private final Object evictionMonitor = new Object();
+
+	/** Monitors for views currently being created, per view key */
+	private final ConcurrentMap<Object, Object> viewCreationLocks = new ConcurrentHashMap<Object, Object>();
+
+	private final AtomicLong cacheHitCount = new AtomicLong();
+
+	private final AtomicLong cacheMissCount = new AtomicLong();
+
+	private final AtomicLong viewCreationCount = new AtomicLong();
+
+	private final AtomicLong viewCreationTime = new AtomicLong();
 
 
 	/**
 	 * Specify the maximum number of entries for the view cache.
 	 * Default is 1024.
+	 * <p>Once the limit is exceeded, the least recently used entries
+	 * are evicted.
 	 */
 	public void setCacheLimit(int cacheLimit) {
 		this.cacheLimit = cacheLimit;
@@ -124,7 +149,9 @@ public abstract class AbstractCachingViewResolver extends WebApplicationObjectSu
 	 * implementations (FreeMarker, Velocity, Tiles) to check if an underlying
 	 * resource exists via {@link AbstractUrlBasedView#checkResource(Locale)}.
 	 * With this flag set to "false", an underlying resource that re-appears
-	 * is noticed and used. With the flag set to "true", one check is made only.
+	 * is noticed and used. With the flag set to "true", one check is made only
+	 * - unless an {@link #setUnresolvedCacheSeconds "unresolvedCacheSeconds"}
+	 * value has been specified.
 	 */
 	public void setCacheUnresolved(boolean cacheUnresolved) {
 		this.cacheUnresolved = cacheUnresolved;
@@ -137,6 +164,69 @@ public abstract class AbstractCachingViewResolver extends WebApplicationObjectSu
 		return this.cacheUnresolved;
 	}
 
+	/**
+	 * Set the number of seconds to cache resolved views.
+	 * <p>Default is "-1", indicating to cache forever (just like before).
+	 * A positive number will revalidate a view once its time-to-live has
+	 * elapsed: If {@link #isViewModified} reports a change, the view will be
+	 * recreated; otherwise the existing instance is kept for another period.
+	 * A value of "0" will revalidate on each access, which is only sensible
+	 * during development.
+	 * <p>Applies to views cached from now on; existing cache entries keep
+	 * their time-to-live.
+	 * @see #setRefreshExecutor
+	 */
+	public void setCacheSeconds(int cacheSeconds) {
+		this.cacheSeconds = cacheSeconds;
+	}
+
+	/**
+	 * Return the number of seconds to cache resolved views.
+	 */
+	public int getCacheSeconds() {
+		return this.cacheSeconds;
+	}
+
+	/**
+	 * Set the number of seconds to cache view names that could not be
+	 * resolved, provided that {@link #setCacheUnresolved "cacheUnresolved"}
+	 * is active.
+	 * <p>Default is "-1", indicating to cache forever. A positive number lets
+	 * view names that failed to resolve (e.g. because of a template that did
+	 * not exist yet) be tried again once the given period has elapsed.
+	 */
+	public void setUnresolvedCacheSeconds(int unresolvedCacheSeconds) {
+		this.unresolvedCacheSeconds = unresolvedCacheSeconds;
+	}
+
+	/**
+	 * Return the number of seconds to cache unresolved view names.
+	 */
+	public int getUnresolvedCacheSeconds() {
+		return this.unresolvedCacheSeconds;
+	}
+
+	/**
+	 * Specify a {@link TaskExecutor} to refresh expired views with.
+	 * <p>By default, an expired view gets revalidated (and recreated if
+	 * necessary) within the request that encounters it. With a refresh executor,
+	 * the expired view keeps being served while the revalidation happens in the
+	 * background, so that no request has to wait for template reloading.
+	 * Only applies to resolved views; unresolved view names are always
+	 * retried within the request.
+	 * @see #setCacheSeconds
+	 */
+	public void setRefreshExecutor(TaskExecutor refreshExecutor) {
+		this.refreshExecutor = refreshExecutor;
+	}
+
+	/**
+	 * Return the {@link TaskExecutor} to refresh expired views with, if any.
+	 */
+	public TaskExecutor getRefreshExecutor() {
+		return this.refreshExecutor;
+	}
+
 
 	public View resolveViewName(String viewName, Locale locale) throws Exception {
 		if (!isCache()) {
@@ -144,28 +234,200 @@ public abstract class AbstractCachingViewResolver extends WebApplicationObjectSu
 		}
 		else {
 			Object cacheKey = getCacheKey(viewName, locale);
-			View view = this.viewAccessCache.get(cacheKey);
-			if (view == null) {
-				synchronized (this.viewCreationCache) {
-					view = this.viewCreationCache.get(cacheKey);
-					if (view == null) {
-						// Ask the subclass to create the View object.
-						view = createView(viewName, locale);
-						if (view == null && this.cacheUnresolved) {
-							view = UNRESOLVED_VIEW;
-						}
-						if (view != null) {
-							this.viewAccessCache.put(cacheKey, view);
-							this.viewCreationCache.put(cacheKey, view);
-							if (logger.isTraceEnabled()) {
-								logger.trace("Cached view [" + cacheKey + "]");
-							}
-						}
+			CachedView cachedView = this.viewCache.get(cacheKey);
+			if (cachedView != null) {
+				if (!cachedView.isExpired()) {
+					this.cacheHitCount.incrementAndGet();
+					cachedView.recordAccess(this.accessClock.incrementAndGet());
+					return cachedView.getView();
+				}
+				if (this.refreshExecutor != null && cachedView.isResolved()) {
+					this.cacheHitCount.incrementAndGet();
+					cachedView.recordAccess(this.accessClock.incrementAndGet());
+					refreshInBackground(cacheKey, viewName, locale, cachedView);
+					return cachedView.getView();
+				}
+			}
+			this.cacheMissCount.incrementAndGet();
+			return obtainView(cacheKey, viewName, locale);
+		}
+	}
+
+	/**
+	 * Obtain the View for the given key, creating it if necessary. Only one
+	 * thread at a time creates a View for a specific key.
+	 */
+	private View obtainView(Object cacheKey, String viewName, Locale locale) throws Exception {
+		Object lock = new Object();
+		Object existingLock = this.viewCreationLocks.putIfAbsent(cacheKey, lock);
+		if (existingLock != null) {
+			lock = existingLock;
+		}
+		try {
+			synchronized (lock) {
+				CachedView cachedView = this.viewCache.get(cacheKey);
+				if (cachedView != null) {
+					if (!cachedView.isExpired()) {
+						return cachedView.getView();
+					}
+					if (cachedView.isResolved() &&
+							!isViewModified(viewName, locale, cachedView.getView(), cachedView.getTimestamp())) {
+						cachedView.renew(this.cacheSeconds);
+						cachedView.recordAccess(this.accessClock.incrementAndGet());
+						return cachedView.getView();
 					}
 				}
+				// Ask the subclass to create the View object.
+				long startTime = System.nanoTime();
+				View view = createView(viewName, locale);
+				this.viewCreationTime.addAndGet(System.nanoTime() - startTime);
+				this.viewCreationCount.incrementAndGet();
+				cacheView(cacheKey, view);
+				return view;
+			}
+		}
+		finally {
+			if (existingLock == null) {
+				this.viewCreationLocks.remove(cacheKey, lock);
+			}
+		}
+	}
+
+	private void cacheView(Object cacheKey, View view) {
+		CachedView cachedView;
+		if (view != null) {
+			cachedView = new CachedView(view, this.cacheSeconds);
+		}
+		else if (this.cacheUnresolved) {
+			cachedView = new CachedView(UNRESOLVED_VIEW, this.unresolvedCacheSeconds);
+		}
+		else {
+			removeCachedView(cacheKey);
+			return;
+		}
+		cachedView.recordAccess(this.accessClock.incrementAndGet());
+		synchronized (this.evictionMonitor) {
+			this.viewCache.put(cacheKey, cachedView);
+			while (this.viewCache.size() > getCacheLimit()) {
+				evictLeastRecentlyUsed();
 			}
-			return (view != UNRESOLVED_VIEW ? view : null);
 		}
+		if (logger.isTraceEnabled()) {
+			logger.trace("Cached view [" + cacheKey + "]");
+		}
+	}
+
+	/**
+	 * Evict the entry with the oldest access stamp. The stamps are written
+	 * without locking by cache hits, so this is an approximation of
+	 * least-recently-used order under concurrent access.
+	 * <p>Needs to be called under the eviction monitor, with a non-empty cache.
+	 */
+	private void evictLeastRecentlyUsed() {
+		Object eldestKey = null;
+		long eldestAccess = Long.MAX_VALUE;
+		for (Map.Entry<Object, CachedView> entry : this.viewCache.entrySet()) {
+			long lastAccess = entry.getValue().getLastAccess();
+			if (eldestKey == null || lastAccess < eldestAccess) {
+				eldestKey = entry.getKey();
+				eldestAccess = lastAccess;
+			}
+		}
+		this.viewCache.remove(eldestKey);
+		if (logger.isTraceEnabled()) {
+			logger.trace("Evicted view [" + eldestKey + "] from cache");
+		}
+	}
+
+	/**
+	 * Remove the given key from the cache.
+	 */
+	private CachedView removeCachedView(Object cacheKey) {
+		synchronized (this.evictionMonitor) {
+			return this.viewCache.remove(cacheKey);
+		}
+	}
+
+	private void refreshInBackground(
+			final Object cacheKey, final String viewName, final Locale locale, final CachedView cachedView) {
+
+		if (!cachedView.startRefresh()) {
+			return;
+		}
+		try {
+			this.refreshExecutor.execute(new Runnable() {
+				public void run() {
+					try {
+						obtainView(cacheKey, viewName, locale);
+					}
+					catch (Throwable ex) {
+						logger.warn("Could not refresh view [" + cacheKey + "] - keeping cached instance", ex);
+					}
+					finally {
+						cachedView.endRefresh();
+					}
+				}
+			});
+		}
+		catch (RuntimeException ex) {
+			cachedView.endRefresh();
+			logger.debug("Could not schedule refresh of view [" + cacheKey + "]", ex);
+		}
+	}
+
+	/**
+	 * Determine whether the given cached View needs to be recreated because
+	 * its underlying template has changed. Called for resolved views whose
+	 * {@link #setCacheSeconds time-to-live} has elapsed.
+	 * <p>The default implementation returns {@code true}, always recreating
+	 * expired views. Subclasses may check the view's underlying resource
+	 * instead, avoiding the cost of recreating unchanged views.
+	 * @param viewName the name of the view
+	 * @param locale the Locale that the view has been resolved for
+	 * @param view the cached View instance
+	 * @param timestamp the time at which the cached View has been created
+	 * (in milliseconds since the epoch)
+	 * @return whether the View has to be recreated
+	 */
+	protected boolean isViewModified(String viewName, Locale locale, View view, long timestamp) {
+		return true;
+	}
+
+	/**
+	 * Return the number of view lookups that have been served from the cache.
+	 */
+	public long getCacheHitCount() {
+		return this.cacheHitCount.get();
+	}
+
+	/**
+	 * Return the number of view lookups that could not be served from the cache.
+	 */
+	public long getCacheMissCount() {
+		return this.cacheMissCount.get();
+	}
+
+	/**
+	 * Return the number of View objects that have been created for the cache.
+	 */
+	public long getViewCreationCount() {
+		return this.viewCreationCount.get();
+	}
+
+	/**
+	 * Return the total time in milliseconds spent creating View objects
+	 * for the cache.
+	 */
+	public long getViewCreationTime() {
+		return this.viewCreationTime.get() / 1000000;
+	}
+
+	/**
+	 * Return the number of entries currently held in the view cache,
+	 * including unresolved view names.
+	 */
+	public int getCacheSize() {
+		return this.viewCache.size();
 	}
 
 	/**
@@ -205,11 +467,7 @@ public abstract class AbstractCachingViewResolver extends WebApplicationObjectSu
 		}
 		else {
 			Object cacheKey = getCacheKey(viewName, locale);
-			Object cachedView;
-			synchronized (this.viewCreationCache) {
-				this.viewAccessCache.remove(cacheKey);
-				cachedView = this.viewCreationCache.remove(cacheKey);
-			}
+			Object cachedView = removeCachedView(cacheKey);
 			if (logger.isDebugEnabled()) {
 				// Some debug output might be useful...
 				if (cachedView == null) {
@@ -230,9 +488,8 @@ public abstract class AbstractCachingViewResolver extends WebApplicationObjectSu
 	 */
 	public void clearCache() {
 		logger.debug("Clearing entire view cache");
-		synchronized (this.viewCreationCache) {
-			this.viewAccessCache.clear();
-			this.viewCreationCache.clear();
+		synchronized (this.evictionMonitor) {
+			this.viewCache.clear();
 		}
 	}
 
@@ -295,4 +552,67 @@ public abstract class AbstractCachingViewResolver extends WebApplicationObjectSu
 	 */
 	protected abstract View loadView(String viewName, Locale locale) throws Exception;
 
+
+	/**
+	 * Holder for a cached View, along with its creation timestamp and expiry.
+	 */
+	private static final class CachedView {
+
+		private final View view;
+
+		private final long timestamp;
+
+		private volatile long expiryTime;
+
+		private volatile long lastAccess;
+
+		private final AtomicBoolean refreshing = new AtomicBoolean();
+
+		public CachedView(View view, int cacheSeconds) {
+			this.view = view;
+			this.timestamp = System.currentTimeMillis();
+			renew(cacheSeconds);
+		}
+
+		/**
+		 * Return the cached View, or {@code null} for an unresolved view name.
+		 */
+		public View getView() {
+			return (this.view != UNRESOLVED_VIEW ? this.view : null);
+		}
+
+		public boolean isResolved() {
+			return (this.view != UNRESOLVED_VIEW);
+		}
+
+		public long getTimestamp() {
+			return this.timestamp;
+		}
+
+		public boolean isExpired() {
+			long expiryTime = this.expiryTime;
+			return (expiryTime >= 0 && System.currentTimeMillis() >= expiryTime);
+		}
+
+		public void renew(int cacheSeconds) {
+			this.expiryTime = (cacheSeconds >= 0 ? System.currentTimeMillis() + cacheSeconds * 1000L : -1);
+		}
+
+		public void recordAccess(long accessStamp) {
+			this.lastAccess = accessStamp;
+		}
+
+		public long getLastAccess() {
+			return this.lastAccess;
+		}
+
+		public boolean startRefresh() {
+			return this.refreshing.compareAndSet(false, true);
+		}
+
+		public void endRefresh() {
+			this.refreshing.set(false);
+		}
+	}
+
 }
@@ -16,6 +16,7 @@
 
 package org.springframework.web.servlet.view;
 
+import java.io.IOException;
 import java.util.HashMap;
 import java.util.Locale;
 import java.util.Map;
@@ -23,6 +24,7 @@ import java.util.Properties;
 
 import org.springframework.beans.BeanUtils;
 import org.springframework.core.Ordered;
+import org.springframework.core.io.Resource;
 import org.springframework.util.CollectionUtils;
 import org.springframework.util.PatternMatchUtils;
 import org.springframework.web.servlet.View;
@@ -525,6 +527,38 @@ public class UrlBasedViewResolver extends AbstractCachingViewResolver implements
 		return viewName;
 	}
 
+	/**
+	 * This implementation checks the URL of an {@link AbstractUrlBasedView}
+	 * as an application context resource, reporting a modification if the
+	 * resource has been changed since the view was cached. Views without a
+	 * resolvable resource (e.g. templates loaded by a template engine from
+	 * a different location) are recreated.
+	 * @see #setCacheSeconds
+	 */
+	@Override
+	protected boolean isViewModified(String viewName, Locale locale, View view, long timestamp) {
+		if (view instanceof RedirectView) {
+			return false;
+		}
+		if (view instanceof AbstractUrlBasedView) {
+			String url = ((AbstractUrlBasedView) view).getUrl();
+			if (url != null) {
+				Resource resource = getApplicationContext().getResource(url);
+				try {
+					if (resource.exists()) {
+						return (resource.lastModified() > timestamp);
+					}
+				}
+				catch (IOException ex) {
+					if (logger.isDebugEnabled()) {
+						logger.debug("Could not determine last-modified timestamp of " + resource, ex);
+					}
+				}
+			}
+		}
+		return true;
+	}
+
 	/**
 	 * Overridden to implement check for "redirect:" prefix.
 	 * 
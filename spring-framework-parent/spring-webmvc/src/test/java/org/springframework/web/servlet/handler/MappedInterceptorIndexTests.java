@@ -0,0 +1,122 @@
+/*
+ * Copyright 2002-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.web.servlet.handler;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+
+import org.springframework.util.AntPathMatcher;
+import org.springframework.util.PathMatcher;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for {@link MappedInterceptorIndex}.
+ *
+ * @author agent
+ * @since 3.2.12
+ */
+public class MappedInterceptorIndexTests {
+
+	private final HandlerInterceptor all = new HandlerInterceptorAdapter() {};
+
+	private final HandlerInterceptor admin = new HandlerInterceptorAdapter() {};
+
+	private final HandlerInterceptor adminUsers = new HandlerInterceptorAdapter() {};
+
+	private final HandlerInterceptor exact = new HandlerInterceptorAdapter() {};
+
+	private final HandlerInterceptor wildcard = new HandlerInterceptorAdapter() {};
+
+	private final HandlerInterceptor allButAdmin = new HandlerInterceptorAdapter() {};
+
+
+	@Test
+	public void matchingInterceptorsInRegistrationOrder() {
+		MappedInterceptorIndex index = new MappedInterceptorIndex(createMappedInterceptors(), new AntPathMatcher());
+
+		assertEquals(Arrays.asList(this.all, this.admin, this.wildcard),
+				index.getMatchingInterceptors("/admin"));
+		assertEquals(Arrays.asList(this.all, this.admin, this.adminUsers),
+				index.getMatchingInterceptors("/admin/users/1"));
+		assertEquals(Arrays.asList(this.all, this.exact, this.wildcard, this.allButAdmin),
+				index.getMatchingInterceptors("/public/info"));
+		assertEquals(Arrays.asList(this.all, this.allButAdmin),
+				index.getMatchingInterceptors("/public/info/more"));
+		assertEquals(Arrays.asList(this.all, this.wildcard, this.allButAdmin),
+				index.getMatchingInterceptors("/other/page.html"));
+		assertEquals(Arrays.asList(this.all, this.allButAdmin),
+				index.getMatchingInterceptors("/"));
+	}
+
+	@Test
+	public void matchingInterceptorsSameAsLinearMatching() {
+		List<MappedInterceptor> mappedInterceptors = createMappedInterceptors();
+		PathMatcher pathMatcher = new AntPathMatcher();
+		MappedInterceptorIndex index = new MappedInterceptorIndex(mappedInterceptors, pathMatcher);
+
+		for (String path : new String[] {"", "/", "/admin", "/admin/", "/admin/users", "/adminx/users",
+				"/public", "/public/info", "/public/info/", "/x/y.html", "/admin/users/x.html"}) {
+			List<HandlerInterceptor> expected = new ArrayList<HandlerInterceptor>();
+			for (MappedInterceptor mappedInterceptor : mappedInterceptors) {
+				if (mappedInterceptor.matches(path, pathMatcher)) {
+					expected.add(mappedInterceptor.getInterceptor());
+				}
+			}
+			assertEquals("Unexpected interceptors for path '" + path + "'", expected, index.getMatchingInterceptors(path));
+		}
+	}
+
+	@Test
+	public void customPathMatcher() {
+		PathMatcher pathMatcher = new AntPathMatcher() {
+			@Override
+			public boolean match(String pattern, String path) {
+				return pattern.equals("/admin/**") || super.match(pattern, path);
+			}
+		};
+		MappedInterceptorIndex index = new MappedInterceptorIndex(createMappedInterceptors(), pathMatcher);
+
+		assertEquals(Arrays.asList(this.all, this.admin),
+				index.getMatchingInterceptors("/public/info/more.html"));
+	}
+
+	@Test
+	public void noMappedInterceptors() {
+		MappedInterceptorIndex index = new MappedInterceptorIndex(
+				Collections.<MappedInterceptor>emptyList(), new AntPathMatcher());
+		assertTrue(index.getMatchingInterceptors("/admin").isEmpty());
+	}
+
+
+	private List<MappedInterceptor> createMappedInterceptors() {
+		List<MappedInterceptor> mappedInterceptors = new ArrayList<MappedInterceptor>();
+		mappedInterceptors.add(new MappedInterceptor(null, this.all));
+		mappedInterceptors.add(new MappedInterceptor(new String[] {"/admin/**"}, this.admin));
+		mappedInterceptors.add(new MappedInterceptor(new String[] {"/admin/users/*"}, this.adminUsers));
+		mappedInterceptors.add(new MappedInterceptor(new String[] {"/public/info"}, this.exact));
+		mappedInterceptors.add(new MappedInterceptor(new String[] {"/*/*.html", "/admin", "/public/*"}, this.wildcard));
+		mappedInterceptors.add(new MappedInterceptor(new String[] {"/**"}, new String[] {"/admin/**"}, this.allButAdmin));
+		return mappedInterceptors;
+	}
+
+}
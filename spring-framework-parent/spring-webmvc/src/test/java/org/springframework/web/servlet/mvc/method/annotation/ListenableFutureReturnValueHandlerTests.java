@@ -0,0 +1,153 @@
+/*
+ * Copyright 2002-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.springframework.web.servlet.mvc.method.annotation;
+
+import java.util.concurrent.Callable;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import org.springframework.core.MethodParameter;
+import org.springframework.mock.web.test.MockHttpServletRequest;
+import org.springframework.mock.web.test.MockHttpServletResponse;
+import org.springframework.util.concurrent.ListenableFuture;
+import org.springframework.util.concurrent.ListenableFutureTask;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.context.request.async.StandardServletAsyncWebRequest;
+import org.springframework.web.context.request.async.WebAsyncManager;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+import org.springframework.web.method.support.ModelAndViewContainer;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for {@link ListenableFutureReturnValueHandler}.
+ *
+ * @author agent
+ */
+public class ListenableFutureReturnValueHandlerTests {
+
+	private ListenableFutureReturnValueHandler handler;
+
+	private ModelAndViewContainer mavContainer;
+
+	private MockHttpServletRequest request;
+
+	private NativeWebRequest webRequest;
+
+
+	@Before
+	public void setUp() throws Exception {
+		this.handler = new ListenableFutureReturnValueHandler();
+		this.mavContainer = new ModelAndViewContainer();
+
+		this.request = new MockHttpServletRequest();
+		this.request.setAsyncSupported(true);
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		this.webRequest = new ServletWebRequest(this.request, response);
+
+		StandardServletAsyncWebRequest asyncWebRequest = new StandardServletAsyncWebRequest(this.request, response);
+		WebAsyncUtils.getAsyncManager(this.webRequest).setAsyncWebRequest(asyncWebRequest);
+	}
+
+
+	@Test
+	public void supportsReturnType() throws Exception {
+		assertTrue(this.handler.supportsReturnType(returnType("handleListenableFuture")));
+		assertTrue(this.handler.supportsReturnType(returnType("handleListenableFutureTask")));
+		assertFalse(this.handler.supportsReturnType(returnType("handleString")));
+	}
+
+	@Test
+	public void nullReturnValue() throws Exception {
+		this.handler.handleReturnValue(null, returnType("handleListenableFuture"), this.mavContainer, this.webRequest);
+
+		assertTrue(this.mavContainer.isRequestHandled());
+		assertFalse(this.request.isAsyncStarted());
+	}
+
+	@Test
+	public void successfulCompletion() throws Exception {
+		ListenableFutureTask<String> future = new ListenableFutureTask<String>(new Callable<String>() {
+			public String call() {
+				return "foo";
+			}
+		});
+		this.handler.handleReturnValue(future, returnType("handleListenableFuture"), this.mavContainer, this.webRequest);
+
+		assertTrue(this.request.isAsyncStarted());
+		WebAsyncManager asyncManager = WebAsyncUtils.getAsyncManager(this.webRequest);
+		assertFalse(asyncManager.hasConcurrentResult());
+
+		future.run();
+		assertTrue(asyncManager.hasConcurrentResult());
+		assertEquals("foo", asyncManager.getConcurrentResult());
+	}
+
+	@Test
+	public void failedCompletion() throws Exception {
+		final IllegalStateException failure = new IllegalStateException("failure");
+		ListenableFutureTask<String> future = new ListenableFutureTask<String>(new Callable<String>() {
+			public String call() {
+				throw failure;
+			}
+		});
+		this.handler.handleReturnValue(future, returnType("handleListenableFuture"), this.mavContainer, this.webRequest);
+		future.run();
+
+		WebAsyncManager asyncManager = WebAsyncUtils.getAsyncManager(this.webRequest);
+		assertTrue(asyncManager.hasConcurrentResult());
+		assertSame(failure, asyncManager.getConcurrentResult());
+	}
+
+	@Test
+	public void alreadyCompletedFuture() throws Exception {
+		ListenableFutureTask<String> future = new ListenableFutureTask<String>(new Runnable() {
+			public void run() {
+			}
+		}, "bar");
+		future.run();
+		this.handler.handleReturnValue(future, returnType("handleListenableFuture"), this.mavContainer, this.webRequest);
+
+		WebAsyncManager asyncManager = WebAsyncUtils.getAsyncManager(this.webRequest);
+		assertTrue(asyncManager.hasConcurrentResult());
+		assertEquals("bar", asyncManager.getConcurrentResult());
+	}
+
+
+	private MethodParameter returnType(String methodName) throws NoSuchMethodException {
+		return new MethodParameter(getClass().getDeclaredMethod(methodName), -1);
+	}
+
+	@SuppressWarnings("unused")
+	private ListenableFuture<String> handleListenableFuture() {
+		return null;
+	}
+
+	@SuppressWarnings("unused")
+	private ListenableFutureTask<String> handleListenableFutureTask() {
+		return null;
+	}
+
+	@SuppressWarnings("unused")
+	private String handleString() {
+		return null;
+	}
+
+}
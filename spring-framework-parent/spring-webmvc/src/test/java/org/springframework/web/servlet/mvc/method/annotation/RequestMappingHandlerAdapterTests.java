@@ -18,17 +18,22 @@ package org.springframework.web.servlet.mvc.method.annotation;
 
 import java.lang.reflect.Method;
 import java.util.Arrays;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
 
 import org.junit.Before;
 import org.junit.BeforeClass;
 import org.junit.Test;
 
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
 import org.springframework.mock.web.test.MockHttpServletRequest;
 import org.springframework.mock.web.test.MockHttpServletResponse;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ModelAttribute;
 import org.springframework.web.bind.annotation.SessionAttributes;
+import org.springframework.web.context.request.async.WebAsyncUtils;
 import org.springframework.web.context.support.StaticWebApplicationContext;
 import org.springframework.web.method.HandlerMethod;
 import org.springframework.web.method.annotation.ModelMethodProcessor;
@@ -187,6 +192,29 @@ public class RequestMappingHandlerAdapterTests {
 		assertEquals("gAttr2", mav.getModel().get("attr2"));
 	}
 
+	@Test
+	public void callableRejectedByTaskExecutor() throws Exception {
+		this.handlerAdapter.setTaskExecutor(new SimpleAsyncTaskExecutor() {
+			@Override
+			public Future<?> submit(Runnable task) {
+				throw new TaskRejectedException("Overloaded");
+			}
+		});
+		this.handlerAdapter.afterPropertiesSet();
+		this.request.setAsyncSupported(true);
+
+		HandlerMethod handlerMethod = handlerMethod(new CallableController(), "handle");
+		assertNull(this.handlerAdapter.handle(this.request, this.response, handlerMethod));
+		assertEquals(503, this.response.getStatus());
+
+		// Re-dispatch with the RESPONSE_HANDLED result: nothing left to render
+		this.request.setAsyncStarted(false);
+		ModelAndView mav = this.handlerAdapter.handle(this.request, this.response, handlerMethod);
+		assertNull(mav);
+		assertEquals(503, this.response.getStatus());
+		assertFalse(WebAsyncUtils.getAsyncManager(this.request).hasConcurrentResult());
+	}
+
 
 	private HandlerMethod handlerMethod(Object handler, String methodName, Class<?>... paramTypes) throws Exception {
 		Method method = handler.getClass().getDeclaredMethod(methodName, paramTypes);
@@ -214,6 +242,20 @@ public class RequestMappingHandlerAdapterTests {
 	}
 
 
+	@SuppressWarnings("unused")
+	private static class CallableController {
+
+		public Callable<String> handle() {
+			return new Callable<String>() {
+				@Override
+				public String call() {
+					return "view";
+				}
+			};
+		}
+	}
+
+
 	@SessionAttributes("attr1")
 	private static class SessionAttributeController {
 
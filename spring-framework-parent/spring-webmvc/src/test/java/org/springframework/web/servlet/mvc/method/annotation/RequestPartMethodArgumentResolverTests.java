@@ -17,6 +17,7 @@
 package org.springframework.web.servlet.mvc.method.annotation;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.lang.reflect.Method;
 import java.util.Arrays;
 import java.util.Collections;
@@ -37,6 +38,7 @@ import org.springframework.mock.web.test.MockHttpServletResponse;
 import org.springframework.mock.web.test.MockMultipartFile;
 import org.springframework.mock.web.test.MockMultipartHttpServletRequest;
 import org.springframework.mock.web.test.MockPart;
+import org.springframework.util.StreamUtils;
 import org.springframework.validation.beanvalidation.LocalValidatorFactoryBean;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.WebDataBinder;
@@ -48,6 +50,8 @@ import org.springframework.web.context.request.ServletWebRequest;
 import org.springframework.web.method.support.ModelAndViewContainer;
 import org.springframework.web.multipart.MultipartException;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.multipart.MultipartPart;
+import org.springframework.web.multipart.commons.CommonsMultipartResolver;
 import org.springframework.web.multipart.support.MissingServletRequestPartException;
 import org.springframework.web.multipart.support.RequestPartServletServerHttpRequest;
 
@@ -230,6 +234,46 @@ public class RequestPartMethodArgumentResolverTests {
 		assertSame(multipartFile1, actual);
 	}
 
+	@Test
+	public void resolveInputStream() throws Exception {
+		MockMultipartHttpServletRequest request = new MockMultipartHttpServletRequest();
+		request.addFile(new MockMultipartFile("inputStream", "", "text/plain", "Hello World".getBytes()));
+		webRequest = new ServletWebRequest(request);
+
+		MethodParameter param = new MethodParameter(getClass().getMethod("handleStreaming", InputStream.class, MultipartPart.class), 0);
+		Object result = resolver.resolveArgument(param, null, webRequest, null);
+
+		assertTrue(result instanceof InputStream);
+		assertEquals("Hello World", new String(StreamUtils.copyToByteArray((InputStream) result)));
+	}
+
+	@Test
+	public void resolveStreamedParts() throws Exception {
+		String boundary = "----boundary";
+		String body = "--" + boundary + "\r\n" +
+				"Content-Disposition: form-data; name=\"inputStream\"; filename=\"a.txt\"\r\n\r\nHello World\r\n" +
+				"--" + boundary + "\r\n" +
+				"Content-Disposition: form-data; name=\"part\"; filename=\"b.txt\"\r\n\r\nHello Part\r\n" +
+				"--" + boundary + "--\r\n";
+		MockHttpServletRequest request = new MockHttpServletRequest("POST", "/upload");
+		request.setContentType("multipart/form-data; boundary=" + boundary);
+		request.setContent(body.getBytes());
+		CommonsMultipartResolver multipartResolver = new CommonsMultipartResolver();
+		multipartResolver.setStreaming(true);
+		webRequest = new ServletWebRequest(multipartResolver.resolveMultipart(request));
+
+		Method method = getClass().getMethod("handleStreaming", InputStream.class, MultipartPart.class);
+		MethodParameter streamParam = new MethodParameter(method, 0);
+		MethodParameter partParam = new MethodParameter(method, 1);
+		assertTrue(resolver.supportsParameter(partParam));
+
+		Object stream = resolver.resolveArgument(streamParam, null, webRequest, null);
+		assertEquals("Hello World", new String(StreamUtils.copyToByteArray((InputStream) stream)));
+		MultipartPart part = (MultipartPart) resolver.resolveArgument(partParam, null, webRequest, null);
+		assertEquals("b.txt", part.getOriginalFilename());
+		assertEquals("Hello Part", new String(StreamUtils.copyToByteArray(part.getInputStream())));
+	}
+
 	private void testResolveArgument(SimpleBean argValue, MethodParameter parameter) throws IOException, Exception {
 		MediaType contentType = MediaType.TEXT_PLAIN;
 
@@ -280,4 +324,8 @@ public class RequestPartMethodArgumentResolverTests {
 					   @RequestParam MultipartFile requestParamAnnot) {
 	}
 
+	public void handleStreaming(@RequestPart("inputStream") InputStream inputStream,
+			@RequestPart("part") MultipartPart part) {
+	}
+
 }
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2013 the original author or authors.
+ * Copyright 2002-2014 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -218,6 +218,38 @@ public class RequestResponseBodyMethodProcessorMockTests {
 		verify(messageConverter).write(eq(body), eq(accepted), isA(HttpOutputMessage.class));
 	}
 
+	@Test
+	public void handleReturnValueWithCachedNegotiation() throws Exception {
+		MediaType accepted = MediaType.TEXT_PLAIN;
+		String body = "Foo";
+		given(messageConverter.canWrite(String.class, null)).willReturn(true);
+		given(messageConverter.canWrite(String.class, accepted)).willReturn(true);
+
+		for (int i = 0; i < 3; i++) {
+			MockHttpServletRequest request = new MockHttpServletRequest();
+			request.addHeader("Accept", accepted.toString());
+			NativeWebRequest nativeRequest = new ServletWebRequest(request, new MockHttpServletResponse());
+			processor.handleReturnValue(body, returnTypeString, new ModelAndViewContainer(), nativeRequest);
+		}
+
+		verify(messageConverter, times(3)).write(eq(body), eq(accepted), isA(HttpOutputMessage.class));
+		verify(messageConverter, times(1)).canWrite(String.class, null);
+		verify(messageConverter, times(1)).canWrite(String.class, accepted);
+	}
+
+	@Test
+	public void getProducibleMediaTypesReturnsCopy() throws Exception {
+		given(messageConverter.canWrite(String.class, null)).willReturn(true);
+
+		List<MediaType> mediaTypes = processor.getProducibleMediaTypes(servletRequest, String.class);
+		assertEquals(Collections.singletonList(MediaType.TEXT_PLAIN), mediaTypes);
+		mediaTypes.add(MediaType.APPLICATION_JSON);
+
+		assertEquals(Collections.singletonList(MediaType.TEXT_PLAIN),
+				processor.getProducibleMediaTypes(servletRequest, String.class));
+		verify(messageConverter, times(1)).canWrite(String.class, null);
+	}
+
 	@Test
 	public void handleReturnValueProduces() throws Exception {
 		String body = "Foo";
@@ -0,0 +1,191 @@
+/*
+ * Copyright 2002-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.web.servlet.mvc.method.annotation;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import org.springframework.core.MethodParameter;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.StringHttpMessageConverter;
+import org.springframework.mock.web.test.MockHttpServletRequest;
+import org.springframework.mock.web.test.MockHttpServletResponse;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.context.request.async.StandardServletAsyncWebRequest;
+import org.springframework.web.context.request.async.WebAsyncManager;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+import org.springframework.web.method.support.ModelAndViewContainer;
+
+import static org.junit.Assert.*;
+import static org.springframework.web.servlet.mvc.method.annotation.SseEmitter.*;
+
+/**
+ * Unit tests for {@link ResponseBodyEmitterReturnValueHandler}.
+ *
+ * @author agent
+ */
+public class ResponseBodyEmitterReturnValueHandlerTests {
+
+	private ResponseBodyEmitterReturnValueHandler handler;
+
+	private ModelAndViewContainer mavContainer;
+
+	private MockHttpServletRequest request;
+
+	private MockHttpServletResponse response;
+
+	private NativeWebRequest webRequest;
+
+	private StandardServletAsyncWebRequest asyncWebRequest;
+
+
+	@Before
+	public void setUp() throws Exception {
+		List<HttpMessageConverter<?>> converters = new ArrayList<HttpMessageConverter<?>>();
+		converters.add(new StringHttpMessageConverter());
+		this.handler = new ResponseBodyEmitterReturnValueHandler(converters);
+		this.mavContainer = new ModelAndViewContainer();
+
+		this.request = new MockHttpServletRequest();
+		this.request.setAsyncSupported(true);
+		this.response = new MockHttpServletResponse();
+		this.webRequest = new ServletWebRequest(this.request, this.response);
+
+		this.asyncWebRequest = new StandardServletAsyncWebRequest(this.request, this.response);
+		WebAsyncUtils.getAsyncManager(this.webRequest).setAsyncWebRequest(this.asyncWebRequest);
+	}
+
+
+	@Test
+	public void supportsReturnType() throws Exception {
+		assertTrue(this.handler.supportsReturnType(returnType("handleResponseBodyEmitter")));
+		assertTrue(this.handler.supportsReturnType(returnType("handleSseEmitter")));
+		assertFalse(this.handler.supportsReturnType(returnType("handleString")));
+	}
+
+	@Test
+	public void responseBodyEmitter() throws Exception {
+		ResponseBodyEmitter emitter = new ResponseBodyEmitter();
+		this.handler.handleReturnValue(emitter, returnType("handleResponseBodyEmitter"), this.mavContainer, this.webRequest);
+
+		assertTrue(this.mavContainer.isRequestHandled());
+		assertTrue(this.request.isAsyncStarted());
+		assertTrue(this.response.isCommitted());
+
+		emitter.send("foo");
+		emitter.send("bar");
+		assertEquals("foobar", this.response.getContentAsString());
+
+		WebAsyncManager asyncManager = WebAsyncUtils.getAsyncManager(this.webRequest);
+		assertFalse(asyncManager.hasConcurrentResult());
+		emitter.complete();
+		assertTrue(asyncManager.hasConcurrentResult());
+		assertNull(asyncManager.getConcurrentResult());
+	}
+
+	@Test
+	public void responseBodyEmitterWithEarlySend() throws Exception {
+		ResponseBodyEmitter emitter = new ResponseBodyEmitter();
+		emitter.send("foo");
+		emitter.complete();
+		this.handler.handleReturnValue(emitter, returnType("handleResponseBodyEmitter"), this.mavContainer, this.webRequest);
+
+		assertEquals("foo", this.response.getContentAsString());
+		assertTrue(WebAsyncUtils.getAsyncManager(this.webRequest).hasConcurrentResult());
+	}
+
+	@Test
+	public void responseBodyEmitterTimeout() throws Exception {
+		final AtomicBoolean timedOut = new AtomicBoolean();
+		ResponseBodyEmitter emitter = new ResponseBodyEmitter(100L);
+		emitter.onTimeout(new Runnable() {
+			public void run() {
+				timedOut.set(true);
+			}
+		});
+		this.handler.handleReturnValue(emitter, returnType("handleResponseBodyEmitter"), this.mavContainer, this.webRequest);
+		assertEquals(100L, this.request.getAsyncContext().getTimeout());
+
+		this.asyncWebRequest.onTimeout(null);
+		assertTrue(timedOut.get());
+		try {
+			emitter.send("foo");
+			fail("Should have thrown IllegalStateException");
+		}
+		catch (IllegalStateException ex) {
+			// expected
+		}
+	}
+
+	@Test
+	public void sseEmitter() throws Exception {
+		SseEmitter emitter = new SseEmitter();
+		this.handler.handleReturnValue(emitter, returnType("handleSseEmitter"), this.mavContainer, this.webRequest);
+
+		assertEquals("text/event-stream;charset=UTF-8", this.response.getContentType());
+
+		emitter.send(event().id("1").name("update").data("foo"));
+		emitter.send("bar");
+		assertEquals("id:1\nevent:update\ndata:foo\n\ndata:bar\n\n", this.response.getContentAsString());
+	}
+
+	@Test
+	public void sseEmitterHeartbeat() throws Exception {
+		ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+		scheduler.afterPropertiesSet();
+		try {
+			SseEmitter emitter = new SseEmitter();
+			this.handler.handleReturnValue(emitter, returnType("handleSseEmitter"), this.mavContainer, this.webRequest);
+			emitter.enableHeartbeat(scheduler, 10);
+			for (int i = 0; i < 100 && !this.response.getContentAsString().contains(":heartbeat\n\n"); i++) {
+				Thread.sleep(10);
+			}
+			assertTrue(this.response.getContentAsString().startsWith(":heartbeat\n\n"));
+			emitter.complete();
+		}
+		finally {
+			scheduler.destroy();
+		}
+	}
+
+
+	private MethodParameter returnType(String methodName) throws NoSuchMethodException {
+		return new MethodParameter(getClass().getDeclaredMethod(methodName), -1);
+	}
+
+	@SuppressWarnings("unused")
+	private ResponseBodyEmitter handleResponseBodyEmitter() {
+		return null;
+	}
+
+	@SuppressWarnings("unused")
+	private SseEmitter handleSseEmitter() {
+		return null;
+	}
+
+	@SuppressWarnings("unused")
+	private String handleString() {
+		return null;
+	}
+
+}
@@ -16,7 +16,9 @@
 
 package org.springframework.web.servlet.view;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Properties;
@@ -40,6 +42,7 @@ import org.springframework.beans.factory.BeanDefinitionStoreException;
 import org.springframework.context.ApplicationContextException;
 import org.springframework.core.io.ClassPathResource;
 import org.springframework.core.io.Resource;
+import org.springframework.core.task.TaskExecutor;
 import org.springframework.mock.web.test.MockHttpServletRequest;
 import org.springframework.mock.web.test.MockHttpServletResponse;
 import org.springframework.mock.web.test.MockRequestDispatcher;
@@ -535,6 +538,129 @@ public class ViewResolverTests {
 		assertEquals(3, count.intValue());
 	}
 
+	@Test
+	public void testCacheSeconds() throws Exception {
+		final AtomicInteger count = new AtomicInteger();
+		AbstractCachingViewResolver viewResolver = new AbstractCachingViewResolver() {
+			@Override
+			protected View loadView(String viewName, Locale locale) throws Exception {
+				count.incrementAndGet();
+				return new InternalResourceView("/" + viewName + ".jsp");
+			}
+			@Override
+			protected boolean isViewModified(String viewName, Locale locale, View view, long timestamp) {
+				return viewName.startsWith("modified");
+			}
+		};
+		viewResolver.setCacheSeconds(0);
+
+		View view = viewResolver.resolveViewName("view", Locale.getDefault());
+		assertSame(view, viewResolver.resolveViewName("view", Locale.getDefault()));
+		assertEquals(1, count.intValue());
+
+		View modifiedView = viewResolver.resolveViewName("modifiedView", Locale.getDefault());
+		assertNotSame(modifiedView, viewResolver.resolveViewName("modifiedView", Locale.getDefault()));
+		assertEquals(3, count.intValue());
+
+		assertEquals(4, viewResolver.getCacheMissCount());
+		assertEquals(0, viewResolver.getCacheHitCount());
+		assertEquals(3, viewResolver.getViewCreationCount());
+		assertEquals(2, viewResolver.getCacheSize());
+	}
+
+	@Test
+	public void testUnresolvedCacheSeconds() throws Exception {
+		final AtomicInteger count = new AtomicInteger();
+		AbstractCachingViewResolver viewResolver = new AbstractCachingViewResolver() {
+			@Override
+			protected View loadView(String viewName, Locale locale) throws Exception {
+				count.incrementAndGet();
+				return null;
+			}
+		};
+
+		viewResolver.resolveViewName("view", Locale.getDefault());
+		viewResolver.resolveViewName("view", Locale.getDefault());
+		assertEquals(1, count.intValue());
+		assertEquals(1, viewResolver.getCacheHitCount());
+
+		viewResolver.clearCache();
+		viewResolver.setUnresolvedCacheSeconds(0);
+
+		viewResolver.resolveViewName("view", Locale.getDefault());
+		viewResolver.resolveViewName("view", Locale.getDefault());
+		assertEquals(3, count.intValue());
+	}
+
+	@Test
+	public void testRefreshExecutor() throws Exception {
+		final AtomicInteger count = new AtomicInteger();
+		AbstractCachingViewResolver viewResolver = new AbstractCachingViewResolver() {
+			@Override
+			protected View loadView(String viewName, Locale locale) throws Exception {
+				count.incrementAndGet();
+				return new InternalResourceView("/" + viewName + ".jsp");
+			}
+		};
+		final List<Runnable> tasks = new ArrayList<Runnable>();
+		viewResolver.setRefreshExecutor(new TaskExecutor() {
+			public void execute(Runnable task) {
+				tasks.add(task);
+			}
+		});
+		viewResolver.setCacheSeconds(0);
+
+		View view = viewResolver.resolveViewName("view", Locale.getDefault());
+		assertSame(view, viewResolver.resolveViewName("view", Locale.getDefault()));
+		assertSame(view, viewResolver.resolveViewName("view", Locale.getDefault()));
+		assertEquals(1, tasks.size());
+
+		tasks.get(0).run();
+		assertEquals(2, count.intValue());
+		assertNotSame(view, viewResolver.resolveViewName("view", Locale.getDefault()));
+	}
+
+	@Test
+	public void testCacheLimit() throws Exception {
+		AbstractCachingViewResolver viewResolver = new AbstractCachingViewResolver() {
+			@Override
+			protected View loadView(String viewName, Locale locale) throws Exception {
+				return new InternalResourceView("/" + viewName + ".jsp");
+			}
+		};
+		viewResolver.setCacheLimit(2);
+
+		View view1 = viewResolver.resolveViewName("view1", Locale.getDefault());
+		viewResolver.resolveViewName("view2", Locale.getDefault());
+		viewResolver.resolveViewName("view3", Locale.getDefault());
+		assertEquals(2, viewResolver.getCacheSize());
+		assertNotSame(view1, viewResolver.resolveViewName("view1", Locale.getDefault()));
+	}
+
+	@Test
+	public void testCacheLimitEvictsLeastRecentlyUsed() throws Exception {
+		AbstractCachingViewResolver viewResolver = new AbstractCachingViewResolver() {
+			@Override
+			protected View loadView(String viewName, Locale locale) throws Exception {
+				return (viewName.startsWith("unresolved") ? null : new InternalResourceView("/" + viewName + ".jsp"));
+			}
+		};
+		viewResolver.setCacheLimit(2);
+		viewResolver.setCacheUnresolved(false);
+
+		View view1 = viewResolver.resolveViewName("view1", Locale.getDefault());
+		View view2 = viewResolver.resolveViewName("view2", Locale.getDefault());
+		assertSame(view1, viewResolver.resolveViewName("view1", Locale.getDefault()));
+		assertNull(viewResolver.resolveViewName("unresolved", Locale.getDefault()));
+		viewResolver.resolveViewName("view3", Locale.getDefault());
+		assertEquals(2, viewResolver.getCacheSize());
+		assertSame(view1, viewResolver.resolveViewName("view1", Locale.getDefault()));
+		assertNotSame(view2, viewResolver.resolveViewName("view2", Locale.getDefault()));
+
+		viewResolver.removeFromCache("view1", Locale.getDefault());
+		assertEquals(1, viewResolver.getCacheSize());
+	}
+
 
 	public static class TestView extends InternalResourceView {
 